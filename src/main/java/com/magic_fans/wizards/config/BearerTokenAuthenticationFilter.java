@@ -0,0 +1,63 @@
+package com.magic_fans.wizards.config;
+
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.service.AuthTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates requests carrying "Authorization: Bearer &lt;access token&gt;".
+ *
+ * The principal is a detached {@link User} built from the token claims (id,
+ * username, role), so no user lookup happens per request. Only added to the
+ * token filter chain in {@link SecurityConfig}, not registered as a servlet filter.
+ */
+public class BearerTokenAuthenticationFilter extends OncePerRequestFilter {
+
+    static final String PREFIX = "Bearer ";
+
+    private final AuthTokenService authTokenService;
+
+    public BearerTokenAuthenticationFilter(AuthTokenService authTokenService) {
+        this.authTokenService = authTokenService;
+    }
+
+    static boolean hasBearerToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        return header != null && header.regionMatches(true, 0, PREFIX, 0, PREFIX.length());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (hasBearerToken(request)) {
+            String token = request.getHeader(HttpHeaders.AUTHORIZATION).substring(PREFIX.length()).trim();
+            AuthTokenService.TokenClaims claims = authTokenService.verify(token, AuthTokenService.ACCESS);
+
+            // Invalid or expired tokens leave the request unauthenticated; the entry point answers 401
+            if (claims != null) {
+                User principal = new User();
+                principal.setId(claims.getUserId());
+                principal.setUsername(claims.getUsername());
+                principal.setRole(claims.getRole());
+                principal.setActive(true);
+
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                    principal, null, principal.getAuthorities()));
+                SecurityContextHolder.setContext(context);
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,186 @@
+package com.magic_fans.wizards.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BCrypt encoder that runs hashing on a small dedicated pool.
+ *
+ * BCrypt is deliberately CPU-heavy; run on request threads, a login storm can
+ * take every core and starve feed requests. Here at most {@code threads}
+ * hashes run at once, a bounded queue absorbs short bursts, and anything
+ * beyond that is refused immediately (the login fails with a "try again"
+ * error) instead of piling up. Hash latency, queue depth and rejections are
+ * tracked and logged once a minute when there was activity.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMillis;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final LongAdder rejected = new LongAdder();
+    private long lastLoggedHashes;
+    private long lastLoggedRejected;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, Duration maxWait) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.maxWaitMillis = maxWait.toMillis();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * True for hashes made with a lower cost than configured; DaoAuthenticationProvider
+     * then re-encodes the password after a successful login.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public Metrics getMetrics() {
+        long count = hashes.sum();
+        return new Metrics(count, count > 0 ? hashNanos.sum() / count / 1_000_000.0 : 0,
+            maxHashNanos.get() / 1_000_000.0, rejected.sum(), executor.getQueue().size(), executor.getActiveCount());
+    }
+
+    @Scheduled(fixedDelayString = "${magic-fans.auth.hashing.metrics-interval:PT1M}")
+    public void logMetrics() {
+        Metrics metrics = getMetrics();
+        if (metrics.getHashes() == lastLoggedHashes && metrics.getRejected() == lastLoggedRejected) {
+            return;
+        }
+        lastLoggedHashes = metrics.getHashes();
+        lastLoggedRejected = metrics.getRejected();
+        logger.info("Password hashing: {} hashes, avg {} ms, max {} ms, {} rejected, queue {}, active {}",
+            metrics.getHashes(), String.format("%.1f", metrics.getAverageMillis()),
+            String.format("%.1f", metrics.getMaxMillis()), metrics.getRejected(),
+            metrics.getQueueDepth(), metrics.getActive());
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    long elapsed = System.nanoTime() - started;
+                    hashes.increment();
+                    hashNanos.add(elapsed);
+                    maxHashNanos.accumulateAndGet(elapsed, Math::max);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new AuthenticationServiceException("Too many sign-in attempts right now, please try again");
+        }
+
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new AuthenticationServiceException("Sign-in is taking too long, please try again");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Interrupted while checking the password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Snapshot of hashing statistics since startup.
+     */
+    public static class Metrics {
+        private final long hashes;
+        private final double averageMillis;
+        private final double maxMillis;
+        private final long rejected;
+        private final int queueDepth;
+        private final int active;
+
+        Metrics(long hashes, double averageMillis, double maxMillis, long rejected, int queueDepth, int active) {
+            this.hashes = hashes;
+            this.averageMillis = averageMillis;
+            this.maxMillis = maxMillis;
+            this.rejected = rejected;
+            this.queueDepth = queueDepth;
+            this.active = active;
+        }
+
+        public long getHashes() {
+            return hashes;
+        }
+
+        public double getAverageMillis() {
+            return averageMillis;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public int getActive() {
+            return active;
+        }
+    }
+}
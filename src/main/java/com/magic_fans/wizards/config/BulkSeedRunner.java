@@ -0,0 +1,108 @@
+package com.magic_fans.wizards.config;
+
+import com.magic_fans.wizards.service.BulkDataSeeder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the database with a synthetic dataset on startup.
+ *
+ * Enabled by the "seed" profile, sizes come from magic-fans.seed.*:
+ *   java -jar wizards.jar --spring.profiles.active=seed --magic-fans.seed.users=1000000
+ * With exit-when-done the application stops after seeding, which makes sense
+ * against a persistent datasource; otherwise it keeps serving the seeded data.
+ */
+@Component
+@ConditionalOnProperty(name = "magic-fans.seed.enabled", havingValue = "true")
+public class BulkSeedRunner implements ApplicationRunner {
+
+    @Autowired
+    private BulkDataSeeder bulkDataSeeder;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @Value("${magic-fans.seed.users:1000}")
+    private int users;
+
+    @Value("${magic-fans.seed.wizard-every:5}")
+    private int wizardEvery;
+
+    @Value("${magic-fans.seed.skills-per-wizard:4}")
+    private int skillsPerWizard;
+
+    @Value("${magic-fans.seed.services-per-wizard:2}")
+    private int servicesPerWizard;
+
+    @Value("${magic-fans.seed.posts-per-wizard:3}")
+    private int postsPerWizard;
+
+    @Value("${magic-fans.seed.likes-per-post:5}")
+    private int likesPerPost;
+
+    @Value("${magic-fans.seed.favorites-per-user:3}")
+    private int favoritesPerUser;
+
+    @Value("${magic-fans.seed.subscriptions-per-user:3}")
+    private int subscriptionsPerUser;
+
+    @Value("${magic-fans.seed.views-per-user:5}")
+    private int viewsPerUser;
+
+    @Value("${magic-fans.seed.popularity-skew:2.0}")
+    private double popularitySkew;
+
+    @Value("${magic-fans.seed.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${magic-fans.seed.chunk-size:2000}")
+    private int chunkSize;
+
+    @Value("${magic-fans.seed.threads:4}")
+    private int threads;
+
+    @Value("${magic-fans.seed.random-seed:42}")
+    private long seed;
+
+    @Value("${magic-fans.seed.username-prefix:seed}")
+    private String usernamePrefix;
+
+    @Value("${magic-fans.seed.password:password}")
+    private String password;
+
+    @Value("${magic-fans.seed.exit-when-done:false}")
+    private boolean exitWhenDone;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        BulkDataSeeder.Plan plan = new BulkDataSeeder.Plan();
+        plan.setUsers(users);
+        plan.setWizardEvery(wizardEvery);
+        plan.setSkillsPerWizard(skillsPerWizard);
+        plan.setServicesPerWizard(servicesPerWizard);
+        plan.setPostsPerWizard(postsPerWizard);
+        plan.setLikesPerPost(likesPerPost);
+        plan.setFavoritesPerUser(favoritesPerUser);
+        plan.setSubscriptionsPerUser(subscriptionsPerUser);
+        plan.setViewsPerUser(viewsPerUser);
+        plan.setPopularitySkew(popularitySkew);
+        plan.setBatchSize(batchSize);
+        plan.setChunkSize(chunkSize);
+        plan.setThreads(threads);
+        plan.setSeed(seed);
+        plan.setUsernamePrefix(usernamePrefix);
+        plan.setPassword(password);
+
+        bulkDataSeeder.seed(plan);
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+}
@@ -5,9 +5,11 @@ import com.magic_fans.wizards.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 @Component
+@ConditionalOnProperty(name = "magic-fans.data-loader.enabled", havingValue = "true")
 public class DataInitializer implements ApplicationRunner {
 
     @Autowired
@@ -3,6 +3,7 @@ package com.magic_fans.wizards.config;
 import com.magic_fans.wizards.model.User;
 import com.magic_fans.wizards.model.WizardProfile;
 import com.magic_fans.wizards.service.UserService;
+import com.magic_fans.wizards.service.WizardSkillsService;
 import com.magic_fans.wizards.repository.WizardProfileRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
@@ -10,11 +11,12 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 @Component
-@ConditionalOnProperty(name = "magic-fans.data-loader.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnProperty(name = "magic-fans.data-loader.enabled", havingValue = "true")
 public class DataLoader implements CommandLineRunner {
 
     @Autowired
@@ -26,6 +28,9 @@ public class DataLoader implements CommandLineRunner {
     @Autowired
     private WizardProfileRepository wizardProfileRepository;
 
+    @Autowired
+    private WizardSkillsService wizardSkillsService;
+
     @Override
     public void run(String... args) throws Exception {
         // Load fake wizard users if they don't exist
@@ -49,6 +54,9 @@ public class DataLoader implements CommandLineRunner {
             {"radagast", "radagast@wizards.com", "Radagast", "The Brown", "Transmutation"}
         };
 
+        // All wizard accounts have password "wizard123"; one hash is enough for all of them
+        String encodedPassword = passwordEncoder.encode("wizard123");
+
         for (String[] wizardData : wizards) {
             try {
                 User wizard = new User();
@@ -60,8 +68,6 @@ public class DataLoader implements CommandLineRunner {
                 wizard.setRole("wizard");
                 wizard.setActive(true);
 
-                // Encode password: all wizard accounts have password "wizard123"
-                String encodedPassword = passwordEncoder.encode("wizard123");
                 wizard.setPassword(encodedPassword);
 
                 // Create wizard profile
@@ -71,11 +77,15 @@ public class DataLoader implements CommandLineRunner {
                 int yearsOfExp = 5 + (int)(Math.random() * 25);
                 wizardProfile.setYearsOfExperience(yearsOfExp);
 
-                // Add some random skills
-                Set<String> skills = new HashSet<>();
+                wizard.setWizardProfile(wizardProfile);
+
+                // Save wizard and profile
+                userService.saveUser(wizard);
+
+                // Add some random skills from the profile form's checkboxes
+                List<String> skills = new ArrayList<>();
                 String[] availableSkills = {
-                    "Spell Casting", "Potion Making", "Divination",
-                    "Transmutation", "Defense Magic", "Conjuration"
+                    "Судьба", "Отношения", "Деньги", "Здоровье", "Карьера", "Защита"
                 };
 
                 int skillCount = 2 + (int)(Math.random() * 3); // 2-4 skills per wizard
@@ -83,12 +93,7 @@ public class DataLoader implements CommandLineRunner {
                     int randomIdx = (int)(Math.random() * availableSkills.length);
                     skills.add(availableSkills[randomIdx]);
                 }
-                wizardProfile.setSkills(skills);
-
-                wizard.setWizardProfile(wizardProfile);
-
-                // Save wizard and profile
-                userService.saveUser(wizard);
+                wizardSkillsService.saveSkillsForWizard(wizardProfile.getId(), Map.of("section2", skills));
 
                 System.out.println("✓ Loaded fake wizard: " + wizardData[0]);
             } catch (Exception e) {
@@ -0,0 +1,68 @@
+package com.magic_fans.wizards.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executors for fanning out independent page lookups and live update sends.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Runs the independent queries of the /users/{id} page concurrently.
+     *
+     * Bounded, and a full queue makes the request thread run the task itself,
+     * so overload degrades to sequential loading instead of rejecting pages.
+     * With virtual threads active each lookup simply gets its own virtual thread.
+     */
+    @Bean
+    public AsyncTaskExecutor profilePageExecutor(ThreadingModeReporter threadingMode,
+                                                 @Value("${magic-fans.profile-page.threads:8}") int threads) {
+        if (threadingMode.isVirtualThreadsActive()) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("profile-page-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("profile-page-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 32);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Writes live update events to SSE streams (see LiveUpdateService).
+     *
+     * Bounded, and a full queue rejects the task: the events stay in the
+     * stream's outbox for the next flush instead of blocking the scheduler.
+     */
+    @Bean
+    public AsyncTaskExecutor liveSendExecutor(ThreadingModeReporter threadingMode,
+                                              @Value("${magic-fans.live.send-threads:4}") int threads) {
+        if (threadingMode.isVirtualThreadsActive()) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("live-send-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("live-send-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 256);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,150 @@
+package com.magic_fans.wizards.config;
+
+import com.magic_fans.wizards.service.FeedPageCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.LocaleResolver;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves GET /api/profiles/** to anonymous visitors from the shared {@link FeedPageCache}.
+ *
+ * Registered as a plain servlet filter, so it runs after the Spring Security
+ * chain and sees whether the request is authenticated. Authenticated requests
+ * are never cached: their pages are rendered per user.
+ */
+@Component
+public class FeedPageCacheFilter extends OncePerRequestFilter {
+
+    static final String CACHE_HEADER = "X-Feed-Cache";
+
+    // Заголовки, без которых страница неполная (курсор следующей страницы); кэшируются вместе с телом
+    static final List<String> PAGE_HEADERS = List.of("X-Next-Cursor");
+
+    @Autowired
+    private FeedPageCache feedPageCache;
+
+    @Autowired
+    private LocaleResolver localeResolver;
+
+    @Value("${magic-fans.feed-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !enabled
+            || !"GET".equals(request.getMethod())
+            || !(path.equals("/api/profiles") || path.startsWith("/api/profiles/"))
+            // CORS headers and the locale cookie written for ?lang= are per request
+            || request.getHeader(HttpHeaders.ORIGIN) != null
+            || request.getParameter("lang") != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!isAnonymous()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        AtomicBoolean rendered = new AtomicBoolean();
+        FeedPageCache.Page page;
+        try {
+            page = feedPageCache.getOrLoad(cacheKey(request), () -> {
+                rendered.set(true);
+                wrapper.setHeader(CACHE_HEADER, "MISS");
+                filterChain.doFilter(request, wrapper);
+                return isCacheable(wrapper)
+                    ? feedPageCache.page(wrapper.getContentAsByteArray(), wrapper.getContentType(), pageHeaders(wrapper))
+                    : null;
+            });
+        } catch (IOException | ServletException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        } finally {
+            if (rendered.get()) {
+                wrapper.copyBodyToResponse();
+            }
+        }
+
+        if (rendered.get()) {
+            return;
+        }
+        if (page == null) {
+            // The concurrent render was not cacheable, render our own copy
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setHeader(CACHE_HEADER, "HIT");
+        page.getHeaders().forEach(response::setHeader);
+        response.setContentType(page.getContentType());
+        response.setContentLength(page.getBody().length);
+        response.getOutputStream().write(page.getBody());
+    }
+
+    /**
+     * Path, filters and page cursor (sorted so parameter order does not matter) plus locale.
+     */
+    String cacheKey(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : parameters.entrySet()) {
+            for (String value : parameter.getValue()) {
+                key.append(separator).append(parameter.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return key.append('#').append(localeResolver.resolveLocale(request).toLanguageTag()).toString();
+    }
+
+    private static Map<String, String> pageHeaders(HttpServletResponse response) {
+        Map<String, String> headers = new HashMap<>();
+        for (String name : PAGE_HEADERS) {
+            String value = response.getHeader(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * Only the body, content type and {@link #PAGE_HEADERS} are kept; headers
+     * such as the session cookie stay on the response they were written to.
+     */
+    private boolean isCacheable(ContentCachingResponseWrapper response) {
+        String contentType = response.getContentType();
+        return response.getStatus() == HttpServletResponse.SC_OK
+            && contentType != null
+            && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+    }
+
+    private boolean isAnonymous() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth == null || auth instanceof AnonymousAuthenticationToken || !auth.isAuthenticated();
+    }
+}
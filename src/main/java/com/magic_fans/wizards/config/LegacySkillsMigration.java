@@ -0,0 +1,123 @@
+package com.magic_fans.wizards.config;
+
+import com.magic_fans.wizards.service.ProfileDataVersion;
+import com.magic_fans.wizards.service.SkillCatalog;
+import com.magic_fans.wizards.service.SkillFacetIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves skills from the old wizard_skills table (an eager element collection
+ * on WizardProfile, plain names without a section) into wizard_profile_skills
+ * and drops it.
+ *
+ * Only does anything against a database that still has the old table, e.g. a
+ * file database kept with ddl-auto=update. A name that already exists in the
+ * catalog keeps that entry; unknown names go to the "legacy" section, so no
+ * data is lost even though the filter form does not offer them.
+ */
+@Component
+public class LegacySkillsMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacySkillsMigration.class);
+
+    static final String LEGACY_TABLE = "wizard_skills";
+    static final String LEGACY_SECTION = "legacy";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SkillCatalog skillCatalog;
+
+    @Autowired
+    private SkillFacetIndex skillFacetIndex;
+
+    @Autowired
+    private ProfileDataVersion profileDataVersion;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrate();
+    }
+
+    /**
+     * @return the number of skill rows moved, or -1 if there was no old table
+     */
+    public int migrate() {
+        if (!legacyTableExists()) {
+            return -1;
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.query("SELECT wizard_profile_id, skill FROM " + LEGACY_TABLE, rs -> {
+            String name = rs.getString(2);
+            if (name != null && !name.trim().isEmpty()) {
+                rows.add(new Object[]{rs.getInt(1), skillId(name.trim()), now, name.trim()});
+            }
+        });
+
+        Integer moved = new TransactionTemplate(transactionManager).execute(status -> {
+            int inserted = 0;
+            for (Object[] row : rows) {
+                // A name the wizard already has in the new table, in any section, is not added again
+                inserted += jdbcTemplate.update(
+                    "INSERT INTO wizard_profile_skills (wizard_profile_id, skill_id, created_at) " +
+                    "SELECT ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM wizard_profile_skills ws " +
+                    "JOIN skill_catalog s ON s.id = ws.skill_id WHERE ws.wizard_profile_id = ? AND s.name = ?)",
+                    row[0], row[1], row[2], row[0], row[3]);
+            }
+            jdbcTemplate.execute("DROP TABLE " + LEGACY_TABLE);
+            return inserted;
+        });
+
+        skillFacetIndex.invalidate();
+        profileDataVersion.changed();
+        logger.info("Moved {} of {} skills from {} to wizard_profile_skills and dropped it",
+            moved, rows.size(), LEGACY_TABLE);
+        return moved;
+    }
+
+    private int skillId(String name) {
+        Set<Integer> known = skillCatalog.idsByName(List.of(name));
+        if (!known.isEmpty()) {
+            return known.iterator().next();
+        }
+        return skillCatalog.getOrCreateId(LEGACY_SECTION, null, name);
+    }
+
+    private boolean legacyTableExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            // Unquoted names are stored upper case by some databases, lower case by others
+            for (String name : List.of(LEGACY_TABLE.toUpperCase(), LEGACY_TABLE)) {
+                try (ResultSet tables = metaData.getTables(null, null, name, new String[]{"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
@@ -0,0 +1,40 @@
+package com.magic_fans.wizards.config;
+
+import com.magic_fans.wizards.service.LoginThrottleService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Refuses form logins for throttled accounts or addresses before the password
+ * is hashed. Added to the form-login chain in {@link SecurityConfig}, in front
+ * of the username/password filter.
+ */
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private final LoginThrottleService loginThrottleService;
+
+    public LoginThrottleFilter(LoginThrottleService loginThrottleService) {
+        this.loginThrottleService = loginThrottleService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+            || !(request.getContextPath() + "/login").equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (loginThrottleService.isBlocked(request.getParameter("username"), request.getRemoteAddr())) {
+            response.sendRedirect(request.getContextPath() + "/login?error=true&throttled=true");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
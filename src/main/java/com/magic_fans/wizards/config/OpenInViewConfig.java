@@ -0,0 +1,36 @@
+package com.magic_fans.wizards.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Open-in-view for every page except those that fan lookups out to other threads.
+ *
+ * Replaces Spring Boot's interceptor (spring.jpa.open-in-view is off). An
+ * open-in-view request pins its pooled connection from the first query until
+ * the view is rendered; a page waiting on lookups that each need a connection
+ * of their own could then exhaust the pool. Those pages load everything
+ * through transactional service methods instead.
+ */
+@Configuration
+public class OpenInViewConfig implements WebMvcConfigurer {
+
+    // Pages that wait on profilePageExecutor (UserController#getUserProfile)
+    static final String[] EXCLUDED_PATHS = {"/users/{id:\\d+}"};
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public OpenInViewConfig(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(interceptor).excludePathPatterns(EXCLUDED_PATHS);
+    }
+}
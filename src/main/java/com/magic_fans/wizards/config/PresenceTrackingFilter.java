@@ -0,0 +1,39 @@
+package com.magic_fans.wizards.config;
+
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.service.PresenceService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Records last activity of the authenticated user for online presence.
+ *
+ * Registered as a plain servlet filter, so it runs after the Spring Security
+ * chain has populated the security context.
+ */
+@Component
+public class PresenceTrackingFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && auth.getPrincipal() instanceof User user) {
+            presenceService.recordActivity(user.getId());
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
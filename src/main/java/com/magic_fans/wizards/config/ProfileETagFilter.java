@@ -0,0 +1,78 @@
+package com.magic_fans.wizards.config;
+
+import com.magic_fans.wizards.service.PresenceService;
+import com.magic_fans.wizards.service.ProfileDataVersion;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Conditional GET for /api/profiles/**.
+ *
+ * The ETag is derived from the profile data version and the presence version
+ * instead of hashing the body, so a matching If-None-Match is answered with
+ * 304 before any query runs. Both versions are counters of this process and
+ * start over on restart (and differ between nodes), so the tag starts with a
+ * random epoch chosen at startup; a tag from another process never matches. Responses of these endpoints do not depend on who
+ * asks, and the parameters that shape them are part of the URL the tag belongs to.
+ *
+ * Ordered before {@link FeedPageCacheFilter}, so cached pages carry the tag too.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+public class ProfileETagFilter extends OncePerRequestFilter {
+
+    // Браузер хранит страницу, но перепроверяет её при каждом запросе
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final String epoch = Long.toHexString(UUID.randomUUID().getMostSignificantBits());
+
+    @Autowired
+    private ProfileDataVersion profileDataVersion;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Value("${magic-fans.feed-etag.enabled:true}")
+    private boolean enabled = true;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !enabled
+            || !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))
+            || !(path.equals("/api/profiles") || path.startsWith("/api/profiles/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // Read before rendering: a write landing meanwhile only makes the tag older than the body
+        String etag = currentETag();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE.getHeaderValue());
+
+        // Sets the ETag header and answers 304 on its own
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    String currentETag() {
+        return "W/\"" + epoch + "." + profileDataVersion.current() + "." + presenceService.getVersion() + "\"";
+    }
+}
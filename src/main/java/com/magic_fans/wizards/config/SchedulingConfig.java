@@ -0,0 +1,17 @@
+package com.magic_fans.wizards.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (e.g. the orphaned upload sweeper) and @Async methods.
+ *
+ * Both run on the executors Spring Boot auto-configures, which switch to
+ * virtual threads when spring.threads.virtual.enabled is set (see ThreadingModeReporter).
+ */
+@Configuration
+@EnableScheduling
+@EnableAsync
+public class SchedulingConfig {
+}
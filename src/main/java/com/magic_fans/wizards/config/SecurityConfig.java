@@ -1,18 +1,29 @@
 package com.magic_fans.wizards.config;
 
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.service.AuthTokenService;
 import com.magic_fans.wizards.service.CustomUserDetailsService;
+import com.magic_fans.wizards.service.LoginThrottleService;
+import com.magic_fans.wizards.service.PresenceService;
+import com.magic_fans.wizards.service.UserDetailsCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
@@ -21,21 +32,42 @@ public class SecurityConfig {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private LoginThrottleService loginThrottleService;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
     /**
-     * Password encoder for hashing user passwords
+     * Password encoder for hashing user passwords.
+     * BCrypt runs on a bounded pool so login bursts cannot take every CPU core.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${magic-fans.auth.bcrypt.strength:10}") int strength,
+            @Value("${magic-fans.auth.hashing.threads:2}") int threads,
+            @Value("${magic-fans.auth.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${magic-fans.auth.hashing.max-wait:PT5S}") Duration maxWait) {
+        return new BoundedPasswordEncoder(strength, threads, queueCapacity, maxWait);
     }
 
     /**
-     * Authentication provider using UserDetailsService
+     * Authentication provider using UserDetailsService.
+     * Recently loaded users are cached, and hashes with an outdated cost are
+     * re-encoded after a successful login.
      */
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsPasswordService(userDetailsService);
+        provider.setUserCache(userDetailsCache);
         return provider;
     }
 
@@ -47,18 +79,79 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * Public profile API: fully stateless.
+     * Never creates or reads an HTTP session, so anonymous feed and crawler
+     * traffic does not allocate sessions or set cookies. Responses do not depend
+     * on the viewer, and the API is read-only, so CSRF, the request cache,
+     * anonymous authentication and logout are left out of this chain.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain publicApiFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher("/api/profiles/**")
+            .authorizeHttpRequests(auth -> auth
+                .anyRequest().permitAll()
+            )
+            .sessionManagement(session -> session
+                .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+            )
+            .csrf(csrf -> csrf.disable())
+            .requestCache(cache -> cache.disable())
+            .anonymous(anonymous -> anonymous.disable())
+            .logout(logout -> logout.disable());
+
+        return http.build();
+    }
+
+    /**
+     * Token API and any request carrying a bearer token: stateless alternative to form login.
+     * Access tokens are verified from their signature alone, so requests can go to any node.
+     * CSRF protection is not needed here because browsers never attach bearer tokens on their own.
+     */
+    @Bean
+    @Order(2)
+    public SecurityFilterChain tokenFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(request -> BearerTokenAuthenticationFilter.hasBearerToken(request)
+                || request.getRequestURI().startsWith(request.getContextPath() + "/api/auth/"))
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers("/api/auth/token", "/api/auth/refresh", "/api/auth/revoke").permitAll()
+                .requestMatchers("/", "/login", "/users/register").permitAll()
+                .anyRequest().authenticated()
+            )
+            .addFilterBefore(new BearerTokenAuthenticationFilter(authTokenService),
+                UsernamePasswordAuthenticationFilter.class)
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint((request, response, authException) -> {
+                    response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+                    response.sendError(HttpStatus.UNAUTHORIZED.value());
+                })
+            )
+            .sessionManagement(session -> session
+                .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+            )
+            .csrf(csrf -> csrf.disable())
+            .requestCache(cache -> cache.disable())
+            .logout(logout -> logout.disable());
+
+        return http.build();
+    }
+
     /**
      * Configure HTTP security and access rules
      */
     @Bean
+    @Order(3)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/", "/login", "/users/register").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
-                .requestMatchers("/api/profiles/**").permitAll()
                 .anyRequest().authenticated()
             )
+            .addFilterBefore(new LoginThrottleFilter(loginThrottleService), UsernamePasswordAuthenticationFilter.class)
             .formLogin(form -> form
                 .loginPage("/login")
                 .loginProcessingUrl("/login")
@@ -69,6 +162,11 @@ public class SecurityConfig {
             .logout(logout -> logout
                 .logoutUrl("/logout")
                 .logoutSuccessUrl("/login")
+                .addLogoutHandler((request, response, authentication) -> {
+                    if (authentication != null && authentication.getPrincipal() instanceof User user) {
+                        presenceService.markOffline(user.getId());
+                    }
+                })
                 .permitAll()
             )
             .sessionManagement(session -> session
@@ -0,0 +1,29 @@
+package com.magic_fans.wizards.config;
+
+import com.magic_fans.wizards.service.JdbcSessionStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Optional shared session store for running several app nodes behind a
+ * round-robin balancer (magic-fans.sessions.store=jdbc).
+ *
+ * By default sessions stay in the servlet container's memory.
+ */
+@Configuration
+@ConditionalOnProperty(name = "magic-fans.sessions.store", havingValue = "jdbc")
+public class SharedSessionConfig {
+
+    // Раньше Spring Security (-100): цепочка должна видеть уже обёрнутый запрос
+    static final int FILTER_ORDER = Integer.MIN_VALUE + 50;
+
+    @Bean
+    public FilterRegistrationBean<SharedSessionFilter> sharedSessionFilter(JdbcSessionStore sessionStore) {
+        FilterRegistrationBean<SharedSessionFilter> registration =
+            new FilterRegistrationBean<>(new SharedSessionFilter(sessionStore));
+        registration.setOrder(FILTER_ORDER);
+        return registration;
+    }
+}
@@ -0,0 +1,469 @@
+package com.magic_fans.wizards.config;
+
+import com.magic_fans.wizards.service.JdbcSessionStore;
+import com.magic_fans.wizards.service.StoredSession;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.Enumeration;
+
+/**
+ * Replaces the servlet container's in-memory sessions with {@link JdbcSessionStore}.
+ *
+ * Requests are wrapped so that getSession() returns a session backed by the
+ * shared table; the session is only loaded when something asks for it, and
+ * saved when the response is about to be committed (redirect, error, flush,
+ * or a full buffer) so the next request already sees it, and again when the
+ * request completes if it changed after that. The id travels in the SESSION cookie.
+ * Registered ahead of Spring Security by {@link SharedSessionConfig}.
+ */
+public class SharedSessionFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "SESSION";
+
+    private final JdbcSessionStore sessionStore;
+
+    public SharedSessionFilter(JdbcSessionStore sessionStore) {
+        this.sessionStore = sessionStore;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SessionRequest wrappedRequest = new SessionRequest(request, response);
+        SessionResponse wrappedResponse = new SessionResponse(response, wrappedRequest);
+        try {
+            filterChain.doFilter(wrappedRequest, wrappedResponse);
+        } finally {
+            wrappedRequest.commit();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // The async dispatch shares the session state of the original request
+        return false;
+    }
+
+    /**
+     * Request whose sessions live in the shared store.
+     */
+    private class SessionRequest extends HttpServletRequestWrapper {
+
+        private final HttpServletResponse response;
+        private final String requestedId;
+        private boolean requestedLoaded;
+        private SharedHttpSession session;
+        private String invalidatedId;
+
+        SessionRequest(HttpServletRequest request, HttpServletResponse response) {
+            super(request);
+            this.response = response;
+            this.requestedId = readCookie(request);
+        }
+
+        @Override
+        public HttpSession getSession(boolean create) {
+            if (session != null && !session.invalidated) {
+                return session;
+            }
+            if (session == null && !requestedLoaded) {
+                requestedLoaded = true;
+                StoredSession stored = requestedId != null ? sessionStore.load(requestedId) : null;
+                if (stored != null) {
+                    stored.setLastAccessedTime(System.currentTimeMillis());
+                    session = new SharedHttpSession(stored, getServletContext());
+                    return session;
+                }
+            }
+            if (!create) {
+                return null;
+            }
+            if (response.isCommitted()) {
+                throw new IllegalStateException("Cannot create a session after the response has been committed");
+            }
+            session = new SharedHttpSession(sessionStore.create(), getServletContext());
+            writeCookie(session.stored.getId());
+            return session;
+        }
+
+        @Override
+        public HttpSession getSession() {
+            return getSession(true);
+        }
+
+        @Override
+        public String changeSessionId() {
+            HttpSession current = getSession(false);
+            if (current == null) {
+                throw new IllegalStateException("No session to change the id of");
+            }
+            String newId = ((SharedHttpSession) current).stored.changeId();
+            writeCookie(newId);
+            return newId;
+        }
+
+        @Override
+        public String getRequestedSessionId() {
+            return requestedId;
+        }
+
+        @Override
+        public boolean isRequestedSessionIdValid() {
+            HttpSession current = getSession(false);
+            return current != null && current.getId().equals(requestedId);
+        }
+
+        @Override
+        public boolean isRequestedSessionIdFromCookie() {
+            return requestedId != null;
+        }
+
+        @Override
+        public boolean isRequestedSessionIdFromURL() {
+            return false;
+        }
+
+        /**
+         * Persists the session; may run more than once per request, later runs write only new changes.
+         */
+        void commit() {
+            if (invalidatedId != null) {
+                sessionStore.delete(invalidatedId);
+                invalidatedId = null;
+                if (session == null || session.invalidated) {
+                    expireCookie();
+                }
+            }
+            if (session != null && !session.invalidated) {
+                sessionStore.save(session.stored);
+            }
+        }
+
+        private String readCookie(HttpServletRequest request) {
+            Cookie[] cookies = request.getCookies();
+            if (cookies != null) {
+                for (Cookie cookie : cookies) {
+                    if (COOKIE_NAME.equals(cookie.getName()) && !cookie.getValue().isEmpty()) {
+                        return cookie.getValue();
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void writeCookie(String id) {
+            addCookie(ResponseCookie.from(COOKIE_NAME, id));
+        }
+
+        private void expireCookie() {
+            addCookie(ResponseCookie.from(COOKIE_NAME, "").maxAge(0));
+        }
+
+        private void addCookie(ResponseCookie.ResponseCookieBuilder cookie) {
+            String path = getContextPath().isEmpty() ? "/" : getContextPath() + "/";
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie
+                .path(path)
+                .httpOnly(true)
+                .secure(isSecure())
+                .sameSite("Lax")
+                .build().toString());
+        }
+
+        /**
+         * HttpSession view of a {@link StoredSession}.
+         */
+        private class SharedHttpSession implements HttpSession {
+
+            private final StoredSession stored;
+            private final ServletContext servletContext;
+            private boolean invalidated;
+
+            SharedHttpSession(StoredSession stored, ServletContext servletContext) {
+                this.stored = stored;
+                this.servletContext = servletContext;
+            }
+
+            @Override
+            public long getCreationTime() {
+                checkValid();
+                return stored.getCreationTime();
+            }
+
+            @Override
+            public String getId() {
+                return stored.getId();
+            }
+
+            @Override
+            public long getLastAccessedTime() {
+                checkValid();
+                return stored.getLastAccessedTime();
+            }
+
+            @Override
+            public ServletContext getServletContext() {
+                return servletContext;
+            }
+
+            @Override
+            public void setMaxInactiveInterval(int interval) {
+                stored.setMaxInactiveSeconds(interval);
+            }
+
+            @Override
+            public int getMaxInactiveInterval() {
+                return stored.getMaxInactiveSeconds();
+            }
+
+            @Override
+            public Object getAttribute(String name) {
+                checkValid();
+                return stored.getAttribute(name);
+            }
+
+            @Override
+            public Enumeration<String> getAttributeNames() {
+                checkValid();
+                return Collections.enumeration(stored.getAttributeNames());
+            }
+
+            @Override
+            public void setAttribute(String name, Object value) {
+                checkValid();
+                stored.setAttribute(name, value);
+            }
+
+            @Override
+            public void removeAttribute(String name) {
+                checkValid();
+                stored.removeAttribute(name);
+            }
+
+            @Override
+            public void invalidate() {
+                checkValid();
+                invalidated = true;
+                if (!stored.isNew()) {
+                    invalidatedId = stored.getStoredId();
+                }
+            }
+
+            @Override
+            public boolean isNew() {
+                checkValid();
+                return stored.isNew();
+            }
+
+            private void checkValid() {
+                if (invalidated) {
+                    throw new IllegalStateException("Session was invalidated");
+                }
+            }
+        }
+    }
+
+    /**
+     * Response that saves the session right before it is committed, like the
+     * container would for its own sessions: once the client has the response
+     * it may send the next request before this one finishes.
+     */
+    private static class SessionResponse extends HttpServletResponseWrapper {
+
+        private final SessionRequest request;
+        private boolean saved;
+        private long contentLength = -1;
+        private long written;
+
+        SessionResponse(HttpServletResponse response, SessionRequest request) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            beforeCommit();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            beforeCommit();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            beforeCommit();
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void sendRedirect(String location, int sc) throws IOException {
+            beforeCommit();
+            super.sendRedirect(location, sc);
+        }
+
+        @Override
+        public void sendRedirect(String location, boolean clearBuffer) throws IOException {
+            beforeCommit();
+            super.sendRedirect(location, clearBuffer);
+        }
+
+        @Override
+        public void sendRedirect(String location, int sc, boolean clearBuffer) throws IOException {
+            beforeCommit();
+            super.sendRedirect(location, sc, clearBuffer);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            beforeCommit();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            contentLength = len;
+            super.setContentLength(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            contentLength = len;
+            super.setContentLengthLong(len);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return new SavingOutputStream(super.getOutputStream());
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return new SavingWriter(super.getWriter());
+        }
+
+        private void beforeCommit() {
+            if (!saved && !isCommitted()) {
+                saved = true;
+                request.commit();
+            }
+        }
+
+        /**
+         * Counts what the body is about to grow to; saves first if that fills
+         * the buffer or completes the declared content length, either of which
+         * commits the response.
+         */
+        private void beforeWrite(long length) {
+            written += length;
+            if (written >= getBufferSize() || (contentLength >= 0 && written >= contentLength)) {
+                beforeCommit();
+            }
+        }
+
+        private class SavingOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            SavingOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                beforeWrite(1);
+                delegate.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                beforeWrite(len);
+                delegate.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                beforeCommit();
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                beforeCommit();
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+
+        private class SavingWriter extends PrintWriter {
+
+            private final PrintWriter delegate;
+
+            SavingWriter(PrintWriter delegate) {
+                super(delegate);
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int c) {
+                beforeWrite(1);
+                delegate.write(c);
+            }
+
+            @Override
+            public void write(char[] buf, int off, int len) {
+                beforeWrite(len);
+                delegate.write(buf, off, len);
+            }
+
+            @Override
+            public void write(String s, int off, int len) {
+                beforeWrite(len);
+                delegate.write(s, off, len);
+            }
+
+            @Override
+            public void flush() {
+                beforeCommit();
+                delegate.flush();
+            }
+
+            @Override
+            public void close() {
+                beforeCommit();
+                delegate.close();
+            }
+
+            @Override
+            public boolean checkError() {
+                return delegate.checkError();
+            }
+        }
+    }
+}
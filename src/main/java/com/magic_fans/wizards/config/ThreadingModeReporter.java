@@ -0,0 +1,43 @@
+package com.magic_fans.wizards.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs which thread model serves requests and @Async work.
+ *
+ * Virtual threads are opt-in via the "virtual-threads" profile
+ * (spring.threads.virtual.enabled). Spring Boot only honors the property on
+ * Java 21+, so on older runtimes it is silently ignored; this makes that visible.
+ */
+@Component
+public class ThreadingModeReporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadingModeReporter.class);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+
+    @Value("${server.tomcat.threads.max:200}")
+    private int tomcatMaxThreads;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        if (isVirtualThreadsActive()) {
+            logger.info("Request handling and @Async run on virtual threads");
+        } else if (virtualThreadsRequested) {
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads (needs 21+); "
+                + "using the platform thread pool (max {})", Runtime.version().feature(), tomcatMaxThreads);
+        } else {
+            logger.info("Request handling runs on the platform thread pool (max {})", tomcatMaxThreads);
+        }
+    }
+
+    public boolean isVirtualThreadsActive() {
+        return virtualThreadsRequested && Runtime.version().feature() >= 21;
+    }
+}
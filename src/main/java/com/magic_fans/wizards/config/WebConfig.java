@@ -1,21 +1,14 @@
 package com.magic_fans.wizards.config;
 
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.nio.file.Paths;
-
+/**
+ * Web MVC configuration.
+ *
+ * Файлы из папки uploads/ отдаются через UploadResourceController
+ * (ETag, Last-Modified, Range, sendfile), а не через обычный resource handler.
+ */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
-
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Настраиваем отдачу файлов из папки uploads/
-        String uploadPath = Paths.get("uploads").toAbsolutePath().toUri().toString();
-
-        registry
-            .addResourceHandler("/uploads/**")
-            .addResourceLocations(uploadPath);
-    }
 }
@@ -0,0 +1,143 @@
+package com.magic_fans.wizards.controller;
+
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.service.AuthTokenService;
+import com.magic_fans.wizards.service.LoginThrottleService;
+import com.magic_fans.wizards.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bearer token endpoints, an alternative to form login for API clients and
+ * multi-instance deployments.
+ *
+ * POST /api/auth/token exchanges a username and password for an access token
+ * and a refresh token; POST /api/auth/refresh exchanges a refresh token for a
+ * new pair, once per refresh token; POST /api/auth/revoke signs a client out.
+ * Access tokens are sent as "Authorization: Bearer ...".
+ *
+ * @author Magic Fans Team
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/auth")
+public class AuthTokenController {
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private LoginThrottleService loginThrottleService;
+
+    /**
+     * Issues tokens for valid credentials.
+     * Expects {"username": "...", "password": "..."}.
+     */
+    @PostMapping("/token")
+    public ResponseEntity<Map<String, Object>> token(@RequestBody Map<String, String> payload,
+                                                     HttpServletRequest request) {
+        String username = payload.get("username");
+        String password = payload.get("password");
+        if (username == null || password == null) {
+            return error(HttpStatus.BAD_REQUEST, "Username and password are required");
+        }
+
+        // Refused before hashing; failures are counted from the authentication events
+        if (loginThrottleService.isBlocked(username, request.getRemoteAddr())) {
+            return error(HttpStatus.TOO_MANY_REQUESTS, "Too many failed sign-in attempts, please try again later");
+        }
+
+        UsernamePasswordAuthenticationToken credentials = UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+        credentials.setDetails(new WebAuthenticationDetails(request));
+
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(credentials);
+        } catch (AuthenticationException e) {
+            return error(HttpStatus.UNAUTHORIZED, "Invalid username or password");
+        }
+
+        User user = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(tokens(user, authTokenService.issueRefreshToken(user)));
+    }
+
+    /**
+     * Issues a new token pair for a valid refresh token.
+     * The account is re-checked here, so a deactivated user cannot refresh.
+     * The refresh token is consumed: a second use fails and revokes every
+     * token issued from the same sign-in.
+     * Expects {"refreshToken": "..."}.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refresh(@RequestBody Map<String, String> payload) {
+        AuthTokenService.TokenClaims claims = authTokenService.verify(payload.get("refreshToken"), AuthTokenService.REFRESH);
+        if (claims == null) {
+            return error(HttpStatus.UNAUTHORIZED, "Invalid or expired refresh token");
+        }
+
+        Optional<User> user = userService.getUserById(claims.getUserId());
+        if (user.isEmpty() || !user.get().isActive()) {
+            return error(HttpStatus.UNAUTHORIZED, "Account is not active");
+        }
+
+        String refreshToken = authTokenService.rotateRefreshToken(claims, user.get());
+        if (refreshToken == null) {
+            return error(HttpStatus.UNAUTHORIZED, "Refresh token was already used or revoked");
+        }
+
+        return ResponseEntity.ok(tokens(user.get(), refreshToken));
+    }
+
+    /**
+     * Revokes a refresh token together with the tokens issued from the same sign-in.
+     * Expects {"refreshToken": "..."}.
+     */
+    @PostMapping("/revoke")
+    public ResponseEntity<Map<String, Object>> revoke(@RequestBody Map<String, String> payload) {
+        AuthTokenService.TokenClaims claims = authTokenService.verify(payload.get("refreshToken"), AuthTokenService.REFRESH);
+        if (claims == null) {
+            return error(HttpStatus.UNAUTHORIZED, "Invalid or expired refresh token");
+        }
+
+        authTokenService.revokeRefreshToken(claims);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Refresh token revoked");
+        return ResponseEntity.ok(response);
+    }
+
+    private Map<String, Object> tokens(User user, String refreshToken) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("tokenType", "Bearer");
+        response.put("accessToken", authTokenService.issueAccessToken(user));
+        response.put("refreshToken", refreshToken);
+        response.put("expiresIn", authTokenService.getAccessTtl().toSeconds());
+        return response;
+    }
+
+    private ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return ResponseEntity.status(status).body(response);
+    }
+}
@@ -2,6 +2,8 @@ package com.magic_fans.wizards.controller;
 
 import com.magic_fans.wizards.model.User;
 import com.magic_fans.wizards.repository.UserRepository;
+import com.magic_fans.wizards.service.ImageUploadService;
+import com.magic_fans.wizards.service.UploadStorageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -12,10 +14,9 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @RestController
@@ -25,9 +26,17 @@ public class AvatarUploadController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ImageUploadService imageUploadService;
+
+    @Autowired
+    private UploadStorageService uploadStorageService;
+
     // Локальное хранилище (позже можно заменить на S3)
-    // Сохраняем в корень проекта, чтобы Spring мог отдавать файлы
-    private static final String UPLOAD_DIR = "uploads/avatars/";
+    // Папка внутри корня загрузок, откуда UploadResourceController отдаёт файлы
+    private static final String UPLOAD_FOLDER = "avatars";
+    private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
+    private static final Set<String> ALLOWED_FORMATS = Set.of("jpeg", "png", "gif", "webp");
 
     @PostMapping("/avatar")
     public ResponseEntity<Map<String, Object>> uploadAvatar(
@@ -48,35 +57,25 @@ public class AvatarUploadController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            // Проверка типа файла
-            String contentType = file.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                response.put("success", false);
-                response.put("message", "Invalid file type. Only images are allowed");
-                return ResponseEntity.badRequest().body(response);
-            }
-
             // Проверка размера (5MB)
-            if (file.getSize() > 5 * 1024 * 1024) {
+            if (file.getSize() > MAX_FILE_SIZE) {
                 response.put("success", false);
                 response.put("message", "File size exceeds 5MB limit");
                 return ResponseEntity.badRequest().body(response);
             }
 
-            // Создаем директорию если не существует
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
+            // Часть уже на диске: сигнатура и габариты проверяются по её заголовку, файл
+            // переносится на место без повторной записи, расширение берётся из реального формата
+            ImageUploadService.StoredImage stored;
+            try {
+                stored = imageUploadService.storeImage(file, uploadStorageService.getDirectory(UPLOAD_FOLDER),
+                        user.getId() + "_" + UUID.randomUUID(), MAX_FILE_SIZE, ALLOWED_FORMATS);
+            } catch (IllegalArgumentException e) {
+                response.put("success", false);
+                response.put("message", e.getMessage());
+                return ResponseEntity.badRequest().body(response);
             }
 
-            // Генерируем уникальное имя файла
-            String extension = getFileExtension(file.getOriginalFilename());
-            String fileName = user.getId() + "_" + UUID.randomUUID().toString() + extension;
-            Path filePath = uploadPath.resolve(fileName);
-
-            // Сохраняем файл
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
             // Удаляем старый аватар если есть
             if (user.getAvatarUrl() != null && !user.getAvatarUrl().isEmpty()
                 && !user.getAvatarUrl().equals("/images/default-avatar.svg")) {
@@ -84,8 +83,14 @@ public class AvatarUploadController {
             }
 
             // Обновляем URL аватара в базе
-            String avatarUrl = "/uploads/avatars/" + fileName;
+            String avatarUrl = "/uploads/" + UPLOAD_FOLDER + "/" + stored.getFileName();
             user.setAvatarUrl(avatarUrl);
+
+            // LQIP-заглушка и средний цвет, чтобы карточки ленты рисовались без лишних запросов
+            ImageUploadService.Placeholder placeholder = createPlaceholder(stored.getPath());
+            user.setAvatarPlaceholder(placeholder != null ? placeholder.getDataUri() : null);
+            user.setAvatarColor(placeholder != null ? placeholder.getDominantColor() : null);
+
             userRepository.save(user);
 
             response.put("success", true);
@@ -105,18 +110,21 @@ public class AvatarUploadController {
         }
     }
 
-    private String getFileExtension(String filename) {
-        if (filename == null) return ".jpg";
-        int dotIndex = filename.lastIndexOf('.');
-        return (dotIndex == -1) ? ".jpg" : filename.substring(dotIndex);
+    private ImageUploadService.Placeholder createPlaceholder(Path filePath) {
+        try {
+            return imageUploadService.createPlaceholder(filePath);
+        } catch (IOException e) {
+            System.err.println("Failed to create avatar placeholder: " + e.getMessage());
+            return null;
+        }
     }
 
     private void deleteOldAvatar(String avatarUrl) {
         try {
             String fileName = avatarUrl.substring(avatarUrl.lastIndexOf('/') + 1);
-            Path oldFilePath = Paths.get(UPLOAD_DIR + fileName);
-            if (Files.exists(oldFilePath)) {
-                Files.delete(oldFilePath);
+            var oldFilePath = uploadStorageService.resolve(UPLOAD_FOLDER + "/" + fileName);
+            if (oldFilePath.isPresent()) {
+                Files.delete(oldFilePath.get());
             }
         } catch (IOException e) {
             System.err.println("Failed to delete old avatar: " + e.getMessage());
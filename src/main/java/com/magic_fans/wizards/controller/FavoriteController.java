@@ -102,9 +102,14 @@ public class FavoriteController {
         // Use user's avatar or default
         dto.setAvatarUrl(wizard.getAvatarUrl() != null ? wizard.getAvatarUrl() : "/images/default-avatar.svg");
 
-        // Generate profile image URL using placeholder service
-        String colorCode = String.format("%06X", wizard.getId() * 12345 & 0xFFFFFF);
-        dto.setProfileImageUrl("https://via.placeholder.com/400x300/" + colorCode + "/FFFFFF?text=" + wizard.getUsername());
+        // Cover image is the uploaded avatar rendition; the inline placeholder paints it instantly
+        if (wizard.getAvatarUrl() != null && wizard.getAvatarUrl().startsWith("/uploads/")) {
+            dto.setProfileImageUrl(wizard.getAvatarUrl() + "?w=800");
+        }
+        dto.setPlaceholder(wizard.getAvatarPlaceholder());
+        dto.setDominantColor(wizard.getAvatarColor() != null
+            ? wizard.getAvatarColor()
+            : String.format("#%06X", wizard.getId() * 12345 & 0xFFFFFF));
 
         return dto;
     }
@@ -0,0 +1,49 @@
+package com.magic_fans.wizards.controller;
+
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.service.LiveUpdateService;
+import com.magic_fans.wizards.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * Server-Sent Events endpoint for live like counts and new posts of followed wizards.
+ *
+ * The browser opens one EventSource per page with the ids of the posts it
+ * shows and receives a "ready" event, then "likes" ({postId: likesCount})
+ * and "post" events.
+ *
+ * @author Magic Fans Team
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/live")
+public class LiveUpdateController {
+
+    @Autowired
+    private LiveUpdateService liveUpdateService;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * Opens the live update stream.
+     *
+     * @param posts ids of the posts shown on the page
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(value = "posts", required = false) List<Long> posts,
+                             @AuthenticationPrincipal UserDetails userDetails) {
+        User user = userService.getUserByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+        return liveUpdateService.connect(user.getId(), posts);
+    }
+}
@@ -2,6 +2,7 @@ package com.magic_fans.wizards.controller;
 
 import com.magic_fans.wizards.model.Post;
 import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.service.LiveUpdateService;
 import com.magic_fans.wizards.service.PostLikeService;
 import com.magic_fans.wizards.service.PostService;
 import com.magic_fans.wizards.service.UserService;
@@ -28,6 +29,9 @@ public class PostController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private LiveUpdateService liveUpdateService;
+
     @PostMapping("/create")
     @ResponseBody
     public ResponseEntity<Map<String, Object>> createPost(@RequestBody Map<String, String> payload) {
@@ -73,6 +77,7 @@ public class PostController {
             } else {
                 post = postService.createPost(user, content);
             }
+            liveUpdateService.publishNewPost(post);
 
             response.put("success", true);
             response.put("postId", post.getId());
@@ -112,6 +117,7 @@ public class PostController {
 
             var postOpt = postService.getPostById(postId);
             int likesCount = postOpt.map(Post::getLikesCount).orElse(0);
+            liveUpdateService.publishLikeCount(postId, likesCount);
 
             response.put("success", true);
             response.put("likesCount", likesCount);
@@ -153,6 +159,7 @@ public class PostController {
 
             var postOpt = postService.getPostById(postId);
             int likesCount = postOpt.map(Post::getLikesCount).orElse(0);
+            liveUpdateService.publishLikeCount(postId, likesCount);
 
             response.put("success", true);
             response.put("likesCount", likesCount);
@@ -2,6 +2,8 @@ package com.magic_fans.wizards.controller;
 
 import com.magic_fans.wizards.model.User;
 import com.magic_fans.wizards.repository.UserRepository;
+import com.magic_fans.wizards.service.ImageUploadService;
+import com.magic_fans.wizards.service.UploadStorageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -9,13 +11,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -28,9 +24,15 @@ public class PostImageUploadController {
     @Autowired
     private UserRepository userRepository;
 
-    private static final String UPLOAD_DIR = "uploads/posts/";
+    @Autowired
+    private ImageUploadService imageUploadService;
+
+    @Autowired
+    private UploadStorageService uploadStorageService;
+
+    private static final String UPLOAD_FOLDER = "posts";
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
-    private static final Set<String> ALLOWED_TYPES = Set.of("image/jpeg", "image/jpg", "image/png", "image/webp", "image/gif");
+    private static final Set<String> ALLOWED_FORMATS = Set.of("jpeg", "png", "webp", "gif");
 
     @PostMapping("/upload-image")
     public ResponseEntity<Map<String, Object>> uploadPostImage(
@@ -51,14 +53,6 @@ public class PostImageUploadController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            // Validate file type
-            String contentType = file.getContentType();
-            if (contentType == null || !ALLOWED_TYPES.contains(contentType.toLowerCase())) {
-                response.put("success", false);
-                response.put("message", "Invalid file format. Allowed: JPEG, PNG, WebP, GIF");
-                return ResponseEntity.badRequest().body(response);
-            }
-
             // Validate file size
             if (file.getSize() > MAX_FILE_SIZE) {
                 response.put("success", false);
@@ -66,36 +60,21 @@ public class PostImageUploadController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            // Validate it's actually an image
+            // The part is already on disk: format (by magic bytes) and dimensions come from its
+            // header and the file is moved into place, so it is neither copied nor decoded
+            ImageUploadService.StoredImage stored;
             try {
-                BufferedImage image = ImageIO.read(file.getInputStream());
-                if (image == null) {
-                    response.put("success", false);
-                    response.put("message", "File is not a valid image");
-                    return ResponseEntity.badRequest().body(response);
-                }
-            } catch (IOException e) {
+                String baseName = user.getId() + "_" + System.currentTimeMillis() + "_" + UUID.randomUUID();
+                stored = imageUploadService.storeImage(file, uploadStorageService.getDirectory(UPLOAD_FOLDER),
+                        baseName, MAX_FILE_SIZE, ALLOWED_FORMATS);
+            } catch (IllegalArgumentException e) {
                 response.put("success", false);
-                response.put("message", "Failed to read image file");
+                response.put("message", e.getMessage());
                 return ResponseEntity.badRequest().body(response);
             }
 
-            // Create directory if not exists
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
-            // Generate unique filename
-            String extension = getFileExtension(file.getOriginalFilename());
-            String fileName = user.getId() + "_" + System.currentTimeMillis() + "_" + UUID.randomUUID().toString() + extension;
-            Path filePath = uploadPath.resolve(fileName);
-
-            // Save file
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
             // Return image URL
-            String imageUrl = "/uploads/posts/" + fileName;
+            String imageUrl = "/uploads/" + UPLOAD_FOLDER + "/" + stored.getFileName();
             response.put("success", true);
             response.put("imageUrl", imageUrl);
             response.put("message", "Image uploaded successfully");
@@ -112,10 +91,4 @@ public class PostImageUploadController {
             return ResponseEntity.status(500).body(response);
         }
     }
-
-    private String getFileExtension(String filename) {
-        if (filename == null) return ".jpg";
-        int dotIndex = filename.lastIndexOf('.');
-        return (dotIndex == -1) ? ".jpg" : filename.substring(dotIndex);
-    }
 }
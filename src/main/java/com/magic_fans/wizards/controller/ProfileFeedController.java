@@ -1,8 +1,15 @@
 package com.magic_fans.wizards.controller;
 
+import com.magic_fans.wizards.dto.ProfileFields;
 import com.magic_fans.wizards.dto.UserProfileDTO;
 import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.service.PopularityRanking;
+import com.magic_fans.wizards.service.PresenceService;
+import com.magic_fans.wizards.service.SkillCatalog;
+import com.magic_fans.wizards.service.SkillFacetIndex;
 import com.magic_fans.wizards.service.UserService;
+import com.magic_fans.wizards.service.WizardQuery;
+import com.magic_fans.wizards.service.WizardQueryService;
 import com.magic_fans.wizards.service.WizardSkillsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -10,7 +17,12 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -31,18 +43,45 @@ public class ProfileFeedController {
     @Autowired
     private WizardSkillsService wizardSkillsService;
 
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private SkillCatalog skillCatalog;
+
+    @Autowired
+    private SkillFacetIndex skillFacetIndex;
+
+    @Autowired
+    private WizardQueryService wizardQueryService;
+
+    @Autowired
+    private PopularityRanking popularityRanking;
+
     /**
      * Gets a paginated list of user profiles for the feed.
      * Supports offset-based pagination for infinite scroll.
      *
+     * With sort=popular the feed lists wizards by their precomputed popularity
+     * score (see {@link PopularityRanking}) and pages by keyset: the response
+     * carries an X-Next-Cursor header, the next page is requested with after
+     * set to it, and offset is ignored. No header means the last page. A wizard without a score yet is listed once the next
+     * ranking run has counted it.
+     *
      * @param offset the starting offset for pagination (default 0)
      * @param limit the maximum number of profiles to return (default 10, max 50)
+     * @param fields optional comma-separated DTO properties to return (default all)
+     * @param sort optional order: popular
+     * @param after for sort=popular, the X-Next-Cursor of the previous page
      * @return ResponseEntity containing list of UserProfileDTO objects
      */
     @GetMapping("")
     public ResponseEntity<List<UserProfileDTO>> getProfilesFeed(
             @RequestParam(defaultValue = "0") int offset,
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String after) {
 
         // Validate and limit the requested amount
         if (limit > 50) {
@@ -55,6 +94,33 @@ public class ProfileFeedController {
             offset = 0;
         }
 
+        ProfileFields profileFields = ProfileFields.parse(fields);
+        if (profileFields == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (sort != null && !sort.isBlank()) {
+            if (!"popular".equals(sort.trim())) {
+                return ResponseEntity.badRequest().build();
+            }
+            // Ranked ids come from the score index; listed wizards only, whoever asks
+            PopularityRanking.Page page;
+            try {
+                page = popularityRanking.getRanked(after, limit);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            List<UserProfileDTO> ranked = userService.getUsersByIds(page.userIds())
+                    .stream()
+                    .map(u -> convertToDTO(u, profileFields))
+                    .collect(Collectors.toList());
+            applyPresence(ranked, profileFields);
+            if (page.nextCursor() == null) {
+                return ResponseEntity.ok(ranked);
+            }
+            return ResponseEntity.ok().header("X-Next-Cursor", page.nextCursor()).body(ranked);
+        }
+
         // Get current user's role
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String userRole = (auth != null && auth.isAuthenticated() && !auth.getPrincipal().equals("anonymousUser"))
@@ -79,9 +145,10 @@ public class ProfileFeedController {
                 })
                 .skip(offset)             // Skip offset items
                 .limit(limit)             // Limit to requested amount
-                .map(this::convertToDTO)  // Convert to DTO
+                .map(u -> convertToDTO(u, profileFields))  // Convert to DTO
                 .collect(Collectors.toList());
 
+        applyPresence(profiles, profileFields);
         return ResponseEntity.ok(profiles);
     }
 
@@ -91,13 +158,15 @@ public class ProfileFeedController {
      * @param specialization the magical specialization to filter by
      * @param offset the starting offset for pagination (default 0)
      * @param limit the maximum number of profiles to return (default 10)
+     * @param fields optional comma-separated DTO properties to return (default all)
      * @return ResponseEntity containing list of UserProfileDTO objects
      */
     @GetMapping("/specialization/{specialization}")
     public ResponseEntity<List<UserProfileDTO>> getProfilesBySpecialization(
             @PathVariable String specialization,
             @RequestParam(defaultValue = "0") int offset,
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String fields) {
 
         if (limit > 50) {
             limit = 50;
@@ -109,6 +178,11 @@ public class ProfileFeedController {
             offset = 0;
         }
 
+        ProfileFields profileFields = ProfileFields.parse(fields);
+        if (profileFields == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
         // Get current user's role
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String userRole = (auth != null && auth.isAuthenticated() && !auth.getPrincipal().equals("anonymousUser"))
@@ -133,9 +207,10 @@ public class ProfileFeedController {
                 })
                 .skip(offset)
                 .limit(limit)
-                .map(this::convertToDTO)
+                .map(u -> convertToDTO(u, profileFields))
                 .collect(Collectors.toList());
 
+        applyPresence(profiles, profileFields);
         return ResponseEntity.ok(profiles);
     }
 
@@ -145,13 +220,15 @@ public class ProfileFeedController {
      * @param query the search query (searches in username, firstName, lastName)
      * @param offset the starting offset for pagination (default 0)
      * @param limit the maximum number of profiles to return (default 10)
+     * @param fields optional comma-separated DTO properties to return (default all)
      * @return ResponseEntity containing list of UserProfileDTO objects
      */
     @GetMapping("/search")
     public ResponseEntity<List<UserProfileDTO>> searchProfiles(
             @RequestParam String query,
             @RequestParam(defaultValue = "0") int offset,
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String fields) {
 
         if (query == null || query.trim().isEmpty()) {
             return ResponseEntity.badRequest().build();
@@ -167,6 +244,11 @@ public class ProfileFeedController {
             offset = 0;
         }
 
+        ProfileFields profileFields = ProfileFields.parse(fields);
+        if (profileFields == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
         // Get current user's role
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String userRole = (auth != null && auth.isAuthenticated() && !auth.getPrincipal().equals("anonymousUser"))
@@ -195,29 +277,47 @@ public class ProfileFeedController {
                 })
                 .skip(offset)
                 .limit(limit)
-                .map(this::convertToDTO)
+                .map(u -> convertToDTO(u, profileFields))
                 .collect(Collectors.toList());
 
+        applyPresence(profiles, profileFields);
         return ResponseEntity.ok(profiles);
     }
 
     /**
      * Gets profiles filtered by specialization and/or skills.
      * Supports combined filtering - wizards must match specialization (if provided)
-     * AND have at least one of the selected skills (if provided).
+     * AND have at least one of the selected skills (if provided) AND fall into the
+     * experience and price ranges (if provided). Lists wizards ordered by wizard
+     * profile id unless sort is given.
      *
      * @param specialization optional magical specialization filter
      * @param skills optional list of skill names to filter by (OR logic - any skill matches)
+     * @param skillIds optional list of catalog skill ids, combined with skills (OR logic);
+     *                 ids that no wizard has give an empty result
+     * @param minExperience optional minimum years of experience (inclusive)
+     * @param maxExperience optional maximum years of experience (inclusive)
+     * @param minPrice optional minimum service price (inclusive, any service of the wizard)
+     * @param maxPrice optional maximum service price (inclusive, any service of the wizard)
+     * @param sort optional order: experience, -experience, price (cheapest service first) or -price
      * @param offset the starting offset for pagination (default 0)
      * @param limit the maximum number of profiles to return (default 10)
+     * @param fields optional comma-separated DTO properties to return (default all)
      * @return ResponseEntity containing list of UserProfileDTO objects
      */
     @GetMapping("/filter")
     public ResponseEntity<List<UserProfileDTO>> getProfilesWithFilters(
             @RequestParam(required = false) String specialization,
             @RequestParam(required = false) List<String> skills,
+            @RequestParam(required = false) List<Integer> skillIds,
+            @RequestParam(required = false) Integer minExperience,
+            @RequestParam(required = false) Integer maxExperience,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "0") int offset,
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String fields) {
 
         if (limit > 50) {
             limit = 50;
@@ -229,100 +329,237 @@ public class ProfileFeedController {
             offset = 0;
         }
 
-        // Get current user's role
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String userRole = (auth != null && auth.isAuthenticated() && !auth.getPrincipal().equals("anonymousUser"))
-            ? "regular"
-            : null;
-
-        // Get wizard profile IDs that match the skills filter (if skills provided)
-        List<Integer> matchingWizardProfileIds = null;
-        if (skills != null && !skills.isEmpty()) {
-            matchingWizardProfileIds = wizardSkillsService.filterWizardsBySkills(skills);
+        ProfileFields profileFields = ProfileFields.parse(fields);
+        WizardQueryService.Order order = WizardQueryService.Order.parse(sort);
+        if (profileFields == null || order == null) {
+            return ResponseEntity.badRequest().build();
         }
 
-        // Final list to filter against
-        final List<Integer> wizardIds = matchingWizardProfileIds;
-
-        List<UserProfileDTO> profiles = userService.getAllUsers()
+        // Filters and order are evaluated on ids (indexes and id queries); only the page is loaded
+        WizardQuery query = filterQuery(filterContext(specialization, skills, skillIds,
+                minExperience, maxExperience, minPrice, maxPrice));
+        WizardQueryService.Page page = wizardQueryService.search(query, order, offset, limit);
+        List<UserProfileDTO> profiles = userService.getUsersByWizardProfileIds(page.wizardProfileIds())
                 .stream()
-                .filter(User::isActive)
-                .filter(u -> {
-                    // Apply role-based filtering first
-                    if ("regular".equals(userRole)) {
-                        if (!"wizard".equals(u.getRole())) return false;
-                    } else if ("wizard".equals(userRole)) {
-                        if ("wizard".equals(u.getRole())) return false;
-                    } else {
-                        if (!"wizard".equals(u.getRole())) return false;
-                    }
+                .map(u -> convertToDTO(u, profileFields))
+                .collect(Collectors.toList());
 
-                    // Filter by specialization if provided
-                    if (specialization != null && !specialization.trim().isEmpty()) {
-                        if (u.getSpecialization() == null ||
-                            !u.getSpecialization().equalsIgnoreCase(specialization)) {
-                            return false;
-                        }
-                    }
+        applyPresence(profiles, profileFields);
+        return ResponseEntity.ok(profiles);
+    }
 
-                    // Filter by skills if provided
-                    if (wizardIds != null && !wizardIds.isEmpty()) {
-                        // User must be a wizard and have a wizard profile
-                        if (!"wizard".equals(u.getRole()) || u.getWizardProfile() == null) {
-                            return false;
-                        }
-                        // Check if this wizard's profile ID is in the matching list
-                        if (!wizardIds.contains(u.getWizardProfile().getId())) {
-                            return false;
-                        }
-                    }
+    /**
+     * Finds wizards with a boolean query over skills, sections, subsections,
+     * specialization, years of experience and service prices (see {@link WizardQuery}).
+     * Expects a JSON body:
+     * {
+     *   "where": {"and": [{"skill": [12, 13]}, {"not": {"specialization": "Black Magic"}}, {"price": {"max": 100}}]},
+     *   "offset": 0,
+     *   "limit": 10,
+     *   "sort": "-experience",
+     *   "fields": "username,skills"
+     * }
+     * Results are listed wizards, whoever asks, ordered by wizard profile id unless
+     * sort is one of experience, -experience, price or -price (cheapest service).
+     *
+     * @param payload the query, paging and optional field selection
+     * @return ResponseEntity with the total match count and one page of profiles
+     */
+    @PostMapping("/query")
+    public ResponseEntity<Map<String, Object>> queryProfiles(@RequestBody Map<String, Object> payload) {
+        Map<String, Object> response = new HashMap<>();
+
+        WizardQuery query;
+        int offset;
+        int limit;
+        ProfileFields profileFields;
+        WizardQueryService.Order order;
+        try {
+            query = WizardQuery.parse(payload.get("where"));
+            offset = payload.get("offset") instanceof Number number ? Math.max(0, number.intValue()) : 0;
+            limit = payload.get("limit") instanceof Number number ? number.intValue() : 10;
+            profileFields = ProfileFields.parse(payload.get("fields") instanceof String fields ? fields : null);
+            order = WizardQueryService.Order.parse(payload.get("sort") instanceof String sort ? sort : null);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (profileFields == null) {
+            response.put("success", false);
+            response.put("message", "Unknown fields");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (order == null) {
+            response.put("success", false);
+            response.put("message", "Unknown sort order");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (limit > 50) {
+            limit = 50;
+        }
+        if (limit < 1) {
+            limit = 10;
+        }
 
-                    return true;
-                })
-                .skip(offset)
-                .limit(limit)
-                .map(this::convertToDTO)
+        WizardQueryService.Page page = wizardQueryService.search(query, order, offset, limit);
+        List<UserProfileDTO> profiles = userService.getUsersByWizardProfileIds(page.wizardProfileIds())
+                .stream()
+                .map(u -> convertToDTO(u, profileFields))
                 .collect(Collectors.toList());
+        applyPresence(profiles, profileFields);
+
+        response.put("success", true);
+        response.put("total", page.total());
+        response.put("offset", offset);
+        response.put("limit", limit);
+        response.put("profiles", profiles);
+        return ResponseEntity.ok(response);
+    }
 
-        return ResponseEntity.ok(profiles);
+    /**
+     * The /filter parameters as a context shared by /filter and /facets. Skills
+     * match any of the names and ids. Explicit ids always filter, so ids that no
+     * wizard has give an empty result; names alone keep the old rule and are
+     * left out when they match no wizard.
+     */
+    private SkillFacetIndex.Context filterContext(String specialization, List<String> skills, List<Integer> skillIds,
+                                                  Integer minExperience, Integer maxExperience,
+                                                  Double minPrice, Double maxPrice) {
+        // Skill names are resolved to catalog ids, the query compares ids only
+        Set<Integer> requestedSkillIds = new HashSet<>();
+        if (skills != null && !skills.isEmpty()) {
+            requestedSkillIds.addAll(skillCatalog.idsByName(skills));
+        }
+        if (skillIds != null) {
+            requestedSkillIds.addAll(skillIds);
+        }
+        // Names alone only narrow the result when some listed wizard has one of them
+        boolean bySkills = skillIds != null && !skillIds.isEmpty()
+                || !requestedSkillIds.isEmpty() && hasListedWizards(requestedSkillIds);
+
+        return new SkillFacetIndex.Context(
+                specialization != null && !specialization.trim().isEmpty() ? specialization.trim() : null,
+                bySkills ? requestedSkillIds : null,
+                minExperience != null || maxExperience != null
+                        ? new WizardQuery.Experience(
+                                minExperience != null ? minExperience : Integer.MIN_VALUE,
+                                maxExperience != null ? maxExperience : Integer.MAX_VALUE)
+                        : null,
+                minPrice != null || maxPrice != null
+                        ? new WizardQuery.Price(
+                                minPrice != null ? minPrice : -Double.MAX_VALUE,
+                                maxPrice != null ? maxPrice : Double.MAX_VALUE)
+                        : null);
+    }
+
+    private boolean hasListedWizards(Set<Integer> skillIds) {
+        Map<Integer, Integer> counts = skillFacetIndex.getFacets().skills();
+        return skillIds.stream().anyMatch(id -> counts.getOrDefault(id, 0) > 0);
+    }
+
+    /**
+     * The /filter context as a query over listed wizards.
+     */
+    private static WizardQuery filterQuery(SkillFacetIndex.Context context) {
+        List<WizardQuery> conditions = new ArrayList<>();
+        if (context.specialization() != null) {
+            conditions.add(new WizardQuery.Specialization(context.specialization()));
+        }
+        if (context.skillIds() != null) {
+            conditions.add(new WizardQuery.Skills(context.skillIds()));
+        }
+        if (context.experience() != null) {
+            conditions.add(context.experience());
+        }
+        if (context.price() != null) {
+            conditions.add(context.price());
+        }
+        return new WizardQuery.And(conditions);
     }
 
     /**
      * Converts User entity to UserProfileDTO.
-     * Maps user data to DTO format for API response.
+     * Maps user data to DTO format for API response. Only the requested fields
+     * are filled (the rest stay null and are omitted from JSON), and skills are
+     * only fetched when requested.
      *
      * @param user the User entity to convert
+     * @param fields the fields to fill
      * @return UserProfileDTO object
      */
-    private UserProfileDTO convertToDTO(User user) {
+    private UserProfileDTO convertToDTO(User user, ProfileFields fields) {
         UserProfileDTO dto = new UserProfileDTO();
         dto.setId(user.getId());
-        dto.setUsername(user.getUsername());
-        dto.setFirstName(user.getFirstName());
-        dto.setLastName(user.getLastName());
-        dto.setSpecialization(user.getSpecialization());
-        dto.setAboutMe(user.getAboutMe());
+        if (fields.includes(ProfileFields.USERNAME)) {
+            dto.setUsername(user.getUsername());
+        }
+        if (fields.includes(ProfileFields.FIRST_NAME)) {
+            dto.setFirstName(user.getFirstName());
+        }
+        if (fields.includes(ProfileFields.LAST_NAME)) {
+            dto.setLastName(user.getLastName());
+        }
+        if (fields.includes(ProfileFields.SPECIALIZATION)) {
+            dto.setSpecialization(user.getSpecialization());
+        }
+        if (fields.includes(ProfileFields.ABOUT_ME)) {
+            dto.setAboutMe(user.getAboutMe());
+        }
 
         // Use user's avatar or default
-        dto.setAvatarUrl(user.getAvatarUrl() != null ? user.getAvatarUrl() : "/images/default-avatar.svg");
+        if (fields.includes(ProfileFields.AVATAR_URL)) {
+            dto.setAvatarUrl(user.getAvatarUrl() != null ? user.getAvatarUrl() : "/images/default-avatar.svg");
+        }
 
-        // Use gradient placeholder for profile cover image (via placeholder service)
-        String colorCode = String.format("%06X", user.getId() * 12345 & 0xFFFFFF);
-        String seed = user.getUsername();
-        dto.setProfileImageUrl("https://via.placeholder.com/400x300/" + colorCode + "/FFFFFF?text=" + seed);
-        dto.setVideoUrl("/videos/profile-" + user.getId() + ".mp4");
+        // Cover image is the uploaded avatar rendition; the inline placeholder paints it instantly
+        if (fields.includes(ProfileFields.PROFILE_IMAGE_URL)
+                && user.getAvatarUrl() != null && user.getAvatarUrl().startsWith("/uploads/")) {
+            dto.setProfileImageUrl(user.getAvatarUrl() + "?w=800");
+        }
+        if (fields.includes(ProfileFields.PLACEHOLDER)) {
+            dto.setPlaceholder(user.getAvatarPlaceholder());
+        }
+        if (fields.includes(ProfileFields.DOMINANT_COLOR)) {
+            dto.setDominantColor(user.getAvatarColor() != null
+                ? user.getAvatarColor()
+                : String.format("#%06X", user.getId() * 12345 & 0xFFFFFF));
+        }
+        if (fields.includes(ProfileFields.VIDEO_URL)) {
+            dto.setVideoUrl("/videos/profile-" + user.getId() + ".mp4");
+        }
 
-        // TODO: Implement actual online status checking (when websocket or last activity tracking is added)
-        dto.setOnline(false);
+        // Online status is resolved for the whole page at once in applyPresence
+        if (fields.includes(ProfileFields.ONLINE)) {
+            dto.setOnline(false);
+        }
 
         // Get wizard skills if user is a wizard and has a wizard profile
-        if ("wizard".equals(user.getRole()) && user.getWizardProfile() != null) {
+        if (fields.includes(ProfileFields.SKILLS)
+                && "wizard".equals(user.getRole()) && user.getWizardProfile() != null) {
             dto.setSkills(wizardSkillsService.getAllSkillsForWizard(user.getWizardProfile().getId()));
         }
 
         return dto;
     }
 
+    /**
+     * Marks online users of a page with a single in-memory presence lookup.
+     *
+     * @param profiles the page of profiles to update
+     * @param fields skipped entirely unless online status was requested
+     */
+    private void applyPresence(List<UserProfileDTO> profiles, ProfileFields fields) {
+        if (profiles.isEmpty() || !fields.includes(ProfileFields.ONLINE)) {
+            return;
+        }
+        Set<Integer> online = presenceService.getOnlineUserIds(
+            profiles.stream().map(UserProfileDTO::getId).collect(Collectors.toList()));
+        for (UserProfileDTO dto : profiles) {
+            dto.setOnline(online.contains(dto.getId()));
+        }
+    }
+
     /**
      * Gets total count of active users.
      *
@@ -336,4 +573,42 @@ public class ProfileFeedController {
                 .count();
         return ResponseEntity.ok(count);
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the skill catalog, so clients can filter by skill ids.
+     *
+     * @return ResponseEntity containing all catalog entries ordered by id
+     */
+    @GetMapping("/skills")
+    public ResponseEntity<List<SkillCatalog.Entry>> getSkillCatalog() {
+        return ResponseEntity.ok(skillCatalog.getAll());
+    }
+
+    /**
+     * Gets facet counts for the filter sidebar: listed wizards per skill id,
+     * section, subsection and specialization, within the same context as /filter.
+     * Served from an in-memory index, no query per request.
+     *
+     * @param specialization optional magical specialization filter
+     * @param skills optional list of skill names (OR logic - any skill matches)
+     * @param skillIds optional list of catalog skill ids, combined with skills (OR logic)
+     * @param minExperience optional minimum years of experience (inclusive)
+     * @param maxExperience optional maximum years of experience (inclusive)
+     * @param minPrice optional minimum service price (inclusive, any service of the wizard)
+     * @param maxPrice optional maximum service price (inclusive, any service of the wizard)
+     * @return ResponseEntity containing the facet counts
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<SkillFacetIndex.Facets> getSkillFacets(
+            @RequestParam(required = false) String specialization,
+            @RequestParam(required = false) List<String> skills,
+            @RequestParam(required = false) List<Integer> skillIds,
+            @RequestParam(required = false) Integer minExperience,
+            @RequestParam(required = false) Integer maxExperience,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice) {
+
+        return ResponseEntity.ok(skillFacetIndex.getFacets(filterContext(specialization, skills, skillIds,
+                minExperience, maxExperience, minPrice, maxPrice)));
+    }
+}
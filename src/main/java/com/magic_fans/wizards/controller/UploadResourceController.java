@@ -0,0 +1,225 @@
+package com.magic_fans.wizards.controller;
+
+import com.magic_fans.wizards.service.ImageRenditionService;
+import com.magic_fans.wizards.service.UploadStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves uploaded files (avatars, post images, profile videos) from the upload directory.
+ *
+ * Replaces the plain resource handler so that responses carry strong ETags,
+ * Last-Modified, long-lived immutable caching for content-addressed names,
+ * single byte-range support and zero-copy transfer for large media.
+ * Images can be requested at a whitelisted width with ?w=..., which is served
+ * from the rendition cache.
+ *
+ * @author Magic Fans Team
+ * @version 1.0
+ */
+@Controller
+public class UploadResourceController {
+
+    // Tomcat sendfile request attributes (see org.apache.coyote.Constants)
+    static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    // Small files are cheaper to copy than to hand over to the poller
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    @Autowired
+    private UploadStorageService uploadStorageService;
+
+    @Autowired
+    private ImageRenditionService imageRenditionService;
+
+    /**
+     * Serves /uploads/** from the upload root and /videos/** from its "videos" folder.
+     *
+     * @param width optional rendition width for images (must be whitelisted)
+     */
+    @GetMapping({"/uploads/**", "/videos/**"})
+    public void serve(@RequestParam(value = "w", required = false) Integer width,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        String relativePath = path.startsWith("/uploads/") ? path.substring("/uploads/".length()) : path;
+
+        Optional<Path> fileOpt = uploadStorageService.resolve(relativePath);
+        if (fileOpt.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Path source = fileOpt.get();
+        Path file = source;
+        if (width != null) {
+            if (!imageRenditionService.isAllowedWidth(width)) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported width: " + width);
+                return;
+            }
+            if (isResizable(source)) {
+                file = imageRenditionService.getRendition(relativePath, source, width).orElse(source);
+            }
+        }
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = uploadStorageService.readAttributes(file);
+        } catch (NoSuchFileException e) {
+            if (file.equals(source)) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            // The rendition cache evicted the file after the lookup; the original is a valid answer
+            file = source;
+            attributes = uploadStorageService.readAttributes(source);
+        }
+
+        // Renditions have hashed names of their own; whether they may change follows the source's name
+        String sourceName = source.getFileName().toString();
+        serveFile(file, attributes, uploadStorageService.isContentAddressed(sourceName), request, response);
+    }
+
+    private void serveFile(Path file, BasicFileAttributes attributes, boolean immutable,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String fileName = file.getFileName().toString();
+        String etag = uploadStorageService.etag(attributes);
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        long length = attributes.size();
+
+        CacheControl cacheControl = immutable ? IMMUTABLE : REVALIDATE;
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // Sets ETag / Last-Modified and answers 304 (or 412) on its own
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        MediaType mediaType = MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setContentType(mediaType.toString());
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && length > 0 && ifRangeMatches(request, etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+
+            // Multipart ranges are rare for media players; fall back to the full body
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                long rangeStart;
+                long rangeEnd;
+                try {
+                    rangeStart = range.getRangeStart(length);
+                    rangeEnd = Math.min(range.getRangeEnd(length), length - 1);
+                } catch (IllegalArgumentException e) {
+                    rangeStart = length;
+                    rangeEnd = length - 1;
+                }
+
+                if (rangeStart >= length || rangeStart > rangeEnd) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+
+                start = rangeStart;
+                end = rangeEnd;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        // Tomcat NIO/NIO2 connectors can push the file straight from the page cache
+        if (count >= SENDFILE_THRESHOLD && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    /**
+     * Only still raster formats ImageIO can decode get renditions (GIFs may be animated).
+     */
+    private boolean isResizable(Path file) {
+        return MediaTypeFactory.getMediaType(file.getFileName().toString())
+            .map(type -> "image".equals(type.getType()) && !"gif".equals(type.getSubtype()))
+            .orElse(false);
+    }
+
+    /**
+     * A Range request is only honored when If-Range is absent or still matches the file.
+     */
+    private boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == lastModified;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.magic_fans.wizards.controller;
 
+import com.magic_fans.wizards.model.Post;
 import com.magic_fans.wizards.model.User;
 import com.magic_fans.wizards.model.RegularUserProfile;
 import com.magic_fans.wizards.model.WizardProfile;
@@ -8,10 +9,12 @@ import com.magic_fans.wizards.service.UserService;
 import com.magic_fans.wizards.service.WizardSkillsService;
 import com.magic_fans.wizards.service.ProfileViewService;
 import com.magic_fans.wizards.service.PostService;
+import com.magic_fans.wizards.service.LiveUpdateService;
 import com.magic_fans.wizards.service.PostLikeService;
 import com.magic_fans.wizards.repository.SubscriptionRepository;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -23,7 +26,12 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 @Controller
 @RequestMapping("/users")
@@ -53,6 +61,13 @@ public class UserController {
     @Autowired
     private PostLikeService postLikeService;
 
+    @Autowired
+    private LiveUpdateService liveUpdateService;
+
+    @Autowired
+    @Qualifier("profilePageExecutor")
+    private Executor profilePageExecutor;
+
     @GetMapping("/register")
     public String showRegistrationForm(Model model) {
         model.addAttribute("user", new User());
@@ -134,6 +149,11 @@ public class UserController {
         return "success";
     }
 
+    /**
+     * Profile page. Runs without open-in-view (see OpenInViewConfig): the request
+     * thread holds no connection while it waits for the lookups fanned out to
+     * profilePageExecutor, each of which is its own read-only transaction.
+     */
     @GetMapping("/{id}")
     public String getUserProfile(@PathVariable int id, Model model) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -141,7 +161,7 @@ public class UserController {
             ? auth.getName()
             : null;
 
-        return userService.getUserById(id)
+        return userService.getUserWithProfiles(id)
                 .map(viewedUser -> {
                     // If no one logged in or trying to view own profile
                     if (currentUsername == null) {
@@ -157,18 +177,23 @@ public class UserController {
 
                     // User can always view their own profile
                     if (currentUser.getId() == id) {
+                        // Independent lookups run concurrently: the page waits for the slowest, not their sum
+                        CompletableFuture<List<String>> skills = loadSkills(viewedUser);
+                        CompletableFuture<List<Post>> posts = "wizard".equals(viewedUser.getRole())
+                            ? load(() -> postService.getPostsByAuthor(viewedUser.getId()))
+                            : CompletableFuture.completedFuture(null);
+
                         model.addAttribute("user", viewedUser);
                         model.addAttribute("isOwnProfile", true);
 
                         // Add skills for wizards
-                        if ("wizard".equals(viewedUser.getRole()) && viewedUser.getWizardProfile() != null) {
-                            model.addAttribute("userSkills",
-                                wizardSkillsService.getAllSkillsForWizard(viewedUser.getWizardProfile().getId()));
+                        if (skills.join() != null) {
+                            model.addAttribute("userSkills", skills.join());
                         }
 
                         // Add posts for wizards
-                        if ("wizard".equals(viewedUser.getRole())) {
-                            model.addAttribute("posts", postService.getPostsByAuthor(viewedUser.getId()));
+                        if (posts.join() != null) {
+                            model.addAttribute("posts", posts.join());
                         }
 
                         // Return appropriate view based on role
@@ -185,36 +210,49 @@ public class UserController {
                         return "redirect:/feed";
                     }
 
-                    // Regular user trying to view wizard - allow view, check subscription for later
-                    boolean isSubscribed = false;
-                    if ("regular".equals(currentUser.getRole()) && "wizard".equals(viewedUser.getRole())) {
-                        isSubscribed = subscriptionRepository.existsByRegularUserIdAndWizardId(currentUser.getId(), viewedUser.getId());
+                    boolean regularViewingWizard = "regular".equals(currentUser.getRole()) && "wizard".equals(viewedUser.getRole());
+                    boolean viewedIsWizard = "wizard".equals(viewedUser.getRole());
 
-                        // Record profile view
-                        profileViewService.recordView(currentUser, viewedUser);
+                    // Regular user trying to view wizard - allow view, check subscription for later
+                    CompletableFuture<Boolean> subscribed = regularViewingWizard
+                        ? load(() -> subscriptionRepository.existsByRegularUserIdAndWizardId(currentUser.getId(), viewedUser.getId()))
+                        : CompletableFuture.completedFuture(false);
+                    CompletableFuture<List<Post>> posts = viewedIsWizard
+                        ? load(() -> postService.getPostsByAuthor(viewedUser.getId()))
+                        : CompletableFuture.completedFuture(null);
+                    // One query for all liked posts of this author instead of one per post
+                    CompletableFuture<Set<Long>> likedPostIds = viewedIsWizard
+                        ? load(() -> postLikeService.getLikedPostIds(currentUser.getId(), viewedUser.getId()))
+                        : CompletableFuture.completedFuture(null);
+                    CompletableFuture<List<String>> skills = viewedIsWizard
+                        ? loadSkills(viewedUser)
+                        : CompletableFuture.completedFuture(null);
+
+                    // Record profile view in the background, the page does not depend on it
+                    if (regularViewingWizard) {
+                        profileViewService.recordViewAsync(currentUser.getId(), viewedUser.getId());
                     }
 
                     // Wizard viewing regular is allowed (but we don't show this in practice)
                     model.addAttribute("user", viewedUser);
                     model.addAttribute("isOwnProfile", false);
-                    model.addAttribute("isSubscribed", isSubscribed);
+                    model.addAttribute("isSubscribed", subscribed.join());
 
                     // Add posts for wizards
-                    if ("wizard".equals(viewedUser.getRole())) {
-                        model.addAttribute("posts", postService.getPostsByAuthor(viewedUser.getId()));
+                    if (viewedIsWizard) {
+                        model.addAttribute("posts", posts.join());
 
                         // Check which posts current user has liked
-                        var posts = postService.getPostsByAuthor(viewedUser.getId());
+                        Set<Long> liked = likedPostIds.join() != null ? likedPostIds.join() : Set.of();
                         Map<Long, Boolean> likedPosts = new HashMap<>();
-                        for (var post : posts) {
-                            likedPosts.put(post.getId(), postLikeService.isLiked(post.getId(), currentUser.getId()));
+                        for (var post : posts.join()) {
+                            likedPosts.put(post.getId(), liked.contains(post.getId()));
                         }
                         model.addAttribute("likedPosts", likedPosts);
 
                         // Add skills for wizards
-                        if (viewedUser.getWizardProfile() != null) {
-                            model.addAttribute("userSkills",
-                                wizardSkillsService.getAllSkillsForWizard(viewedUser.getWizardProfile().getId()));
+                        if (skills.join() != null) {
+                            model.addAttribute("userSkills", skills.join());
                         }
                     }
 
@@ -223,6 +261,18 @@ public class UserController {
                 .orElse("redirect:/feed");
     }
 
+    private CompletableFuture<List<String>> loadSkills(User user) {
+        if (!"wizard".equals(user.getRole()) || user.getWizardProfile() == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        int wizardProfileId = user.getWizardProfile().getId();
+        return load(() -> wizardSkillsService.getAllSkillsForWizard(wizardProfileId));
+    }
+
+    private <T> CompletableFuture<T> load(Supplier<T> lookup) {
+        return CompletableFuture.supplyAsync(lookup, profilePageExecutor);
+    }
+
     @PostMapping("/profile/save")
     public String saveProfileDetails(@RequestParam(required = false) String firstName,
                                     @RequestParam(required = false) String lastName,
@@ -232,7 +282,6 @@ public class UserController {
                                     @RequestParam(required = false) String birthPlace,
                                     @RequestParam(required = false) String birthTime,
                                     @RequestParam(required = false) Integer yearsOfExperience,
-                                    @RequestParam(required = false, name = "skills") String[] skills,
                                     RedirectAttributes redirectAttributes) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
 
@@ -296,16 +345,7 @@ public class UserController {
                 if (yearsOfExperience != null) {
                     profile.setYearsOfExperience(yearsOfExperience);
                 }
-
-                // Update skills
-                profile.getSkills().clear();
-                if (skills != null) {
-                    for (String skill : skills) {
-                        if (skill != null && !skill.isEmpty()) {
-                            profile.addSkill(skill);
-                        }
-                    }
-                }
+                // Skills are saved separately through /api/wizard/skills
             }
 
             // Save updated user
@@ -354,6 +394,8 @@ public class UserController {
             // Create subscription
             Subscription subscription = new Subscription(currentUser, wizard);
             subscriptionRepository.save(subscription);
+            // Open live streams start receiving this wizard's new posts
+            liveUpdateService.followChanged(currentUser.getId(), wizardId, true);
 
             redirectAttributes.addAttribute("success", "Subscribed successfully");
             return "redirect:/users/" + wizardId;
@@ -385,6 +427,7 @@ public class UserController {
             var subscriptionOpt = subscriptionRepository.findByRegularUserIdAndWizardId(currentUser.getId(), wizardId);
             if (subscriptionOpt.isPresent()) {
                 subscriptionRepository.delete(subscriptionOpt.get());
+                liveUpdateService.followChanged(currentUser.getId(), wizardId, false);
                 redirectAttributes.addAttribute("success", "Unsubscribed successfully");
             }
 
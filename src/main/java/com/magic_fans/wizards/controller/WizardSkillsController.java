@@ -148,12 +148,15 @@ public class WizardSkillsController {
             Map<String, Object> skillsData = (Map<String, Object>) payload.get("skills");
 
             // Save skills
-            wizardSkillsService.saveSkillsForWizard(wizardProfile.getId(), skillsData);
+            WizardSkillsService.SkillDelta delta = wizardSkillsService.saveSkillsForWizard(wizardProfile.getId(), skillsData);
 
-            logger.info("User {} saved their wizard skills successfully", username);
+            logger.info("User {} saved their wizard skills successfully (+{} -{})",
+                    username, delta.added().size(), delta.removed().size());
 
             response.put("success", true);
             response.put("message", "Skills saved successfully");
+            response.put("added", delta.added());
+            response.put("removed", delta.removed());
             return ResponseEntity.ok(response);
 
         } catch (ClassCastException e) {
@@ -162,6 +165,12 @@ public class WizardSkillsController {
             response.put("message", "Invalid data format");
             return ResponseEntity.badRequest().body(response);
 
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected wizard skills: {}", e.getMessage());
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+
         } catch (Exception e) {
             logger.error("Error saving wizard skills: {}", e.getMessage(), e);
             response.put("success", false);
@@ -15,6 +15,8 @@ public class FavoriteDTO {
     private String specialization;
     private String avatarUrl;
     private String profileImageUrl;
+    private String placeholder;
+    private String dominantColor;
     private LocalDateTime addedAt;
 
     public FavoriteDTO() {
@@ -84,6 +86,22 @@ public class FavoriteDTO {
         this.profileImageUrl = profileImageUrl;
     }
 
+    public String getPlaceholder() {
+        return placeholder;
+    }
+
+    public void setPlaceholder(String placeholder) {
+        this.placeholder = placeholder;
+    }
+
+    public String getDominantColor() {
+        return dominantColor;
+    }
+
+    public void setDominantColor(String dominantColor) {
+        this.dominantColor = dominantColor;
+    }
+
     public LocalDateTime getAddedAt() {
         return addedAt;
     }
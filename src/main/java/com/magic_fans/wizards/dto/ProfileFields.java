@@ -0,0 +1,73 @@
+package com.magic_fans.wizards.dto;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Selection of {@link UserProfileDTO} properties requested with {@code fields=}.
+ *
+ * Parsed from a comma-separated list of JSON property names, e.g.
+ * {@code fields=username,firstName,lastName}. The id is always included, since
+ * clients need it to link and de-duplicate profiles.
+ */
+public class ProfileFields {
+
+    public static final String USERNAME = "username";
+    public static final String FIRST_NAME = "firstName";
+    public static final String LAST_NAME = "lastName";
+    public static final String SPECIALIZATION = "specialization";
+    public static final String ONLINE = "online";
+    public static final String AVATAR_URL = "avatarUrl";
+    public static final String PROFILE_IMAGE_URL = "profileImageUrl";
+    public static final String PLACEHOLDER = "placeholder";
+    public static final String DOMINANT_COLOR = "dominantColor";
+    public static final String VIDEO_URL = "videoUrl";
+    public static final String SKILLS = "skills";
+    public static final String ABOUT_ME = "aboutMe";
+
+    private static final Set<String> KNOWN = Set.of(
+            "id", USERNAME, FIRST_NAME, LAST_NAME, SPECIALIZATION, ONLINE, AVATAR_URL,
+            PROFILE_IMAGE_URL, PLACEHOLDER, DOMINANT_COLOR, VIDEO_URL, SKILLS, ABOUT_ME);
+
+    private static final ProfileFields ALL = new ProfileFields(null);
+
+    private final Set<String> selected;
+
+    private ProfileFields(Set<String> selected) {
+        this.selected = selected;
+    }
+
+    /**
+     * Parses the {@code fields} request parameter.
+     *
+     * @param fields comma-separated property names; null or blank selects everything
+     * @return the selection, or null if the list names an unknown property
+     */
+    public static ProfileFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+
+        Set<String> selected = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!KNOWN.contains(name)) {
+                return null;
+            }
+            selected.add(name);
+        }
+        return selected.isEmpty() ? ALL : new ProfileFields(Collections.unmodifiableSet(selected));
+    }
+
+    public static ProfileFields all() {
+        return ALL;
+    }
+
+    public boolean includes(String field) {
+        return selected == null || selected.contains(field);
+    }
+}
@@ -1,23 +1,30 @@
 package com.magic_fans.wizards.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 /**
  * Data Transfer Object for user profile in feed/listing view.
  * Used to send user profile data to frontend for infinite scroll feed.
+ * Fields left null are omitted, so a response limited with {@code fields=}
+ * only carries the requested properties.
  *
  * @author Magic Fans Team
  * @version 1.0
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class UserProfileDTO {
     private int id;
     private String username;
     private String firstName;
     private String lastName;
     private String specialization;
-    private boolean online;
+    private Boolean online;
     private String avatarUrl;
     private String profileImageUrl;
+    private String placeholder;
+    private String dominantColor;
     private String videoUrl;
     private List<String> skills;
     private String aboutMe;
@@ -151,6 +158,15 @@ public class UserProfileDTO {
      * @return true if user is online, false otherwise
      */
     public boolean isOnline() {
+        return Boolean.TRUE.equals(online);
+    }
+
+    /**
+     * Gets the online status as serialized; null when it was not requested.
+     *
+     * @return the online status, or null
+     */
+    public Boolean getOnline() {
         return online;
     }
 
@@ -159,7 +175,7 @@ public class UserProfileDTO {
      *
      * @param online true if user is online, false otherwise
      */
-    public void setOnline(boolean online) {
+    public void setOnline(Boolean online) {
         this.online = online;
     }
 
@@ -199,6 +215,42 @@ public class UserProfileDTO {
         this.profileImageUrl = profileImageUrl;
     }
 
+    /**
+     * Gets the inline low-quality image placeholder (data URI).
+     *
+     * @return the placeholder data URI, or null if no image was uploaded
+     */
+    public String getPlaceholder() {
+        return placeholder;
+    }
+
+    /**
+     * Sets the inline low-quality image placeholder (data URI).
+     *
+     * @param placeholder the placeholder data URI to set
+     */
+    public void setPlaceholder(String placeholder) {
+        this.placeholder = placeholder;
+    }
+
+    /**
+     * Gets the dominant color of the profile image.
+     *
+     * @return the color as #RRGGBB
+     */
+    public String getDominantColor() {
+        return dominantColor;
+    }
+
+    /**
+     * Sets the dominant color of the profile image.
+     *
+     * @param dominantColor the color as #RRGGBB to set
+     */
+    public void setDominantColor(String dominantColor) {
+        this.dominantColor = dominantColor;
+    }
+
     /**
      * Gets the video URL.
      *
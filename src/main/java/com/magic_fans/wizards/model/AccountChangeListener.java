@@ -0,0 +1,24 @@
+package com.magic_fans.wizards.model;
+
+import com.magic_fans.wizards.service.UserDetailsCache;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA listener that drops a changed or deleted user from the sign-in cache,
+ * so a new password, a deactivation or a rename applies to the next login.
+ */
+public class AccountChangeListener {
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        if (userDetailsCache != null) {
+            userDetailsCache.userChanged(user.getId());
+        }
+    }
+}
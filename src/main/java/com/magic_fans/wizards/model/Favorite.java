@@ -4,8 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(PopularityChangeListener.class)
 @Table(name = "favorites",
-       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "favorite_wizard_id"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "favorite_wizard_id"}),
+       indexes = @Index(name = "idx_favorites_wizard", columnList = "favorite_wizard_id"))
 public class Favorite {
 
     @Id
@@ -0,0 +1,54 @@
+package com.magic_fans.wizards.model;
+
+import com.magic_fans.wizards.service.PopularityRanking;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * JPA listener that marks the wizard whose popularity counts a write touches,
+ * so the next ranking run recomputes only those wizards. Updates of favorites,
+ * subscriptions, views and likes do not change counts (a repeated view only
+ * moves its timestamp) and are ignored.
+ */
+public class PopularityChangeListener {
+
+    // Lazy for the same reason as in ProfileChangeListener: the ranking needs the entity manager
+    @Autowired
+    @Lazy
+    private PopularityRanking popularityRanking;
+
+    @PostPersist
+    @PostRemove
+    public void onCountChange(Object entity) {
+        if (popularityRanking == null) {
+            return;
+        }
+        if (entity instanceof Favorite favorite) {
+            popularityRanking.markChanged(favorite.getFavoriteWizard().getId());
+        } else if (entity instanceof Subscription subscription) {
+            popularityRanking.markChanged(subscription.getWizard().getId());
+        } else if (entity instanceof ProfileView view) {
+            popularityRanking.markChanged(view.getViewedWizard().getId());
+        } else if (entity instanceof PostLike like) {
+            popularityRanking.markChanged(like.getPost().getAuthor().getId());
+        } else if (entity instanceof Post post) {
+            // Likes of a deleted post go with it
+            popularityRanking.markChanged(post.getAuthor().getId());
+        } else if (entity instanceof User user) {
+            popularityRanking.markChanged(user.getId());
+        }
+    }
+
+    /**
+     * A user who became a wizard (or stopped being one) gets or loses a ranking row.
+     */
+    @PostUpdate
+    public void onUserUpdate(Object entity) {
+        if (popularityRanking != null && entity instanceof User user) {
+            popularityRanking.markChanged(user.getId());
+        }
+    }
+}
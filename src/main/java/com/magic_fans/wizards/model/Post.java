@@ -4,7 +4,8 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "posts")
+@EntityListeners(PopularityChangeListener.class)
+@Table(name = "posts", indexes = @Index(name = "idx_posts_author", columnList = "author_id"))
 public class Post {
 
     @Id
@@ -0,0 +1,58 @@
+package com.magic_fans.wizards.model;
+
+import com.magic_fans.wizards.service.ProfileDataVersion;
+import com.magic_fans.wizards.service.SkillFacetIndex;
+import com.magic_fans.wizards.service.WizardRangeIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * JPA listener that bumps the profile data version on every write to
+ * entities shown in profile listings, and keeps the skill facet counts and
+ * the experience/price index in step. Instantiated by Hibernate through Spring's bean container, so it can
+ * be autowired.
+ */
+public class ProfileChangeListener {
+
+    @Autowired
+    private ProfileDataVersion profileDataVersion;
+
+    // Lazy: the index depends on repositories, which need the entity manager this listener is part of
+    @Autowired
+    @Lazy
+    private SkillFacetIndex skillFacetIndex;
+
+    @Autowired
+    @Lazy
+    private WizardRangeIndex wizardRangeIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onChange(Object entity) {
+        if (profileDataVersion != null) {
+            profileDataVersion.changed();
+        }
+        if (skillFacetIndex != null) {
+            skillFacetIndex.entityChanged(entity);
+        }
+        if (wizardRangeIndex != null) {
+            wizardRangeIndex.entityChanged(entity);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (profileDataVersion != null) {
+            profileDataVersion.changed();
+        }
+        if (skillFacetIndex != null) {
+            skillFacetIndex.entityRemoved(entity);
+        }
+        if (wizardRangeIndex != null) {
+            wizardRangeIndex.entityRemoved(entity);
+        }
+    }
+}
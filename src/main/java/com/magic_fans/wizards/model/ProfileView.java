@@ -4,8 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(PopularityChangeListener.class)
 @Table(name = "profile_views",
-       uniqueConstraints = @UniqueConstraint(columnNames = {"viewer_id", "viewed_wizard_id"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"viewer_id", "viewed_wizard_id"}),
+       indexes = @Index(name = "idx_profile_views_wizard", columnList = "viewed_wizard_id"))
 public class ProfileView {
 
     @Id
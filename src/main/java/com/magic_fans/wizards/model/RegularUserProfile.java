@@ -1,12 +1,14 @@
 package com.magic_fans.wizards.model;
 
 import jakarta.persistence.*;
+
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
 @Entity
 @Table(name = "regular_user_profiles")
-public class RegularUserProfile {
+public class RegularUserProfile implements Serializable {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
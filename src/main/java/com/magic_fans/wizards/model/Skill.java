@@ -0,0 +1,80 @@
+package com.magic_fans.wizards.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Entry of the skill catalog. Wizard skills reference entries by their small
+ * integer id instead of repeating section, subsection and name on every row.
+ */
+@Entity
+@Table(name = "skill_catalog",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_skill_catalog",
+                columnNames = {"section", "subsection", "name"}
+        ))
+public class Skill {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "section", nullable = false, length = 50)
+    private String section;
+
+    @Column(name = "subsection", length = 50)
+    private String subsection;
+
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    public Skill() {
+    }
+
+    public Skill(String section, String subsection, String name) {
+        this.section = section;
+        this.subsection = subsection;
+        this.name = name;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getSection() {
+        return section;
+    }
+
+    public void setSection(String section) {
+        this.section = section;
+    }
+
+    public String getSubsection() {
+        return subsection;
+    }
+
+    public void setSubsection(String subsection) {
+        this.subsection = subsection;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return "Skill{" +
+                "id=" + id +
+                ", section='" + section + '\'' +
+                ", subsection='" + subsection + '\'' +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
@@ -4,8 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(PopularityChangeListener.class)
 @Table(name = "subscriptions",
-       uniqueConstraints = @UniqueConstraint(columnNames = {"subscriber_id", "wizard_id"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"subscriber_id", "wizard_id"}),
+       indexes = @Index(name = "idx_subscriptions_wizard", columnList = "wizard_id"))
 public class Subscription {
 
     @Id
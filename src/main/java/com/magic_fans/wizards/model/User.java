@@ -9,6 +9,7 @@ import java.util.Collection;
 import java.util.Collections;
 
 @Entity
+@EntityListeners({ProfileChangeListener.class, PopularityChangeListener.class, AccountChangeListener.class})
 @Table(name = "users")
 public class User implements UserDetails {
     @Id
@@ -39,6 +40,12 @@ public class User implements UserDetails {
     @Column(name = "avatar_url")
     private String avatarUrl;
 
+    @Column(name = "avatar_placeholder", length = 1024)
+    private String avatarPlaceholder;
+
+    @Column(name = "avatar_color", length = 7)
+    private String avatarColor;
+
     @Column(nullable = false)
     private String role = "regular";
 
@@ -139,6 +146,22 @@ public class User implements UserDetails {
         this.avatarUrl = avatarUrl;
     }
 
+    public String getAvatarPlaceholder() {
+        return avatarPlaceholder;
+    }
+
+    public void setAvatarPlaceholder(String avatarPlaceholder) {
+        this.avatarPlaceholder = avatarPlaceholder;
+    }
+
+    public String getAvatarColor() {
+        return avatarColor;
+    }
+
+    public void setAvatarColor(String avatarColor) {
+        this.avatarColor = avatarColor;
+    }
+
     public String getRole() {
         return role;
     }
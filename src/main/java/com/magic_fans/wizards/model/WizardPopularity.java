@@ -0,0 +1,71 @@
+package com.magic_fans.wizards.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Precomputed popularity of a wizard: the counts shown on the billing page and
+ * the weighted score the feed is ranked by. One row per wizard, keyed by the
+ * wizard's user id.
+ *
+ * Written by {@link com.magic_fans.wizards.service.PopularityRanking} only;
+ * the rank index serves the feed's keyset pages without a sort.
+ */
+@Entity
+@Table(name = "wizard_popularity",
+        indexes = @Index(name = "idx_wizard_popularity_rank", columnList = "score DESC, wizard_id"))
+public class WizardPopularity {
+
+    @Id
+    @Column(name = "wizard_id")
+    private int wizardId;
+
+    @Column(name = "favorites", nullable = false)
+    private long favorites;
+
+    @Column(name = "subscribers", nullable = false)
+    private long subscribers;
+
+    @Column(name = "views", nullable = false)
+    private long views;
+
+    @Column(name = "likes", nullable = false)
+    private long likes;
+
+    @Column(name = "score", nullable = false)
+    private double score;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public WizardPopularity() {
+    }
+
+    public int getWizardId() {
+        return wizardId;
+    }
+
+    public long getFavorites() {
+        return favorites;
+    }
+
+    public long getSubscribers() {
+        return subscribers;
+    }
+
+    public long getViews() {
+        return views;
+    }
+
+    public long getLikes() {
+        return likes;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -1,12 +1,14 @@
 package com.magic_fans.wizards.model;
 
 import jakarta.persistence.*;
-import java.util.HashSet;
-import java.util.Set;
+
+import java.io.Serializable;
 
 @Entity
-@Table(name = "wizard_profiles")
-public class WizardProfile {
+@EntityListeners(ProfileChangeListener.class)
+@Table(name = "wizard_profiles",
+        indexes = @Index(name = "idx_wizard_profiles_experience", columnList = "years_of_experience"))
+public class WizardProfile implements Serializable {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
@@ -18,10 +20,7 @@ public class WizardProfile {
     @Column(name = "years_of_experience")
     private Integer yearsOfExperience;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "wizard_skills", joinColumns = @JoinColumn(name = "wizard_profile_id"))
-    @Column(name = "skill")
-    private Set<String> skills = new HashSet<>();
+    // Skills live in wizard_profile_skills and are read through WizardSkillsService on demand
 
     public WizardProfile() {
     }
@@ -54,20 +53,4 @@ public class WizardProfile {
     public void setYearsOfExperience(Integer yearsOfExperience) {
         this.yearsOfExperience = yearsOfExperience;
     }
-
-    public Set<String> getSkills() {
-        return skills;
-    }
-
-    public void setSkills(Set<String> skills) {
-        this.skills = skills;
-    }
-
-    public void addSkill(String skill) {
-        this.skills.add(skill);
-    }
-
-    public void removeSkill(String skill) {
-        this.skills.remove(skill);
-    }
 }
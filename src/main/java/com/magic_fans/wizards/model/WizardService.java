@@ -3,7 +3,12 @@ package com.magic_fans.wizards.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "wizard_services")
+@EntityListeners(ProfileChangeListener.class)
+@Table(name = "wizard_services",
+        indexes = {
+                @Index(name = "idx_wizard_services_price", columnList = "price"),
+                @Index(name = "idx_wizard_services_user", columnList = "user_id")
+        })
 public class WizardService {
 
     @Id
@@ -4,10 +4,11 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(ProfileChangeListener.class)
 @Table(name = "wizard_profile_skills",
         uniqueConstraints = @UniqueConstraint(
                 name = "uk_wizard_skill",
-                columnNames = {"wizard_profile_id", "skill_name"}
+                columnNames = {"wizard_profile_id", "skill_id"}
         ))
 public class WizardSkill {
 
@@ -19,14 +20,10 @@ public class WizardSkill {
     @JoinColumn(name = "wizard_profile_id", nullable = false)
     private WizardProfile wizardProfile;
 
-    @Column(name = "section", nullable = false, length = 50)
-    private String section;
-
-    @Column(name = "subsection", length = 50)
-    private String subsection;
-
-    @Column(name = "skill_name", nullable = false, length = 100)
-    private String skillName;
+    // Section, subsection and name live in the catalog (see SkillCatalog)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "skill_id", nullable = false)
+    private Skill skill;
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -35,11 +32,9 @@ public class WizardSkill {
         this.createdAt = LocalDateTime.now();
     }
 
-    public WizardSkill(WizardProfile wizardProfile, String section, String subsection, String skillName) {
+    public WizardSkill(WizardProfile wizardProfile, Skill skill) {
         this.wizardProfile = wizardProfile;
-        this.section = section;
-        this.subsection = subsection;
-        this.skillName = skillName;
+        this.skill = skill;
         this.createdAt = LocalDateTime.now();
     }
 
@@ -61,28 +56,19 @@ public class WizardSkill {
         this.wizardProfile = wizardProfile;
     }
 
-    public String getSection() {
-        return section;
-    }
-
-    public void setSection(String section) {
-        this.section = section;
-    }
-
-    public String getSubsection() {
-        return subsection;
-    }
-
-    public void setSubsection(String subsection) {
-        this.subsection = subsection;
+    public Skill getSkill() {
+        return skill;
     }
 
-    public String getSkillName() {
-        return skillName;
+    public void setSkill(Skill skill) {
+        this.skill = skill;
     }
 
-    public void setSkillName(String skillName) {
-        this.skillName = skillName;
+    /**
+     * Catalog id of the skill; reading it does not load the catalog row.
+     */
+    public Integer getSkillId() {
+        return skill != null ? skill.getId() : null;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -97,9 +83,7 @@ public class WizardSkill {
     public String toString() {
         return "WizardSkill{" +
                 "id=" + id +
-                ", section='" + section + '\'' +
-                ", subsection='" + subsection + '\'' +
-                ", skillName='" + skillName + '\'' +
+                ", skillId=" + getSkillId() +
                 '}';
     }
 }
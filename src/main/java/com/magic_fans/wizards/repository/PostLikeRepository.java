@@ -26,6 +26,10 @@ public interface PostLikeRepository extends JpaRepository<PostLike, Long> {
     @Query("SELECT pl FROM PostLike pl WHERE pl.post.author.id = :authorId ORDER BY pl.likedAt DESC")
     List<PostLike> findAllLikesByAuthorId(@Param("authorId") int authorId);
 
+    // Ids of this author's posts that the user has liked (one query for a whole profile page)
+    @Query("SELECT pl.post.id FROM PostLike pl WHERE pl.user.id = :userId AND pl.post.author.id = :authorId")
+    List<Long> findLikedPostIdsByUserIdAndAuthorId(@Param("userId") int userId, @Param("authorId") int authorId);
+
     // Count total likes for all posts by author
     @Query("SELECT COUNT(pl) FROM PostLike pl WHERE pl.post.author.id = :authorId")
     long countLikesByAuthorId(@Param("authorId") int authorId);
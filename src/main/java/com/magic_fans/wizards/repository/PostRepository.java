@@ -2,8 +2,11 @@ package com.magic_fans.wizards.repository;
 
 import com.magic_fans.wizards.model.Post;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,4 +17,7 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     long countByAuthorId(int authorId);
 
     List<Post> findAllByOrderByCreatedAtDesc();
+
+    @Query("SELECT p.imageUrl FROM Post p WHERE p.imageUrl IN :urls")
+    List<String> findReferencedImageUrls(@Param("urls") Collection<String> urls);
 }
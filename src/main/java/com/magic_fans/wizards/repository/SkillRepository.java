@@ -0,0 +1,9 @@
+package com.magic_fans.wizards.repository;
+
+import com.magic_fans.wizards.model.Skill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SkillRepository extends JpaRepository<Skill, Integer> {
+}
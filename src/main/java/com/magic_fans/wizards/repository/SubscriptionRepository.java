@@ -2,6 +2,8 @@ package com.magic_fans.wizards.repository;
 
 import com.magic_fans.wizards.model.Subscription;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -26,6 +28,10 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, Inte
     // Count subscribers for this wizard
     long countByWizardId(int wizardId);
 
+    // Ids of wizards this user follows (no entity loading)
+    @Query("SELECT s.wizard.id FROM Subscription s WHERE s.subscriber.id = :subscriberId")
+    List<Integer> findWizardIdsBySubscriberId(@Param("subscriberId") int subscriberId);
+
     // Legacy methods for backward compatibility (regularUserId = subscriberId)
     default Optional<Subscription> findByRegularUserIdAndWizardId(int regularUserId, int wizardId) {
         return findBySubscriberIdAndWizardId(regularUserId, wizardId);
@@ -2,8 +2,12 @@ package com.magic_fans.wizards.repository;
 
 import com.magic_fans.wizards.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,14 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    @Query("SELECT u.avatarUrl FROM User u WHERE u.avatarUrl IN :urls")
+    List<String> findReferencedAvatarUrls(@Param("urls") Collection<String> urls);
+
+    // The page's user with both profiles, for views rendered without open-in-view
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.regularProfile LEFT JOIN FETCH u.wizardProfile WHERE u.id = :id")
+    Optional<User> findWithProfilesById(@Param("id") int id);
+
+    @Query("SELECT u FROM User u WHERE u.wizardProfile.id IN :ids")
+    List<User> findByWizardProfileIds(@Param("ids") Collection<Integer> ids);
+}
@@ -0,0 +1,28 @@
+package com.magic_fans.wizards.repository;
+
+import com.magic_fans.wizards.model.WizardPopularity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WizardPopularityRepository extends JpaRepository<WizardPopularity, Integer> {
+
+    // First page of listed wizards, most popular first; ties by id
+    @Query("SELECT p FROM WizardPopularity p, User u WHERE u.id = p.wizardId " +
+           "AND u.active = true AND u.role = 'wizard' ORDER BY p.score DESC, p.wizardId ASC")
+    List<WizardPopularity> findRanked(Pageable pageable);
+
+    // Next page after (score, wizardId) of the last row already shown
+    @Query("SELECT p FROM WizardPopularity p, User u WHERE u.id = p.wizardId " +
+           "AND u.active = true AND u.role = 'wizard' " +
+           "AND (p.score < :score OR (p.score = :score AND p.wizardId > :wizardId)) " +
+           "ORDER BY p.score DESC, p.wizardId ASC")
+    List<WizardPopularity> findRankedAfter(@Param("score") double score,
+                                           @Param("wizardId") int wizardId,
+                                           Pageable pageable);
+}
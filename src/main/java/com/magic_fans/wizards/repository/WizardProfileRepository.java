@@ -2,11 +2,36 @@ package com.magic_fans.wizards.repository;
 
 import com.magic_fans.wizards.model.WizardProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface WizardProfileRepository extends JpaRepository<WizardProfile, Integer> {
     Optional<WizardProfile> findByUserId(int userId);
+
+    /**
+     * Profile IDs of wizards shown in listings (active accounts with the wizard role)
+     */
+    @Query("SELECT wp.id FROM User u JOIN u.wizardProfile wp WHERE u.active = true AND u.role = 'wizard'")
+    List<Integer> findListedIds();
+
+    @Query("SELECT wp.id FROM User u JOIN u.wizardProfile wp " +
+           "WHERE u.active = true AND u.role = 'wizard' AND wp.id IN :ids")
+    List<Integer> findListedIdsIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Profile IDs by the owner's specialization, case-insensitive
+     */
+    @Query("SELECT wp.id FROM User u JOIN u.wizardProfile wp WHERE LOWER(u.specialization) = LOWER(:specialization)")
+    List<Integer> findIdsBySpecialization(@Param("specialization") String specialization);
+
+    @Query("SELECT wp.id FROM User u JOIN u.wizardProfile wp " +
+           "WHERE LOWER(u.specialization) = LOWER(:specialization) AND wp.id IN :ids")
+    List<Integer> findIdsBySpecializationIn(@Param("specialization") String specialization,
+                                            @Param("ids") Collection<Integer> ids);
 }
@@ -2,11 +2,11 @@ package com.magic_fans.wizards.repository;
 
 import com.magic_fans.wizards.model.WizardSkill;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,29 +18,38 @@ public interface WizardSkillRepository extends JpaRepository<WizardSkill, Long>
     List<WizardSkill> findByWizardProfileId(int wizardProfileId);
 
     /**
-     * Delete all skills for a specific wizard profile (used when re-saving)
+     * Catalog ids of a wizard's skills, without loading the skill rows
      */
-    @Modifying(clearAutomatically = true)
-    @Query("DELETE FROM WizardSkill ws WHERE ws.wizardProfile.id = :wizardProfileId")
-    void deleteByWizardProfileId(@Param("wizardProfileId") int wizardProfileId);
+    @Query("SELECT ws.skill.id FROM WizardSkill ws WHERE ws.wizardProfile.id = :wizardProfileId ORDER BY ws.id")
+    List<Integer> findSkillIdsByWizardProfileId(@Param("wizardProfileId") int wizardProfileId);
 
     /**
      * Find wizard profile IDs that have ANY of the specified skills (OR logic)
      * Used for filtering wizards by skills on the feed page
      */
-    @Query("SELECT DISTINCT ws.wizardProfile.id FROM WizardSkill ws WHERE ws.skillName IN :skillNames")
-    List<Integer> findWizardProfileIdsBySkillNames(@Param("skillNames") List<String> skillNames);
+    @Query("SELECT DISTINCT ws.wizardProfile.id FROM WizardSkill ws WHERE ws.skill.id IN :skillIds")
+    List<Integer> findWizardProfileIdsBySkillIds(@Param("skillIds") Collection<Integer> skillIds);
+
+    /**
+     * Same as findWizardProfileIdsBySkillIds, limited to the given candidate profiles
+     */
+    @Query("SELECT DISTINCT ws.wizardProfile.id FROM WizardSkill ws " +
+           "WHERE ws.skill.id IN :skillIds AND ws.wizardProfile.id IN :ids")
+    List<Integer> findWizardProfileIdsBySkillIdsIn(
+            @Param("skillIds") Collection<Integer> skillIds,
+            @Param("ids") Collection<Integer> ids
+    );
 
     /**
      * Find wizard profile IDs that have ALL of the specified skills (AND logic)
      * Alternative filtering approach - more strict
      */
     @Query("SELECT ws.wizardProfile.id FROM WizardSkill ws " +
-           "WHERE ws.skillName IN :skillNames " +
+           "WHERE ws.skill.id IN :skillIds " +
            "GROUP BY ws.wizardProfile.id " +
-           "HAVING COUNT(DISTINCT ws.skillName) = :count")
-    List<Integer> findWizardProfileIdsByAllSkills(
-            @Param("skillNames") List<String> skillNames,
+           "HAVING COUNT(DISTINCT ws.skill.id) = :count")
+    List<Integer> findWizardProfileIdsByAllSkillIds(
+            @Param("skillIds") Collection<Integer> skillIds,
             @Param("count") long count
     );
 
@@ -50,19 +59,12 @@ public interface WizardSkillRepository extends JpaRepository<WizardSkill, Long>
     long countByWizardProfileId(int wizardProfileId);
 
     /**
-     * Check if a wizard has a specific skill
+     * Check if a wizard has any of the specified skills
      */
-    boolean existsByWizardProfileIdAndSkillName(int wizardProfileId, String skillName);
-
-    /**
-     * Find wizard profile IDs by section (e.g., all wizards with any skill in section1)
-     */
-    @Query("SELECT DISTINCT ws.wizardProfile.id FROM WizardSkill ws WHERE ws.section = :section")
-    List<Integer> findWizardProfileIdsBySection(@Param("section") String section);
-
-    /**
-     * Find wizard profile IDs by subsection
-     */
-    @Query("SELECT DISTINCT ws.wizardProfile.id FROM WizardSkill ws WHERE ws.subsection = :subsection")
-    List<Integer> findWizardProfileIdsBySubsection(@Param("subsection") String subsection);
+    @Query("SELECT COUNT(ws) > 0 FROM WizardSkill ws " +
+           "WHERE ws.wizardProfile.id = :wizardProfileId AND ws.skill.id IN :skillIds")
+    boolean existsByWizardProfileIdAndSkillIds(
+            @Param("wizardProfileId") int wizardProfileId,
+            @Param("skillIds") Collection<Integer> skillIds
+    );
 }
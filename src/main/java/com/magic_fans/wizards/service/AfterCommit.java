@@ -0,0 +1,56 @@
+package com.magic_fans.wizards.service;
+
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Defers changes to in-memory state (indexes, open streams) until the surrounding transaction commits.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Runs the change after commit, in order with the other changes queued
+     * under the same key; immediately without a transaction. A rollback
+     * discards it.
+     *
+     * @param key one object per index, groups its changes into one synchronization
+     */
+    static void run(Object key, Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Runnable> pending = (List<Runnable>) TransactionSynchronizationManager.getResource(key);
+        if (pending != null) {
+            pending.add(change);
+            return;
+        }
+        List<Runnable> changes = new ArrayList<>();
+        changes.add(change);
+        TransactionSynchronizationManager.bindResource(key, changes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            // Before ProfileDataVersion moves, so no page is cached under the new version from old index state
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                if (status == STATUS_COMMITTED) {
+                    changes.forEach(Runnable::run);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,246 @@
+package com.magic_fans.wizards.service;
+
+import com.magic_fans.wizards.model.User;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Issues and verifies signed bearer tokens (compact JWS, HS256).
+ *
+ * Tokens carry the user id, username and role, so a request authenticated by
+ * an access token needs neither a session nor a user lookup, and any node
+ * sharing the secret can verify it. Access tokens are short-lived; refresh
+ * tokens live longer and are exchanged for a new pair after re-checking that
+ * the account is still active. Refresh tokens also carry a token id and a
+ * family id and are single-use: {@link RefreshTokenStore} rotates and
+ * revokes them.
+ */
+@Service
+public class AuthTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthTokenService.class);
+
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String HEADER = base64Url("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // Общий секрет всех узлов; пустой — случайный ключ, токены действуют только на этом узле
+    @Value("${magic-fans.auth.tokens.secret:}")
+    private String secret = "";
+
+    @Value("${magic-fans.auth.tokens.access-ttl:PT15M}")
+    private Duration accessTtl = Duration.ofMinutes(15);
+
+    @Value("${magic-fans.auth.tokens.refresh-ttl:P14D}")
+    private Duration refreshTtl = Duration.ofDays(14);
+
+    @Autowired
+    private RefreshTokenStore refreshTokenStore;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    private final JsonMapper jsonMapper = new JsonMapper();
+
+    private SecretKeySpec key;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            logger.warn("magic-fans.auth.tokens.secret is not set; bearer tokens are only valid on this instance until restart");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < 32) {
+                throw new IllegalStateException("magic-fans.auth.tokens.secret must be at least 32 bytes");
+            }
+        }
+        key = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
+    public String issueAccessToken(User user) {
+        return issue(user, ACCESS, accessTtl, null, null);
+    }
+
+    /**
+     * Issues the first refresh token of a new family, at sign-in.
+     */
+    public String issueRefreshToken(User user) {
+        return issueRefreshToken(user, RefreshTokenStore.newId());
+    }
+
+    /**
+     * Consumes a verified refresh token and issues the next one of its family.
+     *
+     * @return the new refresh token, or null if this one was already used or
+     *         revoked (its family is revoked then)
+     */
+    public String rotateRefreshToken(TokenClaims claims, User user) {
+        if (claims.getTokenId() == null
+                || !refreshTokenStore.consume(claims.getTokenId(), claims.getFamilyId(), claims.getUserId())) {
+            return null;
+        }
+        return issueRefreshToken(user, claims.getFamilyId());
+    }
+
+    /**
+     * Revokes the refresh token's family, so neither it nor its successors work.
+     */
+    public void revokeRefreshToken(TokenClaims claims) {
+        if (claims.getFamilyId() != null) {
+            refreshTokenStore.revokeFamily(claims.getFamilyId());
+        }
+    }
+
+    public Duration getAccessTtl() {
+        return accessTtl;
+    }
+
+    /**
+     * Verifies signature, expiry and token type.
+     *
+     * @param token compact token from the client
+     * @param expectedType {@link #ACCESS} or {@link #REFRESH}
+     * @return the claims, or null if the token is malformed, forged, expired or of another type
+     */
+    public TokenClaims verify(String token, String expectedType) {
+        if (token == null) {
+            return null;
+        }
+        int firstDot = token.indexOf('.');
+        int secondDot = token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot <= firstDot || token.indexOf('.', secondDot + 1) >= 0) {
+            return null;
+        }
+
+        try {
+            byte[] expected = sign(token.substring(0, secondDot));
+            byte[] actual = DECODER.decode(token.substring(secondDot + 1));
+            if (!MessageDigest.isEqual(expected, actual) || !HEADER.equals(token.substring(0, firstDot))) {
+                return null;
+            }
+
+            Map<?, ?> claims = jsonMapper.readValue(DECODER.decode(token.substring(firstDot + 1, secondDot)), Map.class);
+            long expiresAt = ((Number) claims.get("exp")).longValue() * 1000;
+            if (!expectedType.equals(claims.get("typ")) || clock.getAsLong() >= expiresAt) {
+                return null;
+            }
+            return new TokenClaims(Integer.parseInt((String) claims.get("sub")), (String) claims.get("name"),
+                (String) claims.get("role"), expiresAt, (String) claims.get("jti"), (String) claims.get("fam"));
+        } catch (RuntimeException e) {
+            // Malformed base64, JSON or claim types
+            return null;
+        }
+    }
+
+    private String issueRefreshToken(User user, String familyId) {
+        String tokenId = RefreshTokenStore.newId();
+        String token = issue(user, REFRESH, refreshTtl, tokenId, familyId);
+        refreshTokenStore.add(tokenId, familyId, user.getId(), clock.getAsLong() + refreshTtl.toMillis());
+        return token;
+    }
+
+    private String issue(User user, String type, Duration ttl, String tokenId, String familyId) {
+        long now = clock.getAsLong() / 1000;
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", String.valueOf(user.getId()));
+        claims.put("name", user.getUsername());
+        claims.put("role", user.getRole());
+        claims.put("typ", type);
+        if (tokenId != null) {
+            claims.put("jti", tokenId);
+            claims.put("fam", familyId);
+        }
+        claims.put("iat", now);
+        claims.put("exp", now + ttl.toSeconds());
+
+        String signingInput = HEADER + "." + base64Url(jsonMapper.writeValueAsBytes(claims));
+        return signingInput + "." + base64Url(sign(signingInput));
+    }
+
+    private byte[] sign(String signingInput) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Verified token contents.
+     */
+    public static class TokenClaims {
+        private final int userId;
+        private final String username;
+        private final String role;
+        private final long expiresAt;
+        private final String tokenId;
+        private final String familyId;
+
+        TokenClaims(int userId, String username, String role, long expiresAt, String tokenId, String familyId) {
+            this.userId = userId;
+            this.username = username;
+            this.role = role;
+            this.expiresAt = expiresAt;
+            this.tokenId = tokenId;
+            this.familyId = familyId;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        /**
+         * @return the refresh token id (jti), null for access tokens
+         */
+        public String getTokenId() {
+            return tokenId;
+        }
+
+        /**
+         * @return the refresh token family, null for access tokens
+         */
+        public String getFamilyId() {
+            return familyId;
+        }
+    }
+}
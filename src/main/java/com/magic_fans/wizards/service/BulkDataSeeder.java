@@ -0,0 +1,594 @@
+package com.magic_fans.wizards.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates large synthetic datasets for scale testing.
+ *
+ * Rows go straight to JDBC in batched inserts, bypassing JPA, and the single
+ * password hash is computed once for all accounts. Users, wizard profiles and
+ * posts get explicit ids from ranges reserved up front (the identity columns
+ * are restarted past them), so chunks can be generated in parallel without
+ * reading back generated keys. Every chunk uses its own random stream derived
+ * from the plan's seed, so a plan always produces the same data.
+ *
+ * Phases run one after another because of foreign keys:
+ * accounts (users, wizard profiles, skills, services), then posts with their
+ * likes, then favorites, subscriptions and profile views.
+ */
+@Service
+public class BulkDataSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkDataSeeder.class);
+
+    private static final String[] FIRST_NAMES = {
+        "Алина", "Борис", "Вера", "Глеб", "Дарья", "Егор", "Жанна", "Зоя", "Игорь", "Ксения",
+        "Лев", "Мария", "Нина", "Олег", "Полина", "Роман", "Софья", "Тимур", "Ульяна", "Яна"
+    };
+    private static final String[] LAST_NAMES = {
+        "Белова", "Вьюгин", "Громова", "Дубов", "Зорина", "Ковалёв", "Лунина", "Миронов",
+        "Огнева", "Полозов", "Рябинина", "Соколов", "Туманова", "Филин", "Чернова", "Ясенев"
+    };
+    private static final String[] FALLBACK_SPECIALIZATIONS = {
+        "White Magic", "Black Magic", "Gray Magic", "Elemental Magic"
+    };
+
+    private static final long YEAR_MILLIS = 365L * 24 * 60 * 60 * 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ProfessionTaxonomy professionTaxonomy;
+
+    @Autowired
+    private SkillCatalog skillCatalog;
+
+    @Autowired
+    private ProfileDataVersion profileDataVersion;
+
+    @Autowired
+    private SkillFacetIndex skillFacetIndex;
+
+    @Autowired
+    private WizardRangeIndex wizardRangeIndex;
+
+    @Autowired
+    private PopularityRanking popularityRanking;
+
+    /**
+     * Inserts one dataset on top of whatever the database already holds.
+     *
+     * @return row counts per table and the elapsed time
+     */
+    public SeedResult seed(Plan plan) {
+        long started = System.currentTimeMillis();
+        SeedResult result = new SeedResult();
+        Run run = new Run(plan, result);
+
+        logger.info("Seeding {} users ({} wizards) on {} threads",
+            plan.getUsers(), run.wizardCount, plan.getThreads());
+
+        ExecutorService pool = Executors.newFixedThreadPool(plan.getThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "seed-" + run.threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            phase("accounts", pool, chunks(plan.getUsers(), plan.getChunkSize()), run::seedAccounts);
+            phase("posts", pool, chunks(run.wizardCount, plan.getChunkSize()), run::seedPosts);
+            phase("relations", pool, chunks(plan.getUsers(), plan.getChunkSize()), run::seedRelations);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Rows were written behind JPA's back, entity listeners never saw them
+        skillFacetIndex.invalidate();
+        wizardRangeIndex.invalidate();
+        popularityRanking.invalidate();
+        profileDataVersion.changed();
+
+        result.elapsedMillis = System.currentTimeMillis() - started;
+        logger.info("Seeding finished in {} ms: {}", result.elapsedMillis, result.getRows());
+        return result;
+    }
+
+    private void phase(String name, ExecutorService pool, int chunks, IntConsumer chunk) {
+        long started = System.currentTimeMillis();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < chunks; i++) {
+            int index = i;
+            futures.add(pool.submit(() -> transaction.executeWithoutResult(status -> chunk.accept(index))));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Seeding interrupted in phase " + name, e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Seeding failed in phase " + name, e.getCause());
+        }
+        logger.info("Seed phase {} done in {} ms", name, System.currentTimeMillis() - started);
+    }
+
+    private static int chunks(int items, int chunkSize) {
+        return (items + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * State of one seeding run: reserved id ranges and the shared lookup data.
+     */
+    private class Run {
+        final Plan plan;
+        final SeedResult result;
+        final AtomicInteger threadIds = new AtomicInteger();
+
+        final int wizardCount;
+        final long userBase;
+        final long profileBase;
+        final long postBase;
+        final long now = System.currentTimeMillis();
+
+        final String password;
+        final List<ProfessionTaxonomy.Profession> professions;
+        final List<Skill> allSkills = new ArrayList<>();
+
+        Run(Plan plan, SeedResult result) {
+            this.plan = plan;
+            this.result = result;
+            this.wizardCount = (plan.getUsers() + plan.getWizardEvery() - 1) / plan.getWizardEvery();
+            this.password = passwordEncoder.encode(plan.getPassword());
+            this.professions = professionTaxonomy.getProfessions();
+            for (ProfessionTaxonomy.Profession profession : professions) {
+                for (String function : profession.functions()) {
+                    allSkills.add(skill(profession, function));
+                }
+            }
+
+            userBase = reserve("users", plan.getUsers());
+            profileBase = reserve("wizard_profiles", wizardCount);
+            postBase = reserve("posts", (long) wizardCount * plan.getPostsPerWizard());
+        }
+
+        /**
+         * Reserves an id range by moving the identity past it.
+         *
+         * @return first id of the range
+         */
+        private long reserve(String table, long count) {
+            Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            long base = (max != null ? max : 0) + 1;
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (base + count));
+            return base;
+        }
+
+        long userId(int index) {
+            return userBase + index;
+        }
+
+        long wizardUserId(int wizardIndex) {
+            return userId(wizardIndex * plan.getWizardEvery());
+        }
+
+        void seedAccounts(int chunk) {
+            SplittableRandom random = random(1, chunk);
+            Batch users = new Batch("users", """
+                INSERT INTO users (id, username, email, password, first_name, last_name, specialization, role, active)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, TRUE)""");
+            Batch profiles = new Batch("wizard_profiles",
+                "INSERT INTO wizard_profiles (id, user_id, years_of_experience) VALUES (?, ?, ?)");
+            Batch profileLinks = new Batch(null, "UPDATE users SET wizard_profile_id = ? WHERE id = ?");
+            Batch skills = new Batch("wizard_profile_skills", """
+                INSERT INTO wizard_profile_skills (wizard_profile_id, skill_id, created_at)
+                VALUES (?, ?, ?)""");
+            Batch services = new Batch("wizard_services",
+                "INSERT INTO wizard_services (user_id, service_name, price) VALUES (?, ?, ?)");
+
+            int from = chunk * plan.getChunkSize();
+            int to = Math.min(from + plan.getChunkSize(), plan.getUsers());
+            for (int index = from; index < to; index++) {
+                if (users.size() >= plan.getBatchSize()) {
+                    // Профили ссылаются на пользователей, а пользователи на профили
+                    flush(users, profiles, profileLinks, skills, services);
+                }
+
+                long id = userId(index);
+                boolean wizard = index % plan.getWizardEvery() == 0;
+                ProfessionTaxonomy.Profession profession = professions.isEmpty()
+                    ? null : professions.get(random.nextInt(professions.size()));
+                String specialization = profession != null
+                    ? profession.name() : FALLBACK_SPECIALIZATIONS[random.nextInt(FALLBACK_SPECIALIZATIONS.length)];
+
+                users.add(id, plan.getUsernamePrefix() + id, plan.getUsernamePrefix() + id + "@seed.local", password,
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    wizard ? specialization : null, wizard ? "wizard" : "regular");
+                if (!wizard) {
+                    continue;
+                }
+
+                long profileId = profileBase + index / plan.getWizardEvery();
+                profiles.add(profileId, id, 1 + random.nextInt(40));
+                profileLinks.add(profileId, id);
+
+                for (Skill skill : pickSkills(random, profession)) {
+                    skills.add(profileId, skill.id(), timestamp(random));
+                }
+                for (int s = 0; s < plan.getServicesPerWizard(); s++) {
+                    String service = allSkills.isEmpty()
+                        ? "Консультация" : allSkills.get(random.nextInt(allSkills.size())).name();
+                    services.add(id, service, (double) (10 + random.nextInt(200)) * 50);
+                }
+            }
+            flush(users, profiles, profileLinks, skills, services);
+        }
+
+        private Set<Skill> pickSkills(SplittableRandom random, ProfessionTaxonomy.Profession profession) {
+            Set<Skill> picked = new LinkedHashSet<>();
+            if (profession != null) {
+                for (String function : profession.functions()) {
+                    if (picked.size() < plan.getSkillsPerWizard()) {
+                        picked.add(skill(profession, function));
+                    }
+                }
+            }
+            for (int attempt = 0; picked.size() < plan.getSkillsPerWizard() && attempt < plan.getSkillsPerWizard() * 4
+                    && !allSkills.isEmpty(); attempt++) {
+                picked.add(allSkills.get(random.nextInt(allSkills.size())));
+            }
+            return picked;
+        }
+
+        private Skill skill(ProfessionTaxonomy.Profession profession, String function) {
+            int id = skillCatalog.getOrCreateId(ProfessionTaxonomy.SKILL_SECTION, profession.type(), function);
+            return new Skill(id, function);
+        }
+
+        void seedPosts(int chunk) {
+            SplittableRandom random = random(2, chunk);
+            Batch posts = new Batch("posts", """
+                INSERT INTO posts (id, author_id, content, likes_count, created_at)
+                VALUES (?, ?, ?, ?, ?)""");
+            Batch likes = new Batch("post_likes", "INSERT INTO post_likes (post_id, user_id, liked_at) VALUES (?, ?, ?)");
+
+            int from = chunk * plan.getChunkSize();
+            int to = Math.min(from + plan.getChunkSize(), wizardCount);
+            for (int wizard = from; wizard < to; wizard++) {
+                if (posts.size() >= plan.getBatchSize()) {
+                    // Лайки ссылаются на посты, поэтому посты уходят первыми
+                    flush(posts, likes);
+                }
+                for (int p = 0; p < plan.getPostsPerWizard(); p++) {
+                    long postId = postBase + (long) wizard * plan.getPostsPerWizard() + p;
+                    Set<Long> likers = distinct(random.nextInt(plan.getLikesPerPost() * 2 + 1), plan.getUsers(),
+                        () -> userId(random.nextInt(plan.getUsers())));
+
+                    posts.add(postId, wizardUserId(wizard), "Seeded post #" + postId, likers.size(), timestamp(random));
+                    for (Long liker : likers) {
+                        likes.add(postId, liker, timestamp(random));
+                    }
+                }
+            }
+            flush(posts, likes);
+        }
+
+        void seedRelations(int chunk) {
+            SplittableRandom random = random(3, chunk);
+            Batch favorites = new Batch("favorites",
+                "INSERT INTO favorites (user_id, favorite_wizard_id, added_at) VALUES (?, ?, ?)");
+            Batch subscriptions = new Batch("subscriptions",
+                "INSERT INTO subscriptions (subscriber_id, wizard_id, subscribed_at) VALUES (?, ?, ?)");
+            Batch views = new Batch("profile_views",
+                "INSERT INTO profile_views (viewer_id, viewed_wizard_id, viewed_at) VALUES (?, ?, ?)");
+
+            int from = chunk * plan.getChunkSize();
+            int to = Math.min(from + plan.getChunkSize(), plan.getUsers());
+            for (int index = from; index < to; index++) {
+                if (favorites.size() >= plan.getBatchSize()) {
+                    flush(favorites, subscriptions, views);
+                }
+                long id = userId(index);
+                for (Long wizard : popularWizards(random, plan.getFavoritesPerUser(), id)) {
+                    favorites.add(id, wizard, timestamp(random));
+                }
+                for (Long wizard : popularWizards(random, plan.getSubscriptionsPerUser(), id)) {
+                    subscriptions.add(id, wizard, timestamp(random));
+                }
+                for (Long wizard : popularWizards(random, plan.getViewsPerUser(), id)) {
+                    views.add(id, wizard, timestamp(random));
+                }
+            }
+            flush(favorites, subscriptions, views);
+        }
+
+        /**
+         * Distinct wizards, skewed towards low indexes so a few wizards get most of the attention.
+         */
+        private Set<Long> popularWizards(SplittableRandom random, int average, long self) {
+            int count = random.nextInt(average * 2 + 1);
+            Set<Long> wizards = distinct(count, wizardCount, () -> {
+                double skewed = Math.pow(random.nextDouble(), plan.getPopularitySkew());
+                return wizardUserId((int) (skewed * wizardCount));
+            });
+            wizards.remove(self);
+            return wizards;
+        }
+
+        private Set<Long> distinct(int count, int available, LongSupplier next) {
+            int wanted = Math.min(count, available);
+            Set<Long> values = new LinkedHashSet<>();
+            for (int attempt = 0; values.size() < wanted && attempt < wanted * 4; attempt++) {
+                values.add(next.getAsLong());
+            }
+            return values;
+        }
+
+        /**
+         * Sends pending rows in the given order, referenced tables first.
+         */
+        private void flush(Batch... batches) {
+            for (Batch batch : batches) {
+                batch.flush();
+            }
+        }
+
+        private Timestamp timestamp(SplittableRandom random) {
+            return new Timestamp(now - random.nextLong(YEAR_MILLIS));
+        }
+
+        private SplittableRandom random(int phase, int chunk) {
+            return new SplittableRandom(plan.getSeed() * 1_000_003L + phase * 7_919L + chunk);
+        }
+
+        /**
+         * Pending rows for one statement, sent as a single JDBC batch.
+         */
+        private class Batch {
+            private final String table;
+            private final String sql;
+            private final List<Object[]> rows = new ArrayList<>();
+
+            Batch(String table, String sql) {
+                this.table = table;
+                this.sql = sql;
+            }
+
+            void add(Object... row) {
+                rows.add(row);
+            }
+
+            int size() {
+                return rows.size();
+            }
+
+            void flush() {
+                if (rows.isEmpty()) {
+                    return;
+                }
+                jdbcTemplate.batchUpdate(sql, rows);
+                if (table != null) {
+                    result.add(table, rows.size());
+                }
+                rows.clear();
+            }
+        }
+    }
+
+    private record Skill(int id, String name) {
+    }
+
+    /**
+     * Size and shape of a synthetic dataset. Averages are drawn uniformly from 0 to twice the value.
+     */
+    public static class Plan {
+        private int users = 1000;
+        private int wizardEvery = 5;
+        private int skillsPerWizard = 4;
+        private int servicesPerWizard = 2;
+        private int postsPerWizard = 3;
+        private int likesPerPost = 5;
+        private int favoritesPerUser = 3;
+        private int subscriptionsPerUser = 3;
+        private int viewsPerUser = 5;
+        private double popularitySkew = 2.0;
+        private int batchSize = 1000;
+        private int chunkSize = 2000;
+        private int threads = 4;
+        private long seed = 42;
+        private String usernamePrefix = "seed";
+        private String password = "password";
+
+        public int getUsers() {
+            return users;
+        }
+
+        public void setUsers(int users) {
+            this.users = users;
+        }
+
+        /** Every n-th user is a wizard. */
+        public int getWizardEvery() {
+            return wizardEvery;
+        }
+
+        public void setWizardEvery(int wizardEvery) {
+            this.wizardEvery = Math.max(1, wizardEvery);
+        }
+
+        public int getSkillsPerWizard() {
+            return skillsPerWizard;
+        }
+
+        public void setSkillsPerWizard(int skillsPerWizard) {
+            this.skillsPerWizard = skillsPerWizard;
+        }
+
+        public int getServicesPerWizard() {
+            return servicesPerWizard;
+        }
+
+        public void setServicesPerWizard(int servicesPerWizard) {
+            this.servicesPerWizard = servicesPerWizard;
+        }
+
+        public int getPostsPerWizard() {
+            return postsPerWizard;
+        }
+
+        public void setPostsPerWizard(int postsPerWizard) {
+            this.postsPerWizard = postsPerWizard;
+        }
+
+        public int getLikesPerPost() {
+            return likesPerPost;
+        }
+
+        public void setLikesPerPost(int likesPerPost) {
+            this.likesPerPost = likesPerPost;
+        }
+
+        public int getFavoritesPerUser() {
+            return favoritesPerUser;
+        }
+
+        public void setFavoritesPerUser(int favoritesPerUser) {
+            this.favoritesPerUser = favoritesPerUser;
+        }
+
+        public int getSubscriptionsPerUser() {
+            return subscriptionsPerUser;
+        }
+
+        public void setSubscriptionsPerUser(int subscriptionsPerUser) {
+            this.subscriptionsPerUser = subscriptionsPerUser;
+        }
+
+        public int getViewsPerUser() {
+            return viewsPerUser;
+        }
+
+        public void setViewsPerUser(int viewsPerUser) {
+            this.viewsPerUser = viewsPerUser;
+        }
+
+        /** 1 is uniform; higher values concentrate favorites, subscriptions and views on fewer wizards. */
+        public double getPopularitySkew() {
+            return popularitySkew;
+        }
+
+        public void setPopularitySkew(double popularitySkew) {
+            this.popularitySkew = popularitySkew;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = Math.max(1, batchSize);
+        }
+
+        /** Users (or wizards, for posts) per transaction and per parallel task. */
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = Math.max(1, chunkSize);
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = Math.max(1, threads);
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+
+        public String getUsernamePrefix() {
+            return usernamePrefix;
+        }
+
+        public void setUsernamePrefix(String usernamePrefix) {
+            this.usernamePrefix = usernamePrefix;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+
+    /**
+     * Outcome of one seeding run.
+     */
+    public static class SeedResult {
+        private final Map<String, LongAdder> rows = new ConcurrentHashMap<>();
+        private long elapsedMillis;
+
+        void add(String table, int count) {
+            rows.computeIfAbsent(table, key -> new LongAdder()).add(count);
+        }
+
+        public long getRows(String table) {
+            LongAdder count = rows.get(table);
+            return count != null ? count.sum() : 0;
+        }
+
+        public Map<String, Long> getRows() {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            rows.forEach((table, count) -> counts.put(table, count.sum()));
+            return counts;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.magic_fans.wizards.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Shared cache of serialized profile feed pages for anonymous visitors.
+ *
+ * Anonymous responses do not depend on who asks, so one copy of the JSON bytes
+ * per (endpoint, filters, page, locale) serves everyone. Entries remember the
+ * {@link ProfileDataVersion} they were built from and are dropped as soon as a
+ * user or skill write moves it. Pages also carry online flags, so entries
+ * expire after a short max age even without writes.
+ *
+ * Concurrent misses for the same key are collapsed: one request renders the
+ * page, the others wait for its bytes.
+ */
+@Service
+public class FeedPageCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedPageCache.class);
+
+    // Сколько ждущий запрос ждёт чужой рендер, прежде чем строить страницу сам
+    private static final long WAIT_MILLIS = 5000;
+
+    @Autowired
+    private ProfileDataVersion profileDataVersion;
+
+    @Value("${magic-fans.feed-cache.max-age:PT30S}")
+    private Duration maxAge = Duration.ofSeconds(30);
+
+    @Value("${magic-fans.feed-cache.max-entries:2000}")
+    private int maxEntries = 2000;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    private final ConcurrentHashMap<String, Page> pages = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Page>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cached page, or renders it with the loader if missing or stale.
+     * If another thread is already rendering the same key, waits for its result instead.
+     *
+     * @param loader renders the page; may return null if the response must not be cached
+     * @return the page, or null if the loader declined or the page another thread
+     *         was rendering could not be cached (the caller should render it itself)
+     */
+    public Page getOrLoad(String key, Callable<Page> loader) throws Exception {
+        long version = profileDataVersion.current();
+        Page cached = fresh(key, version);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<Page> mine = new CompletableFuture<>();
+        CompletableFuture<Page> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.get(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        Page page = null;
+        try {
+            page = loader.call();
+            // Stamped with the version read before rendering: a write that lands meanwhile makes it stale at once
+            if (page != null) {
+                store(key, page.withVersion(version));
+            }
+            return page;
+        } finally {
+            inFlight.remove(key, mine);
+            mine.complete(page);
+        }
+    }
+
+    /**
+     * Returns a page only if it is still current, without rendering anything.
+     */
+    public Page get(String key) {
+        return fresh(key, profileDataVersion.current());
+    }
+
+    public int size() {
+        return pages.size();
+    }
+
+    public void clear() {
+        pages.clear();
+    }
+
+    private Page fresh(String key, long version) {
+        Page page = pages.get(key);
+        if (page == null) {
+            return null;
+        }
+        if (page.version != version || clock.getAsLong() - page.createdAt >= maxAge.toMillis()) {
+            pages.remove(key, page);
+            return null;
+        }
+        return page;
+    }
+
+    private void store(String key, Page page) {
+        // Keys come from request parameters, so the map must not grow without bound
+        if (pages.size() >= maxEntries && !pages.containsKey(key)) {
+            logger.debug("Feed page cache full ({} entries), clearing", pages.size());
+            pages.clear();
+        }
+        pages.put(key, page);
+    }
+
+    /**
+     * Creates a page holding an already serialized response body.
+     *
+     * @param headers response headers the page is not complete without (e.g. a paging cursor)
+     */
+    public Page page(byte[] body, String contentType, Map<String, String> headers) {
+        return new Page(body, contentType, Map.copyOf(headers), 0, clock.getAsLong());
+    }
+
+    /**
+     * One serialized response body with the headers that belong to it.
+     */
+    public static class Page {
+        private final byte[] body;
+        private final String contentType;
+        private final Map<String, String> headers;
+        private final long version;
+        private final long createdAt;
+
+        Page(byte[] body, String contentType, Map<String, String> headers, long version, long createdAt) {
+            this.body = body;
+            this.contentType = contentType;
+            this.headers = headers;
+            this.version = version;
+            this.createdAt = createdAt;
+        }
+
+        Page withVersion(long version) {
+            return new Page(body, contentType, headers, version, createdAt);
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+    }
+}
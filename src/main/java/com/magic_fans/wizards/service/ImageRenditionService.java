@@ -0,0 +1,239 @@
+package com.magic_fans.wizards.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service producing resized image renditions on demand.
+ *
+ * Renditions are generated on first request with ImageUploadService and kept
+ * in a size-bounded LRU cache on disk, so later hits are plain file reads.
+ * Cache file names hash the source path, its ETag and the width, which makes
+ * them content-addressed: a replaced source simply gets a new rendition.
+ */
+@Service
+public class ImageRenditionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageRenditionService.class);
+
+    private static final String RENDITION_EXTENSION = ".jpg";
+
+    @Autowired
+    private ImageUploadService imageUploadService;
+
+    @Autowired
+    private UploadStorageService uploadStorageService;
+
+    @Value("${magic-fans.renditions.dir:rendition-cache}")
+    private String cacheDir = "rendition-cache";
+
+    @Value("${magic-fans.renditions.max-bytes:268435456}")
+    private long maxCacheBytes = 256L * 1024 * 1024;
+
+    // Access-ordered: the eldest entry is the least recently served rendition.
+    // Guarded by a ReentrantLock with no I/O inside, so virtual threads never pin on it
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final ReentrantLock entriesLock = new ReentrantLock();
+    private long totalBytes;
+
+    // Concurrent first hits for the same rendition share a single resize
+    private final Map<String, CompletableFuture<Optional<Path>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Rebuilds the LRU index from the files already on disk (oldest first).
+     */
+    @PostConstruct
+    public void loadCacheIndex() {
+        Path dir = getCacheDir();
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> existing = files
+                .filter(f -> f.getFileName().toString().endsWith(RENDITION_EXTENSION))
+                .sorted(Comparator.comparingLong(this::lastModified))
+                .collect(Collectors.toList());
+
+            Map<String, Long> sizes = new LinkedHashMap<>();
+            for (Path file : existing) {
+                sizes.put(file.getFileName().toString(), Files.size(file));
+            }
+
+            entriesLock.lock();
+            try {
+                for (Map.Entry<String, Long> entry : sizes.entrySet()) {
+                    entries.put(entry.getKey(), entry.getValue());
+                    totalBytes += entry.getValue();
+                }
+            } finally {
+                entriesLock.unlock();
+            }
+            evictIfNeeded();
+        } catch (IOException e) {
+            logger.warn("Failed to index rendition cache {}: {}", dir, e.getMessage());
+        }
+    }
+
+    public boolean isAllowedWidth(int width) {
+        return imageUploadService.isAllowedRenditionWidth(width);
+    }
+
+    /**
+     * Returns the cached rendition of an uploaded image, generating it on first use.
+     * Empty means the original should be served (not an image, or already narrow enough).
+     *
+     * @param relativePath path of the source below the upload root
+     * @param source resolved source file
+     * @param width requested width from the whitelist
+     */
+    public Optional<Path> getRendition(String relativePath, Path source, int width) throws IOException {
+        if (!isAllowedWidth(width)) {
+            throw new IllegalArgumentException("Unsupported rendition width: " + width);
+        }
+
+        BasicFileAttributes attributes = uploadStorageService.readAttributes(source);
+        String key = cacheKey(relativePath, uploadStorageService.etag(attributes), width);
+        Path cached = getCacheDir().resolve(key);
+
+        boolean indexed;
+        entriesLock.lock();
+        try {
+            indexed = entries.get(key) != null;
+        } finally {
+            entriesLock.unlock();
+        }
+        if (indexed && Files.isRegularFile(cached)) {
+            return Optional.of(cached);
+        }
+
+        CompletableFuture<Optional<Path>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<Path>> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing.join();
+        }
+
+        try {
+            Optional<Path> result = generate(source, cached, key, width);
+            future.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e instanceof IOException ? new UncheckedIOException((IOException) e) : e);
+            throw e;
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+
+    /**
+     * Total bytes currently held by the cache.
+     */
+    public long getCacheSize() {
+        entriesLock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            entriesLock.unlock();
+        }
+    }
+
+    private Optional<Path> generate(Path source, Path target, String key, int width) throws IOException {
+        byte[] bytes = imageUploadService.createRendition(source, width);
+        if (bytes == null || bytes.length == 0) {
+            return Optional.empty();
+        }
+
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), key, ".tmp");
+        try {
+            Files.write(tmp, bytes);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        entriesLock.lock();
+        try {
+            Long previous = entries.put(key, (long) bytes.length);
+            totalBytes += bytes.length - (previous != null ? previous : 0);
+        } finally {
+            entriesLock.unlock();
+        }
+        evictIfNeeded();
+        return Optional.of(target);
+    }
+
+    private void evictIfNeeded() {
+        while (true) {
+            String victim;
+            entriesLock.lock();
+            try {
+                if (totalBytes <= maxCacheBytes || entries.isEmpty()) {
+                    return;
+                }
+                Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+                Map.Entry<String, Long> entry = eldest.next();
+                victim = entry.getKey();
+                totalBytes -= entry.getValue();
+                eldest.remove();
+            } finally {
+                entriesLock.unlock();
+            }
+
+            try {
+                Files.deleteIfExists(getCacheDir().resolve(victim));
+            } catch (IOException e) {
+                logger.warn("Failed to evict rendition {}: {}", victim, e.getMessage());
+            }
+        }
+    }
+
+    private Path getCacheDir() {
+        return Paths.get(cacheDir).toAbsolutePath().normalize();
+    }
+
+    private String cacheKey(String relativePath, String etag, int width) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((relativePath + "|" + etag + "|" + width).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 20) + "-w" + width + RENDITION_EXTENSION;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
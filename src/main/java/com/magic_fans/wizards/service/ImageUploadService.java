@@ -4,10 +4,21 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -46,6 +57,24 @@ public class ImageUploadService {
     private static final int MAX_WIDTH = 4096;          // Максимум 4096px
     private static final int MAX_HEIGHT = 4096;
 
+    // Форматы определяются по сигнатуре файла, а не по Content-Type от клиента
+    private static final Map<String, String> FORMAT_EXTENSIONS = Map.of(
+        "jpeg", ".jpg",
+        "png", ".png",
+        "gif", ".gif",
+        "webp", ".webp"
+    );
+    private static final Set<String> VALIDATED_FORMATS = Set.of("jpeg", "png", "webp");
+
+    // Сколько первых байт нужно для сигнатуры и габаритов PNG/GIF/WebP
+    private static final int HEADER_SIZE = 32;
+
+    // Размер LQIP-заглушки по длинной стороне (встраивается в ответ как data URI)
+    private static final int PLACEHOLDER_SIZE = 12;
+
+    // Ширины, которые можно запросить через /uploads/{name}?w=...
+    private static final Set<Integer> RENDITION_WIDTHS = Set.of(THUMBNAIL_SIZE, 300, MEDIUM_WIDTH, LARGE_WIDTH);
+
     // ============= VALIDATION =============
 
     /**
@@ -72,17 +101,192 @@ public class ImageUploadService {
             );
         }
 
-        // Проверка что файл действительно изображение
-        try {
-            BufferedImage image = ImageIO.read(file.getInputStream());
-            if (image == null) {
+        // Проверка что файл действительно изображение: сигнатура и габариты из заголовка,
+        // без декодирования всего растра в память
+        try (InputStream in = file.getInputStream()) {
+            byte[] header = new byte[HEADER_SIZE];
+            int headerLength = in.readNBytes(header, 0, HEADER_SIZE);
+
+            ImageInfo info = parseHeader(header, headerLength);
+            if (info == null || !VALIDATED_FORMATS.contains(info.format)) {
                 throw new IllegalArgumentException("File is not a valid image");
             }
+            if ("jpeg".equals(info.format)) {
+                InputStream whole = new SequenceInputStream(new ByteArrayInputStream(header, 0, headerLength), in);
+                try (ImageInputStream iis = ImageIO.createImageInputStream(whole)) {
+                    info = readDimensions(iis, info);
+                }
+            }
+            checkDimensions(info);
         } catch (IOException e) {
             throw new IllegalArgumentException("Failed to read image file", e);
         }
     }
 
+    /**
+     * Сохранение загруженной части multipart-запроса.
+     *
+     * Часть уже лежит во временном файле контейнера (file-size-threshold: 0B), поэтому
+     * повторно её не копируем: формат и габариты проверяются по первым байтам части,
+     * а сам файл переносится на место через transferTo (переименованием, если папки
+     * на одном диске).
+     *
+     * @param file загруженный файл
+     * @param directory папка назначения
+     * @param baseName имя файла без расширения (расширение берётся из определённого формата)
+     * @param maxBytes максимальный размер файла
+     * @param allowedFormats допустимые форматы: jpeg, png, gif, webp
+     * @return информация о сохранённом файле
+     * @throws IllegalArgumentException если файл пустой, слишком большой или не является изображением
+     */
+    public StoredImage storeImage(MultipartFile file, Path directory, String baseName,
+                                  long maxBytes, Set<String> allowedFormats) throws IOException {
+        long size = file.getSize();
+        if (size == 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (size > maxBytes) {
+            throw new IllegalArgumentException(
+                String.format("File size exceeds maximum allowed size of %d MB", maxBytes / 1024 / 1024)
+            );
+        }
+
+        ImageInfo info;
+        try (InputStream in = file.getInputStream()) {
+            byte[] header = new byte[HEADER_SIZE];
+            int headerLength = in.readNBytes(header, 0, HEADER_SIZE);
+            info = requireFormat(header, headerLength, allowedFormats);
+            if ("jpeg".equals(info.format)) {
+                // Маркеры SOF читаются с начала файла, растр не декодируется
+                InputStream whole = new SequenceInputStream(new ByteArrayInputStream(header, 0, headerLength), in);
+                try (ImageInputStream iis = ImageIO.createImageInputStream(whole)) {
+                    info = readDimensions(iis, info);
+                }
+            }
+        }
+        checkDimensions(info);
+
+        Files.createDirectories(directory);
+        Path target = directory.resolve(baseName + FORMAT_EXTENSIONS.get(info.format));
+        Path tmp = directory.resolve(baseName + ".part");
+        try {
+            // transferTo(File), not (Path): only the former lets the container move its temp file
+            file.transferTo(tmp.toAbsolutePath().toFile());
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return new StoredImage(target, info.format, info.width, info.height, size);
+    }
+
+    private ImageInfo requireFormat(byte[] header, int length, Set<String> allowedFormats) {
+        ImageInfo info = parseHeader(header, length);
+        if (info == null || !allowedFormats.contains(info.format)) {
+            throw new IllegalArgumentException("File is not a valid image");
+        }
+        return info;
+    }
+
+    private void checkDimensions(ImageInfo info) {
+        if (info.width <= 0 || info.height <= 0) {
+            throw new IllegalArgumentException("File is not a valid image");
+        }
+        if (info.width > MAX_WIDTH || info.height > MAX_HEIGHT) {
+            throw new IllegalArgumentException(
+                String.format("Image dimensions exceed maximum allowed size of %dx%d", MAX_WIDTH, MAX_HEIGHT)
+            );
+        }
+    }
+
+    /**
+     * Определение формата по сигнатуре. Для PNG, GIF и WebP габариты берутся прямо из заголовка,
+     * для JPEG их нужно искать в маркерах SOF (см. readDimensions).
+     */
+    static ImageInfo parseHeader(byte[] h, int length) {
+        if (length >= 3 && u8(h, 0) == 0xFF && u8(h, 1) == 0xD8 && u8(h, 2) == 0xFF) {
+            return new ImageInfo("jpeg", -1, -1);
+        }
+        if (length >= 24 && u8(h, 0) == 0x89 && h[1] == 'P' && h[2] == 'N' && h[3] == 'G'
+                && h[4] == 0x0D && h[5] == 0x0A && h[6] == 0x1A && h[7] == 0x0A) {
+            // IHDR: ширина и высота big-endian
+            return new ImageInfo("png", be32(h, 16), be32(h, 20));
+        }
+        if (length >= 10 && h[0] == 'G' && h[1] == 'I' && h[2] == 'F' && h[3] == '8'
+                && (h[4] == '7' || h[4] == '9') && h[5] == 'a') {
+            return new ImageInfo("gif", le16(h, 6), le16(h, 8));
+        }
+        if (length >= 30 && h[0] == 'R' && h[1] == 'I' && h[2] == 'F' && h[3] == 'F'
+                && h[8] == 'W' && h[9] == 'E' && h[10] == 'B' && h[11] == 'P') {
+            if (h[12] == 'V' && h[13] == 'P' && h[14] == '8' && h[15] == ' ') {
+                return new ImageInfo("webp", le16(h, 26) & 0x3FFF, le16(h, 28) & 0x3FFF);
+            }
+            if (h[12] == 'V' && h[13] == 'P' && h[14] == '8' && h[15] == 'L') {
+                int width = 1 + (((u8(h, 22) & 0x3F) << 8) | u8(h, 21));
+                int height = 1 + (((u8(h, 24) & 0x0F) << 10) | (u8(h, 23) << 2) | ((u8(h, 22) & 0xC0) >> 6));
+                return new ImageInfo("webp", width, height);
+            }
+            if (h[12] == 'V' && h[13] == 'P' && h[14] == '8' && h[15] == 'X') {
+                return new ImageInfo("webp", 1 + le24(h, 24), 1 + le24(h, 27));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Чтение габаритов через ImageReader: разбирается только заголовок, растр не декодируется.
+     */
+    private ImageInfo readDimensions(ImageInputStream iis, ImageInfo info) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+        if (!readers.hasNext()) {
+            throw new IllegalArgumentException("File is not a valid image");
+        }
+
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(iis, true, true);
+            return new ImageInfo(info.format, reader.getWidth(0), reader.getHeight(0));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("File is not a valid image", e);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Формат и габариты сохранённого файла по его заголовку; null, если это не изображение.
+     */
+    private ImageInfo readImageInfo(Path source) throws IOException {
+        ImageInfo info;
+        try (InputStream in = Files.newInputStream(source)) {
+            byte[] header = new byte[HEADER_SIZE];
+            info = parseHeader(header, in.readNBytes(header, 0, HEADER_SIZE));
+        }
+        if (info != null && "jpeg".equals(info.format)) {
+            try (ImageInputStream iis = ImageIO.createImageInputStream(source.toFile())) {
+                info = readDimensions(iis, info);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return info;
+    }
+
+    private static int u8(byte[] h, int i) {
+        return h[i] & 0xFF;
+    }
+
+    private static int le16(byte[] h, int i) {
+        return u8(h, i) | (u8(h, i + 1) << 8);
+    }
+
+    private static int le24(byte[] h, int i) {
+        return u8(h, i) | (u8(h, i + 1) << 8) | (u8(h, i + 2) << 16);
+    }
+
+    private static int be32(byte[] h, int i) {
+        return (u8(h, i) << 24) | (u8(h, i + 1) << 16) | (u8(h, i + 2) << 8) | u8(h, i + 3);
+    }
+
     // ============= IMAGE PROCESSING =============
 
     /**
@@ -119,19 +323,99 @@ public class ImageUploadService {
         return resizeImageKeepAspectRatio(original, LARGE_WIDTH);
     }
 
+    /**
+     * Проверка что ширина входит в белый список рендишнов
+     */
+    public boolean isAllowedRenditionWidth(int width) {
+        return RENDITION_WIDTHS.contains(width);
+    }
+
+    /**
+     * Создание рендишна заданной ширины из уже сохранённого файла (сохраняем пропорции).
+     * Возвращает null, если файл не читается как изображение или уже не шире запрошенного.
+     *
+     * Ширина берётся из заголовка, поэтому в таких случаях растр не декодируется вовсе:
+     * ничего не кэшируется, и каждый запрос ?w= к ним обходится чтением нескольких байт.
+     */
+    public byte[] createRendition(Path source, int width) throws IOException {
+        ImageInfo info = readImageInfo(source);
+        if (info == null || info.width <= width || !ImageIO.getImageReadersByFormatName(info.format).hasNext()) {
+            return null;
+        }
+
+        BufferedImage original = ImageIO.read(source.toFile());
+        if (original == null || original.getWidth() <= width) {
+            return null;
+        }
+        return resizeImageKeepAspectRatio(original, width);
+    }
+
+    /**
+     * Создание LQIP-заглушки из уже сохранённого файла.
+     * Возвращает null, если файл не читается как изображение.
+     */
+    public Placeholder createPlaceholder(Path source) throws IOException {
+        BufferedImage original = ImageIO.read(source.toFile());
+        return original != null ? createPlaceholder(original) : null;
+    }
+
+    /**
+     * Создание LQIP-заглушки: крошечный PNG (data URI) и средний цвет изображения.
+     * Карточки рисуют её сразу, без дополнительных запросов.
+     */
+    public Placeholder createPlaceholder(BufferedImage original) throws IOException {
+        int width = PLACEHOLDER_SIZE;
+        int height = PLACEHOLDER_SIZE;
+        if (original.getWidth() >= original.getHeight()) {
+            height = Math.max(1, Math.round((float) original.getHeight() * PLACEHOLDER_SIZE / original.getWidth()));
+        } else {
+            width = Math.max(1, Math.round((float) original.getWidth() * PLACEHOLDER_SIZE / original.getHeight()));
+        }
+
+        BufferedImage tiny = scale(original, width, height);
+
+        long red = 0;
+        long green = 0;
+        long blue = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = tiny.getRGB(x, y);
+                red += (rgb >> 16) & 0xFF;
+                green += (rgb >> 8) & 0xFF;
+                blue += rgb & 0xFF;
+            }
+        }
+        int pixels = width * height;
+        String dominantColor = String.format("#%02X%02X%02X", red / pixels, green / pixels, blue / pixels);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(tiny, "png", baos);
+        String dataUri = "data:image/png;base64," + Base64.getEncoder().encodeToString(baos.toByteArray());
+
+        return new Placeholder(dataUri, dominantColor);
+    }
+
     /**
      * Масштабирование изображения до указанных размеров
      */
     private byte[] resizeImage(BufferedImage original, int width, int height) throws IOException {
+        return imageToBytes(scale(original, width, height));
+    }
+
+    /**
+     * Масштабирование в RGB-изображение указанных размеров
+     */
+    private BufferedImage scale(BufferedImage original, int width, int height) {
         Image scaled = original.getScaledInstance(width, height, Image.SCALE_SMOOTH);
         BufferedImage buffered = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
 
         Graphics2D g = buffered.createGraphics();
         g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g.drawImage(scaled, 0, 0, null);
+        // Прозрачные области PNG заливаем белым, иначе в JPEG они станут чёрными
+        g.drawImage(scaled, 0, 0, Color.WHITE, null);
         g.dispose();
 
-        return imageToBytes(buffered);
+        return buffered;
     }
 
     /**
@@ -162,6 +446,85 @@ public class ImageUploadService {
         return baos.toByteArray();
     }
 
+    /**
+     * LQIP-заглушка изображения
+     */
+    public static class Placeholder {
+        private final String dataUri;
+        private final String dominantColor;
+
+        public Placeholder(String dataUri, String dominantColor) {
+            this.dataUri = dataUri;
+            this.dominantColor = dominantColor;
+        }
+
+        public String getDataUri() {
+            return dataUri;
+        }
+
+        public String getDominantColor() {
+            return dominantColor;
+        }
+    }
+
+    /**
+     * Формат и габариты, прочитанные из заголовка
+     */
+    static class ImageInfo {
+        final String format;
+        final int width;
+        final int height;
+
+        ImageInfo(String format, int width, int height) {
+            this.format = format;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * Результат потокового сохранения изображения
+     */
+    public static class StoredImage {
+        private final Path path;
+        private final String format;
+        private final int width;
+        private final int height;
+        private final long size;
+
+        public StoredImage(Path path, String format, int width, int height, long size) {
+            this.path = path;
+            this.format = format;
+            this.width = width;
+            this.height = height;
+            this.size = size;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public String getFileName() {
+            return path.getFileName().toString();
+        }
+
+        public String getFormat() {
+            return format;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+
     // ============= S3 UPLOAD (EXAMPLE) =============
 
     /**
@@ -0,0 +1,238 @@
+package com.magic_fans.wizards.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Session repository in the application's own datasource, shared by all app nodes.
+ *
+ * One row per session plus one row per attribute. Saving writes only the
+ * attributes set or removed during the request, and the last access time only
+ * once per write interval, so most requests of a logged-in user cost a single
+ * read. Attributes are Java-serialized; any attribute larger than the size
+ * guard is not stored (and logged) instead of bloating every later request,
+ * except the security context: dropping it would log the user out without a
+ * trace, so saving it fails instead.
+ *
+ * Enabled with magic-fans.sessions.store=jdbc.
+ */
+@Service
+@ConditionalOnProperty(name = "magic-fans.sessions.store", havingValue = "jdbc")
+public class JdbcSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcSessionStore.class);
+
+    // Attributes the session is useless without; failing to store them fails the save
+    private static final Set<String> REQUIRED_ATTRIBUTES =
+        Set.of(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${server.servlet.session.timeout:PT30M}")
+    private Duration timeout = Duration.ofMinutes(30);
+
+    @Value("${magic-fans.sessions.max-attribute-bytes:16384}")
+    private int maxAttributeBytes = 16384;
+
+    @Value("${magic-fans.sessions.last-access-write-interval:PT1M}")
+    private Duration lastAccessWriteInterval = Duration.ofMinutes(1);
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    @PostConstruct
+    void createTables() {
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS shared_sessions (
+                session_id VARCHAR(36) PRIMARY KEY,
+                creation_time BIGINT NOT NULL,
+                last_access_time BIGINT NOT NULL,
+                max_inactive_interval INT NOT NULL,
+                expiry_time BIGINT NOT NULL
+            )""");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_shared_sessions_expiry ON shared_sessions (expiry_time)");
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS shared_session_attributes (
+                session_id VARCHAR(36) NOT NULL,
+                attribute_name VARCHAR(200) NOT NULL,
+                attribute_bytes BLOB NOT NULL,
+                PRIMARY KEY (session_id, attribute_name),
+                FOREIGN KEY (session_id) REFERENCES shared_sessions (session_id) ON DELETE CASCADE
+            )""");
+    }
+
+    public StoredSession create() {
+        return new StoredSession((int) timeout.toSeconds(), clock.getAsLong());
+    }
+
+    /**
+     * Loads a session with its attributes.
+     *
+     * @return the session, or null if it does not exist or has expired
+     */
+    public StoredSession load(String id) {
+        List<long[]> rows = jdbcTemplate.query(
+            "SELECT creation_time, last_access_time, max_inactive_interval FROM shared_sessions WHERE session_id = ?",
+            (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2), rs.getInt(3)},
+            id);
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        long[] row = rows.get(0);
+        // The stored access time may lag by up to the write interval, which only delays expiry
+        if (row[2] > 0 && clock.getAsLong() - row[1] >= row[2] * 1000) {
+            delete(id);
+            return null;
+        }
+
+        Map<String, Object> attributes = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT attribute_name, attribute_bytes FROM shared_session_attributes WHERE session_id = ?",
+            rs -> {
+                Object value = deserialize(rs.getString(1), rs.getBytes(2));
+                if (value != null) {
+                    attributes.put(rs.getString(1), value);
+                }
+            },
+            id);
+        return new StoredSession(id, row[0], row[1], (int) row[2], attributes);
+    }
+
+    /**
+     * Writes what changed during the request: the session row if new, re-keyed or
+     * due for a last-access update, and only the dirty attributes.
+     */
+    @Transactional
+    public void save(StoredSession session) {
+        long expiry = session.getLastAccessedTime() + session.getMaxInactiveSeconds() * 1000L;
+        boolean lastAccessWritten = true;
+
+        if (session.isNew()) {
+            jdbcTemplate.update(
+                "INSERT INTO shared_sessions (session_id, creation_time, last_access_time, max_inactive_interval, expiry_time) VALUES (?, ?, ?, ?, ?)",
+                session.getId(), session.getCreationTime(), session.getLastAccessedTime(),
+                session.getMaxInactiveSeconds(), expiry);
+        } else {
+            if (!session.getId().equals(session.getStoredId())) {
+                rekey(session.getStoredId(), session.getId());
+            }
+            boolean accessDue = session.getLastAccessedTime() - session.getStoredLastAccessedTime()
+                >= lastAccessWriteInterval.toMillis();
+            lastAccessWritten = accessDue || session.isMaxInactiveChanged();
+            if (lastAccessWritten) {
+                jdbcTemplate.update(
+                    "UPDATE shared_sessions SET last_access_time = ?, max_inactive_interval = ?, expiry_time = ? WHERE session_id = ?",
+                    session.getLastAccessedTime(), session.getMaxInactiveSeconds(), expiry, session.getId());
+            }
+        }
+
+        for (String name : session.getDirtyAttributes()) {
+            Object value = session.getAttribute(name);
+            byte[] bytes = value != null ? serialize(name, value) : null;
+            if (bytes == null) {
+                jdbcTemplate.update("DELETE FROM shared_session_attributes WHERE session_id = ? AND attribute_name = ?",
+                    session.getId(), name);
+                continue;
+            }
+            int updated = jdbcTemplate.update(
+                "UPDATE shared_session_attributes SET attribute_bytes = ? WHERE session_id = ? AND attribute_name = ?",
+                bytes, session.getId(), name);
+            if (updated == 0) {
+                jdbcTemplate.update(
+                    "INSERT INTO shared_session_attributes (session_id, attribute_name, attribute_bytes) VALUES (?, ?, ?)",
+                    session.getId(), name, bytes);
+            }
+        }
+        session.markSaved(lastAccessWritten);
+    }
+
+    public void delete(String id) {
+        jdbcTemplate.update("DELETE FROM shared_sessions WHERE session_id = ?", id);
+    }
+
+    @Scheduled(fixedDelayString = "${magic-fans.sessions.cleanup-interval:PT5M}")
+    public void deleteExpired() {
+        int deleted = jdbcTemplate.update("DELETE FROM shared_sessions WHERE expiry_time < ?", clock.getAsLong());
+        if (deleted > 0) {
+            logger.debug("Deleted {} expired sessions", deleted);
+        }
+    }
+
+    public int count() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM shared_sessions", Integer.class);
+        return count != null ? count : 0;
+    }
+
+    private void rekey(String oldId, String newId) {
+        // Копируем строку под новым id, переносим атрибуты и удаляем старую
+        jdbcTemplate.update("""
+            INSERT INTO shared_sessions (session_id, creation_time, last_access_time, max_inactive_interval, expiry_time)
+            SELECT ?, creation_time, last_access_time, max_inactive_interval, expiry_time FROM shared_sessions WHERE session_id = ?""",
+            newId, oldId);
+        jdbcTemplate.update("UPDATE shared_session_attributes SET session_id = ? WHERE session_id = ?", newId, oldId);
+        delete(oldId);
+    }
+
+    /**
+     * @return the serialized value, or null if it is not serializable or exceeds the size guard
+     * @throws IllegalStateException if that happens to one of the required attributes
+     */
+    private byte[] serialize(String name, Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            if (REQUIRED_ATTRIBUTES.contains(name)) {
+                throw new IllegalStateException("Session attribute '" + name + "' ("
+                    + value.getClass().getName() + ") is not serializable", e);
+            }
+            logger.warn("Session attribute '{}' ({}) is not serializable and is not stored: {}",
+                name, value.getClass().getName(), e.getMessage());
+            return null;
+        }
+        if (bytes.size() > maxAttributeBytes) {
+            if (REQUIRED_ATTRIBUTES.contains(name)) {
+                throw new IllegalStateException("Session attribute '" + name + "' is " + bytes.size()
+                    + " bytes, over the " + maxAttributeBytes + " byte limit (magic-fans.sessions.max-attribute-bytes)");
+            }
+            logger.warn("Session attribute '{}' is {} bytes, over the {} byte limit, and is not stored",
+                name, bytes.size(), maxAttributeBytes);
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    private Object deserialize(String name, byte[] bytes) {
+        try (ObjectInputStream in = new ConfigurableObjectInputStream(new ByteArrayInputStream(bytes),
+                Thread.currentThread().getContextClassLoader())) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            // E.g. a class changed between deployments; the attribute is dropped rather than failing the request
+            logger.warn("Dropping unreadable session attribute '{}': {}", name, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.magic_fans.wizards.service;
+
+import com.magic_fans.wizards.model.Post;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Shared broadcaster for live updates over Server-Sent Events.
+ *
+ * Like and post events are only recorded when they happen. A single scheduled
+ * flush drains them once per interval and fans them out to all open streams:
+ * like counts are coalesced per post (the latest count wins), payloads are
+ * serialized once per flush, and no connection ever polls the database.
+ *
+ * The flush itself never writes to a socket: each stream has an outbox that
+ * the bounded liveSendExecutor drains, one send at a time per stream. A
+ * stream whose send has been stuck for longer than the send timeout, or whose
+ * outbox overflows, is dropped, so one slow client can neither delay the
+ * others nor hold up the scheduler thread shared with other jobs.
+ */
+@Service
+public class LiveUpdateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveUpdateService.class);
+
+    // Лимит на число отслеживаемых постов одного соединения
+    static final int MAX_WATCHED_POSTS = 200;
+
+    // Events a stream may fall behind by before it is dropped as too slow
+    static final int MAX_PENDING_EVENTS = 100;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    @Qualifier("liveSendExecutor")
+    private Executor sendExecutor;
+
+    @Value("${magic-fans.live.send-timeout:PT10S}")
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+    @Value("${magic-fans.live.timeout:PT30M}")
+    private Duration timeout = Duration.ofMinutes(30);
+
+    @Value("${magic-fans.live.heartbeat:PT25S}")
+    private Duration heartbeat = Duration.ofSeconds(25);
+
+    private final JsonMapper jsonMapper = new JsonMapper();
+
+    private final Map<String, LiveConnection> connections = new ConcurrentHashMap<>();
+
+    // Coalescing buffers drained by flush(); a later like for the same post overwrites the count
+    private final ConcurrentHashMap<Long, Integer> pendingLikes = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<NewPost> pendingPosts = new ConcurrentLinkedQueue<>();
+
+    private volatile long lastHeartbeat = System.currentTimeMillis();
+
+    /**
+     * Opens a stream for a user. Followed wizards are loaded once here and
+     * kept current by {@link #followChanged}.
+     *
+     * @param userId the authenticated user
+     * @param postIds posts currently shown on the page
+     */
+    public SseEmitter connect(int userId, Collection<Long> postIds) {
+        SseEmitter emitter = createEmitter();
+        LiveConnection connection = new LiveConnection(UUID.randomUUID().toString(), userId, emitter,
+            subscriptionService.getSubscribedWizardIds(userId));
+        connection.watch(postIds);
+
+        emitter.onCompletion(() -> connections.remove(connection.id));
+        emitter.onTimeout(() -> connections.remove(connection.id));
+        emitter.onError(e -> connections.remove(connection.id));
+        connections.put(connection.id, connection);
+
+        // Commits the response right away, so the browser sees the stream open
+        send(connection, SseEmitter.event().name("ready").data(connection.id));
+        return emitter;
+    }
+
+    /**
+     * Starts or stops delivering a wizard's new posts to the user's open streams.
+     */
+    public void followChanged(int userId, int wizardId, boolean following) {
+        for (LiveConnection connection : connections.values()) {
+            if (connection.userId != userId) {
+                continue;
+            }
+            if (following) {
+                connection.followedWizards.add(wizardId);
+            } else {
+                connection.followedWizards.remove(wizardId);
+            }
+        }
+    }
+
+    public void publishLikeCount(Long postId, int likesCount) {
+        if (postId != null && !connections.isEmpty()) {
+            pendingLikes.put(postId, likesCount);
+        }
+    }
+
+    public void publishNewPost(Post post) {
+        if (post != null && post.getAuthor() != null && !connections.isEmpty()) {
+            pendingPosts.add(new NewPost(post.getId(), post.getAuthor().getId(), post.getAuthor().getUsername()));
+        }
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Fans out everything buffered since the previous flush in one pass over the streams.
+     */
+    @Scheduled(fixedDelayString = "${magic-fans.live.flush-interval:PT1S}")
+    public void flush() {
+        Map<Long, Integer> likes = new LinkedHashMap<>();
+        for (Long postId : pendingLikes.keySet()) {
+            Integer count = pendingLikes.remove(postId);
+            if (count != null) {
+                likes.put(postId, count);
+            }
+        }
+
+        List<NewPost> posts = new ArrayList<>();
+        NewPost post;
+        while ((post = pendingPosts.poll()) != null) {
+            posts.add(post);
+        }
+
+        long now = System.currentTimeMillis();
+        boolean heartbeatDue = now - lastHeartbeat >= heartbeat.toMillis();
+        if (heartbeatDue) {
+            lastHeartbeat = now;
+        }
+
+        for (LiveConnection connection : connections.values()) {
+            long sendStartedAt = connection.sendStartedAt;
+            if (sendStartedAt > 0 && now - sendStartedAt > sendTimeout.toMillis()) {
+                close(connection, "send timed out");
+            }
+        }
+
+        if (connections.isEmpty() || (likes.isEmpty() && posts.isEmpty() && !heartbeatDue)) {
+            return;
+        }
+
+        // Serialize once per flush, connections only concatenate ready fragments
+        Map<Long, String> likeFragments = new LinkedHashMap<>();
+        likes.forEach((postId, count) -> likeFragments.put(postId, "\"" + postId + "\":" + count));
+        Map<NewPost, String> postPayloads = new LinkedHashMap<>();
+        for (NewPost newPost : posts) {
+            postPayloads.put(newPost, jsonMapper.writeValueAsString(Map.of(
+                "postId", newPost.postId, "authorId", newPost.authorId, "author", newPost.authorName)));
+        }
+
+        for (LiveConnection connection : connections.values()) {
+            boolean queued = false;
+            String likesPayload = connection.likesPayload(likeFragments);
+            if (likesPayload != null) {
+                queued |= enqueue(connection, SseEmitter.event().name("likes").data(likesPayload));
+            }
+            for (Map.Entry<NewPost, String> entry : postPayloads.entrySet()) {
+                if (connection.followedWizards.contains(entry.getKey().authorId)) {
+                    queued |= enqueue(connection, SseEmitter.event().name("post").data(entry.getValue()));
+                }
+            }
+
+            // Keeps proxies from closing idle streams and detects dead clients
+            if (!queued && heartbeatDue) {
+                enqueue(connection, SseEmitter.event().comment("ping"));
+            }
+        }
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    private boolean enqueue(LiveConnection connection, SseEmitter.SseEventBuilder event) {
+        if (connection.outbox.size() >= MAX_PENDING_EVENTS) {
+            close(connection, "too far behind");
+            return false;
+        }
+        connection.outbox.add(event);
+        scheduleDrain(connection);
+        return true;
+    }
+
+    private void scheduleDrain(LiveConnection connection) {
+        if (!connection.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sendExecutor.execute(() -> drain(connection));
+        } catch (RejectedExecutionException e) {
+            // Pool saturated; the events stay queued for the next flush
+            connection.draining.set(false);
+        }
+    }
+
+    private void drain(LiveConnection connection) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!connection.closed && (event = connection.outbox.poll()) != null) {
+                connection.sendStartedAt = System.currentTimeMillis();
+                try {
+                    send(connection, event);
+                } finally {
+                    connection.sendStartedAt = 0;
+                }
+            }
+            if (connection.closed) {
+                connection.outbox.clear();
+                if (connection.completeOnClose && !connection.completed) {
+                    connection.completed = true;
+                    connection.emitter.complete();
+                }
+            }
+        } finally {
+            connection.draining.set(false);
+        }
+        // Whatever arrived after the loop let go
+        boolean closePending = connection.completeOnClose && !connection.completed;
+        if (closePending || (!connection.closed && !connection.outbox.isEmpty())) {
+            scheduleDrain(connection);
+        }
+    }
+
+    /**
+     * Drops a stream the server gave up on; the send thread completes it once any stuck write returns.
+     */
+    private void close(LiveConnection connection, String reason) {
+        if (connections.remove(connection.id) == null) {
+            return;
+        }
+        logger.debug("Dropping live stream {}: {}", connection.id, reason);
+        connection.completeOnClose = true;
+        connection.closed = true;
+        scheduleDrain(connection);
+    }
+
+    private boolean send(LiveConnection connection, SseEmitter.SseEventBuilder event) {
+        try {
+            connection.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            connections.remove(connection.id);
+            connection.closed = true;
+            logger.debug("Closed live stream {}: {}", connection.id, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * One open SSE stream.
+     */
+    static class LiveConnection {
+        final String id;
+        final int userId;
+        final SseEmitter emitter;
+        final Set<Integer> followedWizards = ConcurrentHashMap.newKeySet();
+        private volatile Set<Long> watchedPosts = Set.of();
+
+        // Events waiting for the send executor; one drain task at a time per stream
+        final Queue<SseEmitter.SseEventBuilder> outbox = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile long sendStartedAt;
+        volatile boolean closed;
+        volatile boolean completeOnClose;
+        volatile boolean completed;
+
+        LiveConnection(String id, int userId, SseEmitter emitter, Collection<Integer> followedWizards) {
+            this.id = id;
+            this.userId = userId;
+            this.emitter = emitter;
+            this.followedWizards.addAll(followedWizards);
+        }
+
+        void watch(Collection<Long> postIds) {
+            Set<Long> watched = new HashSet<>();
+            if (postIds != null) {
+                for (Long postId : postIds) {
+                    if (postId != null && watched.size() < MAX_WATCHED_POSTS) {
+                        watched.add(postId);
+                    }
+                }
+            }
+            watchedPosts = watched;
+        }
+
+        /**
+         * JSON object {postId: likesCount} for the watched posts that changed, or null.
+         */
+        String likesPayload(Map<Long, String> fragments) {
+            if (fragments.isEmpty() || watchedPosts.isEmpty()) {
+                return null;
+            }
+
+            StringBuilder json = null;
+            // Iterate the smaller side
+            if (watchedPosts.size() < fragments.size()) {
+                for (Long postId : watchedPosts) {
+                    json = append(json, fragments.get(postId));
+                }
+            } else {
+                for (Map.Entry<Long, String> entry : fragments.entrySet()) {
+                    if (watchedPosts.contains(entry.getKey())) {
+                        json = append(json, entry.getValue());
+                    }
+                }
+            }
+            return json != null ? json.append('}').toString() : null;
+        }
+
+        private static StringBuilder append(StringBuilder json, String fragment) {
+            if (fragment == null) {
+                return json;
+            }
+            if (json == null) {
+                return new StringBuilder("{").append(fragment);
+            }
+            return json.append(',').append(fragment);
+        }
+    }
+
+    private record NewPost(Long postId, int authorId, String authorName) {
+    }
+}
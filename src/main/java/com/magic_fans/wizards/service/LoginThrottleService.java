@@ -0,0 +1,128 @@
+package com.magic_fans.wizards.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits failed sign-in attempts per account and per client IP.
+ *
+ * Failures are counted in fixed windows from Spring Security's authentication
+ * events, for form login and the token endpoint alike. Once a limit is reached
+ * further attempts are refused before any password hash is computed, so a
+ * credential-stuffing burst costs almost no CPU. A successful login clears the
+ * account's counter.
+ */
+@Service
+public class LoginThrottleService {
+
+    @Value("${magic-fans.auth.throttle.max-failures-per-account:5}")
+    private int maxFailuresPerAccount = 5;
+
+    @Value("${magic-fans.auth.throttle.max-failures-per-ip:50}")
+    private int maxFailuresPerIp = 50;
+
+    @Value("${magic-fans.auth.throttle.window:PT15M}")
+    private Duration window = Duration.ofMinutes(15);
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    private final ConcurrentHashMap<String, Window> accounts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Window> addresses = new ConcurrentHashMap<>();
+
+    /**
+     * @param username the submitted username, may be null
+     * @param ip the client address, may be null
+     */
+    public boolean isBlocked(String username, String ip) {
+        long now = clock.getAsLong();
+        return exceeded(accounts, accountKey(username), maxFailuresPerAccount, now)
+            || exceeded(addresses, ip, maxFailuresPerIp, now);
+    }
+
+    public void recordFailure(String username, String ip) {
+        long now = clock.getAsLong();
+        increment(accounts, accountKey(username), now);
+        increment(addresses, ip, now);
+    }
+
+    public void recordSuccess(String username) {
+        String key = accountKey(username);
+        if (key != null) {
+            accounts.remove(key);
+        }
+    }
+
+    @EventListener
+    public void onFailure(AuthenticationFailureBadCredentialsEvent event) {
+        recordFailure(event.getAuthentication().getName(), remoteAddress(event.getAuthentication()));
+    }
+
+    @EventListener
+    public void onSuccess(AuthenticationSuccessEvent event) {
+        recordSuccess(event.getAuthentication().getName());
+    }
+
+    /**
+     * Drops windows that have ended.
+     */
+    @Scheduled(fixedDelayString = "${magic-fans.auth.throttle.cleanup-interval:PT5M}")
+    public void cleanup() {
+        long now = clock.getAsLong();
+        accounts.values().removeIf(w -> w.isOver(now, window.toMillis()));
+        addresses.values().removeIf(w -> w.isOver(now, window.toMillis()));
+    }
+
+    private boolean exceeded(ConcurrentHashMap<String, Window> windows, String key, int limit, long now) {
+        if (key == null) {
+            return false;
+        }
+        Window current = windows.get(key);
+        return current != null && !current.isOver(now, window.toMillis()) && current.failures >= limit;
+    }
+
+    private void increment(ConcurrentHashMap<String, Window> windows, String key, long now) {
+        if (key == null) {
+            return;
+        }
+        windows.compute(key, (k, current) -> {
+            if (current == null || current.isOver(now, window.toMillis())) {
+                current = new Window(now);
+            }
+            current.failures++;
+            return current;
+        });
+    }
+
+    private static String accountKey(String username) {
+        // Имена входа сравниваем без учёта регистра и пробелов
+        return username == null || username.isBlank() ? null : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String remoteAddress(Authentication authentication) {
+        return authentication.getDetails() instanceof WebAuthenticationDetails details ? details.getRemoteAddress() : null;
+    }
+
+    private static class Window {
+        final long startedAt;
+        int failures;
+
+        Window(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        boolean isOver(long now, long length) {
+            return now - startedAt >= length;
+        }
+    }
+}
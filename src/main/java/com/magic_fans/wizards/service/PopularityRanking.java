@@ -0,0 +1,336 @@
+package com.magic_fans.wizards.service;
+
+import com.magic_fans.wizards.model.WizardPopularity;
+import com.magic_fans.wizards.repository.WizardPopularityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Popularity ranking of wizards for the feed.
+ *
+ * The score is a weighted sum of the counts the billing page shows: users who
+ * added the wizard to favorites, subscribers, profile views and likes on the
+ * wizard's posts. Counts and score are stored per wizard in wizard_popularity,
+ * whose (score, wizard_id) index serves the feed pages by keyset.
+ *
+ * Writes to favorites, subscriptions, views, likes and users mark the wizard
+ * as changed (after commit); a scheduled run recomputes only marked wizards,
+ * with one grouped count per source table for each batch, on the indexed
+ * wizard columns. A full pass runs only when the table is empty (first start)
+ * or after {@link #invalidate()}, e.g. once bulk data was loaded with JDBC.
+ * Marks are kept in memory, so with several nodes each recomputes the
+ * wizards written through it.
+ */
+@Service
+public class PopularityRanking {
+
+    private static final Logger logger = LoggerFactory.getLogger(PopularityRanking.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WizardPopularityRepository wizardPopularityRepository;
+
+    @Autowired
+    private ProfileDataVersion profileDataVersion;
+
+    @Value("${magic-fans.popularity.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${magic-fans.popularity.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${magic-fans.popularity.weights.favorites:3}")
+    private double favoritesWeight = 3;
+
+    @Value("${magic-fans.popularity.weights.subscribers:5}")
+    private double subscribersWeight = 5;
+
+    @Value("${magic-fans.popularity.weights.views:1}")
+    private double viewsWeight = 1;
+
+    @Value("${magic-fans.popularity.weights.likes:2}")
+    private double likesWeight = 2;
+
+    private final Set<Integer> changed = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Первый прогон после старта: пересчитать score по текущим весам, пустую таблицу заполнить целиком
+    private volatile boolean started;
+    private volatile boolean rebuildRequested;
+
+    @Scheduled(initialDelayString = "${magic-fans.popularity.initial-delay:PT30S}",
+               fixedDelayString = "${magic-fans.popularity.interval:PT5M}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    /**
+     * Marks a user whose counts (or wizard status) may have changed.
+     * Inside a transaction the mark is set after commit, so a run in between
+     * cannot consume it and read the old rows.
+     */
+    public void markChanged(int userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changed.add(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changed.add(userId);
+            }
+        });
+    }
+
+    /**
+     * Requests a full pass on the next run, after writes that bypassed the JPA listener.
+     */
+    public void invalidate() {
+        rebuildRequested = true;
+    }
+
+    /**
+     * Recomputes the marked wizards, or all wizards if a full pass is due.
+     * Concurrent calls are skipped rather than queued.
+     *
+     * @return the number of wizards whose score changed, or -1 if a run is already in progress
+     */
+    public int refresh() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            int updated = 0;
+            if (!started) {
+                updated += applyWeights();
+                if (Integer.valueOf(0).equals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wizard_popularity", Integer.class))) {
+                    rebuildRequested = true;
+                }
+                started = true;
+            }
+
+            List<Integer> userIds;
+            boolean full = rebuildRequested;
+            if (full) {
+                rebuildRequested = false;
+                changed.clear();
+                userIds = jdbcTemplate.queryForList("SELECT id FROM users WHERE role = 'wizard'", Integer.class);
+            } else {
+                userIds = drainChanged();
+            }
+
+            for (int from = 0; from < userIds.size(); from += batchSize) {
+                updated += recompute(userIds.subList(from, Math.min(from + batchSize, userIds.size())));
+            }
+            if (updated > 0) {
+                // Порядок ленты по популярности изменился
+                profileDataVersion.changed();
+            }
+            if (full) {
+                logger.info("Popularity ranking rebuilt for {} wizards", userIds.size());
+            } else if (updated > 0) {
+                logger.debug("Popularity ranking: {} of {} marked wizards changed score", updated, userIds.size());
+            }
+            return updated;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * One page of listed wizards, most popular first; ties by id.
+     *
+     * @param after cursor of the previous page ({@link Page#nextCursor()}), or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page getRanked(String after, int limit) {
+        PageRequest request = PageRequest.of(0, limit);
+        List<WizardPopularity> rows;
+        if (after == null || after.isBlank()) {
+            rows = wizardPopularityRepository.findRanked(request);
+        } else {
+            // The cursor carries the score the client saw, so a refresh between pages neither skips nor repeats rows
+            Cursor cursor = Cursor.parse(after);
+            rows = wizardPopularityRepository.findRankedAfter(cursor.score(), cursor.wizardId(), request);
+        }
+        List<Integer> userIds = new ArrayList<>();
+        for (WizardPopularity row : rows) {
+            userIds.add(row.getWizardId());
+        }
+        String nextCursor = rows.size() < limit ? null
+                : new Cursor(rows.get(rows.size() - 1).getScore(), rows.get(rows.size() - 1).getWizardId()).toString();
+        return new Page(userIds, nextCursor);
+    }
+
+    /**
+     * @param userIds wizard user ids in rank order
+     * @param nextCursor cursor for the following page, or null if this page is the last
+     */
+    public record Page(List<Integer> userIds, String nextCursor) {
+    }
+
+    /**
+     * Keyset position "score:wizardId" of the last row of a page.
+     */
+    record Cursor(double score, int wizardId) {
+
+        static Cursor parse(String value) {
+            int separator = value.lastIndexOf(':');
+            try {
+                double score = Double.parseDouble(value.substring(0, separator));
+                int wizardId = Integer.parseInt(value.substring(separator + 1));
+                if (Double.isNaN(score)) {
+                    throw new NumberFormatException();
+                }
+                return new Cursor(score, wizardId);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Malformed cursor: " + value);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return score + ":" + wizardId;
+        }
+    }
+
+    private List<Integer> drainChanged() {
+        List<Integer> userIds = new ArrayList<>();
+        Iterator<Integer> iterator = changed.iterator();
+        while (iterator.hasNext()) {
+            userIds.add(iterator.next());
+            // Removed before counting: a mark set again later is for a commit this run may not see
+            iterator.remove();
+        }
+        return userIds;
+    }
+
+    /**
+     * Recounts one batch of users and writes their rows; users that are not wizards lose theirs.
+     *
+     * @return the number of wizards whose score changed
+     */
+    private int recompute(List<Integer> userIds) {
+        String in = placeholders(userIds.size());
+        Object[] ids = userIds.toArray();
+
+        Set<Integer> wizards = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE role = 'wizard' AND id IN (" + in + ")", Integer.class, ids));
+        List<Object[]> removed = new ArrayList<>();
+        for (Integer userId : userIds) {
+            if (!wizards.contains(userId)) {
+                removed.add(new Object[]{userId});
+            }
+        }
+        if (!removed.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM wizard_popularity WHERE wizard_id = ?", removed);
+        }
+        if (wizards.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, Long> favorites = counts(
+                "SELECT favorite_wizard_id, COUNT(*) FROM favorites WHERE favorite_wizard_id IN (" + in + ") GROUP BY favorite_wizard_id", ids);
+        Map<Integer, Long> subscribers = counts(
+                "SELECT wizard_id, COUNT(*) FROM subscriptions WHERE wizard_id IN (" + in + ") GROUP BY wizard_id", ids);
+        Map<Integer, Long> views = counts(
+                "SELECT viewed_wizard_id, COUNT(*) FROM profile_views WHERE viewed_wizard_id IN (" + in + ") GROUP BY viewed_wizard_id", ids);
+        Map<Integer, Long> likes = counts(
+                "SELECT p.author_id, COUNT(*) FROM post_likes pl JOIN posts p ON p.id = pl.post_id " +
+                "WHERE p.author_id IN (" + in + ") GROUP BY p.author_id", ids);
+        Map<Integer, Double> previous = new HashMap<>();
+        jdbcTemplate.query("SELECT wizard_id, score FROM wizard_popularity WHERE wizard_id IN (" + in + ")",
+                rs -> {
+                    previous.put(rs.getInt(1), rs.getDouble(2));
+                }, ids);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        int scoreChanges = 0;
+        for (Integer wizardId : wizards) {
+            long favoritesCount = favorites.getOrDefault(wizardId, 0L);
+            long subscribersCount = subscribers.getOrDefault(wizardId, 0L);
+            long viewsCount = views.getOrDefault(wizardId, 0L);
+            long likesCount = likes.getOrDefault(wizardId, 0L);
+            double score = score(favoritesCount, subscribersCount, viewsCount, likesCount);
+            Double old = previous.get(wizardId);
+            if (old == null || old != score) {
+                scoreChanges++;
+            }
+            rows.add(new Object[]{favoritesCount, subscribersCount, viewsCount, likesCount, score, now, wizardId});
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate(
+                "UPDATE wizard_popularity SET favorites = ?, subscribers = ?, views = ?, likes = ?, score = ?, updated_at = ? " +
+                "WHERE wizard_id = ?", rows);
+        for (int i = 0; i < rows.size(); i++) {
+            if (updated[i] == 0) {
+                insert(rows.get(i));
+            }
+        }
+        return scoreChanges;
+    }
+
+    private void insert(Object[] row) {
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO wizard_popularity (favorites, subscribers, views, likes, score, updated_at, wizard_id) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)", row);
+        } catch (DuplicateKeyException e) {
+            // Another node inserted the row meanwhile; its counts are as fresh as ours
+            logger.debug("Popularity row for wizard {} already exists", row[6]);
+        }
+    }
+
+    /**
+     * Recomputes stored scores from stored counts, so changed weights apply without recounting.
+     */
+    private int applyWeights() {
+        return jdbcTemplate.update(
+                "UPDATE wizard_popularity SET score = favorites * ? + subscribers * ? + views * ? + likes * ?",
+                favoritesWeight, subscribersWeight, viewsWeight, likesWeight);
+    }
+
+    private double score(long favorites, long subscribers, long views, long likes) {
+        return favorites * favoritesWeight + subscribers * subscribersWeight + views * viewsWeight + likes * likesWeight;
+    }
+
+    private Map<Integer, Long> counts(String sql, Object[] ids) {
+        Map<Integer, Long> counts = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            counts.put(rs.getInt(1), rs.getLong(2));
+        }, ids);
+        return counts;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
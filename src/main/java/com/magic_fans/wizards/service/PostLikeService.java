@@ -9,8 +9,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class PostLikeService {
@@ -59,6 +61,11 @@ public class PostLikeService {
         return postLikeRepository.existsByPostIdAndUserId(postId, userId);
     }
 
+    @Transactional(readOnly = true)
+    public Set<Long> getLikedPostIds(int userId, int authorId) {
+        return new HashSet<>(postLikeRepository.findLikedPostIdsByUserIdAndAuthorId(userId, authorId));
+    }
+
     public List<PostLike> getPostLikes(Long postId) {
         return postLikeRepository.findByPostIdOrderByLikedAtDesc(postId);
     }
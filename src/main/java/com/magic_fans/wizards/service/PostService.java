@@ -49,6 +49,7 @@ public class PostService {
         return postRepository.findById(postId);
     }
 
+    @Transactional(readOnly = true)
     public List<Post> getPostsByAuthor(int authorId) {
         return postRepository.findByAuthorIdOrderByCreatedAtDesc(authorId);
     }
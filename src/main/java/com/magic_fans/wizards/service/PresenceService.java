@@ -0,0 +1,228 @@
+package com.magic_fans.wizards.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory online presence tracking.
+ *
+ * Last activity is stored per user as a coarse time bucket (30s by default) in
+ * a striped map, so a user making many requests within one bucket only costs a
+ * read. Idle users are expired by a timing wheel: every bucket change schedules
+ * the user into the slot of the bucket where it would expire, and each tick
+ * drains only the slots that came due instead of scanning all users.
+ * Presence is per instance and never touches the database.
+ *
+ * A version counter moves whenever the set of online users changes (not on
+ * refreshes of users already online), so responses showing online flags can
+ * be validated without resolving presence again.
+ */
+@Service
+public class PresenceService {
+
+    // Степени двойки, чтобы индекс считался маской
+    private static final int STRIPES = 16;
+    private static final int WHEEL_SIZE = 64;
+
+    @Value("${magic-fans.presence.bucket-seconds:30}")
+    private int bucketSeconds = 30;
+
+    @Value("${magic-fans.presence.ttl-seconds:300}")
+    private int ttlSeconds = 300;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    @SuppressWarnings("unchecked")
+    private final ConcurrentHashMap<Integer, AtomicInteger>[] stripes = new ConcurrentHashMap[STRIPES];
+
+    @SuppressWarnings("unchecked")
+    private final ConcurrentLinkedQueue<Integer>[] wheel = new ConcurrentLinkedQueue[WHEEL_SIZE];
+
+    private final AtomicInteger lastTick = new AtomicInteger(Integer.MIN_VALUE);
+
+    private final AtomicLong version = new AtomicLong();
+
+    public PresenceService() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Records activity for a user. Cheap enough to call on every request:
+     * only the first call within a bucket writes anything.
+     */
+    public void recordActivity(int userId) {
+        int now = currentBucket();
+        ConcurrentHashMap<Integer, AtomicInteger> stripe = stripe(userId);
+
+        AtomicInteger lastSeen = stripe.get(userId);
+        if (lastSeen == null) {
+            AtomicInteger created = new AtomicInteger(now);
+            lastSeen = stripe.putIfAbsent(userId, created);
+            if (lastSeen == null) {
+                schedule(userId, now);
+                version.incrementAndGet();
+                return;
+            }
+        }
+
+        int seen = lastSeen.get();
+        while (seen < now) {
+            if (lastSeen.compareAndSet(seen, now)) {
+                schedule(userId, now);
+                if (isExpired(seen, now)) {
+                    // Back online before the tick removed the idle entry
+                    version.incrementAndGet();
+                }
+                // Expiry may have unlinked the entry between get() and the CAS
+                if (stripe.get(userId) != lastSeen) {
+                    stripe.putIfAbsent(userId, lastSeen);
+                }
+                return;
+            }
+            seen = lastSeen.get();
+        }
+    }
+
+    /**
+     * Drops a user immediately (e.g. on logout).
+     */
+    public void markOffline(int userId) {
+        if (stripe(userId).remove(userId) != null) {
+            version.incrementAndGet();
+        }
+    }
+
+    public boolean isOnline(int userId) {
+        AtomicInteger lastSeen = stripe(userId).get(userId);
+        return lastSeen != null && !isExpired(lastSeen.get(), currentBucket());
+    }
+
+    /**
+     * Resolves online status for a whole page of users in one pass.
+     *
+     * @param userIds ids to check
+     * @return the subset of ids that are currently online
+     */
+    public Set<Integer> getOnlineUserIds(Collection<Integer> userIds) {
+        int now = currentBucket();
+        Set<Integer> online = new HashSet<>();
+        for (Integer userId : userIds) {
+            if (userId == null) {
+                continue;
+            }
+            AtomicInteger lastSeen = stripe(userId).get(userId);
+            if (lastSeen != null && !isExpired(lastSeen.get(), now)) {
+                online.add(userId);
+            }
+        }
+        return online;
+    }
+
+    /**
+     * Changes whenever a user comes online or goes offline. Users idling out are
+     * counted when the tick expires them, so the version may lag by one tick interval.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Number of tracked users, including ones whose expiry tick has not run yet.
+     */
+    public int getTrackedCount() {
+        int count = 0;
+        for (ConcurrentHashMap<Integer, AtomicInteger> stripe : stripes) {
+            count += stripe.size();
+        }
+        return count;
+    }
+
+    /**
+     * Advances the timing wheel, expiring users whose slot came due.
+     */
+    @Scheduled(fixedDelayString = "${magic-fans.presence.tick-interval:PT30S}")
+    public void tick() {
+        int now = currentBucket();
+        int previous = lastTick.getAndSet(now);
+        if (previous == Integer.MIN_VALUE) {
+            previous = now - 1;
+        }
+
+        // After a long pause every slot is due once; more laps would only repeat them
+        int from = Math.max(previous + 1, now - WHEEL_SIZE + 1);
+        for (int bucket = from; bucket <= now; bucket++) {
+            int index = bucket & (WHEEL_SIZE - 1);
+            ConcurrentLinkedQueue<Integer> slot = wheel[index];
+            Set<Integer> stillDue = new HashSet<>();
+            Integer userId;
+            while ((userId = slot.poll()) != null) {
+                if (!expireIfIdle(userId, now, index)) {
+                    stillDue.add(userId);
+                }
+            }
+            slot.addAll(stillDue);
+        }
+    }
+
+    /**
+     * Expires a drained wheel entry.
+     *
+     * @return false if the user is still active and this slot is its current
+     *         expiry slot (possible after a lagging tick), so the entry must stay
+     */
+    private boolean expireIfIdle(int userId, int now, int slotIndex) {
+        ConcurrentHashMap<Integer, AtomicInteger> stripe = stripe(userId);
+        AtomicInteger lastSeen = stripe.get(userId);
+        if (lastSeen == null) {
+            return true;
+        }
+
+        int seen = lastSeen.get();
+        if (isExpired(seen, now)) {
+            if (stripe.remove(userId, lastSeen)) {
+                version.incrementAndGet();
+            }
+            return true;
+        }
+        // A refreshed user already has an entry in a later slot, so this one is just dropped
+        return ((seen + ttlBuckets()) & (WHEEL_SIZE - 1)) != slotIndex;
+    }
+
+    private void schedule(int userId, int bucket) {
+        wheel[(bucket + ttlBuckets()) & (WHEEL_SIZE - 1)].add(userId);
+    }
+
+    private boolean isExpired(int lastSeenBucket, int now) {
+        return now - lastSeenBucket >= ttlBuckets();
+    }
+
+    private int ttlBuckets() {
+        int buckets = (ttlSeconds + bucketSeconds - 1) / bucketSeconds;
+        return Math.max(1, Math.min(buckets, WHEEL_SIZE - 1));
+    }
+
+    private int currentBucket() {
+        return (int) (clock.getAsLong() / 1000 / bucketSeconds);
+    }
+
+    private ConcurrentHashMap<Integer, AtomicInteger> stripe(int userId) {
+        // Перемешиваем биты: id выдаются подряд
+        int h = userId * 0x9E3779B9;
+        return stripes[(h >>> 28) & (STRIPES - 1)];
+    }
+}
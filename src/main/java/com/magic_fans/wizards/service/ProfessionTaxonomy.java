@@ -0,0 +1,152 @@
+package com.magic_fans.wizards.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The profession taxonomy from the Professions file: name, practice type and
+ * the functions a profession covers.
+ *
+ * The file is a hand-aligned table, columns are separated by two or more
+ * spaces (or tabs). A row with two columns has no type. Functions are split
+ * on commas outside parentheses, so "линии ладони (жизни, судьбы)" stays one
+ * function.
+ */
+@Service
+public class ProfessionTaxonomy {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfessionTaxonomy.class);
+
+    // Раздел навыков, которые берутся из таксономии, а не из формы профиля
+    public static final String SKILL_SECTION = "profession";
+
+    static final int MAX_NAME_LENGTH = 100;
+    static final int MAX_TYPE_LENGTH = 50;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${magic-fans.professions.location:file:Professions}")
+    private String location = "file:Professions";
+
+    private volatile List<Profession> professions;
+
+    /**
+     * Professions in file order, loaded on first use.
+     *
+     * @return the parsed rows, empty if the file is missing or unreadable
+     */
+    public List<Profession> getProfessions() {
+        List<Profession> loaded = professions;
+        if (loaded == null) {
+            loaded = load();
+            professions = loaded;
+        }
+        return loaded;
+    }
+
+    private List<Profession> load() {
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            logger.warn("Profession taxonomy not found at {}", location);
+            return List.of();
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            return parse(reader.lines().toList());
+        } catch (IOException e) {
+            logger.warn("Failed to read profession taxonomy {}: {}", location, e.getMessage());
+            return List.of();
+        }
+    }
+
+    static List<Profession> parse(List<String> lines) {
+        List<Profession> result = new ArrayList<>();
+        boolean header = true;
+        for (String line : lines) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (header) {
+                header = false;
+                continue;
+            }
+
+            String[] columns = line.strip().split("\\s{2,}|\\t+");
+            String name = clean(columns[0], MAX_NAME_LENGTH);
+            String type = null;
+            String functions = "";
+            if (columns.length == 2) {
+                functions = columns[1];
+            } else if (columns.length > 2) {
+                type = clean(columns[1], MAX_TYPE_LENGTH);
+                functions = String.join(", ", List.of(columns).subList(2, columns.length));
+            }
+            if (!name.isEmpty()) {
+                result.add(new Profession(name, type, splitFunctions(functions)));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static List<String> splitFunctions(String functions) {
+        Set<String> result = new LinkedHashSet<>();
+        StringBuilder current = new StringBuilder();
+        int depth = 0;
+        for (char c : functions.toCharArray()) {
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && depth > 0) {
+                depth--;
+            }
+            if (c == ',' && depth == 0) {
+                add(result, current);
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        add(result, current);
+        return List.copyOf(result);
+    }
+
+    private static void add(Set<String> functions, CharSequence raw) {
+        String function = clean(raw.toString(), MAX_NAME_LENGTH);
+        if (!function.isEmpty()) {
+            functions.add(Character.toUpperCase(function.charAt(0)) + function.substring(1));
+        }
+    }
+
+    private static String clean(String raw, int maxLength) {
+        String value = raw.replaceAll("[«»\"]", "").strip();
+        while (value.endsWith(".")) {
+            value = value.substring(0, value.length() - 1).strip();
+        }
+        return value.length() > maxLength ? value.substring(0, maxLength).strip() : value;
+    }
+
+    /**
+     * One row of the taxonomy.
+     *
+     * @param name profession name, used as a specialization
+     * @param type practice type, null when the row has none
+     * @param functions what the profession covers, used as skill names
+     */
+    public record Profession(String name, String type, List<String> functions) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.magic_fans.wizards.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counter of the data shown in profile listings (users, wizard profiles, skills).
+ *
+ * Caches key their entries by the version they were built from, so a single
+ * increment invalidates every cached page without tracking which pages a
+ * write affected.
+ */
+@Service
+public class ProfileDataVersion {
+
+    private final AtomicLong version = new AtomicLong(1);
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Marks profile data as changed. Inside a transaction the version moves only
+     * after commit, otherwise a concurrent reader could rebuild a page from the
+     * uncommitted (old) rows and cache it under the new version.
+     */
+    public void changed() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
+        }
+
+        // One increment per transaction, however many rows it touched
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ProfileDataVersion.this);
+                if (status == STATUS_COMMITTED) {
+                    version.incrementAndGet();
+                }
+            }
+        });
+    }
+}
@@ -3,7 +3,9 @@ package com.magic_fans.wizards.service;
 import com.magic_fans.wizards.model.ProfileView;
 import com.magic_fans.wizards.model.User;
 import com.magic_fans.wizards.repository.ProfileViewRepository;
+import com.magic_fans.wizards.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +19,9 @@ public class ProfileViewService {
     @Autowired
     private ProfileViewRepository profileViewRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
     @Transactional
     public ProfileView recordView(User viewer, User viewedWizard) {
         // Check if view already exists
@@ -36,6 +41,16 @@ public class ProfileViewService {
         }
     }
 
+    /**
+     * Records a view on the async executor so the profile page does not wait for the write.
+     * Takes ids: entities of the request's persistence context must not cross threads.
+     */
+    @Async
+    @Transactional
+    public void recordViewAsync(int viewerId, int viewedWizardId) {
+        recordView(userRepository.getReferenceById(viewerId), userRepository.getReferenceById(viewedWizardId));
+    }
+
     public boolean hasViewed(int viewerId, int viewedWizardId) {
         return profileViewRepository.existsByViewerIdAndViewedWizardId(viewerId, viewedWizardId);
     }
@@ -0,0 +1,105 @@
+package com.magic_fans.wizards.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.function.LongSupplier;
+
+/**
+ * Issued refresh tokens, in the application's own datasource so every node
+ * sees the same state.
+ *
+ * Each refresh token has an id (the jti claim) and belongs to a family that
+ * starts at sign-in; a refresh consumes the token and issues the next one of
+ * the same family. A token works once: presenting a consumed or unknown token
+ * means a copy is in other hands, so the whole family is revoked and both
+ * holders have to sign in again. Rows are kept until they expire, so a replay
+ * is recognized for the token's whole lifetime.
+ */
+@Service
+public class RefreshTokenStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenStore.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    @PostConstruct
+    void createTable() {
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS refresh_tokens (
+                token_id VARCHAR(32) PRIMARY KEY,
+                family_id VARCHAR(32) NOT NULL,
+                user_id INT NOT NULL,
+                expiry_time BIGINT NOT NULL,
+                used BOOLEAN NOT NULL
+            )""");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family ON refresh_tokens (family_id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expiry ON refresh_tokens (expiry_time)");
+    }
+
+    /**
+     * A new random token or family id, 128 bits.
+     */
+    public static String newId() {
+        byte[] bytes = new byte[16];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public void add(String tokenId, String familyId, int userId, long expiresAt) {
+        jdbcTemplate.update(
+            "INSERT INTO refresh_tokens (token_id, family_id, user_id, expiry_time, used) VALUES (?, ?, ?, ?, FALSE)",
+            tokenId, familyId, userId, expiresAt);
+    }
+
+    /**
+     * Marks the token as used.
+     *
+     * @return true for the first use of a live token; false otherwise, after
+     *         revoking the family
+     */
+    public boolean consume(String tokenId, String familyId, int userId) {
+        // Одно условное обновление: из двух одновременных запросов с одним токеном проходит только один
+        int updated = jdbcTemplate.update(
+            "UPDATE refresh_tokens SET used = TRUE " +
+            "WHERE token_id = ? AND family_id = ? AND user_id = ? AND used = FALSE AND expiry_time > ?",
+            tokenId, familyId, userId, clock.getAsLong());
+        if (updated == 1) {
+            return true;
+        }
+        int revoked = revokeFamily(familyId);
+        if (revoked > 0) {
+            logger.warn("Refresh token reused for user {}; revoked {} tokens of its family", userId, revoked);
+        }
+        return false;
+    }
+
+    /**
+     * Revokes every token of a family, e.g. on sign-out.
+     *
+     * @return the number of tokens removed
+     */
+    public int revokeFamily(String familyId) {
+        return jdbcTemplate.update("DELETE FROM refresh_tokens WHERE family_id = ?", familyId);
+    }
+
+    @Scheduled(fixedDelayString = "${magic-fans.auth.tokens.cleanup-interval:PT1H}")
+    public void deleteExpired() {
+        int deleted = jdbcTemplate.update("DELETE FROM refresh_tokens WHERE expiry_time < ?", clock.getAsLong());
+        if (deleted > 0) {
+            logger.debug("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+}
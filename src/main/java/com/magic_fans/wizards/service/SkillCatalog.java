@@ -0,0 +1,255 @@
+package com.magic_fans.wizards.service;
+
+import com.magic_fans.wizards.model.Skill;
+import com.magic_fans.wizards.repository.SkillRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Dictionary of skills: (section, subsection, name) to a small integer id.
+ *
+ * The whole catalog is held in memory as an immutable snapshot (an array
+ * indexed by id plus lookup maps), so encoding and decoding skills costs no
+ * query. It is loaded on first use, after the professions from the taxonomy
+ * file are added. Skills first seen when a wizard saves them are added on the
+ * fly, normalized and only while their section is below a size limit; each
+ * addition commits on its own, so an id in the snapshot always exists in the
+ * table even if the caller's transaction rolls back. The limit bounds what
+ * such leftovers and hand-made payloads can add to the catalog.
+ */
+@Service
+public class SkillCatalog {
+
+    @Autowired
+    private SkillRepository skillRepository;
+
+    @Autowired
+    private ProfessionTaxonomy professionTaxonomy;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Длина колонки name
+    static final int MAX_NAME_LENGTH = 100;
+
+    // Форма предлагает около двух десятков навыков на раздел
+    @Value("${magic-fans.skills.max-section-size:200}")
+    private int maxSectionSize = 200;
+
+    private volatile Snapshot snapshot;
+
+    public Entry get(int id) {
+        return snapshot().get(id);
+    }
+
+    /**
+     * @return the id, or null if the skill is not in the catalog
+     */
+    public Integer findId(String section, String subsection, String name) {
+        Entry entry = snapshot().byKey.get(new Key(section, subsection, name));
+        return entry != null ? entry.id() : null;
+    }
+
+    /**
+     * Returns the id of a skill, adding it to the catalog if it is new.
+     */
+    public int getOrCreateId(String section, String subsection, String name) {
+        Integer id = findId(section, subsection, name);
+        return id != null ? id : add(section, subsection, name, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the id of a skill submitted by a wizard. The name is normalized
+     * (Unicode NFC, whitespace collapsed); a name the catalog does not have
+     * yet is added only while its section holds fewer than the configured
+     * number of entries.
+     *
+     * @throws IllegalArgumentException if the name is blank or too long, or the section is full
+     */
+    public int getOrCreateSubmittedId(String section, String subsection, String name) {
+        String normalized = normalizeName(name);
+        if (normalized.isEmpty() || normalized.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Skill names must be 1 to " + MAX_NAME_LENGTH + " characters");
+        }
+        Integer id = findId(section, subsection, normalized);
+        return id != null ? id : add(section, subsection, normalized, maxSectionSize);
+    }
+
+    /**
+     * Ids of all entries with one of the names, in any section.
+     */
+    public Set<Integer> idsByName(Collection<String> names) {
+        Snapshot current = snapshot();
+        Set<Integer> ids = new TreeSet<>();
+        for (String name : names) {
+            ids.addAll(current.byName.getOrDefault(name, List.of()));
+        }
+        return ids;
+    }
+
+    public Set<Integer> idsBySection(String section) {
+        return new TreeSet<>(snapshot().bySection.getOrDefault(section, List.of()));
+    }
+
+    public Set<Integer> idsBySubsection(String subsection) {
+        return new TreeSet<>(snapshot().bySubsection.getOrDefault(subsection, List.of()));
+    }
+
+    /**
+     * All entries ordered by id.
+     */
+    public List<Entry> getAll() {
+        List<Entry> entries = new ArrayList<>();
+        for (Entry entry : snapshot().byId) {
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Drops the in-memory snapshot; the next call reads the table again.
+     */
+    public synchronized void reload() {
+        snapshot = null;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        Snapshot loaded = read();
+        Set<Key> missing = new LinkedHashSet<>();
+        for (ProfessionTaxonomy.Profession profession : professionTaxonomy.getProfessions()) {
+            for (String function : profession.functions()) {
+                Key key = new Key(ProfessionTaxonomy.SKILL_SECTION, profession.type(), function);
+                if (!loaded.byKey.containsKey(key)) {
+                    missing.add(key);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return loaded;
+        }
+        newTransaction().executeWithoutResult(status -> skillRepository.saveAll(missing.stream()
+            .map(key -> new Skill(key.section(), key.subsection(), key.name()))
+            .toList()));
+        return read();
+    }
+
+    private Snapshot read() {
+        List<Entry> entries = new ArrayList<>();
+        for (Skill skill : newTransaction().execute(status -> skillRepository.findAll())) {
+            entries.add(new Entry(skill.getId(), skill.getSection(), skill.getSubsection(), skill.getName()));
+        }
+        return new Snapshot(entries);
+    }
+
+    private synchronized int add(String section, String subsection, String name, int sectionLimit) {
+        Snapshot current = snapshot();
+        Entry existing = current.byKey.get(new Key(section, subsection, name));
+        if (existing != null) {
+            return existing.id();
+        }
+        if (current.bySection.getOrDefault(section, List.of()).size() >= sectionLimit) {
+            throw new IllegalArgumentException("No new skills can be added to " + section);
+        }
+
+        Skill saved;
+        try {
+            saved = newTransaction().execute(status -> skillRepository.save(new Skill(section, subsection, name)));
+        } catch (DataIntegrityViolationException e) {
+            // Another node added it first
+            snapshot = read();
+            Entry added = snapshot.byKey.get(new Key(section, subsection, name));
+            if (added == null) {
+                throw e;
+            }
+            return added.id();
+        }
+
+        List<Entry> entries = new ArrayList<>(getAll());
+        entries.add(new Entry(saved.getId(), section, subsection, name));
+        snapshot = new Snapshot(entries);
+        return saved.getId();
+    }
+
+    private static String normalizeName(String name) {
+        return Normalizer.normalize(name, Normalizer.Form.NFC)
+                .replaceAll("(?U)[\\s\\p{Cntrl}]+", " ")
+                .strip();
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transaction;
+    }
+
+    /**
+     * One catalog entry.
+     *
+     * @param subsection null for sections without subsections
+     */
+    public record Entry(int id, String section, String subsection, String name) {
+    }
+
+    private record Key(String section, String subsection, String name) {
+    }
+
+    /**
+     * Immutable view of the catalog; replaced as a whole when an entry is added.
+     */
+    private static class Snapshot {
+        final Entry[] byId;
+        final Map<Key, Entry> byKey = new HashMap<>();
+        final Map<String, List<Integer>> byName = new HashMap<>();
+        final Map<String, List<Integer>> bySection = new HashMap<>();
+        final Map<String, List<Integer>> bySubsection = new HashMap<>();
+
+        Snapshot(List<Entry> entries) {
+            int maxId = entries.stream().mapToInt(Entry::id).max().orElse(0);
+            byId = new Entry[maxId + 1];
+            for (Entry entry : entries) {
+                byId[entry.id()] = entry;
+                byKey.put(new Key(entry.section(), entry.subsection(), entry.name()), entry);
+                byName.computeIfAbsent(entry.name(), key -> new ArrayList<>()).add(entry.id());
+                bySection.computeIfAbsent(entry.section(), key -> new ArrayList<>()).add(entry.id());
+                if (entry.subsection() != null) {
+                    bySubsection.computeIfAbsent(entry.subsection(), key -> new ArrayList<>()).add(entry.id());
+                }
+            }
+        }
+
+        Entry get(int id) {
+            return id >= 0 && id < byId.length ? byId[id] : null;
+        }
+    }
+}
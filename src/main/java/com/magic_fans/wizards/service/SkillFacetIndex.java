@@ -0,0 +1,462 @@
+package com.magic_fans.wizards.service;
+
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.model.WizardProfile;
+import com.magic_fans.wizards.model.WizardSkill;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Facet counts for the feed filter: how many listed wizards (active, role
+ * wizard) have each skill, section, subsection and specialization.
+ *
+ * The index keeps a posting set of listed wizard profile ids per skill,
+ * section, subsection and specialization, and publishes them as an immutable
+ * snapshot together with the unfiltered counts. Reads take no lock: a filter
+ * context is the intersection of the postings it names (and the range index
+ * for experience and price), and each facet is the size of its posting within
+ * the context.
+ *
+ * Changes arrive from the JPA listener (users, profiles, skill rows) and from
+ * the JDBC skill save, and are applied after commit by one writer at a time,
+ * which copies only the postings a wizard enters or leaves. Every change sets a
+ * wizard's state rather than adjusting counters, so a change that is already
+ * part of a fresh load is harmless. Bulk writes that bypass both paths call
+ * {@link #invalidate()}; the index is then rebuilt on the next read.
+ */
+@Service
+public class SkillFacetIndex {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SkillCatalog skillCatalog;
+
+    @Autowired
+    private WizardRangeIndex wizardRangeIndex;
+
+    private final Object pendingKey = new Object();
+
+    // Writer side, guarded by this; posting sets are replaced, never modified
+    private final Map<Integer, Wizard> wizards = new HashMap<>();
+    private final Map<Integer, Set<Integer>> bySkill = new HashMap<>();
+    private final Map<String, Set<Integer>> bySection = new HashMap<>();
+    private final Map<String, Set<Integer>> bySubsection = new HashMap<>();
+    // Ключ в нижнем регистре, как сравнивает /filter; показываем первое встреченное написание
+    private final Map<String, Set<Integer>> bySpecialization = new HashMap<>();
+    private final Map<String, String> specializationLabels = new HashMap<>();
+    private Set<Integer> listed = Set.of();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Counts among all listed wizards.
+     */
+    public Facets getFacets() {
+        return snapshot().unfiltered();
+    }
+
+    /**
+     * Counts among listed wizards that match every condition of the context.
+     */
+    public Facets getFacets(Context context) {
+        Snapshot current = snapshot();
+        if (context.isEmpty()) {
+            return current.unfiltered();
+        }
+
+        List<Set<Integer>> conditions = new ArrayList<>();
+        conditions.add(current.listed());
+        if (context.specialization() != null) {
+            conditions.add(current.bySpecialization().getOrDefault(specializationKey(context.specialization()), Set.of()));
+        }
+        if (context.skillIds() != null) {
+            conditions.add(union(current.bySkill(), context.skillIds()));
+        }
+        if (context.experience() != null) {
+            conditions.add(wizardRangeIndex.experienceBetween(context.experience().min(), context.experience().max()));
+        }
+        if (context.price() != null) {
+            conditions.add(wizardRangeIndex.priceBetween(context.price().min(), context.price().max()));
+        }
+
+        // Smallest set first, every further condition only shrinks it
+        conditions.sort(Comparator.comparingInt(Set::size));
+        Set<Integer> matching = new HashSet<>(conditions.get(0));
+        for (int i = 1; i < conditions.size() && !matching.isEmpty(); i++) {
+            matching.retainAll(conditions.get(i));
+        }
+        return current.count(matching);
+    }
+
+    /**
+     * Applies a skill save (after commit, if called inside a transaction).
+     */
+    public void skillsChanged(WizardSkillsService.SkillDelta delta) {
+        AfterCommit.run(pendingKey, () -> updateSkills(delta.wizardProfileId(), delta.added(), delta.removed()));
+    }
+
+    /**
+     * Called by the JPA listener after an entity shown in listings was written.
+     */
+    public void entityChanged(Object entity) {
+        if (entity instanceof User user) {
+            WizardProfile profile = user.getWizardProfile();
+            if (profile == null) {
+                return;
+            }
+            int profileId = profile.getId();
+            boolean listed = user.isActive() && "wizard".equals(user.getRole());
+            String specialization = user.getSpecialization();
+            AfterCommit.run(pendingKey, () -> updateWizard(profileId, listed, specialization));
+        } else if (entity instanceof WizardSkill skill) {
+            int profileId = skill.getWizardProfile().getId();
+            Integer skillId = skill.getSkillId();
+            AfterCommit.run(pendingKey, () -> updateSkills(profileId, Set.of(skillId), Set.of()));
+        }
+    }
+
+    /**
+     * Called by the JPA listener after an entity shown in listings was deleted.
+     */
+    public void entityRemoved(Object entity) {
+        if (entity instanceof User user && user.getWizardProfile() != null) {
+            int profileId = user.getWizardProfile().getId();
+            AfterCommit.run(pendingKey, () -> removeWizard(profileId));
+        } else if (entity instanceof WizardProfile profile) {
+            int profileId = profile.getId();
+            AfterCommit.run(pendingKey, () -> removeWizard(profileId));
+        } else if (entity instanceof WizardSkill skill) {
+            int profileId = skill.getWizardProfile().getId();
+            Integer skillId = skill.getSkillId();
+            AfterCommit.run(pendingKey, () -> updateSkills(profileId, Set.of(), Set.of(skillId)));
+        }
+    }
+
+    /**
+     * Drops the index after a write that bypassed the listener; the next read rebuilds it.
+     */
+    public void invalidate() {
+        AfterCommit.run(pendingKey, () -> {
+            synchronized (this) {
+                snapshot = null;
+                clear();
+            }
+        });
+    }
+
+    private synchronized void updateSkills(int profileId, Set<Integer> added, Set<Integer> removed) {
+        // Not loaded yet: the load will read the committed rows
+        if (snapshot == null) {
+            return;
+        }
+        Wizard wizard = wizards.computeIfAbsent(profileId, id -> new Wizard());
+        Keys before = keys(wizard);
+        wizard.skills.removeAll(removed);
+        wizard.skills.addAll(added);
+        reindex(profileId, before, keys(wizard), wizard);
+    }
+
+    private synchronized void updateWizard(int profileId, boolean listed, String specialization) {
+        if (snapshot == null) {
+            return;
+        }
+        Wizard wizard = wizards.computeIfAbsent(profileId, id -> new Wizard());
+        Keys before = keys(wizard);
+        wizard.listed = listed;
+        wizard.specialization = specialization;
+        reindex(profileId, before, keys(wizard), wizard);
+    }
+
+    private synchronized void removeWizard(int profileId) {
+        if (snapshot == null) {
+            return;
+        }
+        Wizard wizard = wizards.remove(profileId);
+        if (wizard != null) {
+            reindex(profileId, keys(wizard), Keys.NONE, wizard);
+        }
+    }
+
+    /**
+     * Moves the wizard between postings and publishes the result.
+     */
+    private void reindex(int profileId, Keys before, Keys after, Wizard wizard) {
+        if (before.equals(after)) {
+            return;
+        }
+        if (before.listed() != after.listed()) {
+            listed = withOrWithout(listed, profileId, after.listed());
+        }
+        move(bySkill, before.skills(), after.skills(), profileId);
+        move(bySection, before.sections(), after.sections(), profileId);
+        move(bySubsection, before.subsections(), after.subsections(), profileId);
+        move(bySpecialization, before.specializations(), after.specializations(), profileId);
+        specializationLabels.keySet().retainAll(bySpecialization.keySet());
+        for (String key : after.specializations()) {
+            specializationLabels.putIfAbsent(key, wizard.specialization.trim());
+        }
+        publish();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                load();
+            }
+            return snapshot;
+        }
+    }
+
+    private void load() {
+        clear();
+        jdbcTemplate.query(
+                "SELECT wp.id, u.specialization, u.active, u.role FROM users u " +
+                "JOIN wizard_profiles wp ON u.wizard_profile_id = wp.id",
+                rs -> {
+                    Wizard wizard = wizards.computeIfAbsent(rs.getInt(1), id -> new Wizard());
+                    wizard.specialization = rs.getString(2);
+                    wizard.listed = rs.getBoolean(3) && "wizard".equals(rs.getString(4));
+                });
+        jdbcTemplate.query(
+                "SELECT wizard_profile_id, skill_id FROM wizard_profile_skills",
+                rs -> {
+                    wizards.computeIfAbsent(rs.getInt(1), id -> new Wizard()).skills.add(rs.getInt(2));
+                });
+
+        // Built in place, then frozen: nothing is published before publish()
+        Set<Integer> allListed = new HashSet<>();
+        wizards.forEach((profileId, wizard) -> {
+            Keys keys = keys(wizard);
+            if (!keys.listed()) {
+                return;
+            }
+            allListed.add(profileId);
+            keys.skills().forEach(key -> bySkill.computeIfAbsent(key, k -> new HashSet<>()).add(profileId));
+            keys.sections().forEach(key -> bySection.computeIfAbsent(key, k -> new HashSet<>()).add(profileId));
+            keys.subsections().forEach(key -> bySubsection.computeIfAbsent(key, k -> new HashSet<>()).add(profileId));
+            for (String key : keys.specializations()) {
+                bySpecialization.computeIfAbsent(key, k -> new HashSet<>()).add(profileId);
+                specializationLabels.putIfAbsent(key, wizard.specialization.trim());
+            }
+        });
+        listed = Collections.unmodifiableSet(allListed);
+        freeze(bySkill);
+        freeze(bySection);
+        freeze(bySubsection);
+        freeze(bySpecialization);
+        publish();
+    }
+
+    private void clear() {
+        wizards.clear();
+        bySkill.clear();
+        bySection.clear();
+        bySubsection.clear();
+        bySpecialization.clear();
+        specializationLabels.clear();
+        listed = Set.of();
+    }
+
+    private void publish() {
+        snapshot = new Snapshot(listed, Map.copyOf(bySkill), Map.copyOf(bySection), Map.copyOf(bySubsection),
+                Map.copyOf(bySpecialization), Map.copyOf(specializationLabels));
+    }
+
+    /**
+     * The postings a wizard belongs to; none while not listed. A wizard is in a
+     * section or subsection once however many of its skills fall into it.
+     */
+    private Keys keys(Wizard wizard) {
+        if (!wizard.listed) {
+            return Keys.NONE;
+        }
+        Set<String> sections = new HashSet<>();
+        Set<String> subsections = new HashSet<>();
+        for (Integer skillId : wizard.skills) {
+            SkillCatalog.Entry entry = skillCatalog.get(skillId);
+            if (entry != null) {
+                sections.add(entry.section());
+                if (entry.subsection() != null) {
+                    subsections.add(entry.subsection());
+                }
+            }
+        }
+        String key = wizard.specialization != null ? specializationKey(wizard.specialization) : "";
+        return new Keys(true, Set.copyOf(wizard.skills), sections, subsections,
+                key.isEmpty() ? Set.of() : Set.of(key));
+    }
+
+    private static String specializationKey(String specialization) {
+        return specialization.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static <K> void move(Map<K, Set<Integer>> postings, Set<K> before, Set<K> after, int profileId) {
+        for (K key : before) {
+            if (!after.contains(key)) {
+                Set<Integer> posting = withOrWithout(postings.get(key), profileId, false);
+                if (posting.isEmpty()) {
+                    postings.remove(key);
+                } else {
+                    postings.put(key, posting);
+                }
+            }
+        }
+        for (K key : after) {
+            if (!before.contains(key)) {
+                postings.put(key, withOrWithout(postings.getOrDefault(key, Set.of()), profileId, true));
+            }
+        }
+    }
+
+    private static Set<Integer> withOrWithout(Set<Integer> posting, int profileId, boolean present) {
+        Set<Integer> copy = new HashSet<>(posting);
+        if (present) {
+            copy.add(profileId);
+        } else {
+            copy.remove(profileId);
+        }
+        return Collections.unmodifiableSet(copy);
+    }
+
+    private static <K> void freeze(Map<K, Set<Integer>> postings) {
+        postings.replaceAll((key, posting) -> Collections.unmodifiableSet(posting));
+    }
+
+    private static Set<Integer> union(Map<Integer, Set<Integer>> bySkill, Set<Integer> skillIds) {
+        if (skillIds.size() == 1) {
+            return bySkill.getOrDefault(skillIds.iterator().next(), Set.of());
+        }
+        Set<Integer> union = new HashSet<>();
+        for (Integer skillId : skillIds) {
+            union.addAll(bySkill.getOrDefault(skillId, Set.of()));
+        }
+        return union;
+    }
+
+    /**
+     * A /filter context; null conditions are not applied.
+     *
+     * @param specialization case-insensitive
+     * @param skillIds any of the skills; an empty set matches no wizard
+     * @param experience years of experience, inclusive
+     * @param price any service in the range, inclusive
+     */
+    public record Context(String specialization,
+                          Set<Integer> skillIds,
+                          WizardQuery.Experience experience,
+                          WizardQuery.Price price) {
+
+        boolean isEmpty() {
+            return specialization == null && skillIds == null && experience == null && price == null;
+        }
+    }
+
+    /**
+     * Facet counts; maps are sorted by key.
+     *
+     * @param total listed wizards in the context
+     */
+    public record Facets(int total,
+                         Map<Integer, Integer> skills,
+                         Map<String, Integer> sections,
+                         Map<String, Integer> subsections,
+                         Map<String, Integer> specializations) {
+    }
+
+    private static class Wizard {
+        boolean listed;
+        String specialization;
+        final Set<Integer> skills = new HashSet<>();
+    }
+
+    private record Keys(boolean listed,
+                        Set<Integer> skills,
+                        Set<String> sections,
+                        Set<String> subsections,
+                        Set<String> specializations) {
+
+        static final Keys NONE = new Keys(false, Set.of(), Set.of(), Set.of(), Set.of());
+    }
+
+    /**
+     * Published state: immutable postings and the counts over all listed wizards.
+     */
+    private record Snapshot(Set<Integer> listed,
+                            Map<Integer, Set<Integer>> bySkill,
+                            Map<String, Set<Integer>> bySection,
+                            Map<String, Set<Integer>> bySubsection,
+                            Map<String, Set<Integer>> bySpecialization,
+                            Map<String, String> specializationLabels,
+                            Facets unfiltered) {
+
+        Snapshot(Set<Integer> listed,
+                 Map<Integer, Set<Integer>> bySkill,
+                 Map<String, Set<Integer>> bySection,
+                 Map<String, Set<Integer>> bySubsection,
+                 Map<String, Set<Integer>> bySpecialization,
+                 Map<String, String> specializationLabels) {
+            this(listed, bySkill, bySection, bySubsection, bySpecialization, specializationLabels,
+                    new Facets(listed.size(), sizes(bySkill), sizes(bySection), sizes(bySubsection),
+                            labelled(sizes(bySpecialization), specializationLabels)));
+        }
+
+        Facets count(Set<Integer> matching) {
+            return new Facets(matching.size(), within(bySkill, matching), within(bySection, matching),
+                    within(bySubsection, matching), labelled(within(bySpecialization, matching), specializationLabels));
+        }
+
+        private static <K> Map<K, Integer> sizes(Map<K, Set<Integer>> postings) {
+            Map<K, Integer> counts = new TreeMap<>();
+            postings.forEach((key, posting) -> counts.put(key, posting.size()));
+            return Collections.unmodifiableMap(counts);
+        }
+
+        // Нулевые счётчики не попадают в ответ, только непустые фасеты
+        private static <K> Map<K, Integer> within(Map<K, Set<Integer>> postings, Set<Integer> matching) {
+            Map<K, Integer> counts = new TreeMap<>();
+            postings.forEach((key, posting) -> {
+                int count = intersectionSize(posting, matching);
+                if (count > 0) {
+                    counts.put(key, count);
+                }
+            });
+            return Collections.unmodifiableMap(counts);
+        }
+
+        private static Map<String, Integer> labelled(Map<String, Integer> byKey, Map<String, String> labels) {
+            Map<String, Integer> counts = new TreeMap<>();
+            byKey.forEach((key, count) -> counts.put(labels.get(key), count));
+            return Collections.unmodifiableMap(counts);
+        }
+
+        private static int intersectionSize(Set<Integer> a, Set<Integer> b) {
+            Set<Integer> smaller = a.size() <= b.size() ? a : b;
+            Set<Integer> larger = smaller == a ? b : a;
+            int count = 0;
+            for (Integer id : smaller) {
+                if (larger.contains(id)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
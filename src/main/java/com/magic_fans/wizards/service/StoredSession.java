@@ -0,0 +1,152 @@
+package com.magic_fans.wizards.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * State of one shared session between loading and saving it in {@link JdbcSessionStore}.
+ *
+ * Tracks which attributes were set or removed during the request, so saving
+ * writes only those rows instead of re-serializing the whole session.
+ */
+public class StoredSession {
+
+    private String id;
+    private String originalId;
+    private final long creationTime;
+    private long lastAccessedTime;
+    private long storedLastAccessedTime;
+    private int maxInactiveSeconds;
+    private boolean maxInactiveChanged;
+    private boolean isNew;
+
+    private final Map<String, Object> attributes;
+    private final Set<String> dirtyAttributes = new HashSet<>();
+
+    StoredSession(int maxInactiveSeconds, long now) {
+        this.id = newId();
+        this.creationTime = now;
+        this.lastAccessedTime = now;
+        this.maxInactiveSeconds = maxInactiveSeconds;
+        this.attributes = new HashMap<>();
+        this.isNew = true;
+    }
+
+    StoredSession(String id, long creationTime, long lastAccessedTime, int maxInactiveSeconds,
+                  Map<String, Object> attributes) {
+        this.id = id;
+        this.originalId = id;
+        this.creationTime = creationTime;
+        this.lastAccessedTime = lastAccessedTime;
+        this.storedLastAccessedTime = lastAccessedTime;
+        this.maxInactiveSeconds = maxInactiveSeconds;
+        this.attributes = attributes;
+        this.isNew = false;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Assigns a new id (session fixation protection on login).
+     *
+     * @return the new id
+     */
+    public String changeId() {
+        id = newId();
+        return id;
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    public long getLastAccessedTime() {
+        return lastAccessedTime;
+    }
+
+    public void setLastAccessedTime(long lastAccessedTime) {
+        this.lastAccessedTime = lastAccessedTime;
+    }
+
+    public int getMaxInactiveSeconds() {
+        return maxInactiveSeconds;
+    }
+
+    public void setMaxInactiveSeconds(int maxInactiveSeconds) {
+        if (this.maxInactiveSeconds != maxInactiveSeconds) {
+            this.maxInactiveSeconds = maxInactiveSeconds;
+            this.maxInactiveChanged = true;
+        }
+    }
+
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    public Set<String> getAttributeNames() {
+        return Collections.unmodifiableSet(attributes.keySet());
+    }
+
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            removeAttribute(name);
+            return;
+        }
+        attributes.put(name, value);
+        dirtyAttributes.add(name);
+    }
+
+    public void removeAttribute(String name) {
+        if (attributes.remove(name) != null) {
+            dirtyAttributes.add(name);
+        }
+    }
+
+    /**
+     * Id of the row this session was loaded from; null for a session not saved yet.
+     */
+    public String getStoredId() {
+        return originalId;
+    }
+
+    long getStoredLastAccessedTime() {
+        return storedLastAccessedTime;
+    }
+
+    boolean isMaxInactiveChanged() {
+        return maxInactiveChanged;
+    }
+
+    Set<String> getDirtyAttributes() {
+        return dirtyAttributes;
+    }
+
+    /**
+     * Records that the store now holds this state, so saving again writes only later changes.
+     *
+     * @param lastAccessWritten whether the stored row got the current last access time
+     */
+    void markSaved(boolean lastAccessWritten) {
+        originalId = id;
+        if (lastAccessWritten) {
+            storedLastAccessedTime = lastAccessedTime;
+        }
+        maxInactiveChanged = false;
+        isNew = false;
+        dirtyAttributes.clear();
+    }
+
+    private static String newId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -4,6 +4,7 @@ import com.magic_fans.wizards.model.Subscription;
 import com.magic_fans.wizards.model.User;
 import com.magic_fans.wizards.repository.SubscriptionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,18 +17,28 @@ public class SubscriptionService {
     @Autowired
     private SubscriptionRepository subscriptionRepository;
 
+    // Lazy: LiveUpdateService loads followed wizards from this service
+    @Autowired
+    @Lazy
+    private LiveUpdateService liveUpdateService;
+
+    private final Object liveUpdatesKey = new Object();
+
     @Transactional
     public Subscription subscribe(User subscriber, User wizard) {
         if (subscriptionRepository.existsBySubscriberIdAndWizardId(subscriber.getId(), wizard.getId())) {
             throw new IllegalStateException("Already subscribed");
         }
         Subscription subscription = new Subscription(subscriber, wizard);
-        return subscriptionRepository.save(subscription);
+        Subscription saved = subscriptionRepository.save(subscription);
+        AfterCommit.run(liveUpdatesKey, () -> liveUpdateService.followChanged(subscriber.getId(), wizard.getId(), true));
+        return saved;
     }
 
     @Transactional
     public void unsubscribe(int subscriberId, int wizardId) {
         subscriptionRepository.deleteBySubscriberIdAndWizardId(subscriberId, wizardId);
+        AfterCommit.run(liveUpdatesKey, () -> liveUpdateService.followChanged(subscriberId, wizardId, false));
     }
 
     public boolean isSubscribed(int subscriberId, int wizardId) {
@@ -38,6 +49,10 @@ public class SubscriptionService {
         return subscriptionRepository.findBySubscriberIdOrderBySubscribedAtDesc(subscriberId);
     }
 
+    public List<Integer> getSubscribedWizardIds(int subscriberId) {
+        return subscriptionRepository.findWizardIdsBySubscriberId(subscriberId);
+    }
+
     public List<Subscription> getWizardSubscribers(int wizardId) {
         return subscriptionRepository.findByWizardIdOrderBySubscribedAtDesc(wizardId);
     }
@@ -0,0 +1,94 @@
+package com.magic_fans.wizards.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Service that owns the local upload directory.
+ *
+ * Resolves public upload paths (e.g. "avatars/3_uuid.png") to files under the
+ * upload root and describes them for HTTP caching.
+ */
+@Service
+public class UploadStorageService {
+
+    // Имена вида {userId}_{uuid}.ext или {hash}.ext никогда не перезаписываются
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile(
+        ".*([0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|[0-9a-f]{32,}).*"
+    );
+
+    @Value("${magic-fans.uploads.root:uploads}")
+    private String uploadRoot = "uploads";
+
+    /**
+     * Absolute, normalized upload root directory.
+     */
+    public Path getRoot() {
+        return Paths.get(uploadRoot).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Folder below the upload root (e.g. "avatars"), created on first use.
+     */
+    public Path getDirectory(String name) throws IOException {
+        Path dir = getRoot().resolve(name).normalize();
+        if (!dir.startsWith(getRoot())) {
+            throw new IllegalArgumentException("Invalid upload folder: " + name);
+        }
+        Files.createDirectories(dir);
+        return dir;
+    }
+
+    /**
+     * Resolves a path relative to the upload root.
+     * Returns empty if the path escapes the root or is not a regular file.
+     */
+    public Optional<Path> resolve(String relativePath) {
+        if (relativePath == null || relativePath.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Path root = getRoot();
+        Path file = root.resolve(stripLeadingSlashes(relativePath)).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+
+    /**
+     * Checks whether a file name is unique per content, so its bytes can never change.
+     */
+    public boolean isContentAddressed(String fileName) {
+        return fileName != null && CONTENT_ADDRESSED.matcher(fileName).matches();
+    }
+
+    /**
+     * Strong ETag derived from file size and modification time.
+     * Upload files are written once and never modified in place.
+     */
+    public String etag(BasicFileAttributes attributes) {
+        return "\"" + Long.toHexString(attributes.size()) + "-"
+            + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "\"";
+    }
+
+    public BasicFileAttributes readAttributes(Path file) throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class);
+    }
+
+    private String stripLeadingSlashes(String path) {
+        int i = 0;
+        while (i < path.length() && (path.charAt(i) == '/' || path.charAt(i) == '\\')) {
+            i++;
+        }
+        return path.substring(i);
+    }
+}
@@ -0,0 +1,188 @@
+package com.magic_fans.wizards.service;
+
+import com.magic_fans.wizards.repository.PostRepository;
+import com.magic_fans.wizards.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background sweeper that deletes uploaded files no database row points to.
+ *
+ * Deleted posts and replaced or abandoned avatars leave their files behind.
+ * The sweeper walks the managed upload folders, looks up candidate URLs in
+ * batches against users.avatar_url and posts.image_url, and removes files that
+ * are unreferenced and older than the grace period. The grace period covers
+ * uploads whose row has not been saved yet (a post image is uploaded before
+ * the post itself is created).
+ */
+@Service
+public class UploadSweeperService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSweeperService.class);
+
+    // Папки, файлы в которых ссылаются из БД; videos/ адресуется по соглашению и не трогается
+    static final String AVATARS_FOLDER = "avatars";
+    static final String POSTS_FOLDER = "posts";
+
+    @Autowired
+    private UploadStorageService uploadStorageService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Value("${magic-fans.uploads.sweeper.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${magic-fans.uploads.sweeper.grace-period:PT24H}")
+    private Duration gracePeriod = Duration.ofHours(24);
+
+    @Value("${magic-fans.uploads.sweeper.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${magic-fans.renditions.dir:rendition-cache}")
+    private String renditionDir = "rendition-cache";
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(initialDelayString = "${magic-fans.uploads.sweeper.initial-delay:PT10M}",
+               fixedDelayString = "${magic-fans.uploads.sweeper.interval:PT6H}")
+    public void scheduledSweep() {
+        if (enabled) {
+            sweep();
+        }
+    }
+
+    /**
+     * Runs one sweep over the avatar and post image folders.
+     * Concurrent calls are skipped rather than queued.
+     *
+     * @return counts and reclaimed bytes, or an empty result if a sweep is already running
+     */
+    public SweepResult sweep() {
+        SweepResult result = new SweepResult();
+        if (!running.compareAndSet(false, true)) {
+            return result;
+        }
+
+        try {
+            Instant cutoff = Instant.now().minus(gracePeriod);
+            sweepFolder(AVATARS_FOLDER, cutoff, result, true);
+            sweepFolder(POSTS_FOLDER, cutoff, result, false);
+
+            if (result.getDeleted() > 0) {
+                logger.info("Upload sweep: scanned {} files, deleted {} orphans, reclaimed {} bytes",
+                    result.getScanned(), result.getDeleted(), result.getReclaimedBytes());
+            }
+        } finally {
+            running.set(false);
+        }
+        return result;
+    }
+
+    private void sweepFolder(String folder, Instant cutoff, SweepResult result, boolean avatars) {
+        Path dir = uploadStorageService.getRoot().resolve(folder);
+        if (!Files.isDirectory(dir) || isRenditionCache(dir)) {
+            return;
+        }
+
+        // URL -> file for the current batch; only files past the grace period are candidates
+        Map<String, Path> batch = new LinkedHashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = uploadStorageService.readAttributes(file);
+                } catch (IOException e) {
+                    continue;
+                }
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+
+                result.scanned++;
+                if (attributes.lastModifiedTime().toInstant().isAfter(cutoff)) {
+                    continue;
+                }
+
+                batch.put("/uploads/" + folder + "/" + file.getFileName(), file);
+                if (batch.size() >= batchSize) {
+                    deleteUnreferenced(batch, result, avatars);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to scan upload folder {}: {}", dir, e.getMessage());
+        }
+
+        if (!batch.isEmpty()) {
+            deleteUnreferenced(batch, result, avatars);
+        }
+    }
+
+    private void deleteUnreferenced(Map<String, Path> batch, SweepResult result, boolean avatars) {
+        Set<String> referenced = new HashSet<>(avatars
+            ? userRepository.findReferencedAvatarUrls(batch.keySet())
+            : postRepository.findReferencedImageUrls(batch.keySet()));
+
+        for (Map.Entry<String, Path> entry : batch.entrySet()) {
+            if (referenced.contains(entry.getKey())) {
+                continue;
+            }
+            try {
+                long size = Files.size(entry.getValue());
+                if (Files.deleteIfExists(entry.getValue())) {
+                    result.deleted++;
+                    result.reclaimedBytes += size;
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to delete orphaned upload {}: {}", entry.getValue(), e.getMessage());
+            }
+        }
+    }
+
+    private boolean isRenditionCache(Path dir) {
+        Path cache = Path.of(renditionDir).toAbsolutePath().normalize();
+        return dir.toAbsolutePath().normalize().startsWith(cache);
+    }
+
+    /**
+     * Outcome of a single sweep.
+     */
+    public static class SweepResult {
+        private int scanned;
+        private int deleted;
+        private long reclaimedBytes;
+
+        public int getScanned() {
+            return scanned;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        public long getReclaimedBytes() {
+            return reclaimedBytes;
+        }
+    }
+}
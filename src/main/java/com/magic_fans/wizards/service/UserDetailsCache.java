@@ -0,0 +1,75 @@
+package com.magic_fans.wizards.service;
+
+import com.magic_fans.wizards.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of loaded users for DaoAuthenticationProvider.
+ *
+ * Repeated sign-in attempts during a burst skip the user query. Every JPA
+ * write to a user evicts it once the transaction commits (see
+ * {@link #userChanged(int)}), so a new password or a deactivation applies to
+ * the next sign-in and the old password stops working. Writes that bypass JPA
+ * are seen after the TTL at the latest.
+ */
+@Service
+public class UserDetailsCache implements UserCache {
+
+    @Value("${magic-fans.auth.user-cache.ttl:PT60S}")
+    private Duration ttl = Duration.ofSeconds(60);
+
+    @Value("${magic-fans.auth.user-cache.max-entries:10000}")
+    private int maxEntries = 10000;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Object pendingKey = new Object();
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        Entry entry = entries.get(username);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() >= entry.expiresAt) {
+            entries.remove(username, entry);
+            return null;
+        }
+        return entry.user;
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+        entries.put(user.getUsername(), new Entry(user, clock.getAsLong() + ttl.toMillis()));
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        entries.remove(username);
+    }
+
+    /**
+     * Evicts the user after the surrounding transaction commits, by id so a
+     * rename also drops the entry under the old name. A login between the
+     * write and the commit would otherwise cache the old row again.
+     */
+    public void userChanged(int userId) {
+        AfterCommit.run(pendingKey, () -> entries.values()
+                .removeIf(entry -> entry.user instanceof User user && user.getId() == userId));
+    }
+
+    private record Entry(UserDetails user, long expiresAt) {
+    }
+}
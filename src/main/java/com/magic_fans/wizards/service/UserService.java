@@ -4,8 +4,12 @@ import com.magic_fans.wizards.model.User;
 import com.magic_fans.wizards.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -22,6 +26,14 @@ public class UserService {
         return userRepository.findById(id);
     }
 
+    /**
+     * A user with the regular and wizard profiles already loaded, usable after the session is gone.
+     */
+    @Transactional(readOnly = true)
+    public Optional<User> getUserWithProfiles(int id) {
+        return userRepository.findWithProfilesById(id);
+    }
+
     public Optional<User> getUserByUsername(String username) {
         return userRepository.findByUsername(username);
     }
@@ -34,6 +46,48 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    /**
+     * Users with the given ids, in the order of the ids; missing ones are skipped.
+     */
+    public List<User> getUsersByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, User> byId = new HashMap<>();
+        for (User user : userRepository.findAllById(ids)) {
+            byId.put(user.getId(), user);
+        }
+        List<User> users = new ArrayList<>();
+        for (Integer id : ids) {
+            User user = byId.get(id);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    /**
+     * Owners of the given wizard profiles, in the order of the ids; missing ones are skipped.
+     */
+    public List<User> getUsersByWizardProfileIds(List<Integer> wizardProfileIds) {
+        if (wizardProfileIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, User> byProfileId = new HashMap<>();
+        for (User user : userRepository.findByWizardProfileIds(wizardProfileIds)) {
+            byProfileId.put(user.getWizardProfile().getId(), user);
+        }
+        List<User> users = new ArrayList<>();
+        for (Integer wizardProfileId : wizardProfileIds) {
+            User user = byProfileId.get(wizardProfileId);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
     public void deleteUser(int id) {
         userRepository.deleteById(id);
     }
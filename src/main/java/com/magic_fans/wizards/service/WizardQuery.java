@@ -0,0 +1,181 @@
+package com.magic_fans.wizards.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Boolean query over wizards, evaluated by {@link WizardQueryService}.
+ *
+ * The JSON form is a tree of single-key objects:
+ * <pre>
+ * {"and": [
+ *   {"or": [{"skill": [12, 13]}, {"section": "section2"}]},
+ *   {"not": {"specialization": "Black Magic"}},
+ *   {"experience": {"min": 5}},
+ *   {"price": {"max": 100}}
+ * ]}
+ * </pre>
+ * Leaves: skill (catalog id or list of ids, any of them), skillName (name or
+ * list of names, in any section), section, subsection, specialization
+ * (case-insensitive), experience (years, inclusive) and price (any service in
+ * the range, inclusive). Missing range bounds are open.
+ *
+ * The endpoint taking queries is public, so a query is limited to
+ * {@link #MAX_NODES} nodes, {@link #MAX_DEPTH} levels and
+ * {@link #MAX_VALUES} ids or names per leaf.
+ */
+public sealed interface WizardQuery {
+
+    int MAX_NODES = 50;
+    int MAX_DEPTH = 8;
+    int MAX_VALUES = 100;
+
+    record And(List<WizardQuery> children) implements WizardQuery {
+    }
+
+    record Or(List<WizardQuery> children) implements WizardQuery {
+    }
+
+    record Not(WizardQuery child) implements WizardQuery {
+    }
+
+    record Skills(Set<Integer> skillIds) implements WizardQuery {
+    }
+
+    record SkillNames(Set<String> names) implements WizardQuery {
+    }
+
+    record Section(String section) implements WizardQuery {
+    }
+
+    record Subsection(String subsection) implements WizardQuery {
+    }
+
+    record Specialization(String specialization) implements WizardQuery {
+    }
+
+    record Experience(int min, int max) implements WizardQuery {
+    }
+
+    record Price(double min, double max) implements WizardQuery {
+    }
+
+    /**
+     * Builds a query from its parsed JSON form (maps, lists, strings and numbers).
+     *
+     * @throws IllegalArgumentException if the structure is not a valid query or exceeds the limits
+     */
+    static WizardQuery parse(Object json) {
+        return parse(json, 1, new int[1]);
+    }
+
+    private static WizardQuery parse(Object json, int depth, int[] nodes) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Query is nested deeper than " + MAX_DEPTH + " levels");
+        }
+        if (++nodes[0] > MAX_NODES) {
+            throw new IllegalArgumentException("Query has more than " + MAX_NODES + " nodes");
+        }
+        if (!(json instanceof Map<?, ?> node) || node.size() != 1) {
+            throw new IllegalArgumentException("Each query node must be an object with exactly one key");
+        }
+        Map.Entry<?, ?> entry = node.entrySet().iterator().next();
+        String key = String.valueOf(entry.getKey());
+        Object value = entry.getValue();
+
+        switch (key) {
+            case "and":
+                return new And(parseChildren(key, value, depth, nodes));
+            case "or":
+                return new Or(parseChildren(key, value, depth, nodes));
+            case "not":
+                return new Not(parse(value, depth + 1, nodes));
+            case "skill":
+                Set<Integer> skillIds = new LinkedHashSet<>();
+                for (Object id : listOf(value)) {
+                    if (!(id instanceof Number number)) {
+                        throw new IllegalArgumentException("skill expects catalog ids");
+                    }
+                    skillIds.add(number.intValue());
+                }
+                return new Skills(skillIds);
+            case "skillName":
+                Set<String> names = new LinkedHashSet<>();
+                for (Object name : listOf(value)) {
+                    names.add(text(key, name));
+                }
+                return new SkillNames(names);
+            case "section":
+                return new Section(text(key, value));
+            case "subsection":
+                return new Subsection(text(key, value));
+            case "specialization":
+                return new Specialization(text(key, value));
+            case "experience": {
+                Map<?, ?> range = range(key, value);
+                return new Experience(
+                        bound(range.get("min"), Integer.MIN_VALUE).intValue(),
+                        bound(range.get("max"), Integer.MAX_VALUE).intValue());
+            }
+            case "price": {
+                Map<?, ?> range = range(key, value);
+                return new Price(
+                        bound(range.get("min"), -Double.MAX_VALUE).doubleValue(),
+                        bound(range.get("max"), Double.MAX_VALUE).doubleValue());
+            }
+            default:
+                throw new IllegalArgumentException("Unknown query key: " + key);
+        }
+    }
+
+    private static List<WizardQuery> parseChildren(String key, Object value, int depth, int[] nodes) {
+        if (!(value instanceof List<?> list) || list.isEmpty()) {
+            throw new IllegalArgumentException(key + " expects a non-empty list");
+        }
+        List<WizardQuery> children = new ArrayList<>();
+        for (Object child : list) {
+            children.add(parse(child, depth + 1, nodes));
+        }
+        return children;
+    }
+
+    private static Collection<?> listOf(Object value) {
+        Collection<?> values = value instanceof Collection<?> list ? list : List.of(value);
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("Empty list in query");
+        }
+        if (values.size() > MAX_VALUES) {
+            throw new IllegalArgumentException("A query leaf takes at most " + MAX_VALUES + " values");
+        }
+        return values;
+    }
+
+    private static String text(String key, Object value) {
+        if (!(value instanceof String text) || text.trim().isEmpty()) {
+            throw new IllegalArgumentException(key + " expects a non-empty string");
+        }
+        return text.trim();
+    }
+
+    private static Map<?, ?> range(String key, Object value) {
+        if (!(value instanceof Map<?, ?> range) || range.isEmpty()
+                || !Set.of("min", "max").containsAll(range.keySet())) {
+            throw new IllegalArgumentException(key + " expects {\"min\": .., \"max\": ..}");
+        }
+        return range;
+    }
+
+    private static Number bound(Object value, Number open) {
+        if (value == null) {
+            return open;
+        }
+        if (!(value instanceof Number number)) {
+            throw new IllegalArgumentException("Range bounds must be numbers");
+        }
+        return number;
+    }
+}
@@ -0,0 +1,320 @@
+package com.magic_fans.wizards.service;
+
+import com.magic_fans.wizards.repository.WizardProfileRepository;
+import com.magic_fans.wizards.repository.WizardSkillRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates {@link WizardQuery} trees to sets of wizard profile ids.
+ *
+ * Inside an AND the planner orders the positive children by estimated size
+ * (facet counts for skills, sections and specializations, range counts for
+ * experience and price) and evaluates the most selective one first. Every
+ * later child only has to narrow the candidates: while they are few it is
+ * asked for matches among them (IN query), otherwise its ids are fetched and
+ * intersected. Negated children are subtracted last, an empty intermediate
+ * result ends the evaluation. Results only contain listed wizards (active,
+ * role wizard).
+ *
+ * Experience and price come from {@link WizardRangeIndex}, so their estimates
+ * are exact counts and their matches need no query.
+ */
+@Service
+public class WizardQueryService {
+
+    // Больше кандидатов в IN не передаём, дешевле выбрать всё и пересечь
+    static final int PROBE_LIMIT = 1000;
+
+    @Autowired
+    private WizardSkillRepository wizardSkillRepository;
+
+    @Autowired
+    private WizardProfileRepository wizardProfileRepository;
+
+    @Autowired
+    private WizardRangeIndex wizardRangeIndex;
+
+    @Autowired
+    private SkillCatalog skillCatalog;
+
+    @Autowired
+    private SkillFacetIndex skillFacetIndex;
+
+    /**
+     * Runs the query and returns one page of matching profile ids, ordered by id.
+     */
+    public Page search(WizardQuery query, int offset, int limit) {
+        return search(query, Order.ID, offset, limit);
+    }
+
+    /**
+     * Runs the query and returns one page of matching profile ids in the given order.
+     */
+    public Page search(WizardQuery query, Order order, int offset, int limit) {
+        List<Integer> ids = sort(evaluate(query), order);
+        int from = Math.min(offset, ids.size());
+        int to = Math.min(from + limit, ids.size());
+        return new Page(ids.size(), new ArrayList<>(ids.subList(from, to)));
+    }
+
+    /**
+     * All listed wizard profile ids matching the query.
+     */
+    public Set<Integer> evaluate(WizardQuery query) {
+        Evaluation evaluation = new Evaluation();
+        return evaluation.evalAnd(List.of(query, Listed.INSTANCE), null);
+    }
+
+    /**
+     * Orders profile ids; ties are ordered by id.
+     */
+    public List<Integer> sort(Collection<Integer> ids, Order order) {
+        switch (order) {
+            case EXPERIENCE:
+                return wizardRangeIndex.sortByExperience(ids, false);
+            case EXPERIENCE_DESC:
+                return wizardRangeIndex.sortByExperience(ids, true);
+            case PRICE:
+                return wizardRangeIndex.sortByPrice(ids, false);
+            case PRICE_DESC:
+                return wizardRangeIndex.sortByPrice(ids, true);
+            default:
+                List<Integer> sorted = new ArrayList<>(ids);
+                sorted.sort(Comparator.naturalOrder());
+                return sorted;
+        }
+    }
+
+    /**
+     * Result order. Price orders use each wizard's cheapest service;
+     * wizards without a value come last in both directions.
+     */
+    public enum Order {
+        ID, EXPERIENCE, EXPERIENCE_DESC, PRICE, PRICE_DESC;
+
+        /**
+         * Parses "experience", "-experience", "price", "-price" or "id".
+         *
+         * @return the order, or null if the value is unknown
+         */
+        public static Order parse(String value) {
+            if (value == null || value.isBlank()) {
+                return ID;
+            }
+            switch (value.trim()) {
+                case "id":
+                    return ID;
+                case "experience":
+                    return EXPERIENCE;
+                case "-experience":
+                    return EXPERIENCE_DESC;
+                case "price":
+                    return PRICE;
+                case "-price":
+                    return PRICE_DESC;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * One page of results.
+     *
+     * @param total number of matches over all pages
+     */
+    public record Page(int total, List<Integer> wizardProfileIds) {
+    }
+
+    /**
+     * Internal leaf for the listed wizards; added to every query.
+     */
+    private enum Listed {
+        INSTANCE
+    }
+
+    /**
+     * State of one evaluation: facet counts for estimates.
+     */
+    private class Evaluation {
+
+        private final SkillFacetIndex.Facets facets = skillFacetIndex.getFacets();
+
+        /**
+         * @param within candidates to restrict to, or null for no restriction
+         * @return matching ids; a subset of within if given
+         */
+        Set<Integer> eval(Object node, Set<Integer> within) {
+            if (node instanceof WizardQuery.And and) {
+                return evalAnd(and.children(), within);
+            }
+            if (node instanceof WizardQuery.Or or) {
+                Set<Integer> union = new HashSet<>();
+                for (WizardQuery child : or.children()) {
+                    union.addAll(eval(child, within));
+                }
+                return union;
+            }
+            if (node instanceof WizardQuery.Not not) {
+                Set<Integer> base = within != null ? new HashSet<>(within) : leaf(Listed.INSTANCE, null);
+                base.removeAll(eval(not.child(), base));
+                return base;
+            }
+            return leaf(node, within);
+        }
+
+        private Set<Integer> evalAnd(List<?> children, Set<Integer> within) {
+            List<Object> positive = new ArrayList<>();
+            List<WizardQuery> negative = new ArrayList<>();
+            for (Object child : children) {
+                if (child instanceof WizardQuery.Not not) {
+                    negative.add(not.child());
+                } else {
+                    positive.add(child);
+                }
+            }
+            positive.sort(Comparator.comparingLong(this::estimate));
+
+            Set<Integer> current = within;
+            for (Object child : positive) {
+                current = eval(child, current);
+                if (current.isEmpty()) {
+                    return current;
+                }
+            }
+            if (current == null) {
+                current = leaf(Listed.INSTANCE, null);
+            } else if (current == within) {
+                current = new HashSet<>(within);
+            }
+            for (WizardQuery child : negative) {
+                current.removeAll(eval(child, current));
+                if (current.isEmpty()) {
+                    break;
+                }
+            }
+            return current;
+        }
+
+        /**
+         * Upper bound of the number of matches, used for ordering only.
+         */
+        long estimate(Object node) {
+            long total = facets.total();
+            if (node instanceof WizardQuery.And and) {
+                return and.children().stream()
+                        .filter(child -> !(child instanceof WizardQuery.Not))
+                        .mapToLong(this::estimate).min().orElse(total);
+            }
+            if (node instanceof WizardQuery.Or or) {
+                return Math.min(total, or.children().stream().mapToLong(this::estimate).sum());
+            }
+            if (node instanceof WizardQuery.Not not) {
+                return Math.max(0, total - estimate(not.child()));
+            }
+            if (node instanceof WizardQuery.Skills skills) {
+                return Math.min(total, skills.skillIds().stream()
+                        .mapToLong(id -> facets.skills().getOrDefault(id, 0)).sum());
+            }
+            if (node instanceof WizardQuery.SkillNames names) {
+                return estimate(new WizardQuery.Skills(skillCatalog.idsByName(names.names())));
+            }
+            if (node instanceof WizardQuery.Section section) {
+                return facets.sections().getOrDefault(section.section(), 0);
+            }
+            if (node instanceof WizardQuery.Subsection subsection) {
+                return facets.subsections().getOrDefault(subsection.subsection(), 0);
+            }
+            if (node instanceof WizardQuery.Specialization specialization) {
+                return facets.specializations().entrySet().stream()
+                        .filter(entry -> entry.getKey().equalsIgnoreCase(specialization.specialization()))
+                        .mapToLong(Map.Entry::getValue).sum();
+            }
+            if (node instanceof WizardQuery.Experience experience) {
+                return wizardRangeIndex.countExperienceBetween(experience.min(), experience.max());
+            }
+            if (node instanceof WizardQuery.Price price) {
+                return wizardRangeIndex.countServicesPriceBetween(price.min(), price.max());
+            }
+            return total;
+        }
+
+        private Set<Integer> leaf(Object node, Set<Integer> within) {
+            if (node instanceof WizardQuery.SkillNames names) {
+                return skills(skillCatalog.idsByName(names.names()), within);
+            }
+            if (node instanceof WizardQuery.Skills skills) {
+                return skills(skills.skillIds(), within);
+            }
+            if (node instanceof WizardQuery.Section section) {
+                return skills(skillCatalog.idsBySection(section.section()), within);
+            }
+            if (node instanceof WizardQuery.Subsection subsection) {
+                return skills(skillCatalog.idsBySubsection(subsection.subsection()), within);
+            }
+            if (node instanceof WizardQuery.Specialization specialization) {
+                String name = specialization.specialization();
+                return fetch(within,
+                        () -> wizardProfileRepository.findIdsBySpecialization(name),
+                        ids -> wizardProfileRepository.findIdsBySpecializationIn(name, ids));
+            }
+            if (node instanceof WizardQuery.Experience experience) {
+                return inMemory(wizardRangeIndex.experienceBetween(experience.min(), experience.max()), within);
+            }
+            if (node instanceof WizardQuery.Price price) {
+                return inMemory(wizardRangeIndex.priceBetween(price.min(), price.max()), within);
+            }
+            if (node == Listed.INSTANCE) {
+                return fetch(within, wizardProfileRepository::findListedIds, wizardProfileRepository::findListedIdsIn);
+            }
+            throw new IllegalArgumentException("Unsupported query node: " + node);
+        }
+
+        private Set<Integer> skills(Set<Integer> skillIds, Set<Integer> within) {
+            if (skillIds.isEmpty()) {
+                return new HashSet<>();
+            }
+            return fetch(within,
+                    () -> wizardSkillRepository.findWizardProfileIdsBySkillIds(skillIds),
+                    ids -> wizardSkillRepository.findWizardProfileIdsBySkillIdsIn(skillIds, ids));
+        }
+
+        private Set<Integer> inMemory(Set<Integer> matches, Set<Integer> within) {
+            if (within != null) {
+                matches.retainAll(within);
+            }
+            return matches;
+        }
+
+        /**
+         * Probes the candidates while they are few, otherwise fetches all matches and intersects.
+         */
+        private Set<Integer> fetch(Set<Integer> within,
+                                   Supplier<List<Integer>> all,
+                                   Function<Collection<Integer>, List<Integer>> among) {
+            if (within == null) {
+                return new HashSet<>(all.get());
+            }
+            if (within.isEmpty()) {
+                return new HashSet<>();
+            }
+            if (within.size() <= PROBE_LIMIT) {
+                return new HashSet<>(among.apply(within));
+            }
+            Set<Integer> matches = new HashSet<>(all.get());
+            matches.retainAll(within);
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,521 @@
+package com.magic_fans.wizards.service;
+
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.model.WizardProfile;
+import com.magic_fans.wizards.model.WizardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory sorted indexes of wizards by years of experience and by service price.
+ *
+ * Each index is a primitive array in ascending order, so a range is two
+ * binary searches and a scan of the matching slice. A wizard has one
+ * experience value but can have several services; the price index holds one
+ * entry per service, and a wizard matches a price range if any of its
+ * services does. Sorting by price uses the wizard's cheapest service.
+ *
+ * The index is loaded once and then maintained from the JPA listener: every
+ * committed write to a user, profile or service sets that entity's state.
+ * The arrays are copy-on-write, so readers never lock; a write copies the
+ * arrays once with the entry moved. Bulk writes that bypass the listener
+ * call {@link #invalidate()}, which reloads in the writing thread while
+ * readers keep the previous arrays.
+ */
+@Service
+public class WizardRangeIndex {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Object pendingKey = new Object();
+
+    private volatile State state;
+
+    /**
+     * Profile ids with years of experience in [min, max].
+     */
+    public Set<Integer> experienceBetween(int min, int max) {
+        long[] experience = state().experience;
+        int from = lowerBound(experience, pack(min, 0));
+        int to = upperBound(experience, pack(max, -1));
+        Set<Integer> ids = new HashSet<>();
+        for (int i = from; i < to; i++) {
+            ids.add((int) experience[i]);
+        }
+        return ids;
+    }
+
+    public int countExperienceBetween(int min, int max) {
+        long[] experience = state().experience;
+        return Math.max(0, upperBound(experience, pack(max, -1)) - lowerBound(experience, pack(min, 0)));
+    }
+
+    /**
+     * Profile ids with at least one service priced in [min, max].
+     */
+    public Set<Integer> priceBetween(double min, double max) {
+        State current = state();
+        int from = lowerBound(current.prices, min);
+        int to = upperBound(current.prices, max);
+        Set<Integer> ids = new HashSet<>();
+        for (int i = from; i < to; i++) {
+            Integer profileId = current.profileByUser.get(current.priceUserIds[i]);
+            if (profileId != null) {
+                ids.add(profileId);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Number of services priced in [min, max]; an upper bound of the matching wizards.
+     */
+    public int countServicesPriceBetween(double min, double max) {
+        double[] prices = state().prices;
+        return Math.max(0, upperBound(prices, max) - lowerBound(prices, min));
+    }
+
+    /**
+     * Orders profile ids by years of experience; ids without a value go last.
+     */
+    public List<Integer> sortByExperience(Collection<Integer> ids, boolean descending) {
+        Map<Integer, Integer> values = state().experienceById;
+        return sort(ids, values::get, descending);
+    }
+
+    /**
+     * Orders profile ids by their cheapest service; ids without services go last.
+     */
+    public List<Integer> sortByPrice(Collection<Integer> ids, boolean descending) {
+        State current = state();
+        return sort(ids, id -> {
+            Integer userId = current.userByProfile.get(id);
+            return userId != null ? current.minPriceByUser.get(userId) : null;
+        }, descending);
+    }
+
+    /**
+     * Called by the JPA listener after an entity was written; applied after commit.
+     */
+    public void entityChanged(Object entity) {
+        if (entity instanceof User user) {
+            int userId = user.getId();
+            Integer profileId = user.getWizardProfile() != null ? user.getWizardProfile().getId() : null;
+            AfterCommit.run(pendingKey, () -> setLink(userId, profileId));
+        } else if (entity instanceof WizardProfile profile) {
+            int profileId = profile.getId();
+            Integer years = profile.getYearsOfExperience();
+            AfterCommit.run(pendingKey, () -> setExperience(profileId, years));
+        } else if (entity instanceof WizardService service) {
+            long serviceId = service.getId();
+            int userId = service.getUserId();
+            Double price = service.getPrice();
+            AfterCommit.run(pendingKey, () -> setService(serviceId, userId, price));
+        }
+    }
+
+    /**
+     * Called by the JPA listener after an entity was deleted; applied after commit.
+     */
+    public void entityRemoved(Object entity) {
+        if (entity instanceof User user) {
+            int userId = user.getId();
+            AfterCommit.run(pendingKey, () -> setLink(userId, null));
+        } else if (entity instanceof WizardProfile profile) {
+            int profileId = profile.getId();
+            AfterCommit.run(pendingKey, () -> setExperience(profileId, null));
+        } else if (entity instanceof WizardService service) {
+            long serviceId = service.getId();
+            int userId = service.getUserId();
+            AfterCommit.run(pendingKey, () -> setService(serviceId, userId, null));
+        }
+    }
+
+    /**
+     * Reloads after a write that bypassed the listener (after commit, in the calling thread).
+     */
+    public void invalidate() {
+        AfterCommit.run(pendingKey, () -> {
+            synchronized (this) {
+                state = load();
+            }
+        });
+    }
+
+    private State state() {
+        State current = state;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (state == null) {
+                state = load();
+            }
+            return state;
+        }
+    }
+
+    private synchronized void setExperience(int profileId, Integer years) {
+        // Not loaded yet: the load will read the committed rows
+        State current = state;
+        if (current == null) {
+            return;
+        }
+        Integer old = current.experienceById.get(profileId);
+        if (Objects.equals(old, years)) {
+            return;
+        }
+        long[] experience = current.experience;
+        if (old != null) {
+            experience = removeAt(experience, Arrays.binarySearch(experience, pack(old, profileId)));
+        }
+        if (years != null) {
+            long key = pack(years, profileId);
+            experience = insertAt(experience, -Arrays.binarySearch(experience, key) - 1, key);
+            current.experienceById.put(profileId, years);
+        } else {
+            current.experienceById.remove(profileId);
+        }
+        state = current.withExperience(experience);
+    }
+
+    private synchronized void setService(long serviceId, int userId, Double price) {
+        State current = state;
+        if (current == null) {
+            return;
+        }
+        ServiceEntry old = current.serviceById.get(serviceId);
+        if (old == null && price == null
+                || old != null && price != null && old.userId == userId && old.price == price) {
+            return;
+        }
+
+        double[] prices = current.prices;
+        long[] serviceIds = current.priceServiceIds;
+        int[] userIds = current.priceUserIds;
+        if (old != null) {
+            int at = findPrice(prices, serviceIds, old.price, serviceId);
+            prices = removeAt(prices, at);
+            serviceIds = removeAt(serviceIds, at);
+            userIds = removeAt(userIds, at);
+            current.servicesByUser.get(old.userId).remove(serviceId);
+        }
+        if (price != null) {
+            int at = -findPrice(prices, serviceIds, price, serviceId) - 1;
+            prices = insertAt(prices, at, price);
+            serviceIds = insertAt(serviceIds, at, serviceId);
+            userIds = insertAt(userIds, at, userId);
+            current.serviceById.put(serviceId, new ServiceEntry(userId, price));
+            current.servicesByUser.computeIfAbsent(userId, id -> new HashMap<>()).put(serviceId, price);
+        } else {
+            current.serviceById.remove(serviceId);
+        }
+        if (old != null) {
+            current.updateMinPrice(old.userId);
+        }
+        current.updateMinPrice(userId);
+        state = current.withPrices(prices, serviceIds, userIds);
+    }
+
+    private synchronized void setLink(int userId, Integer profileId) {
+        State current = state;
+        if (current == null) {
+            return;
+        }
+        Integer old = current.profileByUser.get(userId);
+        if (Objects.equals(old, profileId)) {
+            return;
+        }
+        if (old != null) {
+            current.userByProfile.remove(old, userId);
+            current.profileByUser.remove(userId);
+        }
+        if (profileId != null) {
+            current.profileByUser.put(userId, profileId);
+            current.userByProfile.put(profileId, userId);
+        }
+    }
+
+    private State load() {
+        State loaded = new State();
+
+        long[] experience = jdbcTemplate.query(
+                "SELECT id, years_of_experience FROM wizard_profiles WHERE years_of_experience IS NOT NULL",
+                rs -> {
+                    long[] keys = new long[64];
+                    int size = 0;
+                    while (rs.next()) {
+                        if (size == keys.length) {
+                            keys = Arrays.copyOf(keys, size * 2);
+                        }
+                        keys[size++] = pack(rs.getInt(2), rs.getInt(1));
+                        loaded.experienceById.put(rs.getInt(1), rs.getInt(2));
+                    }
+                    return Arrays.copyOf(keys, size);
+                });
+        Arrays.sort(experience);
+
+        jdbcTemplate.query("SELECT id, wizard_profile_id FROM users WHERE wizard_profile_id IS NOT NULL", rs -> {
+            loaded.profileByUser.put(rs.getInt(1), rs.getInt(2));
+            loaded.userByProfile.put(rs.getInt(2), rs.getInt(1));
+        });
+
+        List<Object[]> services = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, user_id, price FROM wizard_services WHERE price IS NOT NULL", rs -> {
+            long serviceId = rs.getLong(1);
+            int userId = rs.getInt(2);
+            double price = rs.getDouble(3);
+            services.add(new Object[]{price, serviceId, userId});
+            loaded.serviceById.put(serviceId, new ServiceEntry(userId, price));
+            loaded.servicesByUser.computeIfAbsent(userId, id -> new HashMap<>()).put(serviceId, price);
+        });
+        services.sort(Comparator.<Object[]>comparingDouble(service -> (double) service[0])
+                .thenComparingLong(service -> (long) service[1]));
+        double[] prices = new double[services.size()];
+        long[] serviceIds = new long[services.size()];
+        int[] userIds = new int[services.size()];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = (double) services.get(i)[0];
+            serviceIds[i] = (long) services.get(i)[1];
+            userIds[i] = (int) services.get(i)[2];
+        }
+        loaded.servicesByUser.keySet().forEach(loaded::updateMinPrice);
+
+        return loaded.withExperience(experience).withPrices(prices, serviceIds, userIds);
+    }
+
+    private static <T extends Comparable<T>> List<Integer> sort(Collection<Integer> ids,
+                                                                Function<Integer, T> value,
+                                                                boolean descending) {
+        Comparator<T> order = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        List<Integer> sorted = new ArrayList<>(ids);
+        // Равные значения упорядочены по id, чтобы страницы не перескакивали
+        sorted.sort(Comparator.comparing(value, Comparator.nullsLast(order)).thenComparing(Comparator.naturalOrder()));
+        return sorted;
+    }
+
+    /**
+     * (experience << 32 | id) sorts by experience, then id, without boxing.
+     */
+    private static long pack(int experience, int profileId) {
+        return ((long) experience << 32) | (profileId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Position of the (price, serviceId) entry, or (-insertion point - 1) if absent.
+     */
+    private static int findPrice(double[] prices, long[] serviceIds, double price, long serviceId) {
+        int low = 0;
+        int high = prices.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Double.compare(prices[mid], price);
+            if (cmp == 0) {
+                cmp = Long.compare(serviceIds[mid], serviceId);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+
+    /**
+     * First index whose value is >= key.
+     */
+    private static int lowerBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First index whose value is > key.
+     */
+    private static int upperBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(double[] values, double key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(double[] values, double key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long[] insertAt(long[] values, int at, long value) {
+        long[] copy = new long[values.length + 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        copy[at] = value;
+        System.arraycopy(values, at, copy, at + 1, values.length - at);
+        return copy;
+    }
+
+    private static double[] insertAt(double[] values, int at, double value) {
+        double[] copy = new double[values.length + 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        copy[at] = value;
+        System.arraycopy(values, at, copy, at + 1, values.length - at);
+        return copy;
+    }
+
+    private static int[] insertAt(int[] values, int at, int value) {
+        int[] copy = new int[values.length + 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        copy[at] = value;
+        System.arraycopy(values, at, copy, at + 1, values.length - at);
+        return copy;
+    }
+
+    private static long[] removeAt(long[] values, int at) {
+        long[] copy = new long[values.length - 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        System.arraycopy(values, at + 1, copy, at, values.length - at - 1);
+        return copy;
+    }
+
+    private static double[] removeAt(double[] values, int at) {
+        double[] copy = new double[values.length - 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        System.arraycopy(values, at + 1, copy, at, values.length - at - 1);
+        return copy;
+    }
+
+    private static int[] removeAt(int[] values, int at) {
+        int[] copy = new int[values.length - 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        System.arraycopy(values, at + 1, copy, at, values.length - at - 1);
+        return copy;
+    }
+
+    private record ServiceEntry(int userId, double price) {
+    }
+
+    /**
+     * Sorted arrays (replaced on every write, never modified) and lookup maps
+     * (updated in place; a reader may see a value slightly newer than its
+     * arrays, which only affects the order of ties). The writer-side maps are
+     * only touched under the index monitor.
+     */
+    private static final class State {
+        long[] experience = new long[0];
+        double[] prices = new double[0];
+        long[] priceServiceIds = new long[0];
+        int[] priceUserIds = new int[0];
+
+        final Map<Integer, Integer> experienceById;
+        final Map<Integer, Integer> profileByUser;
+        final Map<Integer, Integer> userByProfile;
+        final Map<Integer, Double> minPriceByUser;
+        final Map<Long, ServiceEntry> serviceById;
+        final Map<Integer, Map<Long, Double>> servicesByUser;
+
+        State() {
+            this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>(),
+                    new ConcurrentHashMap<>(), new HashMap<>(), new HashMap<>());
+        }
+
+        private State(Map<Integer, Integer> experienceById, Map<Integer, Integer> profileByUser,
+                      Map<Integer, Integer> userByProfile, Map<Integer, Double> minPriceByUser,
+                      Map<Long, ServiceEntry> serviceById, Map<Integer, Map<Long, Double>> servicesByUser) {
+            this.experienceById = experienceById;
+            this.profileByUser = profileByUser;
+            this.userByProfile = userByProfile;
+            this.minPriceByUser = minPriceByUser;
+            this.serviceById = serviceById;
+            this.servicesByUser = servicesByUser;
+        }
+
+        State withExperience(long[] experience) {
+            State next = copy();
+            next.experience = experience;
+            return next;
+        }
+
+        State withPrices(double[] prices, long[] serviceIds, int[] userIds) {
+            State next = copy();
+            next.prices = prices;
+            next.priceServiceIds = serviceIds;
+            next.priceUserIds = userIds;
+            return next;
+        }
+
+        void updateMinPrice(int userId) {
+            Map<Long, Double> services = servicesByUser.get(userId);
+            if (services == null || services.isEmpty()) {
+                servicesByUser.remove(userId);
+                minPriceByUser.remove(userId);
+            } else {
+                minPriceByUser.put(userId, services.values().stream().min(Double::compare).orElseThrow());
+            }
+        }
+
+        private State copy() {
+            State next = new State(experienceById, profileByUser, userByProfile, minPriceByUser,
+                    serviceById, servicesByUser);
+            next.experience = experience;
+            next.prices = prices;
+            next.priceServiceIds = priceServiceIds;
+            next.priceUserIds = priceUserIds;
+            return next;
+        }
+    }
+}
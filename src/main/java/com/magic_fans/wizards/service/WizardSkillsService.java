@@ -1,15 +1,14 @@
 package com.magic_fans.wizards.service;
 
-import com.magic_fans.wizards.model.WizardProfile;
-import com.magic_fans.wizards.model.WizardSkill;
 import com.magic_fans.wizards.repository.WizardProfileRepository;
 import com.magic_fans.wizards.repository.WizardSkillRepository;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @Service
@@ -21,15 +20,35 @@ public class WizardSkillsService {
     @Autowired
     private WizardProfileRepository wizardProfileRepository;
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SkillCatalog skillCatalog;
+
+    @Autowired
+    private ProfileDataVersion profileDataVersion;
+
+    @Autowired
+    private SkillFacetIndex skillFacetIndex;
+
+    // Подразделы первого раздела, которые знает форма профиля
+    static final List<String> SECTION1_SUBSECTIONS = List.of(
+            "subsection1_1", "subsection1_2", "subsection1_3", "subsection1_4", "subsection1_5");
+
+    // Разделы формы профиля; остальные (legacy, profession) форма не показывает и не меняет
+    static final List<String> FORM_SECTIONS = List.of(
+            "section1", "section2", "section3", "section4", "section5", "section7");
+
+    // Форма предлагает меньше сотни навыков
+    static final int MAX_SKILLS_PER_WIZARD = 100;
 
     /**
      * Get skills for a wizard in structured format
      * Returns a map with section1 containing subsections, and section2-7 as simple lists
      */
     public Map<String, Object> getSkillsForWizard(int wizardProfileId) {
-        List<WizardSkill> skills = wizardSkillRepository.findByWizardProfileId(wizardProfileId);
+        List<SkillCatalog.Entry> skills = getCatalogEntries(wizardProfileId);
 
         Map<String, Object> result = new HashMap<>();
 
@@ -49,17 +68,17 @@ public class WizardSkillsService {
         result.put("section7", new ArrayList<String>());
 
         // Group skills by section and subsection
-        for (WizardSkill skill : skills) {
-            if ("section1".equals(skill.getSection())) {
-                if (skill.getSubsection() != null && section1.containsKey(skill.getSubsection())) {
-                    section1.get(skill.getSubsection()).add(skill.getSkillName());
+        for (SkillCatalog.Entry skill : skills) {
+            if ("section1".equals(skill.section())) {
+                if (skill.subsection() != null && section1.containsKey(skill.subsection())) {
+                    section1.get(skill.subsection()).add(skill.name());
                 }
             } else {
-                Object sectionList = result.get(skill.getSection());
+                Object sectionList = result.get(skill.section());
                 if (sectionList instanceof List) {
                     @SuppressWarnings("unchecked")
                     List<String> list = (List<String>) sectionList;
-                    list.add(skill.getSkillName());
+                    list.add(skill.name());
                 }
             }
         }
@@ -79,21 +98,61 @@ public class WizardSkillsService {
      *   "section2": ["Судьба", "Отношения"],
      *   ...
      * }
+     *
+     * Only the difference to the stored set is written: removed skills are
+     * deleted and new ones inserted, each in one JDBC batch. Rows of skills
+     * that stay keep their id and created_at. Skills outside the form's
+     * sections (migrated legacy names, profession functions) are never
+     * removed by a save, since the form cannot show them.
+     *
+     * @return the catalog ids added and removed; empty if nothing changed
      */
     @Transactional
-    public void saveSkillsForWizard(int wizardProfileId, Map<String, Object> skillsData) {
-        // Find wizard profile
-        WizardProfile wizardProfile = wizardProfileRepository.findById(wizardProfileId)
-                .orElseThrow(() -> new RuntimeException("Wizard profile not found: " + wizardProfileId));
+    public SkillDelta saveSkillsForWizard(int wizardProfileId, Map<String, Object> skillsData) {
+        if (!wizardProfileRepository.existsById(wizardProfileId)) {
+            throw new RuntimeException("Wizard profile not found: " + wizardProfileId);
+        }
+
+        Set<Integer> wanted = resolveSkillIds(skillsData);
+        Set<Integer> current = new LinkedHashSet<>(wizardSkillRepository.findSkillIdsByWizardProfileId(wizardProfileId));
+
+        Set<Integer> added = new LinkedHashSet<>(wanted);
+        added.removeAll(current);
+        Set<Integer> removed = new LinkedHashSet<>(current);
+        removed.removeAll(wanted);
+        removed.removeIf(skillId -> {
+            SkillCatalog.Entry entry = skillCatalog.get(skillId);
+            return entry == null || !FORM_SECTIONS.contains(entry.section());
+        });
+
+        SkillDelta delta = new SkillDelta(wizardProfileId, added, removed);
+        if (delta.isEmpty()) {
+            return delta;
+        }
 
-        // Delete existing skills
-        wizardSkillRepository.deleteByWizardProfileId(wizardProfileId);
+        if (!removed.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "DELETE FROM wizard_profile_skills WHERE wizard_profile_id = ? AND skill_id = ?",
+                    removed.stream().map(skillId -> new Object[]{wizardProfileId, skillId}).toList());
+        }
+        if (!added.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO wizard_profile_skills (wizard_profile_id, skill_id, created_at) VALUES (?, ?, ?)",
+                    added.stream().map(skillId -> new Object[]{wizardProfileId, skillId, now}).toList());
+        }
 
-        // Force flush to execute DELETE before INSERT
-        entityManager.flush();
-        entityManager.clear();
+        // JDBC writes bypass the entity listeners
+        profileDataVersion.changed();
+        skillFacetIndex.skillsChanged(delta);
+        return delta;
+    }
 
-        List<WizardSkill> newSkills = new ArrayList<>();
+    /**
+     * Catalog ids of the skills in a save payload; a repeated skill counts once.
+     */
+    private Set<Integer> resolveSkillIds(Map<String, Object> skillsData) {
+        Set<Integer> skillIds = new LinkedHashSet<>();
 
         // Process section1 (with subsections)
         if (skillsData.containsKey("section1")) {
@@ -106,17 +165,10 @@ public class WizardSkillsService {
                     String subsection = entry.getKey();
                     List<String> skills = entry.getValue();
 
-                    if (skills != null) {
+                    // Unknown subsections would only add unreachable catalog entries
+                    if (skills != null && SECTION1_SUBSECTIONS.contains(subsection)) {
                         for (String skillName : skills) {
-                            if (skillName != null && !skillName.trim().isEmpty()) {
-                                WizardSkill skill = new WizardSkill(
-                                        wizardProfile,
-                                        "section1",
-                                        subsection,
-                                        skillName.trim()
-                                );
-                                newSkills.add(skill);
-                            }
+                            addSkill(skillIds, "section1", subsection, skillName);
                         }
                     }
                 }
@@ -124,7 +176,7 @@ public class WizardSkillsService {
         }
 
         // Process sections 2-7 (simple lists)
-        for (String section : Arrays.asList("section2", "section3", "section4", "section5", "section7")) {
+        for (String section : FORM_SECTIONS.subList(1, FORM_SECTIONS.size())) {
             if (skillsData.containsKey(section)) {
                 Object sectionData = skillsData.get(section);
                 if (sectionData instanceof List) {
@@ -132,24 +184,24 @@ public class WizardSkillsService {
                     List<String> skills = (List<String>) sectionData;
 
                     for (String skillName : skills) {
-                        if (skillName != null && !skillName.trim().isEmpty()) {
-                            WizardSkill skill = new WizardSkill(
-                                    wizardProfile,
-                                    section,
-                                    null,  // no subsection for sections 2-7
-                                    skillName.trim()
-                            );
-                            newSkills.add(skill);
-                        }
+                        // no subsection for sections 2-7
+                        addSkill(skillIds, section, null, skillName);
                     }
                 }
             }
         }
 
-        // Save all skills in batch
-        if (!newSkills.isEmpty()) {
-            wizardSkillRepository.saveAll(newSkills);
+        return skillIds;
+    }
+
+    private void addSkill(Set<Integer> skillIds, String section, String subsection, String skillName) {
+        if (skillName == null || skillName.trim().isEmpty()) {
+            return;
         }
+        if (skillIds.size() >= MAX_SKILLS_PER_WIZARD) {
+            throw new IllegalArgumentException("A wizard can have at most " + MAX_SKILLS_PER_WIZARD + " skills");
+        }
+        skillIds.add(skillCatalog.getOrCreateSubmittedId(section, subsection, skillName));
     }
 
     /**
@@ -159,17 +211,65 @@ public class WizardSkillsService {
         if (skillNames == null || skillNames.isEmpty()) {
             return Collections.emptyList();
         }
-        return wizardSkillRepository.findWizardProfileIdsBySkillNames(skillNames);
+        return filterWizardsBySkillIds(skillCatalog.idsByName(skillNames));
+    }
+
+    /**
+     * Filter wizard profile IDs by catalog skill ids (OR logic - any skill matches)
+     */
+    public List<Integer> filterWizardsBySkillIds(Collection<Integer> skillIds) {
+        if (skillIds == null || skillIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return wizardSkillRepository.findWizardProfileIdsBySkillIds(skillIds);
     }
 
     /**
      * Filter wizard profile IDs by skills (AND logic - all skills must match)
+     * A name may exist in several sections, any of them counts for that name.
      */
     public List<Integer> filterWizardsByAllSkills(List<String> skillNames) {
         if (skillNames == null || skillNames.isEmpty()) {
             return Collections.emptyList();
         }
-        return wizardSkillRepository.findWizardProfileIdsByAllSkills(skillNames, skillNames.size());
+        Set<Integer> result = null;
+        for (String skillName : new LinkedHashSet<>(skillNames)) {
+            List<Integer> matching = filterWizardsBySkillIds(skillCatalog.idsByName(List.of(skillName)));
+            if (result == null) {
+                result = new LinkedHashSet<>(matching);
+            } else {
+                result.retainAll(matching);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Filter wizard profile IDs by catalog skill ids (AND logic - all skills must match)
+     */
+    public List<Integer> filterWizardsByAllSkillIds(Collection<Integer> skillIds) {
+        if (skillIds == null || skillIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<Integer> distinct = new LinkedHashSet<>(skillIds);
+        return wizardSkillRepository.findWizardProfileIdsByAllSkillIds(distinct, distinct.size());
+    }
+
+    /**
+     * Filter wizard profile IDs by section (any skill in the section)
+     */
+    public List<Integer> filterWizardsBySection(String section) {
+        return filterWizardsBySkillIds(skillCatalog.idsBySection(section));
+    }
+
+    /**
+     * Filter wizard profile IDs by subsection (any skill in the subsection)
+     */
+    public List<Integer> filterWizardsBySubsection(String subsection) {
+        return filterWizardsBySkillIds(skillCatalog.idsBySubsection(subsection));
     }
 
     /**
@@ -183,18 +283,43 @@ public class WizardSkillsService {
      * Check if wizard has a specific skill
      */
     public boolean hasSkill(int wizardProfileId, String skillName) {
-        return wizardSkillRepository.existsByWizardProfileIdAndSkillName(wizardProfileId, skillName);
+        Set<Integer> skillIds = skillCatalog.idsByName(List.of(skillName));
+        return !skillIds.isEmpty() && wizardSkillRepository.existsByWizardProfileIdAndSkillIds(wizardProfileId, skillIds);
     }
 
     /**
      * Get all skills for a wizard as a flat list (for displaying as tags)
      */
+    @Transactional(readOnly = true)
     public List<String> getAllSkillsForWizard(int wizardProfileId) {
-        List<WizardSkill> skills = wizardSkillRepository.findByWizardProfileId(wizardProfileId);
         List<String> skillNames = new ArrayList<>();
-        for (WizardSkill skill : skills) {
-            skillNames.add(skill.getSkillName());
+        for (SkillCatalog.Entry skill : getCatalogEntries(wizardProfileId)) {
+            skillNames.add(skill.name());
         }
         return skillNames;
     }
+
+    /**
+     * A wizard's skills decoded through the in-memory catalog, one query for the ids.
+     */
+    private List<SkillCatalog.Entry> getCatalogEntries(int wizardProfileId) {
+        List<SkillCatalog.Entry> entries = new ArrayList<>();
+        for (Integer skillId : wizardSkillRepository.findSkillIdsByWizardProfileId(wizardProfileId)) {
+            SkillCatalog.Entry entry = skillCatalog.get(skillId);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Change made by one save, in catalog ids.
+     */
+    public record SkillDelta(int wizardProfileId, Set<Integer> added, Set<Integer> removed) {
+
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty();
+        }
+    }
 }
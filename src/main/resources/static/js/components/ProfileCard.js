@@ -10,10 +10,16 @@ export function createProfileCard(profile) {
 
     const onlineClass = profile.online ? 'bg-green-500' : 'bg-gray-500';
 
+    // Inline placeholder paints the cover instantly, the real image fades in over it
+    const coverStyle = profile.placeholder
+        ? `background: ${profile.dominantColor} url('${profile.placeholder}') center / cover no-repeat;`
+        : (profile.dominantColor ? `background: ${profile.dominantColor};` : '');
+
     card.innerHTML = `
-        <div class="relative w-full h-64 bg-gradient-to-br from-accent to-blue-700 overflow-hidden">
-            <img src="${profile.profileImageUrl}" class="w-full h-full object-cover"
-                onerror="this.style.display='none'; this.parentElement.style.background='linear-gradient(to right, #3b82f6, #1e40af)'">
+        <div class="relative w-full h-64 bg-gradient-to-br from-accent to-blue-700 overflow-hidden" style="${coverStyle}">
+            ${profile.profileImageUrl ? `
+            <img src="${profile.profileImageUrl}" loading="lazy" class="w-full h-full object-cover"
+                onerror="this.style.display='none'">` : ''}
             <div class="absolute top-2 right-2 bg-dark-secondary/80 px-2 py-1 rounded text-xs">🎥 Video</div>
             <button data-wizard-id="${profile.id}" class="favorite-btn absolute top-2 left-2 bg-dark-secondary/90 hover:bg-dark-secondary p-2 rounded-full transition-all hover:scale-110 z-10">
                 <svg class="w-5 h-5 text-red-500 favorite-icon transition-all" fill="none" stroke="currentColor" stroke-width="2" viewBox="0 0 24 24">
@@ -0,0 +1,49 @@
+/**
+ * Live updates over Server-Sent Events:
+ * like counts of the posts on the page and new posts from followed wizards.
+ */
+
+function getVisiblePostIds() {
+    return Array.from(document.querySelectorAll('.like-btn[data-post-id]'))
+        .map(button => Number(button.dataset.postId));
+}
+
+function connectLiveUpdates() {
+    if (!window.EventSource) return;
+
+    const postIds = getVisiblePostIds();
+    const url = postIds.length > 0 ? `/api/live/stream?posts=${postIds.join(',')}` : '/api/live/stream';
+    const source = new EventSource(url);
+
+    // {postId: likesCount}, at most one update per post per flush
+    source.addEventListener('likes', (event) => {
+        const counts = JSON.parse(event.data);
+        Object.entries(counts).forEach(([postId, count]) => {
+            const countElement = document.querySelector(`.like-btn[data-post-id="${postId}"] .likes-count`);
+            if (countElement) {
+                countElement.textContent = count;
+            }
+        });
+    });
+
+    source.addEventListener('post', (event) => {
+        const post = JSON.parse(event.data);
+        showLiveNotification(`New post from ${post.author}`, `/users/${post.authorId}`);
+    });
+
+    // EventSource reconnects by itself after network errors
+}
+
+function showLiveNotification(message, href) {
+    const notification = document.createElement('a');
+    notification.href = href;
+    notification.className = 'fixed bottom-6 right-6 z-50 px-4 py-3 rounded-lg bg-purple-600 hover:bg-purple-700 text-white text-sm shadow-lg transition';
+    notification.textContent = message;
+    document.body.appendChild(notification);
+
+    setTimeout(() => notification.remove(), 8000);
+}
+
+document.addEventListener('DOMContentLoaded', () => {
+    connectLiveUpdates();
+});
@@ -0,0 +1,80 @@
+package com.magic_fans.wizards.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BoundedPasswordEncoder Unit Tests")
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should hash and verify on the pool and record latency")
+    void testEncodeAndMatch() {
+        encoder = new BoundedPasswordEncoder(4, 2, 8, Duration.ofSeconds(5));
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(3, encoder.getMetrics().getHashes());
+        assertTrue(encoder.getMetrics().getMaxMillis() > 0);
+    }
+
+    @Test
+    @DisplayName("Should ask for a rehash of hashes with a lower cost")
+    void testUpgradeEncoding() {
+        encoder = new BoundedPasswordEncoder(10, 1, 8, Duration.ofSeconds(5));
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+    }
+
+    @Test
+    @DisplayName("Should refuse work beyond the pool and queue instead of waiting")
+    void testRejectsWhenFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(13, 1, 1, Duration.ofSeconds(30));
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<CompletableFuture<String>> attempts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            attempts.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return encoder.encode("secret");
+            }));
+        }
+        start.countDown();
+
+        int rejected = 0;
+        for (CompletableFuture<String> attempt : attempts) {
+            try {
+                attempt.join();
+            } catch (Exception e) {
+                assertInstanceOf(AuthenticationServiceException.class, e.getCause());
+                rejected++;
+            }
+        }
+        assertTrue(rejected >= 2, "one running and one queued, the rest refused");
+        assertEquals(rejected, encoder.getMetrics().getRejected());
+    }
+}
@@ -0,0 +1,106 @@
+package com.magic_fans.wizards.config;
+
+import com.magic_fans.wizards.service.PresenceService;
+import com.magic_fans.wizards.service.ProfileDataVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProfileETagFilter Unit Tests")
+class ProfileETagFilterTest {
+
+    private ProfileDataVersion profileDataVersion;
+    private PresenceService presenceService;
+    private ProfileETagFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        profileDataVersion = new ProfileDataVersion();
+        presenceService = new PresenceService();
+        filter = new ProfileETagFilter();
+        ReflectionTestUtils.setField(filter, "profileDataVersion", profileDataVersion);
+        ReflectionTestUtils.setField(filter, "presenceService", presenceService);
+    }
+
+    @Test
+    @DisplayName("Should tag profile responses and ask the browser to revalidate")
+    void testETagHeader() throws Exception {
+        MockHttpServletResponse response = perform(null);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(response.getHeader("ETag"));
+        assertTrue(response.getHeader("Cache-Control").contains("no-cache"));
+    }
+
+    @Test
+    @DisplayName("Should answer 304 without running the controller when the tag matches")
+    void testNotModified() throws Exception {
+        String etag = perform(null).getHeader("ETag");
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(etag), response, chain);
+
+        assertEquals(304, response.getStatus());
+        assertNull(chain.getRequest(), "controller must not run");
+    }
+
+    @Test
+    @DisplayName("Should return the full page after profile data or presence changes")
+    void testModified() throws Exception {
+        String etag = perform(null).getHeader("ETag");
+
+        profileDataVersion.changed();
+        MockHttpServletResponse afterWrite = perform(etag);
+        assertEquals(200, afterWrite.getStatus());
+
+        presenceService.recordActivity(42);
+        MockHttpServletResponse afterLogin = perform(afterWrite.getHeader("ETag"));
+        assertEquals(200, afterLogin.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should not match a tag from before a restart at the same versions")
+    void testRestart() throws Exception {
+        String etag = perform(null).getHeader("ETag");
+
+        filter = new ProfileETagFilter();
+        ReflectionTestUtils.setField(filter, "profileDataVersion", new ProfileDataVersion());
+        ReflectionTestUtils.setField(filter, "presenceService", new PresenceService());
+
+        MockHttpServletResponse response = perform(etag);
+        assertEquals(200, response.getStatus());
+        assertNotEquals(etag, response.getHeader("ETag"));
+    }
+
+    @Test
+    @DisplayName("Should leave other endpoints untouched")
+    void testOtherPaths() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertNull(response.getHeader("ETag"));
+    }
+
+    private MockHttpServletResponse perform(String ifNoneMatch) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(ifNoneMatch), response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/profiles");
+        request.setParameter("offset", "0");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return request;
+    }
+}
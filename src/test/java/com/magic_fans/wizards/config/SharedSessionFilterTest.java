@@ -0,0 +1,80 @@
+package com.magic_fans.wizards.config;
+
+import com.magic_fans.wizards.service.JdbcSessionStore;
+import com.magic_fans.wizards.service.StoredSession;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SharedSessionFilter Unit Tests")
+class SharedSessionFilterTest {
+
+    private JdbcSessionStore sessionStore;
+    private SharedSessionFilter filter;
+    private List<Object> savedValues;
+
+    @BeforeEach
+    void setUp() {
+        sessionStore = spy(new JdbcSessionStore());
+        savedValues = new ArrayList<>();
+        doAnswer(invocation -> {
+            savedValues.add(((StoredSession) invocation.getArgument(0)).getAttribute("step"));
+            return null;
+        }).when(sessionStore).save(any());
+        filter = new SharedSessionFilter(sessionStore);
+    }
+
+    @Test
+    @DisplayName("Should save the session before a redirect is committed")
+    void testSavedOnRedirect() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest(), response, (FilterChain) (req, res) -> {
+            ((HttpServletRequest) req).getSession().setAttribute("step", "login");
+            ((HttpServletResponse) res).sendRedirect("/feed");
+            // Already stored when the client could follow the redirect
+            assertEquals(List.of("login"), savedValues);
+        });
+
+        assertEquals(302, response.getStatus());
+        assertNotNull(response.getHeader("Set-Cookie"));
+    }
+
+    @Test
+    @DisplayName("Should save before a flush and again for changes made after it")
+    void testSavedOnFlushAndAtEnd() throws Exception {
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (FilterChain) (req, res) -> {
+            HttpSession session = ((HttpServletRequest) req).getSession();
+            session.setAttribute("step", "first");
+            res.getWriter().write("partial");
+            res.getWriter().flush();
+            assertEquals(List.of("first"), savedValues);
+            session.setAttribute("step", "second");
+        });
+
+        assertEquals(List.of("first", "second"), savedValues);
+    }
+
+    @Test
+    @DisplayName("Should save once at the end when nothing commits the response early")
+    void testSavedAtEnd() throws Exception {
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (FilterChain) (req, res) ->
+            ((HttpServletRequest) req).getSession().setAttribute("step", "only"));
+
+        verify(sessionStore, times(1)).save(any());
+        assertEquals(List.of("only"), savedValues);
+    }
+}
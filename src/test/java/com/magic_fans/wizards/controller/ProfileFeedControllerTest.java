@@ -2,13 +2,22 @@ package com.magic_fans.wizards.controller;
 
 import com.magic_fans.wizards.dto.UserProfileDTO;
 import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.model.WizardProfile;
+import com.magic_fans.wizards.service.PopularityRanking;
+import com.magic_fans.wizards.service.PresenceService;
+import com.magic_fans.wizards.service.SkillCatalog;
+import com.magic_fans.wizards.service.SkillFacetIndex;
 import com.magic_fans.wizards.service.UserService;
+import com.magic_fans.wizards.service.WizardQuery;
+import com.magic_fans.wizards.service.WizardQueryService;
+import com.magic_fans.wizards.service.WizardSkillsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -19,9 +28,13 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +45,24 @@ class ProfileFeedControllerTest {
     @Mock
     private UserService userService;
 
+    @Spy
+    private PresenceService presenceService = new PresenceService();
+
+    @Mock
+    private WizardSkillsService wizardSkillsService;
+
+    @Mock
+    private SkillCatalog skillCatalog;
+
+    @Mock
+    private SkillFacetIndex skillFacetIndex;
+
+    @Mock
+    private WizardQueryService wizardQueryService;
+
+    @Mock
+    private PopularityRanking popularityRanking;
+
     @Mock
     private Authentication authentication;
 
@@ -96,7 +127,7 @@ class ProfileFeedControllerTest {
         when(userService.getAllUsers()).thenReturn(testUsers);
 
         // When
-        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(0, 10);
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(0, 10, null, null, null);
 
         // Then
         assertNotNull(response);
@@ -116,7 +147,7 @@ class ProfileFeedControllerTest {
         when(userService.getAllUsers()).thenReturn(testUsers);
 
         // When
-        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(1, 2);
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(1, 2, null, null, null);
 
         // Then
         assertNotNull(response.getBody());
@@ -140,7 +171,7 @@ class ProfileFeedControllerTest {
         when(userService.getAllUsers()).thenReturn(manyUsers);
 
         // When
-        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(0, 100);
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(0, 100, null, null, null);
 
         // Then
         assertNotNull(response.getBody());
@@ -156,7 +187,7 @@ class ProfileFeedControllerTest {
         when(userService.getAllUsers()).thenReturn(testUsers);
 
         // When
-        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(0, 0);
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(0, 0, null, null, null);
 
         // Then
         assertNotNull(response.getBody());
@@ -172,13 +203,161 @@ class ProfileFeedControllerTest {
         when(userService.getAllUsers()).thenReturn(testUsers);
 
         // When
-        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(-5, 10);
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(-5, 10, null, null, null);
 
         // Then
         assertNotNull(response.getBody());
         assertEquals(3, response.getBody().size()); // All wizards from start
     }
 
+    @Test
+    @DisplayName("Should return inline placeholder instead of external cover URL")
+    void testGetProfilesFeedInlinePlaceholder() {
+        // Given
+        User wizard = testUsers.get(2);
+        wizard.setAvatarUrl("/uploads/avatars/3_avatar.png");
+        wizard.setAvatarPlaceholder("data:image/png;base64,AAAA");
+        wizard.setAvatarColor("#112233");
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.isAuthenticated()).thenReturn(false);
+        when(userService.getAllUsers()).thenReturn(testUsers);
+
+        // When
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(0, 10, null, null, null);
+
+        // Then
+        UserProfileDTO withAvatar = response.getBody().get(0);
+        assertEquals("/uploads/avatars/3_avatar.png?w=800", withAvatar.getProfileImageUrl());
+        assertEquals("data:image/png;base64,AAAA", withAvatar.getPlaceholder());
+        assertEquals("#112233", withAvatar.getDominantColor());
+
+        UserProfileDTO withoutAvatar = response.getBody().get(1);
+        assertNull(withoutAvatar.getProfileImageUrl());
+        assertNotNull(withoutAvatar.getDominantColor());
+    }
+
+    @Test
+    @DisplayName("Should fill only the requested fields and skip unrequested lookups")
+    void testGetProfilesFeedSparseFields() {
+        // Given
+        WizardProfile profile = new WizardProfile();
+        profile.setId(30);
+        testUsers.get(2).setWizardProfile(profile);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.isAuthenticated()).thenReturn(false);
+        when(userService.getAllUsers()).thenReturn(testUsers);
+
+        // When
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(0, 10, "username, firstName", null, null);
+
+        // Then
+        UserProfileDTO dto = response.getBody().get(0);
+        assertEquals(3, dto.getId());
+        assertEquals("merlin", dto.getUsername());
+        assertEquals("Merlin", dto.getFirstName());
+        assertNull(dto.getAvatarUrl());
+        assertNull(dto.getVideoUrl());
+        assertNull(dto.getOnline());
+        assertNull(dto.getSkills());
+        verify(wizardSkillsService, never()).getAllSkillsForWizard(anyInt());
+        verify(presenceService, never()).getOnlineUserIds(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should fetch skills only when they are requested")
+    void testGetProfilesFeedSkillsField() {
+        // Given
+        WizardProfile profile = new WizardProfile();
+        profile.setId(30);
+        testUsers.get(2).setWizardProfile(profile);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.isAuthenticated()).thenReturn(false);
+        when(userService.getAllUsers()).thenReturn(testUsers);
+        when(wizardSkillsService.getAllSkillsForWizard(30)).thenReturn(List.of("Divination"));
+
+        // When
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(0, 10, "skills", null, null);
+
+        // Then
+        assertEquals(List.of("Divination"), response.getBody().get(0).getSkills());
+        assertNull(response.getBody().get(0).getUsername());
+        verify(wizardSkillsService, times(1)).getAllSkillsForWizard(30);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown fields")
+    void testGetProfilesFeedUnknownField() {
+        // When
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(0, 10, "username,password", null, null);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(userService, never()).getAllUsers();
+    }
+
+    @Test
+    @DisplayName("Should resolve online status for the whole page in one lookup")
+    void testGetProfilesFeedOnlineStatus() {
+        // Given
+        presenceService.recordActivity(3);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.isAuthenticated()).thenReturn(false);
+        when(userService.getAllUsers()).thenReturn(testUsers);
+
+        // When
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(0, 10, null, null, null);
+
+        // Then
+        assertTrue(response.getBody().get(0).isOnline());
+        assertFalse(response.getBody().get(1).isOnline());
+        verify(presenceService, times(1)).getOnlineUserIds(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should return the next popular page after the given cursor")
+    void testGetProfilesFeedPopular() {
+        // Given
+        when(popularityRanking.getRanked("7.0:5", 2))
+                .thenReturn(new PopularityRanking.Page(List.of(4, 3), "6.0:3"));
+        when(userService.getUsersByIds(List.of(4, 3))).thenReturn(List.of(testUsers.get(3), testUsers.get(2)));
+
+        // When
+        ResponseEntity<List<UserProfileDTO>> response =
+                profileFeedController.getProfilesFeed(0, 2, "username", "popular", "7.0:5");
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("morgana", response.getBody().get(0).getUsername());
+        assertEquals("merlin", response.getBody().get(1).getUsername());
+        assertEquals("6.0:3", response.getHeaders().getFirst("X-Next-Cursor"));
+        verify(userService, never()).getAllUsers();
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed popular cursor")
+    void testGetProfilesFeedPopularBadCursor() {
+        // Given
+        when(popularityRanking.getRanked("5", 10)).thenThrow(new IllegalArgumentException("Malformed cursor: 5"));
+
+        // When
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(0, 10, null, "popular", "5");
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(userService, never()).getUsersByIds(anyList());
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown feed sort")
+    void testGetProfilesFeedUnknownSort() {
+        // When
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesFeed(0, 10, null, "newest", null);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(popularityRanking);
+    }
+
     @Test
     @DisplayName("Should filter profiles by specialization")
     void testGetProfilesBySpecialization() {
@@ -188,7 +367,7 @@ class ProfileFeedControllerTest {
         when(userService.getAllUsers()).thenReturn(testUsers);
 
         // When
-        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesBySpecialization("White Magic", 0, 10);
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesBySpecialization("White Magic", 0, 10, null);
 
         // Then
         assertNotNull(response.getBody());
@@ -207,7 +386,7 @@ class ProfileFeedControllerTest {
         when(userService.getAllUsers()).thenReturn(testUsers);
 
         // When
-        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesBySpecialization("white magic", 0, 10);
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesBySpecialization("white magic", 0, 10, null);
 
         // Then
         assertNotNull(response.getBody());
@@ -223,7 +402,7 @@ class ProfileFeedControllerTest {
         when(userService.getAllUsers()).thenReturn(testUsers);
 
         // When
-        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesBySpecialization("Nonexistent Magic", 0, 10);
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesBySpecialization("Nonexistent Magic", 0, 10, null);
 
         // Then
         assertNotNull(response.getBody());
@@ -239,7 +418,7 @@ class ProfileFeedControllerTest {
         when(userService.getAllUsers()).thenReturn(testUsers);
 
         // When
-        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.searchProfiles("merlin", 0, 10);
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.searchProfiles("merlin", 0, 10, null);
 
         // Then
         assertNotNull(response.getBody());
@@ -256,7 +435,7 @@ class ProfileFeedControllerTest {
         when(userService.getAllUsers()).thenReturn(testUsers);
 
         // When
-        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.searchProfiles("Gandalf", 0, 10);
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.searchProfiles("Gandalf", 0, 10, null);
 
         // Then
         assertNotNull(response.getBody());
@@ -272,7 +451,7 @@ class ProfileFeedControllerTest {
         when(userService.getAllUsers()).thenReturn(testUsers);
 
         // When
-        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.searchProfiles("Great", 0, 10);
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.searchProfiles("Great", 0, 10, null);
 
         // Then
         assertNotNull(response.getBody());
@@ -288,7 +467,7 @@ class ProfileFeedControllerTest {
         when(userService.getAllUsers()).thenReturn(testUsers);
 
         // When
-        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.searchProfiles("MERLIN", 0, 10);
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.searchProfiles("MERLIN", 0, 10, null);
 
         // Then
         assertNotNull(response.getBody());
@@ -299,7 +478,7 @@ class ProfileFeedControllerTest {
     @DisplayName("Should return bad request for empty search query")
     void testSearchProfilesEmptyQuery() {
         // When
-        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.searchProfiles("", 0, 10);
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.searchProfiles("", 0, 10, null);
 
         // Then
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -310,7 +489,7 @@ class ProfileFeedControllerTest {
     @DisplayName("Should return bad request for null search query")
     void testSearchProfilesNullQuery() {
         // When
-        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.searchProfiles(null, 0, 10);
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.searchProfiles(null, 0, 10, null);
 
         // Then
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -366,4 +545,184 @@ class ProfileFeedControllerTest {
         // Then
         assertEquals(5, response.getBody()); // Only active users
     }
+
+    @Test
+    @DisplayName("Should return facet counts for skill names and ids combined")
+    void testGetSkillFacets() {
+        // Given
+        SkillFacetIndex.Facets facets = new SkillFacetIndex.Facets(1, Map.of(7, 1), Map.of("section1", 1),
+                Map.of("subsection1_1", 1), Map.of("White Magic", 1));
+        when(skillCatalog.idsByName(List.of("Таро"))).thenReturn(Set.of(7));
+        when(skillFacetIndex.getFacets()).thenReturn(facets);
+        when(skillFacetIndex.getFacets(new SkillFacetIndex.Context("White Magic", Set.of(7, 9),
+                new WizardQuery.Experience(5, Integer.MAX_VALUE), null))).thenReturn(facets);
+
+        // When
+        ResponseEntity<SkillFacetIndex.Facets> response = profileFeedController.getSkillFacets(
+                " White Magic ", List.of("Таро"), List.of(9), 5, null, null, null);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(facets, response.getBody());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Should leave skill names that match nobody out of the facet context, as /filter does")
+    void testGetSkillFacetsUnmatchedSkillNames() {
+        // Given
+        SkillFacetIndex.Facets facets = new SkillFacetIndex.Facets(0, Map.of(), Map.of(), Map.of(), Map.of());
+        when(skillCatalog.idsByName(List.of("Таро"))).thenReturn(Set.of(7));
+        when(skillFacetIndex.getFacets()).thenReturn(new SkillFacetIndex.Facets(
+                1, Map.of(8, 1), Map.of("section1", 1), Map.of(), Map.of("Black Magic", 1)));
+        when(skillFacetIndex.getFacets(new SkillFacetIndex.Context(null, null, null,
+                new WizardQuery.Price(-Double.MAX_VALUE, 100.0)))).thenReturn(facets);
+
+        // When
+        ResponseEntity<SkillFacetIndex.Facets> response = profileFeedController.getSkillFacets(
+                null, List.of("Таро"), null, null, null, null, 100.0);
+
+        // Then
+        assertSame(facets, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should keep explicit skill ids that match nobody in the facet context")
+    void testGetSkillFacetsUnmatchedSkillIds() {
+        // Given
+        SkillFacetIndex.Facets facets = new SkillFacetIndex.Facets(0, Map.of(), Map.of(), Map.of(), Map.of());
+        when(skillFacetIndex.getFacets(new SkillFacetIndex.Context(null, Set.of(99999), null, null)))
+                .thenReturn(facets);
+
+        // When
+        ResponseEntity<SkillFacetIndex.Facets> response = profileFeedController.getSkillFacets(
+                null, null, List.of(99999), null, null, null, null);
+
+        // Then
+        assertSame(facets, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should return one page of query results with the total")
+    void testQueryProfiles() {
+        // Given
+        when(wizardQueryService.search(new WizardQuery.Section("section2"), WizardQueryService.Order.ID, 0, 50))
+                .thenReturn(new WizardQueryService.Page(7, List.of(30)));
+        when(userService.getUsersByWizardProfileIds(List.of(30))).thenReturn(List.of(testUsers.get(2)));
+
+        // When
+        ResponseEntity<Map<String, Object>> response = profileFeedController.queryProfiles(Map.of(
+                "where", Map.of("section", "section2"), "limit", 500, "fields", "username"));
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(7, response.getBody().get("total"));
+        assertEquals(50, response.getBody().get("limit"));
+        @SuppressWarnings("unchecked")
+        List<UserProfileDTO> profiles = (List<UserProfileDTO>) response.getBody().get("profiles");
+        assertEquals("merlin", profiles.get(0).getUsername());
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed query")
+    void testQueryProfilesMalformed() {
+        // When
+        ResponseEntity<Map<String, Object>> response = profileFeedController.queryProfiles(Map.of(
+                "where", Map.of("color", "red")));
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(false, response.getBody().get("success"));
+        verifyNoInteractions(wizardQueryService);
+    }
+
+    @Test
+    @DisplayName("Should reject a query over the size limits")
+    void testQueryProfilesTooLarge() {
+        // When
+        ResponseEntity<Map<String, Object>> response = profileFeedController.queryProfiles(Map.of(
+                "where", Map.of("or", Collections.nCopies(WizardQuery.MAX_NODES, Map.of("section", "section1")))));
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(false, response.getBody().get("success"));
+        verifyNoInteractions(wizardQueryService);
+    }
+
+    @Test
+    @DisplayName("Should pass the sort order of a query to the search")
+    void testQueryProfilesSorted() {
+        // Given
+        when(wizardQueryService.search(new WizardQuery.Section("section2"), WizardQueryService.Order.PRICE_DESC, 0, 10))
+                .thenReturn(new WizardQueryService.Page(2, List.of(31, 30)));
+        when(userService.getUsersByWizardProfileIds(List.of(31, 30)))
+                .thenReturn(List.of(testUsers.get(3), testUsers.get(2)));
+
+        // When
+        ResponseEntity<Map<String, Object>> response = profileFeedController.queryProfiles(Map.of(
+                "where", Map.of("section", "section2"), "sort", "-price"));
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        @SuppressWarnings("unchecked")
+        List<UserProfileDTO> profiles = (List<UserProfileDTO>) response.getBody().get("profiles");
+        assertEquals("morgana", profiles.get(0).getUsername());
+        assertEquals("merlin", profiles.get(1).getUsername());
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown sort order")
+    void testQueryProfilesUnknownSort() {
+        // When
+        ResponseEntity<Map<String, Object>> response = profileFeedController.queryProfiles(Map.of(
+                "where", Map.of("section", "section2"), "sort", "rating"));
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(wizardQueryService);
+    }
+
+    @Test
+    @DisplayName("Should filter by experience range and order by experience from the id query")
+    void testGetProfilesWithExperienceRangeSorted() {
+        // Given
+        WizardQuery expected = new WizardQuery.And(List.of(
+                new WizardQuery.Specialization("White Magic"),
+                new WizardQuery.Experience(5, Integer.MAX_VALUE)));
+        when(wizardQueryService.search(expected, WizardQueryService.Order.EXPERIENCE_DESC, 0, 10))
+                .thenReturn(new WizardQueryService.Page(2, List.of(34, 32)));
+        when(userService.getUsersByWizardProfileIds(List.of(34, 32)))
+                .thenReturn(List.of(testUsers.get(4), testUsers.get(2)));
+
+        // When
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesWithFilters(
+                "White Magic", null, null, 5, null, null, null, "-experience", 0, 10, null);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().size());
+        assertEquals("gandalf", response.getBody().get(0).getUsername());
+        assertEquals("merlin", response.getBody().get(1).getUsername());
+        verify(userService, never()).getAllUsers();
+    }
+
+    @Test
+    @DisplayName("Should return an empty page for explicit skill ids that no wizard has")
+    void testGetProfilesWithUnmatchedSkillIds() {
+        // Given
+        WizardQuery expected = new WizardQuery.And(List.of(new WizardQuery.Skills(Set.of(99999))));
+        when(wizardQueryService.search(expected, WizardQueryService.Order.ID, 0, 10))
+                .thenReturn(new WizardQueryService.Page(0, List.of()));
+        when(userService.getUsersByWizardProfileIds(List.of())).thenReturn(List.of());
+
+        // When
+        ResponseEntity<List<UserProfileDTO>> response = profileFeedController.getProfilesWithFilters(
+                null, null, List.of(99999), null, null, null, null, null, 0, 10, null);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().isEmpty());
+        verify(wizardQueryService).search(expected, WizardQueryService.Order.ID, 0, 10);
+        verify(userService, never()).getAllUsers();
+    }
 }
@@ -0,0 +1,247 @@
+package com.magic_fans.wizards.controller;
+
+import com.magic_fans.wizards.service.ImageRenditionService;
+import com.magic_fans.wizards.service.ImageUploadService;
+import com.magic_fans.wizards.service.UploadStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UploadResourceController Unit Tests")
+class UploadResourceControllerTest {
+
+    private static final String AVATAR = "3_0f8fad5b-d9cb-469f-a165-70867728950e.png";
+
+    @TempDir
+    Path uploadRoot;
+
+    @TempDir
+    Path renditionDir;
+
+    private UploadResourceController controller;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        UploadStorageService storage = new UploadStorageService();
+        ReflectionTestUtils.setField(storage, "uploadRoot", uploadRoot.toString());
+
+        ImageRenditionService renditions = new ImageRenditionService();
+        ReflectionTestUtils.setField(renditions, "imageUploadService", new ImageUploadService());
+        ReflectionTestUtils.setField(renditions, "uploadStorageService", storage);
+        ReflectionTestUtils.setField(renditions, "cacheDir", renditionDir.toString());
+
+        controller = new UploadResourceController();
+        ReflectionTestUtils.setField(controller, "uploadStorageService", storage);
+        ReflectionTestUtils.setField(controller, "imageRenditionService", renditions);
+
+        Files.createDirectories(uploadRoot.resolve("avatars"));
+        Files.createDirectories(uploadRoot.resolve("videos"));
+        Files.writeString(uploadRoot.resolve("avatars").resolve(AVATAR), "0123456789", StandardCharsets.UTF_8);
+        Files.writeString(uploadRoot.resolve("videos").resolve("profile-3.mp4"), "video-bytes", StandardCharsets.UTF_8);
+    }
+
+    private MockHttpServletRequest get(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRequestURI(uri);
+        return request;
+    }
+
+    @Test
+    @DisplayName("Should serve content-addressed upload with immutable caching and ETag")
+    void testServeImmutableUpload() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.serve(null, get("/uploads/avatars/" + AVATAR), response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+        assertEquals("image/png", response.getContentType());
+        assertNotNull(response.getHeader("ETag"));
+        assertNotNull(response.getHeader("Last-Modified"));
+        assertTrue(response.getHeader("Cache-Control").contains("immutable"));
+    }
+
+    @Test
+    @DisplayName("Should answer 304 when If-None-Match matches")
+    void testNotModified() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        controller.serve(null, get("/uploads/avatars/" + AVATAR), first);
+
+        MockHttpServletRequest request = get("/uploads/avatars/" + AVATAR);
+        request.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serve(null, request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    @DisplayName("Should serve a single byte range with 206")
+    void testRangeRequest() throws Exception {
+        MockHttpServletRequest request = get("/uploads/avatars/" + AVATAR);
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.serve(null, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", response.getContentAsString());
+        assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+        assertEquals(4, response.getContentLengthLong());
+    }
+
+    @Test
+    @DisplayName("Should answer 416 for unsatisfiable range")
+    void testUnsatisfiableRange() throws Exception {
+        MockHttpServletRequest request = get("/uploads/avatars/" + AVATAR);
+        request.addHeader("Range", "bytes=50-60");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.serve(null, request, response);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    @DisplayName("Should ignore Range when If-Range no longer matches")
+    void testIfRangeMismatch() throws Exception {
+        MockHttpServletRequest request = get("/uploads/avatars/" + AVATAR);
+        request.addHeader("Range", "bytes=2-5");
+        request.addHeader("If-Range", "\"stale\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.serve(null, request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Should map /videos to the videos folder and require revalidation")
+    void testServeVideo() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.serve(null, get("/videos/profile-3.mp4"), response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("video-bytes", response.getContentAsString());
+        assertTrue(response.getHeader("Cache-Control").contains("no-cache"));
+    }
+
+    @Test
+    @DisplayName("Should hand large files to Tomcat sendfile when supported")
+    void testSendfile() throws Exception {
+        Files.write(uploadRoot.resolve("videos").resolve("profile-4.mp4"), new byte[64 * 1024]);
+        MockHttpServletRequest request = get("/videos/profile-4.mp4");
+        request.setAttribute(UploadResourceController.SENDFILE_SUPPORTED_ATTR, Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.serve(null, request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(0L, request.getAttribute(UploadResourceController.SENDFILE_START_ATTR));
+        assertEquals(64L * 1024, request.getAttribute(UploadResourceController.SENDFILE_END_ATTR));
+    }
+
+    @Test
+    @DisplayName("Should return 404 for missing files and path traversal")
+    void testNotFound() throws Exception {
+        MockHttpServletResponse missing = new MockHttpServletResponse();
+        controller.serve(null, get("/uploads/avatars/missing.png"), missing);
+        assertEquals(404, missing.getStatus());
+
+        MockHttpServletResponse traversal = new MockHttpServletResponse();
+        controller.serve(null, get("/uploads/../pom.xml"), traversal);
+        assertEquals(404, traversal.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should resize image on first hit and reuse the cached rendition")
+    void testRendition() throws Exception {
+        BufferedImage source = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+        ImageIO.write(source, "png", uploadRoot.resolve("avatars").resolve("5_big.png").toFile());
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        controller.serve(150, get("/uploads/avatars/5_big.png"), first);
+
+        assertEquals(200, first.getStatus());
+        assertEquals("image/jpeg", first.getContentType());
+        BufferedImage rendition = ImageIO.read(new ByteArrayInputStream(first.getContentAsByteArray()));
+        assertEquals(150, rendition.getWidth());
+        assertEquals(75, rendition.getHeight());
+        // The source is not content-addressed, so its renditions may change too
+        assertFalse(first.getHeader("Cache-Control").contains("immutable"));
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        controller.serve(150, get("/uploads/avatars/5_big.png"), second);
+
+        assertEquals(first.getHeader("ETag"), second.getHeader("ETag"));
+        try (var files = Files.list(renditionDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject widths outside the whitelist")
+    void testRenditionWidthNotAllowed() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.serve(123, get("/uploads/avatars/" + AVATAR), response);
+
+        assertEquals(400, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should cache renditions of content-addressed sources as immutable")
+    void testRenditionOfContentAddressedSource() throws Exception {
+        String name = "5_0f8fad5b-d9cb-469f-a165-70867728950e.png";
+        ImageIO.write(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), "png",
+                uploadRoot.resolve("avatars").resolve(name).toFile());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serve(150, get("/uploads/avatars/" + name), response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("image/jpeg", response.getContentType());
+        assertTrue(response.getHeader("Cache-Control").contains("immutable"));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the source when the rendition was evicted after the lookup")
+    void testRenditionEvicted() throws Exception {
+        ImageIO.write(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), "png",
+                uploadRoot.resolve("avatars").resolve("6_big.png").toFile());
+        ImageRenditionService evicting = new ImageRenditionService() {
+            @Override
+            public Optional<Path> getRendition(String relativePath, Path source, int width) {
+                return Optional.of(renditionDir.resolve("evicted-w150.jpg"));
+            }
+        };
+        ReflectionTestUtils.setField(evicting, "imageUploadService", new ImageUploadService());
+        ReflectionTestUtils.setField(controller, "imageRenditionService", evicting);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serve(150, get("/uploads/avatars/6_big.png"), response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("image/png", response.getContentType());
+        assertEquals(400, ImageIO.read(new ByteArrayInputStream(response.getContentAsByteArray())).getWidth());
+    }
+}
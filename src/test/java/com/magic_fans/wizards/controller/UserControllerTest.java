@@ -1,5 +1,6 @@
 package com.magic_fans.wizards.controller;
 
+import com.magic_fans.wizards.model.Post;
 import com.magic_fans.wizards.model.User;
 import com.magic_fans.wizards.model.WizardProfile;
 import com.magic_fans.wizards.model.RegularUserProfile;
@@ -9,6 +10,7 @@ import com.magic_fans.wizards.service.UserService;
 import com.magic_fans.wizards.service.ProfileViewService;
 import com.magic_fans.wizards.service.WizardSkillsService;
 import com.magic_fans.wizards.service.PostService;
+import com.magic_fans.wizards.service.LiveUpdateService;
 import com.magic_fans.wizards.service.PostLikeService;
 import jakarta.servlet.http.HttpSession;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,10 +25,17 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.ui.Model;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -64,6 +73,9 @@ class UserControllerTest {
     @Mock
     private PostLikeService postLikeService;
 
+    @Mock
+    private LiveUpdateService liveUpdateService;
+
     @Mock
     private Model model;
 
@@ -95,6 +107,9 @@ class UserControllerTest {
         testWizardUser.setRole("wizard");
         testWizardUser.setActive(true);
         testWizardUser.setWizardProfile(new WizardProfile(testWizardUser));
+
+        // Page lookups run inline unless a test needs real concurrency
+        ReflectionTestUtils.setField(userController, "profilePageExecutor", (Executor) Runnable::run);
     }
 
     @Test
@@ -199,7 +214,7 @@ class UserControllerTest {
     @DisplayName("Should get user profile when user is logged in and viewing own profile")
     void testGetUserProfileOwnProfile() {
         // Given
-        when(userService.getUserById(1)).thenReturn(Optional.of(testRegularUser));
+        when(userService.getUserWithProfiles(1)).thenReturn(Optional.of(testRegularUser));
 
         Authentication auth = mock(Authentication.class);
         when(auth.isAuthenticated()).thenReturn(true);
@@ -224,7 +239,7 @@ class UserControllerTest {
     @DisplayName("Should redirect to login when no one is authenticated")
     void testGetUserProfileNotAuthenticated() {
         // Given
-        when(userService.getUserById(1)).thenReturn(Optional.of(testRegularUser));
+        when(userService.getUserWithProfiles(1)).thenReturn(Optional.of(testRegularUser));
 
         Authentication auth = mock(Authentication.class);
         when(auth.isAuthenticated()).thenReturn(false);
@@ -251,7 +266,7 @@ class UserControllerTest {
         anotherRegularUser.setRole("regular");
         anotherRegularUser.setActive(true);
 
-        when(userService.getUserById(3)).thenReturn(Optional.of(anotherRegularUser));
+        when(userService.getUserWithProfiles(3)).thenReturn(Optional.of(anotherRegularUser));
 
         Authentication auth = mock(Authentication.class);
         when(auth.isAuthenticated()).thenReturn(true);
@@ -280,7 +295,7 @@ class UserControllerTest {
         anotherWizardUser.setActive(true);
         anotherWizardUser.setWizardProfile(new WizardProfile(anotherWizardUser));
 
-        when(userService.getUserById(3)).thenReturn(Optional.of(anotherWizardUser));
+        when(userService.getUserWithProfiles(3)).thenReturn(Optional.of(anotherWizardUser));
 
         Authentication auth = mock(Authentication.class);
         when(auth.isAuthenticated()).thenReturn(true);
@@ -303,7 +318,7 @@ class UserControllerTest {
     @DisplayName("Should allow regular user to view wizard profile")
     void testGetUserProfileRegularCanViewWizard() {
         // Given
-        when(userService.getUserById(2)).thenReturn(Optional.of(testWizardUser));
+        when(userService.getUserWithProfiles(2)).thenReturn(Optional.of(testWizardUser));
         when(subscriptionRepository.existsByRegularUserIdAndWizardId(1, 2)).thenReturn(false);
 
         Authentication auth = mock(Authentication.class);
@@ -326,11 +341,56 @@ class UserControllerTest {
         verify(model, times(1)).addAttribute("isSubscribed", false);
     }
 
+    @Test
+    @DisplayName("Should load wizard page lookups concurrently and record the view in background")
+    @SuppressWarnings("unchecked")
+    void testGetUserProfileConcurrentLookups() {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        ReflectionTestUtils.setField(userController, "profilePageExecutor", executor);
+
+        Post liked = new Post();
+        liked.setId(10L);
+        Post notLiked = new Post();
+        notLiked.setId(11L);
+        when(userService.getUserWithProfiles(2)).thenReturn(Optional.of(testWizardUser));
+        when(subscriptionRepository.existsByRegularUserIdAndWizardId(1, 2)).thenReturn(true);
+        when(postService.getPostsByAuthor(2)).thenReturn(List.of(liked, notLiked));
+        when(postLikeService.getLikedPostIds(1, 2)).thenReturn(Set.of(10L));
+        when(wizardSkillsService.getAllSkillsForWizard(anyInt())).thenReturn(List.of("Healing"));
+
+        Authentication auth = mock(Authentication.class);
+        when(auth.isAuthenticated()).thenReturn(true);
+        when(auth.getPrincipal()).thenReturn("testuser");
+        when(auth.getName()).thenReturn("testuser");
+        when(userService.getUserByUsername("testuser")).thenReturn(Optional.of(testRegularUser));
+
+        org.springframework.security.core.context.SecurityContext securityContext = mock(org.springframework.security.core.context.SecurityContext.class);
+        when(securityContext.getAuthentication()).thenReturn(auth);
+        org.springframework.security.core.context.SecurityContextHolder.setContext(securityContext);
+
+        try {
+            // When
+            String view = userController.getUserProfile(2, model);
+
+            // Then
+            assertEquals("profile", view);
+            verify(model).addAttribute("isSubscribed", true);
+            verify(model).addAttribute("likedPosts", Map.of(10L, true, 11L, false));
+            verify(model).addAttribute("userSkills", List.of("Healing"));
+            verify(postService, times(1)).getPostsByAuthor(2);
+            verify(postLikeService, never()).isLiked(anyLong(), anyInt());
+            verify(profileViewService, times(1)).recordViewAsync(1, 2);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     @DisplayName("Should mark as subscribed if regular user is already subscribed to wizard")
     void testGetUserProfileRegularSubscribedToWizard() {
         // Given
-        when(userService.getUserById(2)).thenReturn(Optional.of(testWizardUser));
+        when(userService.getUserWithProfiles(2)).thenReturn(Optional.of(testWizardUser));
         when(subscriptionRepository.existsByRegularUserIdAndWizardId(1, 2)).thenReturn(true);
 
         Authentication auth = mock(Authentication.class);
@@ -355,7 +415,7 @@ class UserControllerTest {
     @DisplayName("Should return not found when user doesn't exist")
     void testGetUserProfileNotFound() {
         // Given
-        when(userService.getUserById(999)).thenReturn(Optional.empty());
+        when(userService.getUserWithProfiles(999)).thenReturn(Optional.empty());
 
         Authentication auth = mock(Authentication.class);
         when(auth.isAuthenticated()).thenReturn(true);
@@ -396,6 +456,7 @@ class UserControllerTest {
         // Then
         assertEquals("redirect:/users/2", view);
         verify(subscriptionRepository, times(1)).save(any(Subscription.class));
+        verify(liveUpdateService).followChanged(1, 2, true);
     }
 
     @Test
@@ -469,6 +530,7 @@ class UserControllerTest {
         // Then
         assertEquals("redirect:/users/2", view);
         verify(subscriptionRepository, times(1)).delete(subscription);
+        verify(liveUpdateService).followChanged(1, 2, false);
     }
 
     @Test
@@ -0,0 +1,115 @@
+package com.magic_fans.wizards.integration;
+
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.repository.UserRepository;
+import com.magic_fans.wizards.service.BulkDataSeeder;
+import com.magic_fans.wizards.service.ProfessionTaxonomy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Bulk Data Seeder Tests")
+class BulkDataSeederTest {
+
+    @Autowired
+    private BulkDataSeeder bulkDataSeeder;
+
+    @Autowired
+    private ProfessionTaxonomy professionTaxonomy;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        // Other tests clear users through the repository, which the seeded rows would block
+        for (String table : List.of("post_likes", "posts", "favorites", "subscriptions", "profile_views",
+                "wizard_profile_skills", "wizard_services")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+        jdbcTemplate.update("UPDATE users SET wizard_profile_id = NULL WHERE username LIKE 'bulk%'");
+        jdbcTemplate.update("DELETE FROM wizard_profiles WHERE user_id IN (SELECT id FROM users WHERE username LIKE 'bulk%')");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'bulk%' OR username = 'after_seed'");
+    }
+
+    @Test
+    @DisplayName("Should seed a consistent dataset in parallel chunks")
+    void testSeed() {
+        BulkDataSeeder.Plan plan = new BulkDataSeeder.Plan();
+        plan.setUsers(500);
+        plan.setChunkSize(120);
+        plan.setBatchSize(50);
+        plan.setThreads(3);
+        plan.setUsernamePrefix("bulk");
+
+        BulkDataSeeder.SeedResult result = bulkDataSeeder.seed(plan);
+
+        assertEquals(500, result.getRows("users"));
+        assertEquals(100, result.getRows("wizard_profiles"));
+        assertEquals(300, result.getRows("posts"));
+        assertTrue(result.getRows("wizard_profile_skills") > 0);
+        assertTrue(result.getRows("favorites") > 0);
+
+        // Every seeded wizard is linked to its profile, and like counters match the like rows
+        assertEquals(0, count("SELECT COUNT(*) FROM users WHERE username LIKE 'bulk%' AND role = 'wizard' AND wizard_profile_id IS NULL"));
+        assertEquals(0, count("""
+            SELECT COUNT(*) FROM posts p
+            WHERE p.likes_count <> (SELECT COUNT(*) FROM post_likes l WHERE l.post_id = p.id)"""));
+
+        User wizard = userRepository.findByUsername("bulk" + firstSeededId()).orElseThrow();
+        assertEquals("wizard", wizard.getRole());
+        assertNotNull(wizard.getWizardProfile());
+        assertTrue(passwordEncoder.matches("password", wizard.getPassword()));
+        if (!professionTaxonomy.getProfessions().isEmpty()) {
+            assertTrue(professionTaxonomy.getProfessions().stream()
+                .anyMatch(profession -> profession.name().equals(wizard.getSpecialization())));
+        }
+
+        // Identity columns were moved past the reserved ranges
+        User later = new User("after_seed", "after_seed@test.com", wizard.getPassword(), "After", "Seed", "None");
+        assertTrue(userRepository.save(later).getId() > firstSeededId() + 499);
+    }
+
+    @Test
+    @DisplayName("Should parse the profession table with irregular columns")
+    void testTaxonomy() {
+        assertFalse(professionTaxonomy.getProfessions().isEmpty());
+
+        ProfessionTaxonomy.Profession palmist = professionTaxonomy.getProfessions().stream()
+            .filter(profession -> profession.name().equals("Хиромант"))
+            .findFirst().orElseThrow();
+        assertEquals("Гадатель по руке", palmist.type());
+        assertTrue(palmist.functions().stream().anyMatch(function -> function.contains("(жизни, судьбы, сердца)")));
+
+        ProfessionTaxonomy.Profession oracle = professionTaxonomy.getProfessions().stream()
+            .filter(profession -> profession.name().equals("Оракул-практик"))
+            .findFirst().orElseThrow();
+        assertNull(oracle.type());
+        assertEquals(List.of("Руны", "И-цзин"), oracle.functions());
+    }
+
+    private long firstSeededId() {
+        return count("SELECT MIN(id) FROM users WHERE username LIKE 'bulk%'");
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,92 @@
+package com.magic_fans.wizards.integration;
+
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.repository.UserRepository;
+import com.magic_fans.wizards.service.FeedPageCache;
+import com.magic_fans.wizards.service.PopularityRanking;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@DisplayName("Feed Page Cache Filter Tests")
+class FeedPageCacheFilterTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PopularityRanking popularityRanking;
+
+    @Autowired
+    private FeedPageCache feedPageCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        for (String username : new String[] {"cachedseer", "cacheddruid"}) {
+            User wizard = new User(username, username + "@test.com", "pwd", "Cached", "Wizard", "White Magic");
+            wizard.setRole("wizard");
+            wizard.setActive(true);
+            userRepository.save(wizard);
+        }
+        popularityRanking.invalidate();
+        popularityRanking.refresh();
+        feedPageCache.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("DELETE FROM wizard_popularity");
+        userRepository.deleteAll();
+        feedPageCache.clear();
+    }
+
+    @Test
+    @DisplayName("Should replay the next-page cursor on a cached popular page")
+    void testCursorOnCacheHit() throws Exception {
+        HttpResponse<String> miss = get("/api/profiles?sort=popular&limit=1");
+        assertEquals(200, miss.statusCode());
+        assertEquals("MISS", miss.headers().firstValue("X-Feed-Cache").orElse(null));
+        String cursor = miss.headers().firstValue("X-Next-Cursor").orElse(null);
+        assertNotNull(cursor);
+
+        HttpResponse<String> hit = get("/api/profiles?sort=popular&limit=1");
+        assertEquals("HIT", hit.headers().firstValue("X-Feed-Cache").orElse(null));
+        assertEquals(cursor, hit.headers().firstValue("X-Next-Cursor").orElse(null));
+        assertEquals(miss.body(), hit.body());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
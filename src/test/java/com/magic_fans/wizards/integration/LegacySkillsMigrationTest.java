@@ -0,0 +1,86 @@
+package com.magic_fans.wizards.integration;
+
+import com.magic_fans.wizards.config.LegacySkillsMigration;
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.model.WizardProfile;
+import com.magic_fans.wizards.repository.UserRepository;
+import com.magic_fans.wizards.repository.WizardSkillRepository;
+import com.magic_fans.wizards.service.SkillCatalog;
+import com.magic_fans.wizards.service.WizardSkillsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Legacy Skills Migration Tests")
+class LegacySkillsMigrationTest {
+
+    @Autowired
+    private LegacySkillsMigration legacySkillsMigration;
+
+    @Autowired
+    private WizardSkillsService wizardSkillsService;
+
+    @Autowired
+    private SkillCatalog skillCatalog;
+
+    @Autowired
+    private WizardSkillRepository wizardSkillRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS wizard_skills");
+        wizardSkillRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should do nothing without the old table")
+    void testNoLegacyTable() {
+        assertEquals(-1, legacySkillsMigration.migrate());
+    }
+
+    @Test
+    @DisplayName("Should move old skills into the catalog model and drop the old table")
+    void testMigrate() {
+        User wizard = new User("legacywizard", "legacy@test.com", "pwd", "Legacy", "Wizard", "Divination");
+        wizard.setRole("wizard");
+        wizard.setWizardProfile(new WizardProfile(wizard));
+        int profileId = userRepository.save(wizard).getWizardProfile().getId();
+        wizardSkillsService.saveSkillsForWizard(profileId, Map.of("section2", List.of("Судьба")));
+
+        jdbcTemplate.execute("CREATE TABLE wizard_skills (wizard_profile_id INT NOT NULL, skill VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO wizard_skills VALUES (?, 'Судьба'), (?, 'Potion Making'), (?, ' ')",
+                profileId, profileId, profileId);
+
+        assertEquals(1, legacySkillsMigration.migrate());
+
+        assertEquals(Set.of("Судьба", "Potion Making"), Set.copyOf(wizardSkillsService.getAllSkillsForWizard(profileId)));
+        assertNotNull(skillCatalog.findId("legacy", null, "Potion Making"));
+        assertEquals(-1, legacySkillsMigration.migrate());
+
+        // The form does not show legacy skills, so saving it keeps them
+        wizardSkillsService.saveSkillsForWizard(profileId, Map.of("section3", List.of("Защита")));
+        assertEquals(Set.of("Защита", "Potion Making"), Set.copyOf(wizardSkillsService.getAllSkillsForWizard(profileId)));
+        assertTrue(wizardSkillsService.saveSkillsForWizard(profileId, Map.of()).removed()
+                .stream().noneMatch(skillId -> "legacy".equals(skillCatalog.get(skillId).section())));
+        assertEquals(List.of("Potion Making"), wizardSkillsService.getAllSkillsForWizard(profileId));
+    }
+}
@@ -0,0 +1,177 @@
+package com.magic_fans.wizards.integration;
+
+import com.magic_fans.wizards.model.Post;
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.repository.UserRepository;
+import com.magic_fans.wizards.service.FavoriteService;
+import com.magic_fans.wizards.service.PopularityRanking;
+import com.magic_fans.wizards.service.PostLikeService;
+import com.magic_fans.wizards.service.PostService;
+import com.magic_fans.wizards.service.ProfileViewService;
+import com.magic_fans.wizards.service.SubscriptionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Popularity Ranking Tests")
+class PopularityRankingTest {
+
+    @Autowired
+    private PopularityRanking popularityRanking;
+
+    @Autowired
+    private FavoriteService favoriteService;
+
+    @Autowired
+    private SubscriptionService subscriptionService;
+
+    @Autowired
+    private ProfileViewService profileViewService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostLikeService postLikeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User alchemist;
+    private User seer;
+    private User druid;
+    private User fan;
+    private User otherFan;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        alchemist = createUser("palchemist", "wizard");
+        seer = createUser("pseer", "wizard");
+        druid = createUser("pdruid", "wizard");
+        fan = createUser("pfan", "regular");
+        otherFan = createUser("potherfan", "regular");
+
+        // Start from a full pass, then only marked wizards are recounted
+        popularityRanking.invalidate();
+        popularityRanking.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    private void cleanUp() {
+        for (String table : List.of("post_likes", "posts", "favorites", "subscriptions", "profile_views",
+                "wizard_popularity")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+        userRepository.deleteAll();
+    }
+
+    private User createUser(String username, String role) {
+        User user = new User(username, username + "@test.com", "pwd", "Popular", "User", "White Magic");
+        user.setRole(role);
+        user.setActive(true);
+        return userRepository.save(user);
+    }
+
+    private double score(User wizard) {
+        return jdbcTemplate.queryForObject(
+                "SELECT score FROM wizard_popularity WHERE wizard_id = ?", Double.class, wizard.getId());
+    }
+
+    @Test
+    @DisplayName("Should rank listed wizards by weighted counts and page by keyset")
+    void testRankingAndKeysetPages() {
+        // Default weights: favorites 3, subscribers 5, views 1, likes 2
+        favoriteService.addToFavorites(fan, seer);
+        subscriptionService.subscribe(fan, druid);
+        profileViewService.recordView(fan, druid);
+        Post post = postService.createPost(seer, "Знаки недели");
+        postLikeService.likePost(post.getId(), fan);
+        postLikeService.likePost(post.getId(), otherFan);
+
+        assertEquals(2, popularityRanking.refresh());
+        assertEquals(6.0, score(druid));
+        assertEquals(7.0, score(seer));
+        assertEquals(0.0, score(alchemist));
+
+        assertEquals(List.of(seer.getId(), druid.getId(), alchemist.getId()),
+                popularityRanking.getRanked(null, 10).userIds());
+        PopularityRanking.Page first = popularityRanking.getRanked(null, 2);
+        assertEquals(List.of(seer.getId(), druid.getId()), first.userIds());
+        assertEquals("6.0:" + druid.getId(), first.nextCursor());
+        PopularityRanking.Page second = popularityRanking.getRanked(first.nextCursor(), 2);
+        assertEquals(List.of(alchemist.getId()), second.userIds());
+        assertNull(second.nextCursor());
+        assertThrows(IllegalArgumentException.class, () -> popularityRanking.getRanked("abc", 2));
+    }
+
+    @Test
+    @DisplayName("Should continue after the cursor position when its wizard is gone or rescored")
+    void testCursorSurvivesChanges() {
+        favoriteService.addToFavorites(fan, seer);
+        subscriptionService.subscribe(fan, druid);
+        popularityRanking.refresh();
+        PopularityRanking.Page first = popularityRanking.getRanked(null, 1);
+        assertEquals(List.of(druid.getId()), first.userIds());
+
+        // The wizard the cursor points at drops out; the next page still starts below its score
+        subscriptionService.unsubscribe(fan.getId(), druid.getId());
+        druid.setActive(false);
+        userRepository.save(druid);
+        popularityRanking.refresh();
+
+        assertEquals(List.of(seer.getId(), alchemist.getId()),
+                popularityRanking.getRanked(first.nextCursor(), 10).userIds());
+    }
+
+    @Test
+    @DisplayName("Should recount only wizards marked by writes")
+    void testIncrementalRefresh() {
+        jdbcTemplate.update("UPDATE wizard_popularity SET score = 100 WHERE wizard_id = ?", alchemist.getId());
+
+        favoriteService.addToFavorites(fan, seer);
+        assertEquals(1, popularityRanking.refresh());
+        assertEquals(3.0, score(seer));
+        // Not marked, so not recounted
+        assertEquals(100.0, score(alchemist));
+
+        favoriteService.removeFromFavorites(fan.getId(), seer.getId());
+        assertEquals(1, popularityRanking.refresh());
+        assertEquals(0.0, score(seer));
+
+        // Nothing marked, nothing to do
+        assertEquals(0, popularityRanking.refresh());
+    }
+
+    @Test
+    @DisplayName("Should drop inactive wizards from the feed and rows of users who are no longer wizards")
+    void testListedWizardsOnly() {
+        druid.setActive(false);
+        userRepository.save(druid);
+        seer.setRole("regular");
+        userRepository.save(seer);
+        popularityRanking.refresh();
+
+        assertEquals(List.of(alchemist.getId()), popularityRanking.getRanked(null, 10).userIds());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM wizard_popularity WHERE wizard_id = ?", Integer.class, seer.getId()));
+    }
+}
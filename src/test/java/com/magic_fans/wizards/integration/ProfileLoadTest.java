@@ -0,0 +1,199 @@
+package com.magic_fans.wizards.integration;
+
+import com.magic_fans.wizards.config.ThreadingModeReporter;
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Throughput of /api/profiles and profile pages at high concurrency.
+ *
+ * Excluded from the default build. Compare thread models with:
+ *   mvn -Pload-test test
+ *   mvn -Pload-test test -Dspring.threads.virtual.enabled=true   (Java 21+)
+ * Concurrency and request count: -Dloadtest.concurrency=400 -Dloadtest.requests=8000
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@DisplayName("Profile Load Tests")
+class ProfileLoadTest {
+
+    private static final int WIZARDS = 200;
+    private static final String PASSWORD = "LoadTest123!";
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 200);
+    private final int requests = Integer.getInteger("loadtest.requests", 4000);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ThreadingModeReporter threadingModeReporter;
+
+    private List<Integer> wizardIds;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+
+        String encoded = passwordEncoder.encode(PASSWORD);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < WIZARDS; i++) {
+            User wizard = new User("wizard" + i, "wizard" + i + "@load.test", encoded,
+                    "Wizard", "N" + i, i % 2 == 0 ? "White Magic" : "Fire Magic");
+            wizard.setRole("wizard");
+            wizard.setActive(true);
+            users.add(wizard);
+        }
+        User viewer = new User("viewer", "viewer@load.test", encoded, "Load", "Viewer", "None");
+        viewer.setRole("regular");
+        viewer.setActive(true);
+        users.add(viewer);
+
+        wizardIds = userRepository.saveAll(users).stream()
+                .filter(u -> "wizard".equals(u.getRole()))
+                .map(User::getId)
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Should serve the profiles API at high concurrency without errors")
+    void testProfilesApiThroughput() throws Exception {
+        HttpClient client = HttpClient.newBuilder().build();
+
+        Result result = run("/api/profiles", client,
+                i -> "/api/profiles?offset=" + (i % 10) * 20 + "&limit=20");
+
+        assertEquals(0, result.errors, "failed requests");
+    }
+
+    @Test
+    @DisplayName("Should serve profile pages at high concurrency without errors")
+    void testProfilePageThroughput() throws Exception {
+        HttpClient client = login();
+
+        Result result = run("/users/{id}", client,
+                i -> "/users/" + wizardIds.get(i % wizardIds.size()));
+
+        assertEquals(0, result.errors, "failed requests");
+    }
+
+    private HttpClient login() throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+
+        String loginPage = client.send(get("/login"), HttpResponse.BodyHandlers.ofString()).body();
+        Matcher csrf = CSRF.matcher(loginPage);
+        assertTrue(csrf.find(), "login page has a CSRF token");
+
+        String form = "username=viewer&password=" + URLEncoder.encode(PASSWORD, StandardCharsets.UTF_8)
+                + "&_csrf=" + URLEncoder.encode(csrf.group(1), StandardCharsets.UTF_8);
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri("/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        assertFalse(response.headers().firstValue("Location").orElse("").contains("error"), "login succeeded");
+        return client;
+    }
+
+    private Result run(String name, HttpClient client, IntFunction<String> path) throws Exception {
+        // Warm-up: JIT, Hibernate and Thymeleaf caches
+        for (int i = 0; i < 50; i++) {
+            client.send(get(path.apply(i)), HttpResponse.BodyHandlers.discarding());
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        long[] latencies = new long[requests];
+
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            workers.add(pool.submit(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < requests) {
+                    long t0 = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(get(path.apply(i)), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[i] = System.nanoTime() - t0;
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        pool.shutdown();
+
+        Arrays.sort(latencies);
+        Result result = new Result(errors.get());
+        System.out.printf("[load] %-14s threads=%-8s concurrency=%d requests=%d throughput=%.0f req/s p50=%.1fms p99=%.1fms errors=%d%n",
+                name, threadingModeReporter.isVirtualThreadsActive() ? "virtual" : "platform",
+                concurrency, requests, requests / (elapsed / 1e9),
+                latencies[requests / 2] / 1e6, latencies[(int) (requests * 0.99)] / 1e6, result.errors);
+        return result;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static class Result {
+        final int errors;
+
+        Result(int errors) {
+            this.errors = errors;
+        }
+    }
+}
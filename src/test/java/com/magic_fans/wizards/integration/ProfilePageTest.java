@@ -0,0 +1,137 @@
+package com.magic_fans.wizards.integration;
+
+import com.magic_fans.wizards.model.RegularUserProfile;
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@DisplayName("Profile Page Tests")
+class ProfilePageTest {
+
+    private static final String PASSWORD = "ProfilePage123!";
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User viewer;
+    private User wizard;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        String encoded = passwordEncoder.encode(PASSWORD);
+
+        viewer = new User("pageviewer", "pageviewer@test.com", encoded, "Page", "Viewer", "None");
+        viewer.setRole("regular");
+        viewer.setActive(true);
+        RegularUserProfile profile = new RegularUserProfile(viewer);
+        profile.setBirthPlace("Avalon");
+        viewer.setRegularProfile(profile);
+        viewer = userRepository.save(viewer);
+
+        wizard = new User("pagewizard", "pagewizard@test.com", encoded, "Page", "Wizard", "White Magic");
+        wizard.setRole("wizard");
+        wizard.setActive(true);
+        wizard = userRepository.save(wizard);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("DELETE FROM profile_views");
+        // Both sides of the profile link hold a foreign key
+        jdbcTemplate.update("UPDATE users SET regular_profile_id = NULL");
+        jdbcTemplate.update("DELETE FROM regular_user_profiles");
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should render profile pages outside open-in-view and record the view in the background")
+    void testProfilePagesWithoutOpenInView() throws Exception {
+        HttpClient client = login();
+
+        // Own page reads the lazy regular profile while rendering
+        HttpResponse<String> own = client.send(get("/users/" + viewer.getId()), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, own.statusCode());
+        assertTrue(own.body().contains("Avalon"));
+
+        HttpResponse<String> wizardPage = client.send(get("/users/" + wizard.getId()), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, wizardPage.statusCode());
+        assertTrue(wizardPage.body().contains("pagewizard"));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        int views = 0;
+        while (views == 0 && System.currentTimeMillis() < deadline) {
+            views = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM profile_views WHERE viewer_id = ? AND viewed_wizard_id = ?",
+                    Integer.class, viewer.getId(), wizard.getId());
+            if (views == 0) {
+                Thread.sleep(50);
+            }
+        }
+        assertEquals(1, views);
+    }
+
+    private HttpClient login() throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+
+        String loginPage = client.send(get("/login"), HttpResponse.BodyHandlers.ofString()).body();
+        Matcher csrf = CSRF.matcher(loginPage);
+        assertTrue(csrf.find(), "login page has a CSRF token");
+
+        String form = "username=pageviewer&password=" + URLEncoder.encode(PASSWORD, StandardCharsets.UTF_8)
+                + "&_csrf=" + URLEncoder.encode(csrf.group(1), StandardCharsets.UTF_8);
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri("/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        assertFalse(response.headers().firstValue("Location").orElse("").contains("error"), "login succeeded");
+        return client;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,61 @@
+package com.magic_fans.wizards.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@DisplayName("Public API Session Tests")
+class PublicApiSessionTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    @Test
+    @DisplayName("Should serve the profiles API without creating a session")
+    void testProfilesApiIsStateless() throws Exception {
+        for (String path : new String[] {"/api/profiles?offset=0&limit=10", "/api/profiles/count"}) {
+            HttpResponse<String> response = get(path);
+
+            assertEquals(200, response.statusCode(), path);
+            assertTrue(response.headers().allValues("Set-Cookie").isEmpty(), path + " must not set cookies");
+        }
+    }
+
+    @Test
+    @DisplayName("Should still create sessions for form-login pages")
+    void testLoginPageKeepsSession() throws Exception {
+        HttpResponse<String> response = get("/login");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().allValues("Set-Cookie").stream().anyMatch(c -> c.startsWith("JSESSIONID=")));
+    }
+
+    @Test
+    @DisplayName("Should keep protected pages behind the login")
+    void testProtectedPagesRequireLogin() throws Exception {
+        HttpResponse<String> response = get("/feed");
+
+        assertEquals(302, response.statusCode());
+        assertTrue(response.headers().firstValue("Location").orElse("").endsWith("/login"));
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,154 @@
+package com.magic_fans.wizards.integration;
+
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.repository.UserRepository;
+import com.magic_fans.wizards.service.JdbcSessionStore;
+import com.magic_fans.wizards.service.StoredSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "magic-fans.sessions.store=jdbc")
+@ActiveProfiles("test")
+@DisplayName("Shared Session Store Tests")
+class SharedSessionStoreTest {
+
+    private static final String PASSWORD = "SessionTest123!";
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    private static final Pattern SESSION = Pattern.compile("SESSION=([^;]*)");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcSessionStore sessionStore;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        User user = new User("sessionuser", "session@test.com", passwordEncoder.encode(PASSWORD), "Session", "User", "None");
+        user.setRole("regular");
+        user.setActive(true);
+        userRepository.save(user);
+    }
+
+    @Test
+    @DisplayName("Should keep the login in the shared store and rotate the id on login")
+    void testLoginSurvivesInSharedStore() throws Exception {
+        HttpResponse<String> loginPage = send(get("/login", null));
+        String anonymousId = sessionId(loginPage);
+        assertNotNull(anonymousId, "login page starts a shared session");
+        assertTrue(loginPage.headers().allValues("Set-Cookie").stream().noneMatch(c -> c.startsWith("JSESSIONID=")),
+                "container sessions are not used");
+
+        Matcher csrf = CSRF.matcher(loginPage.body());
+        assertTrue(csrf.find());
+        String form = "username=sessionuser&password=" + URLEncoder.encode(PASSWORD, StandardCharsets.UTF_8)
+                + "&_csrf=" + URLEncoder.encode(csrf.group(1), StandardCharsets.UTF_8);
+        HttpResponse<String> login = send(HttpRequest.newBuilder(uri("/login"))
+                .header("Cookie", "SESSION=" + anonymousId)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build());
+        assertFalse(login.headers().firstValue("Location").orElse("").contains("error"));
+
+        String authenticatedId = sessionId(login);
+        assertNotNull(authenticatedId);
+        assertNotEquals(anonymousId, authenticatedId, "session id changes on login");
+        assertNull(sessionStore.load(anonymousId));
+
+        // Any node reading the same table sees the login
+        HttpResponse<String> feed = send(get("/feed", authenticatedId));
+        assertEquals(200, feed.statusCode());
+    }
+
+    @Test
+    @DisplayName("Should write only changed attributes and skip oversized ones")
+    void testLazyWritesAndSizeGuard() {
+        StoredSession session = sessionStore.create();
+        session.setAttribute("small", "value");
+        session.setAttribute("huge", new byte[64 * 1024]);
+        sessionStore.save(session);
+
+        StoredSession loaded = sessionStore.load(session.getId());
+        assertEquals("value", loaded.getAttribute("small"));
+        assertNull(loaded.getAttribute("huge"), "attributes over the size guard are not stored");
+
+        loaded.setAttribute("other", 42);
+        loaded.removeAttribute("small");
+        sessionStore.save(loaded);
+
+        StoredSession reloaded = sessionStore.load(session.getId());
+        assertEquals(List.of("other"), List.copyOf(reloaded.getAttributeNames()));
+        assertEquals(42, reloaded.getAttribute("other"));
+
+        sessionStore.delete(session.getId());
+        assertNull(sessionStore.load(session.getId()));
+    }
+
+    @Test
+    @DisplayName("Should fail the save rather than drop an oversized security context")
+    void testOversizedSecurityContextFails() {
+        StoredSession session = sessionStore.create();
+        sessionStore.save(session);
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, new byte[64 * 1024]);
+
+        assertThrows(IllegalStateException.class, () -> sessionStore.save(session));
+        sessionStore.delete(session.getId());
+    }
+
+    private HttpRequest get(String path, String sessionId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path)).GET();
+        if (sessionId != null) {
+            builder.header("Cookie", "SESSION=" + sessionId);
+        }
+        return builder.build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String sessionId(HttpResponse<?> response) {
+        for (String cookie : response.headers().allValues("Set-Cookie")) {
+            Matcher matcher = SESSION.matcher(cookie);
+            if (matcher.find() && !matcher.group(1).isEmpty()) {
+                return matcher.group(1);
+            }
+        }
+        return null;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
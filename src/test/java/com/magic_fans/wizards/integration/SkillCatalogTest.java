@@ -0,0 +1,69 @@
+package com.magic_fans.wizards.integration;
+
+import com.magic_fans.wizards.service.ProfessionTaxonomy;
+import com.magic_fans.wizards.service.SkillCatalog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Skill Catalog Tests")
+class SkillCatalogTest {
+
+    @Autowired
+    private SkillCatalog skillCatalog;
+
+    @Test
+    @DisplayName("Should seed the catalog from the profession taxonomy")
+    void testSeededFromTaxonomy() {
+        Integer tarot = skillCatalog.findId(ProfessionTaxonomy.SKILL_SECTION, "Гадатель", "Карты Таро");
+
+        assertNotNull(tarot);
+        assertEquals("Карты Таро", skillCatalog.get(tarot).name());
+        assertTrue(skillCatalog.idsBySection(ProfessionTaxonomy.SKILL_SECTION).contains(tarot));
+    }
+
+    @Test
+    @DisplayName("Should give a new skill one stable id")
+    void testGetOrCreate() {
+        int id = skillCatalog.getOrCreateId("section2", null, "Новая тема");
+
+        assertEquals(id, skillCatalog.getOrCreateId("section2", null, "Новая тема"));
+        assertNotEquals(id, skillCatalog.getOrCreateId("section3", null, "Новая тема"));
+        assertEquals(2, skillCatalog.idsByName(List.of("Новая тема")).size());
+
+        // Survives a reload from the table
+        skillCatalog.reload();
+        assertEquals(id, skillCatalog.findId("section2", null, "Новая тема"));
+    }
+
+    @Test
+    @DisplayName("Should normalize submitted names and stop adding new ones to a full section")
+    void testSubmittedNamesBounded() {
+        int id = skillCatalog.getOrCreateSubmittedId("section4", null, "  Лунный\u00a0 календарь\t");
+        assertEquals("Лунный календарь", skillCatalog.get(id).name());
+        assertEquals(id, skillCatalog.getOrCreateSubmittedId("section4", null, "Лунный календарь"));
+        assertThrows(IllegalArgumentException.class,
+                () -> skillCatalog.getOrCreateSubmittedId("section4", null, "x".repeat(101)));
+
+        int size = skillCatalog.idsBySection("section4").size();
+        ReflectionTestUtils.setField(skillCatalog, "maxSectionSize", size);
+        try {
+            // Known names still resolve, new ones are refused
+            assertEquals(id, skillCatalog.getOrCreateSubmittedId("section4", null, "Лунный календарь"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> skillCatalog.getOrCreateSubmittedId("section4", null, "Ещё одна тема"));
+            assertNull(skillCatalog.findId("section4", null, "Ещё одна тема"));
+        } finally {
+            ReflectionTestUtils.setField(skillCatalog, "maxSectionSize", 200);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.magic_fans.wizards.integration;
+
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.model.WizardService;
+import com.magic_fans.wizards.repository.UserRepository;
+import com.magic_fans.wizards.repository.WizardServiceRepository;
+import com.magic_fans.wizards.service.SkillCatalog;
+import com.magic_fans.wizards.service.SkillFacetIndex;
+import com.magic_fans.wizards.service.WizardQuery;
+import com.magic_fans.wizards.service.WizardSkillsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Skill Facet Index Tests")
+class SkillFacetIndexTest {
+
+    @Autowired
+    private SkillFacetIndex skillFacetIndex;
+
+    @Autowired
+    private SkillCatalog skillCatalog;
+
+    @Autowired
+    private WizardSkillsService wizardSkillsService;
+
+    @Autowired
+    private WizardFixtures wizardFixtures;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WizardServiceRepository wizardServiceRepository;
+
+    private User merlin;
+    private User morgana;
+
+    @BeforeEach
+    void setUp() {
+        wizardFixtures.deleteAll();
+
+        merlin = wizardFixtures.createWizard("facetmerlin", "White Magic");
+        morgana = wizardFixtures.createWizard("facetmorgana", "Black Magic");
+        userRepository.save(new User("facetregular", "facetregular@test.com", "pwd", "Regular", "User", "None"));
+
+        wizardSkillsService.saveSkillsForWizard(merlin.getWizardProfile().getId(), Map.of(
+                "section1", Map.of("subsection1_1", List.of("Таро", "Руны")),
+                "section2", List.of("Судьба")));
+        wizardSkillsService.saveSkillsForWizard(morgana.getWizardProfile().getId(), Map.of(
+                "section1", Map.of("subsection1_1", List.of("Таро")),
+                "section3", List.of("Защита")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        wizardFixtures.deleteAll();
+    }
+
+    private int id(String section, String subsection, String name) {
+        return skillCatalog.findId(section, subsection, name);
+    }
+
+    @Test
+    @DisplayName("Should count listed wizards per skill, section, subsection and specialization")
+    void testUnfilteredCounts() {
+        SkillFacetIndex.Facets facets = skillFacetIndex.getFacets();
+
+        assertEquals(2, facets.total());
+        assertEquals(2, facets.skills().get(id("section1", "subsection1_1", "Таро")));
+        assertEquals(1, facets.skills().get(id("section1", "subsection1_1", "Руны")));
+        // Two skills of one wizard in a section count once
+        assertEquals(2, facets.sections().get("section1"));
+        assertEquals(2, facets.subsections().get("subsection1_1"));
+        assertEquals(1, facets.sections().get("section3"));
+        assertEquals(Map.of("White Magic", 1, "Black Magic", 1), facets.specializations());
+    }
+
+    @Test
+    @DisplayName("Should count within a specialization and skill context")
+    void testFilteredCounts() {
+        SkillFacetIndex.Facets white = skillFacetIndex.getFacets(
+                new SkillFacetIndex.Context("white magic", null, null, null));
+        assertEquals(1, white.total());
+        assertNull(white.sections().get("section3"));
+
+        SkillFacetIndex.Facets protection = skillFacetIndex.getFacets(
+                new SkillFacetIndex.Context(null, Set.of(id("section3", null, "Защита")), null, null));
+        assertEquals(1, protection.total());
+        assertEquals(1, protection.skills().get(id("section1", "subsection1_1", "Таро")));
+        assertEquals(Map.of("Black Magic", 1), protection.specializations());
+    }
+
+    @Test
+    @DisplayName("Should follow skill saves and account changes incrementally")
+    void testIncrementalUpdates() {
+        int tarot = id("section1", "subsection1_1", "Таро");
+        skillFacetIndex.getFacets();
+
+        wizardSkillsService.saveSkillsForWizard(merlin.getWizardProfile().getId(), Map.of(
+                "section2", List.of("Судьба")));
+        SkillFacetIndex.Facets facets = skillFacetIndex.getFacets();
+        assertEquals(1, facets.skills().get(tarot));
+        assertEquals(1, facets.subsections().get("subsection1_1"));
+
+        morgana.setActive(false);
+        userRepository.save(morgana);
+        facets = skillFacetIndex.getFacets();
+        assertEquals(1, facets.total());
+        assertNull(facets.skills().get(tarot));
+        assertEquals(Map.of("White Magic", 1), facets.specializations());
+
+        // A rebuild from the tables gives the same counts
+        skillFacetIndex.invalidate();
+        assertEquals(facets, skillFacetIndex.getFacets());
+    }
+
+    @Test
+    @DisplayName("Should count within the experience and price ranges of the /filter context")
+    void testRangeContext() {
+        merlin.getWizardProfile().setYearsOfExperience(12);
+        merlin = userRepository.save(merlin);
+        wizardServiceRepository.save(new WizardService(morgana.getId(), "Curse removal", 40.0));
+
+        SkillFacetIndex.Facets experienced = skillFacetIndex.getFacets(new SkillFacetIndex.Context(
+                null, null, new WizardQuery.Experience(10, Integer.MAX_VALUE), null));
+        assertEquals(1, experienced.total());
+        assertEquals(Map.of("White Magic", 1), experienced.specializations());
+
+        SkillFacetIndex.Facets cheap = skillFacetIndex.getFacets(new SkillFacetIndex.Context(
+                null, null, null, new WizardQuery.Price(-Double.MAX_VALUE, 50.0)));
+        assertEquals(1, cheap.total());
+        assertEquals(1, cheap.sections().get("section3"));
+
+        // Conditions intersect
+        SkillFacetIndex.Facets none = skillFacetIndex.getFacets(new SkillFacetIndex.Context(
+                "black magic", null, new WizardQuery.Experience(10, Integer.MAX_VALUE), null));
+        assertEquals(0, none.total());
+        assertTrue(none.skills().isEmpty());
+    }
+}
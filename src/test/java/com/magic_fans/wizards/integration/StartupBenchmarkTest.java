@@ -0,0 +1,133 @@
+package com.magic_fans.wizards.integration;
+
+import com.magic_fans.wizards.WizardsApplication;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Time from launch to the first successful request.
+ *
+ * Excluded from the default build. With -Dstartup.jar the packaged application
+ * is started in its own JVM (this is what mvn -Pstartup verify runs, with the
+ * AOT and CDS flags in startup.jvm-args); otherwise the context is started in
+ * the test JVM, which only compares configurations:
+ *   mvn test -Dsurefire.groups=startup -Dsurefire.excludedGroups= [-Dstartup.profiles=test]
+ */
+@Tag("startup")
+@DisplayName("Startup Benchmark")
+class StartupBenchmarkTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(120);
+
+    private final String jar = System.getProperty("startup.jar", "");
+    private final String jvmArgs = System.getProperty("startup.jvm-args", "");
+    private final String profiles = System.getProperty("startup.profiles", "fast-start");
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    @DisplayName("Should answer the first request after startup")
+    void testTimeToFirstRequest() throws Exception {
+        if (jar.isBlank()) {
+            measureInProcess();
+        } else {
+            measureJar();
+        }
+    }
+
+    private void measureInProcess() throws Exception {
+        long started = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WizardsApplication.class)
+                .profiles(profiles.split(","))
+                .properties("server.port=0", "spring.jmx.enabled=false",
+                        "spring.datasource.url=jdbc:h2:mem:startup-" + UUID.randomUUID())
+                .run()) {
+            long ready = System.nanoTime();
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            long firstRequest = awaitFirstRequest(port, started);
+
+            report("in-process", (ready - started) / 1_000_000, firstRequest);
+        }
+    }
+
+    private void measureJar() throws Exception {
+        File jarFile = new File(jar);
+        assertTrue(jarFile.isFile(), "packaged application at " + jar);
+        int port = freePort();
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.stream(jvmArgs.trim().split("\\s+")).filter(arg -> !arg.isEmpty()).toList());
+        command.addAll(List.of("-jar", jarFile.getName(), "--server.port=" + port,
+                "--spring.profiles.active=" + profiles));
+
+        // The CDS archive and extracted libraries are resolved relative to the jar
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(jarFile.getAbsoluteFile().getParentFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long firstRequest = awaitFirstRequest(port, started);
+            report("jar " + jvmArgs.trim(), -1, firstRequest);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    /**
+     * Polls until /api/profiles answers 200.
+     *
+     * @return milliseconds since the start
+     */
+    private long awaitFirstRequest(int port, long started) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/profiles?limit=1"))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        long deadline = started + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                assertEquals(200, response.statusCode(), "first request");
+                return (System.nanoTime() - started) / 1_000_000;
+            } catch (IOException e) {
+                // Not listening yet
+                Thread.sleep(10);
+            }
+        }
+        return fail("no response within " + TIMEOUT);
+    }
+
+    private void report(String mode, long contextMillis, long firstRequestMillis) {
+        System.out.printf("[startup] %s profiles=%s context=%s first-request=%dms%n",
+                mode, profiles, contextMillis >= 0 ? contextMillis + "ms" : "n/a", firstRequestMillis);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.magic_fans.wizards.integration;
+
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.repository.UserRepository;
+import com.magic_fans.wizards.service.LoginThrottleService;
+import com.magic_fans.wizards.service.UserDetailsCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@DisplayName("Token Authentication Tests")
+class TokenAuthenticationTest {
+
+    private static final String PASSWORD = "TokenTest123!";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final JsonMapper jsonMapper = new JsonMapper();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    @Autowired
+    private LoginThrottleService loginThrottleService;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @BeforeEach
+    void setUp() {
+        ((Map<?, ?>) ReflectionTestUtils.getField(loginThrottleService, "accounts")).clear();
+        ((Map<?, ?>) ReflectionTestUtils.getField(loginThrottleService, "addresses")).clear();
+        userDetailsCache.removeUserFromCache("tokenuser");
+        userRepository.deleteAll();
+        User user = new User("tokenuser", "token@test.com", passwordEncoder.encode(PASSWORD), "Token", "User", "None");
+        user.setRole("regular");
+        user.setActive(true);
+        userRepository.save(user);
+    }
+
+    @Test
+    @DisplayName("Should issue tokens and authenticate bearer requests without a session")
+    void testBearerAccess() throws Exception {
+        Map<?, ?> tokens = postJson("/api/auth/token", Map.of("username", "tokenuser", "password", PASSWORD));
+        assertEquals(true, tokens.get("success"));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/favorites/count"))
+                .header("Authorization", "Bearer " + tokens.get("accessToken"))
+                .GET().build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(0, ((Number) jsonMapper.readValue(response.body(), Map.class).get("count")).intValue());
+        assertTrue(response.headers().allValues("Set-Cookie").isEmpty(), "bearer requests must stay stateless");
+    }
+
+    @Test
+    @DisplayName("Should answer 401 for invalid bearer tokens and wrong passwords")
+    void testRejected() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/favorites/count"))
+                .header("Authorization", "Bearer forged.token.value")
+                .GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(401, response.statusCode());
+
+        HttpResponse<String> login = post("/api/auth/token", Map.of("username", "tokenuser", "password", "wrong"));
+        assertEquals(401, login.statusCode());
+    }
+
+    @Test
+    @DisplayName("Should exchange a refresh token for a new pair")
+    void testRefresh() throws Exception {
+        Map<?, ?> tokens = postJson("/api/auth/token", Map.of("username", "tokenuser", "password", PASSWORD));
+
+        Map<?, ?> refreshed = postJson("/api/auth/refresh", Map.of("refreshToken", tokens.get("refreshToken")));
+        assertEquals(true, refreshed.get("success"));
+        assertNotNull(refreshed.get("accessToken"));
+
+        HttpResponse<String> misuse = post("/api/auth/refresh", Map.of("refreshToken", tokens.get("accessToken")));
+        assertEquals(401, misuse.statusCode());
+    }
+
+    @Test
+    @DisplayName("Should accept a refresh token once and revoke its family when it is replayed")
+    void testRefreshReplay() throws Exception {
+        Map<?, ?> tokens = postJson("/api/auth/token", Map.of("username", "tokenuser", "password", PASSWORD));
+        Map<?, ?> refreshed = postJson("/api/auth/refresh", Map.of("refreshToken", tokens.get("refreshToken")));
+
+        // A stolen copy of the first token is refused, and takes the rotated one down with it
+        assertEquals(401, post("/api/auth/refresh", Map.of("refreshToken", tokens.get("refreshToken"))).statusCode());
+        assertEquals(401, post("/api/auth/refresh", Map.of("refreshToken", refreshed.get("refreshToken"))).statusCode());
+
+        // Another sign-in is its own family
+        Map<?, ?> other = postJson("/api/auth/token", Map.of("username", "tokenuser", "password", PASSWORD));
+        postJson("/api/auth/revoke", Map.of("refreshToken", other.get("refreshToken")));
+        assertEquals(401, post("/api/auth/refresh", Map.of("refreshToken", other.get("refreshToken"))).statusCode());
+    }
+
+    @Test
+    @DisplayName("Should refuse sign-in after repeated failures, even with the right password")
+    void testThrottle() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(401, post("/api/auth/token", Map.of("username", "tokenuser", "password", "wrong")).statusCode());
+        }
+
+        HttpResponse<String> response = post("/api/auth/token", Map.of("username", "tokenuser", "password", PASSWORD));
+        assertEquals(429, response.statusCode());
+    }
+
+    @Test
+    @DisplayName("Should re-encode hashes with an outdated cost on login")
+    void testRehashOnLogin() throws Exception {
+        User user = userRepository.findByUsername("tokenuser").orElseThrow();
+        user.setPassword(new BCryptPasswordEncoder(4).encode(PASSWORD));
+        userRepository.save(user);
+
+        postJson("/api/auth/token", Map.of("username", "tokenuser", "password", PASSWORD));
+
+        String rehashed = userRepository.findByUsername("tokenuser").orElseThrow().getPassword();
+        assertTrue(rehashed.startsWith("$2a$10$"), rehashed);
+    }
+
+    @Test
+    @DisplayName("Should refuse the old password and a deactivated account right after the change")
+    void testCachedUserEvicted() throws Exception {
+        postJson("/api/auth/token", Map.of("username", "tokenuser", "password", PASSWORD));
+
+        User user = userRepository.findByUsername("tokenuser").orElseThrow();
+        user.setPassword(passwordEncoder.encode("Changed123!"));
+        user = userRepository.save(user);
+        assertEquals(401, post("/api/auth/token", Map.of("username", "tokenuser", "password", PASSWORD)).statusCode());
+        postJson("/api/auth/token", Map.of("username", "tokenuser", "password", "Changed123!"));
+
+        user.setActive(false);
+        userRepository.save(user);
+        assertEquals(401, post("/api/auth/token", Map.of("username", "tokenuser", "password", "Changed123!")).statusCode());
+    }
+
+    private Map<?, ?> postJson(String path, Map<String, ?> body) throws Exception {
+        HttpResponse<String> response = post(path, body);
+        assertEquals(200, response.statusCode(), response.body());
+        return jsonMapper.readValue(response.body(), Map.class);
+    }
+
+    private HttpResponse<String> post(String path, Map<String, ?> body) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonMapper.writeValueAsString(body)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,56 @@
+package com.magic_fans.wizards.integration;
+
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.model.WizardProfile;
+import com.magic_fans.wizards.model.WizardService;
+import com.magic_fans.wizards.repository.UserRepository;
+import com.magic_fans.wizards.repository.WizardServiceRepository;
+import com.magic_fans.wizards.repository.WizardSkillRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wizard accounts for the search and index tests, and cleanup of the tables they touch.
+ */
+@Component
+class WizardFixtures {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WizardServiceRepository wizardServiceRepository;
+
+    @Autowired
+    private WizardSkillRepository wizardSkillRepository;
+
+    /**
+     * Removes all users together with their profiles, skills and services.
+     */
+    void deleteAll() {
+        wizardSkillRepository.deleteAll();
+        wizardServiceRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    User createWizard(String username, String specialization) {
+        return createWizard(username, specialization, 0, true);
+    }
+
+    /**
+     * Saves a wizard with a profile and one service per price.
+     */
+    User createWizard(String username, String specialization, int years, boolean active, double... prices) {
+        User wizard = new User(username, username + "@test.com", "pwd", "Test", "Wizard", specialization);
+        wizard.setRole("wizard");
+        wizard.setActive(active);
+        WizardProfile profile = new WizardProfile(wizard);
+        profile.setYearsOfExperience(years);
+        wizard.setWizardProfile(profile);
+        wizard = userRepository.save(wizard);
+        for (double price : prices) {
+            wizardServiceRepository.save(new WizardService(wizard.getId(), "Reading", price));
+        }
+        return wizard;
+    }
+}
@@ -0,0 +1,144 @@
+package com.magic_fans.wizards.integration;
+
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.service.WizardQuery;
+import com.magic_fans.wizards.service.WizardQueryService;
+import com.magic_fans.wizards.service.WizardSkillsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Wizard Query Tests")
+class WizardQueryServiceTest {
+
+    @Autowired
+    private WizardQueryService wizardQueryService;
+
+    @Autowired
+    private WizardSkillsService wizardSkillsService;
+
+    @Autowired
+    private WizardFixtures wizardFixtures;
+
+    private int merlin;
+    private int morgana;
+    private int gandalf;
+    private int retired;
+
+    @BeforeEach
+    void setUp() {
+        wizardFixtures.deleteAll();
+
+        merlin = withSkills(wizardFixtures.createWizard("qmerlin", "White Magic", 3, true, 50.0),
+                Map.of("section1", Map.of("subsection1_1", List.of("Таро", "Руны")), "section2", List.of("Судьба")));
+        morgana = withSkills(wizardFixtures.createWizard("qmorgana", "Black Magic", 12, true, 150.0),
+                Map.of("section1", Map.of("subsection1_1", List.of("Таро")), "section3", List.of("Оккультный")));
+        gandalf = withSkills(wizardFixtures.createWizard("qgandalf", "White Magic", 30, true),
+                Map.of("section2", List.of("Защита")));
+        retired = withSkills(wizardFixtures.createWizard("qretired", "White Magic", 40, false, 10.0),
+                Map.of("section1", Map.of("subsection1_1", List.of("Таро"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        wizardFixtures.deleteAll();
+    }
+
+    private int withSkills(User wizard, Map<String, Object> skills) {
+        int profileId = wizard.getWizardProfile().getId();
+        wizardSkillsService.saveSkillsForWizard(profileId, skills);
+        return profileId;
+    }
+
+    private Set<Integer> run(Map<String, Object> json) {
+        return wizardQueryService.evaluate(WizardQuery.parse(json));
+    }
+
+    @Test
+    @DisplayName("Should evaluate leaves and skip unlisted wizards")
+    void testLeaves() {
+        assertEquals(Set.of(merlin, morgana), run(Map.of("skillName", "Таро")));
+        assertEquals(Set.of(merlin, gandalf), run(Map.of("section", "section2")));
+        assertEquals(Set.of(merlin, morgana), run(Map.of("subsection", "subsection1_1")));
+        assertEquals(Set.of(merlin, gandalf), run(Map.of("specialization", "white magic")));
+        assertEquals(Set.of(morgana, gandalf), run(Map.of("experience", Map.of("min", 10))));
+        assertEquals(Set.of(merlin), run(Map.of("price", Map.of("max", 100))));
+    }
+
+    @Test
+    @DisplayName("Should combine AND, OR and NOT")
+    void testBooleanCombinations() {
+        assertEquals(Set.of(merlin), run(Map.of("and", List.of(
+                Map.of("skillName", "Таро"),
+                Map.of("specialization", "White Magic")))));
+        assertEquals(Set.of(morgana, gandalf), run(Map.of("or", List.of(
+                Map.of("section", "section3"),
+                Map.of("skillName", "Защита")))));
+        assertEquals(Set.of(morgana, gandalf), run(Map.of("not", Map.of("skillName", "Руны"))));
+        assertEquals(Set.of(morgana), run(Map.of("and", List.of(
+                Map.of("or", List.of(Map.of("skillName", "Таро"), Map.of("section", "section2"))),
+                Map.of("not", Map.of("specialization", "White Magic")),
+                Map.of("experience", Map.of("min", 5, "max", 20))))));
+        assertTrue(run(Map.of("and", List.of(
+                Map.of("skillName", "Руны"),
+                Map.of("price", Map.of("min", 100))))).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should page results in profile id order")
+    void testPaging() {
+        WizardQueryService.Page page = wizardQueryService.search(
+                WizardQuery.parse(Map.of("experience", Map.of("min", 0))), 1, 1);
+
+        assertEquals(3, page.total());
+        assertEquals(List.of(morgana), page.wizardProfileIds());
+    }
+
+    @Test
+    @DisplayName("Should reject malformed queries")
+    void testParseErrors() {
+        assertThrows(IllegalArgumentException.class, () -> WizardQuery.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> WizardQuery.parse(Map.of("and", List.of())));
+        assertThrows(IllegalArgumentException.class, () -> WizardQuery.parse(Map.of("color", "red")));
+        assertThrows(IllegalArgumentException.class, () -> WizardQuery.parse(Map.of("skill", "Таро")));
+        assertThrows(IllegalArgumentException.class, () -> WizardQuery.parse(Map.of("price", Map.of("below", 5))));
+        assertThrows(IllegalArgumentException.class,
+                () -> WizardQuery.parse(Map.of("section", "section1", "subsection", "subsection1_1")));
+    }
+
+    @Test
+    @DisplayName("Should reject queries over the node, depth and leaf size limits")
+    void testParseLimits() {
+        Object nested = Map.of("section", "section1");
+        for (int depth = 1; depth < WizardQuery.MAX_DEPTH; depth++) {
+            nested = Map.of("not", nested);
+        }
+        WizardQuery.parse(nested);
+        Object tooDeep = Map.of("not", nested);
+        assertThrows(IllegalArgumentException.class, () -> WizardQuery.parse(tooDeep));
+
+        List<Object> leaves = Collections.nCopies(WizardQuery.MAX_NODES - 1, Map.of("section", "section1"));
+        WizardQuery.parse(Map.of("or", leaves));
+        List<Object> tooMany = Collections.nCopies(WizardQuery.MAX_NODES, Map.of("section", "section1"));
+        assertThrows(IllegalArgumentException.class, () -> WizardQuery.parse(Map.of("or", tooMany)));
+
+        List<Integer> ids = IntStream.range(0, WizardQuery.MAX_VALUES + 1).boxed().toList();
+        assertThrows(IllegalArgumentException.class, () -> WizardQuery.parse(Map.of("skill", ids)));
+        assertThrows(IllegalArgumentException.class, () -> WizardQuery.parse(Map.of("skillName",
+                ids.stream().map(String::valueOf).toList())));
+    }
+}
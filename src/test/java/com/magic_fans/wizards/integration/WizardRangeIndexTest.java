@@ -0,0 +1,146 @@
+package com.magic_fans.wizards.integration;
+
+import com.magic_fans.wizards.model.User;
+import com.magic_fans.wizards.model.WizardProfile;
+import com.magic_fans.wizards.model.WizardService;
+import com.magic_fans.wizards.repository.WizardProfileRepository;
+import com.magic_fans.wizards.repository.WizardServiceRepository;
+import com.magic_fans.wizards.service.WizardRangeIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Wizard Range Index Tests")
+class WizardRangeIndexTest {
+
+    @Autowired
+    private WizardRangeIndex wizardRangeIndex;
+
+    @Autowired
+    private WizardFixtures wizardFixtures;
+
+    @Autowired
+    private WizardServiceRepository wizardServiceRepository;
+
+    @Autowired
+    private WizardProfileRepository wizardProfileRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User apprentice;
+    private User adept;
+    private User archmage;
+
+    @BeforeEach
+    void setUp() {
+        wizardFixtures.deleteAll();
+        // Other tests in this context clean up with plain SQL
+        wizardRangeIndex.invalidate();
+
+        apprentice = wizardFixtures.createWizard("rapprentice", "White Magic", 1, true, 20.0, 80.0);
+        adept = wizardFixtures.createWizard("radept", "White Magic", 10, true, 60.0);
+        archmage = wizardFixtures.createWizard("rarchmage", "White Magic", 10, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        wizardFixtures.deleteAll();
+    }
+
+    private int profileId(User wizard) {
+        return wizard.getWizardProfile().getId();
+    }
+
+    @Test
+    @DisplayName("Should find wizards by inclusive experience and price ranges")
+    void testRanges() {
+        assertEquals(Set.of(profileId(adept), profileId(archmage)), wizardRangeIndex.experienceBetween(10, 10));
+        assertEquals(Set.of(profileId(apprentice)), wizardRangeIndex.experienceBetween(Integer.MIN_VALUE, 9));
+        assertEquals(2, wizardRangeIndex.countExperienceBetween(5, 50));
+
+        // Any service in the range is enough
+        assertEquals(Set.of(profileId(apprentice), profileId(adept)), wizardRangeIndex.priceBetween(50, 100));
+        assertEquals(Set.of(profileId(apprentice)), wizardRangeIndex.priceBetween(0, 20));
+        assertTrue(wizardRangeIndex.priceBetween(100.01, Double.MAX_VALUE).isEmpty());
+        assertEquals(3, wizardRangeIndex.countServicesPriceBetween(0, 100));
+    }
+
+    @Test
+    @DisplayName("Should sort by experience and cheapest service with ties by id and missing values last")
+    void testSorting() {
+        List<Integer> all = List.of(profileId(archmage), profileId(adept), profileId(apprentice));
+        int first = Math.min(profileId(adept), profileId(archmage));
+        int second = Math.max(profileId(adept), profileId(archmage));
+
+        assertEquals(List.of(profileId(apprentice), first, second), wizardRangeIndex.sortByExperience(all, false));
+        assertEquals(List.of(first, second, profileId(apprentice)), wizardRangeIndex.sortByExperience(all, true));
+        assertEquals(List.of(profileId(apprentice), profileId(adept), profileId(archmage)),
+                wizardRangeIndex.sortByPrice(all, false));
+        assertEquals(List.of(profileId(adept), profileId(apprentice), profileId(archmage)),
+                wizardRangeIndex.sortByPrice(all, true));
+    }
+
+    @Test
+    @DisplayName("Should apply service and profile writes without reloading")
+    void testIncrementalUpdates() {
+        assertFalse(wizardRangeIndex.experienceBetween(0, 100).isEmpty());
+        // Written behind the listener: an incremental index does not see it until invalidated
+        jdbcTemplate.update("UPDATE wizard_profiles SET years_of_experience = 70 WHERE id = ?", profileId(adept));
+
+        WizardService cheap = wizardServiceRepository.save(new WizardService(adept.getId(), "Charm", 1.0));
+        assertEquals(Set.of(profileId(adept)), wizardRangeIndex.priceBetween(0, 1));
+        assertTrue(wizardRangeIndex.experienceBetween(70, 70).isEmpty());
+        assertEquals(List.of(profileId(adept), profileId(apprentice)),
+                wizardRangeIndex.sortByPrice(List.of(profileId(apprentice), profileId(adept)), false));
+
+        cheap.setPrice(500.0);
+        wizardServiceRepository.save(cheap);
+        assertTrue(wizardRangeIndex.priceBetween(0, 1).isEmpty());
+        assertEquals(Set.of(profileId(adept)), wizardRangeIndex.priceBetween(500, 500));
+
+        wizardServiceRepository.delete(cheap);
+        assertTrue(wizardRangeIndex.priceBetween(500, 500).isEmpty());
+        assertEquals(List.of(profileId(apprentice), profileId(adept)),
+                wizardRangeIndex.sortByPrice(List.of(profileId(apprentice), profileId(adept)), false));
+
+        wizardRangeIndex.invalidate();
+        assertEquals(Set.of(profileId(adept)), wizardRangeIndex.experienceBetween(70, 70));
+    }
+
+    @Test
+    @DisplayName("Should reflect a service or profile write on the next read")
+    void testRebuildAfterWrite() {
+        assertTrue(wizardRangeIndex.priceBetween(5, 5).isEmpty());
+
+        wizardServiceRepository.save(new WizardService(archmage.getId(), "Blessing", 5.0));
+        assertEquals(Set.of(profileId(archmage)), wizardRangeIndex.priceBetween(5, 5));
+
+        WizardProfile profile = wizardProfileRepository.findById(profileId(apprentice)).orElseThrow();
+        profile.setYearsOfExperience(25);
+        wizardProfileRepository.save(profile);
+        assertEquals(Set.of(profileId(apprentice)), wizardRangeIndex.experienceBetween(20, 30));
+    }
+
+    @Test
+    @DisplayName("Should create database indexes for the range columns")
+    void testDatabaseIndexes() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES", String.class);
+        assertTrue(indexes.contains("idx_wizard_profiles_experience"));
+        assertTrue(indexes.contains("idx_wizard_services_price"));
+        assertTrue(indexes.contains("idx_wizard_services_user"));
+    }
+}
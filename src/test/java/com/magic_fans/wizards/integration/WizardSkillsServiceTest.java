@@ -0,0 +1,123 @@
+package com.magic_fans.wizards.integration;
+
+import com.magic_fans.wizards.repository.WizardSkillRepository;
+import com.magic_fans.wizards.service.SkillCatalog;
+import com.magic_fans.wizards.service.WizardSkillsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Wizard Skills Service Tests")
+class WizardSkillsServiceTest {
+
+    @Autowired
+    private SkillCatalog skillCatalog;
+
+    @Autowired
+    private WizardSkillsService wizardSkillsService;
+
+    @Autowired
+    private WizardSkillRepository wizardSkillRepository;
+
+    @Autowired
+    private WizardFixtures wizardFixtures;
+
+    private int profileId;
+
+    @BeforeEach
+    void setUp() {
+        wizardFixtures.deleteAll();
+
+        profileId = wizardFixtures.createWizard("skillswizard", "Divination").getWizardProfile().getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        wizardFixtures.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should store skills as catalog ids and filter wizards by names or ids")
+    void testSaveAndFilter() {
+        wizardSkillsService.saveSkillsForWizard(profileId, Map.of(
+                "section1", Map.of("subsection1_1", List.of("Таро", "Руны", "Таро"), "bogus", List.of("Мусор")),
+                "section2", List.of("Судьба")));
+
+        assertEquals(3, wizardSkillsService.getSkillCount(profileId));
+        assertEquals(Set.of("Таро", "Руны", "Судьба"), Set.copyOf(wizardSkillsService.getAllSkillsForWizard(profileId)));
+        @SuppressWarnings("unchecked")
+        Map<String, List<String>> section1 = (Map<String, List<String>>) wizardSkillsService.getSkillsForWizard(profileId).get("section1");
+        assertEquals(List.of("Таро", "Руны"), section1.get("subsection1_1"));
+        assertNull(skillCatalog.findId("section1", "bogus", "Мусор"));
+
+        int runes = skillCatalog.findId("section1", "subsection1_1", "Руны");
+        assertEquals(List.of(profileId), wizardSkillsService.filterWizardsBySkillIds(List.of(runes)));
+        assertEquals(List.of(profileId), wizardSkillsService.filterWizardsBySkills(List.of("Судьба")));
+        assertEquals(List.of(profileId), wizardSkillsService.filterWizardsByAllSkills(List.of("Таро", "Судьба")));
+        assertTrue(wizardSkillsService.filterWizardsByAllSkills(List.of("Таро", "Деньги")).isEmpty());
+        assertEquals(List.of(profileId), wizardSkillsService.filterWizardsBySubsection("subsection1_1"));
+        assertTrue(wizardSkillsService.hasSkill(profileId, "Руны"));
+    }
+
+    @Test
+    @DisplayName("Should write only the difference when skills are saved again")
+    void testDiffSave() {
+        WizardSkillsService.SkillDelta first = wizardSkillsService.saveSkillsForWizard(profileId, Map.of(
+                "section2", List.of("Судьба", "Отношения")));
+        assertEquals(2, first.added().size());
+        assertTrue(first.removed().isEmpty());
+        Map<Integer, Long> rowIds = rowIdsBySkill();
+
+        WizardSkillsService.SkillDelta second = wizardSkillsService.saveSkillsForWizard(profileId, Map.of(
+                "section2", List.of("Судьба", "Деньги")));
+
+        int fate = skillCatalog.findId("section2", null, "Судьба");
+        assertEquals(Set.of(skillCatalog.findId("section2", null, "Деньги")), second.added());
+        assertEquals(Set.of(skillCatalog.findId("section2", null, "Отношения")), second.removed());
+        // The unchanged skill keeps its row
+        assertEquals(rowIds.get(fate), rowIdsBySkill().get(fate));
+        assertEquals(Set.of("Судьба", "Деньги"), Set.copyOf(wizardSkillsService.getAllSkillsForWizard(profileId)));
+
+        assertTrue(wizardSkillsService.saveSkillsForWizard(profileId, Map.of(
+                "section2", List.of("Деньги", "Судьба"))).isEmpty());
+
+        WizardSkillsService.SkillDelta cleared = wizardSkillsService.saveSkillsForWizard(profileId, Map.of());
+        assertEquals(2, cleared.removed().size());
+        assertEquals(0, wizardSkillsService.getSkillCount(profileId));
+    }
+
+    @Test
+    @DisplayName("Should refuse a save with more skills than the form offers")
+    void testTooManySkills() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            names.add("Судьба");
+            names.add("Тема " + i);
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> wizardSkillsService.saveSkillsForWizard(profileId, Map.of("section5", names)));
+        assertEquals(0, wizardSkillsService.getSkillCount(profileId));
+    }
+
+    private Map<Integer, Long> rowIdsBySkill() {
+        Map<Integer, Long> rowIds = new HashMap<>();
+        wizardSkillRepository.findByWizardProfileId(profileId)
+                .forEach(skill -> rowIds.put(skill.getSkillId(), skill.getId()));
+        return rowIds;
+    }
+}
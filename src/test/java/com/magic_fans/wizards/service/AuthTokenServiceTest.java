@@ -0,0 +1,114 @@
+package com.magic_fans.wizards.service;
+
+import com.magic_fans.wizards.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("AuthTokenService Unit Tests")
+class AuthTokenServiceTest {
+
+    private static final String SECRET = "test-secret-that-is-at-least-32-bytes-long";
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private AuthTokenService authTokenService;
+    private RefreshTokenStore refreshTokenStore;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenStore = mock(RefreshTokenStore.class);
+        authTokenService = newService(SECRET);
+        user = new User("merlin", "merlin@test.com", "pwd", "Merlin", "The Great", "White Magic");
+        user.setId(7);
+        user.setRole("wizard");
+    }
+
+    @Test
+    @DisplayName("Should round-trip user id, username and role")
+    void testIssueAndVerify() {
+        String token = authTokenService.issueAccessToken(user);
+
+        AuthTokenService.TokenClaims claims = authTokenService.verify(token, AuthTokenService.ACCESS);
+
+        assertNotNull(claims);
+        assertEquals(7, claims.getUserId());
+        assertEquals("merlin", claims.getUsername());
+        assertEquals("wizard", claims.getRole());
+    }
+
+    @Test
+    @DisplayName("Should reject expired access tokens")
+    void testExpiry() {
+        String token = authTokenService.issueAccessToken(user);
+
+        now.addAndGet(15 * 60 * 1000);
+
+        assertNull(authTokenService.verify(token, AuthTokenService.ACCESS));
+    }
+
+    @Test
+    @DisplayName("Should reject tampered tokens and tokens signed with another secret")
+    void testSignature() {
+        String token = authTokenService.issueAccessToken(user);
+        String[] parts = token.split("\\.");
+        String forgedPayload = java.util.Base64.getUrlEncoder().withoutPadding().encodeToString(
+            "{\"sub\":\"1\",\"name\":\"admin\",\"role\":\"wizard\",\"typ\":\"access\",\"exp\":9999999999}".getBytes());
+
+        assertNull(authTokenService.verify(parts[0] + "." + forgedPayload + "." + parts[2], AuthTokenService.ACCESS));
+        assertNull(newService("another-secret-that-is-at-least-32-bytes").verify(token, AuthTokenService.ACCESS));
+        assertNull(authTokenService.verify("not-a-token", AuthTokenService.ACCESS));
+    }
+
+    @Test
+    @DisplayName("Should not accept a refresh token as an access token")
+    void testTokenType() {
+        String refresh = authTokenService.issueRefreshToken(user);
+
+        assertNull(authTokenService.verify(refresh, AuthTokenService.ACCESS));
+        assertNotNull(authTokenService.verify(refresh, AuthTokenService.REFRESH));
+    }
+
+    @Test
+    @DisplayName("Should rotate a refresh token within its family and refuse a used one")
+    void testRotation() {
+        AuthTokenService.TokenClaims first = authTokenService.verify(
+            authTokenService.issueRefreshToken(user), AuthTokenService.REFRESH);
+        assertNotNull(first.getTokenId());
+        verify(refreshTokenStore).add(eq(first.getTokenId()), eq(first.getFamilyId()), eq(7), anyLong());
+
+        when(refreshTokenStore.consume(first.getTokenId(), first.getFamilyId(), 7)).thenReturn(true, false);
+        AuthTokenService.TokenClaims second = authTokenService.verify(
+            authTokenService.rotateRefreshToken(first, user), AuthTokenService.REFRESH);
+        assertEquals(first.getFamilyId(), second.getFamilyId());
+        assertNotEquals(first.getTokenId(), second.getTokenId());
+
+        assertNull(authTokenService.rotateRefreshToken(first, user));
+        verify(refreshTokenStore, times(2)).add(anyString(), eq(first.getFamilyId()), anyInt(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should refuse secrets shorter than 32 bytes")
+    void testShortSecret() {
+        assertThrows(IllegalStateException.class, () -> newService("too-short"));
+    }
+
+    private AuthTokenService newService(String secret) {
+        AuthTokenService service = new AuthTokenService();
+        service.clock = now::get;
+        ReflectionTestUtils.setField(service, "refreshTokenStore", refreshTokenStore);
+        ReflectionTestUtils.setField(service, "secret", secret);
+        service.init();
+        return service;
+    }
+}
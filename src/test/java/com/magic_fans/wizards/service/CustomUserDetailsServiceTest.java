@@ -79,4 +79,15 @@ class CustomUserDetailsServiceTest {
                 .anyMatch(auth -> auth.getAuthority().equals("ROLE_USER")));
         verify(userRepository, times(1)).findByUsername("testuser");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testUpdatePassword_StoresRehashedPassword() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(userRepository.save(testUser)).thenReturn(testUser);
+
+        UserDetails updated = userDetailsService.updatePassword(testUser, "$2a$12$rehashed");
+
+        assertEquals("$2a$12$rehashed", updated.getPassword());
+        verify(userRepository).save(testUser);
+    }
+}
@@ -0,0 +1,122 @@
+package com.magic_fans.wizards.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FeedPageCache Unit Tests")
+class FeedPageCacheTest {
+
+    private static final String KEY = "/api/profiles?limit=20&offset=0#en";
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final AtomicInteger renders = new AtomicInteger();
+    private ProfileDataVersion profileDataVersion;
+    private FeedPageCache feedPageCache;
+
+    @BeforeEach
+    void setUp() {
+        profileDataVersion = new ProfileDataVersion();
+        feedPageCache = new FeedPageCache();
+        feedPageCache.clock = now::get;
+        ReflectionTestUtils.setField(feedPageCache, "profileDataVersion", profileDataVersion);
+    }
+
+    @Test
+    @DisplayName("Should render a page once and serve the same bytes afterwards")
+    void testCacheHit() throws Exception {
+        FeedPageCache.Page first = feedPageCache.getOrLoad(KEY, this::render);
+        FeedPageCache.Page second = feedPageCache.getOrLoad(KEY, this::render);
+
+        assertEquals(1, renders.get());
+        assertArrayEquals(first.getBody(), second.getBody());
+        assertEquals("application/json", second.getContentType());
+    }
+
+    @Test
+    @DisplayName("Should drop cached pages when profile data changes")
+    void testVersionInvalidation() throws Exception {
+        feedPageCache.getOrLoad(KEY, this::render);
+
+        profileDataVersion.changed();
+
+        assertNull(feedPageCache.get(KEY));
+        feedPageCache.getOrLoad(KEY, this::render);
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    @DisplayName("Should expire pages after the max age")
+    void testMaxAge() throws Exception {
+        feedPageCache.getOrLoad(KEY, this::render);
+
+        now.addAndGet(29_000);
+        assertNotNull(feedPageCache.get(KEY));
+
+        now.addAndGet(1_000);
+        assertNull(feedPageCache.get(KEY));
+    }
+
+    @Test
+    @DisplayName("Should not cache pages the loader declines")
+    void testUncacheable() throws Exception {
+        assertNull(feedPageCache.getOrLoad(KEY, () -> null));
+        assertEquals(0, feedPageCache.size());
+    }
+
+    @Test
+    @DisplayName("Should collapse concurrent misses for the same key into one render")
+    void testSingleFlight() throws Exception {
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<FeedPageCache.Page> leader = pool.submit(() -> feedPageCache.getOrLoad(KEY, () -> {
+                rendering.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return render();
+            }));
+            assertTrue(rendering.await(5, TimeUnit.SECONDS));
+
+            Future<FeedPageCache.Page> follower = pool.submit(() -> feedPageCache.getOrLoad(KEY, this::render));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertNotNull(leader.get(5, TimeUnit.SECONDS));
+            assertNotNull(follower.get(5, TimeUnit.SECONDS));
+            assertEquals(1, renders.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should stay within the entry limit")
+    void testMaxEntries() throws Exception {
+        ReflectionTestUtils.setField(feedPageCache, "maxEntries", 3);
+
+        for (int i = 0; i < 10; i++) {
+            feedPageCache.getOrLoad("/api/profiles?offset=" + i, this::render);
+        }
+
+        assertTrue(feedPageCache.size() <= 3);
+    }
+
+    private FeedPageCache.Page render() {
+        renders.incrementAndGet();
+        return feedPageCache.page("[]".getBytes(StandardCharsets.UTF_8), "application/json", Map.of());
+    }
+}
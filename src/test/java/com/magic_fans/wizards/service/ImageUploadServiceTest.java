@@ -0,0 +1,220 @@
+package com.magic_fans.wizards.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageUploadServiceTest {
+
+    private static final Set<String> FORMATS = Set.of("jpeg", "png", "webp");
+
+    private final ImageUploadService imageUploadService = new ImageUploadService();
+
+    @TempDir
+    Path uploadDir;
+
+    private byte[] encode(BufferedImage image, String format) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(image, format, baos);
+        return baos.toByteArray();
+    }
+
+    private MockMultipartFile upload(byte[] content) {
+        return new MockMultipartFile("image", "upload", "application/octet-stream", content);
+    }
+
+    private long countFiles() throws Exception {
+        try (Stream<Path> files = Files.list(uploadDir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testCreatePlaceholder_KeepsAspectRatioAndColor() throws Exception {
+        BufferedImage image = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 200; y++) {
+            for (int x = 0; x < 400; x++) {
+                image.setRGB(x, y, 0x3366CC);
+            }
+        }
+
+        ImageUploadService.Placeholder placeholder = imageUploadService.createPlaceholder(image);
+
+        assertEquals("#3366CC", placeholder.getDominantColor());
+        assertTrue(placeholder.getDataUri().startsWith("data:image/png;base64,"));
+        assertTrue(placeholder.getDataUri().length() < 1024);
+
+        byte[] png = Base64.getDecoder().decode(placeholder.getDataUri().substring("data:image/png;base64,".length()));
+        BufferedImage tiny = ImageIO.read(new ByteArrayInputStream(png));
+        assertEquals(12, tiny.getWidth());
+        assertEquals(6, tiny.getHeight());
+    }
+
+    @Test
+    void testCreatePlaceholder_TallImage() throws Exception {
+        BufferedImage image = new BufferedImage(100, 400, BufferedImage.TYPE_INT_ARGB);
+
+        ImageUploadService.Placeholder placeholder = imageUploadService.createPlaceholder(image);
+
+        byte[] png = Base64.getDecoder().decode(placeholder.getDataUri().substring("data:image/png;base64,".length()));
+        BufferedImage tiny = ImageIO.read(new ByteArrayInputStream(png));
+        assertEquals(3, tiny.getWidth());
+        assertEquals(12, tiny.getHeight());
+        // Transparent pixels are flattened onto white
+        assertEquals("#FFFFFF", placeholder.getDominantColor());
+    }
+
+    @Test
+    void testRenditionWidthWhitelist() {
+        assertTrue(imageUploadService.isAllowedRenditionWidth(150));
+        assertTrue(imageUploadService.isAllowedRenditionWidth(800));
+        assertFalse(imageUploadService.isAllowedRenditionWidth(151));
+    }
+
+    @Test
+    void testCreateRendition_NarrowSourceIsNotDecoded() throws Exception {
+        byte[] png = encode(new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB), "png");
+        // Only the header survives: decoding the raster would fail
+        Path truncated = Files.write(uploadDir.resolve("narrow.png"), Arrays.copyOf(png, 40));
+        Path text = Files.write(uploadDir.resolve("notes.png"), "not an image".getBytes());
+
+        assertNull(imageUploadService.createRendition(truncated, 150));
+        assertNull(imageUploadService.createRendition(text, 150));
+
+        Path wide = Files.write(uploadDir.resolve("wide.jpg"),
+            encode(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), "jpg"));
+        BufferedImage rendition = ImageIO.read(new ByteArrayInputStream(imageUploadService.createRendition(wide, 150)));
+        assertEquals(150, rendition.getWidth());
+        assertEquals(75, rendition.getHeight());
+    }
+
+    @Test
+    void testStoreImage_DetectsFormatAndDimensionsFromHeader() throws Exception {
+        byte[] png = encode(new BufferedImage(320, 240, BufferedImage.TYPE_INT_RGB), "png");
+
+        ImageUploadService.StoredImage stored = imageUploadService.storeImage(
+            upload(png), uploadDir, "7_avatar", 1024 * 1024, FORMATS);
+
+        assertEquals("png", stored.getFormat());
+        assertEquals("7_avatar.png", stored.getFileName());
+        assertEquals(320, stored.getWidth());
+        assertEquals(240, stored.getHeight());
+        assertEquals(png.length, stored.getSize());
+        assertArrayEquals(png, Files.readAllBytes(stored.getPath()));
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    void testStoreImage_JpegDimensionsWithoutDecoding() throws Exception {
+        byte[] jpeg = encode(new BufferedImage(640, 100, BufferedImage.TYPE_INT_RGB), "jpg");
+
+        ImageUploadService.StoredImage stored = imageUploadService.storeImage(
+            upload(jpeg), uploadDir, "photo", 1024 * 1024, FORMATS);
+
+        assertEquals("jpeg", stored.getFormat());
+        assertEquals("photo.jpg", stored.getFileName());
+        assertEquals(640, stored.getWidth());
+        assertEquals(100, stored.getHeight());
+    }
+
+    @Test
+    void testStoreImage_RejectsNonImageAndLeavesNoFiles() throws Exception {
+        byte[] text = "<html><body>definitely not an image</body></html>".getBytes();
+
+        assertThrows(IllegalArgumentException.class, () -> imageUploadService.storeImage(
+            upload(text), uploadDir, "evil", 1024 * 1024, FORMATS));
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    void testStoreImage_EnforcesSizeLimit() throws Exception {
+        byte[] png = encode(new BufferedImage(320, 240, BufferedImage.TYPE_INT_RGB), "png");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> imageUploadService.storeImage(
+            upload(png), uploadDir, "big", png.length - 1, FORMATS));
+        assertTrue(e.getMessage().contains("File size exceeds"));
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    void testStoreImage_RejectsOversizedDimensions() throws Exception {
+        byte[] png = encode(new BufferedImage(5000, 1, BufferedImage.TYPE_INT_RGB), "png");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> imageUploadService.storeImage(
+            upload(png), uploadDir, "wide", 10 * 1024 * 1024, FORMATS));
+        assertTrue(e.getMessage().contains("dimensions"));
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    void testStoreImage_RejectsFormatNotAllowed() throws Exception {
+        byte[] gif = encode(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB), "gif");
+
+        assertThrows(IllegalArgumentException.class, () -> imageUploadService.storeImage(
+            upload(gif), uploadDir, "anim", 1024 * 1024, FORMATS));
+        assertEquals(0, countFiles());
+
+        ImageUploadService.StoredImage stored = imageUploadService.storeImage(
+            upload(gif), uploadDir, "anim", 1024 * 1024, Set.of("png", "gif"));
+        assertEquals("anim.gif", stored.getFileName());
+        assertEquals(10, stored.getWidth());
+        assertEquals(10, stored.getHeight());
+    }
+
+    @Test
+    void testStoreImage_MovesUploadedPartIntoPlace() throws Exception {
+        byte[] jpeg = encode(new BufferedImage(640, 100, BufferedImage.TYPE_INT_RGB), "jpg");
+        MockMultipartFile file = new MockMultipartFile("image", "photo.png", "image/png", jpeg);
+
+        ImageUploadService.StoredImage stored = imageUploadService.storeImage(
+            file, uploadDir, "7_photo", 1024 * 1024, FORMATS);
+
+        // The extension follows the real format, not the client's file name
+        assertEquals("7_photo.jpg", stored.getFileName());
+        assertEquals(640, stored.getWidth());
+        assertEquals(100, stored.getHeight());
+        assertEquals(jpeg.length, stored.getSize());
+        assertArrayEquals(jpeg, Files.readAllBytes(stored.getPath()));
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    void testParseHeader_WebpVariants() {
+        byte[] vp8x = new byte[32];
+        System.arraycopy("RIFF\0\0\0\0WEBPVP8X".getBytes(), 0, vp8x, 0, 16);
+        // canvas 800x600 stored as (width - 1), (height - 1) in 24-bit little-endian
+        vp8x[24] = (byte) (799 & 0xFF);
+        vp8x[25] = (byte) (799 >> 8);
+        vp8x[27] = (byte) (599 & 0xFF);
+        vp8x[28] = (byte) (599 >> 8);
+
+        ImageUploadService.ImageInfo info = ImageUploadService.parseHeader(vp8x, vp8x.length);
+
+        assertEquals("webp", info.format);
+        assertEquals(800, info.width);
+        assertEquals(600, info.height);
+    }
+
+    @Test
+    void testValidateImage_HeaderOnly() throws Exception {
+        byte[] png = encode(new BufferedImage(50, 40, BufferedImage.TYPE_INT_RGB), "png");
+
+        imageUploadService.validateImage(new MockMultipartFile("image", "a.png", "image/png", png));
+
+        MockMultipartFile fake = new MockMultipartFile("image", "a.png", "image/png", "not an image".getBytes());
+        assertThrows(IllegalArgumentException.class, () -> imageUploadService.validateImage(fake));
+    }
+}
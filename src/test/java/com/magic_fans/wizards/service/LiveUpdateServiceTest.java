@@ -0,0 +1,174 @@
+package com.magic_fans.wizards.service;
+
+import com.magic_fans.wizards.model.Post;
+import com.magic_fans.wizards.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("LiveUpdateService Unit Tests")
+class LiveUpdateServiceTest {
+
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private SubscriptionService subscriptionService;
+    private LiveUpdateService liveUpdateService;
+
+    /**
+     * Captures the raw SSE text instead of writing to a response.
+     */
+    static class RecordingEmitter extends SseEmitter {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            Set<ResponseBodyEmitter.DataWithMediaType> parts = builder.build();
+            events.add(parts.stream().map(p -> p.getData().toString()).collect(Collectors.joining()));
+        }
+
+        List<String> named(String name) {
+            return events.stream().filter(e -> e.startsWith("event:" + name + "\n")).collect(Collectors.toList());
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        subscriptionService = mock(SubscriptionService.class);
+        liveUpdateService = new LiveUpdateService() {
+            @Override
+            SseEmitter createEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(liveUpdateService, "subscriptionService", subscriptionService);
+        // Sends run inline unless a test swaps in its own executor
+        ReflectionTestUtils.setField(liveUpdateService, "sendExecutor", (Executor) Runnable::run);
+    }
+
+    private Post post(long id, int authorId, String username) {
+        User author = new User(username, username + "@test.com", "pwd", "First", "Last", "Fire Magic");
+        author.setId(authorId);
+        Post post = new Post();
+        post.setId(id);
+        post.setAuthor(author);
+        return post;
+    }
+
+    @Test
+    @DisplayName("Should coalesce like counts per post and send only watched posts")
+    void testCoalescedLikes() {
+        when(subscriptionService.getSubscribedWizardIds(1)).thenReturn(List.of());
+        liveUpdateService.connect(1, List.of(10L, 11L));
+        RecordingEmitter emitter = emitters.get(0);
+
+        liveUpdateService.publishLikeCount(10L, 5);
+        liveUpdateService.publishLikeCount(10L, 6);
+        liveUpdateService.publishLikeCount(10L, 7);
+        liveUpdateService.publishLikeCount(99L, 1);
+        liveUpdateService.flush();
+
+        List<String> likes = emitter.named("likes");
+        assertEquals(1, likes.size());
+        assertTrue(likes.get(0).contains("data:{\"10\":7}"));
+
+        liveUpdateService.flush();
+        assertEquals(1, emitter.named("likes").size());
+    }
+
+    @Test
+    @DisplayName("Should notify only followers of the post author")
+    void testNewPostForFollowers() {
+        when(subscriptionService.getSubscribedWizardIds(1)).thenReturn(List.of(3));
+        when(subscriptionService.getSubscribedWizardIds(2)).thenReturn(List.of(4));
+        liveUpdateService.connect(1, List.of());
+        liveUpdateService.connect(2, List.of());
+
+        liveUpdateService.publishNewPost(post(20L, 3, "merlin"));
+        liveUpdateService.flush();
+
+        assertEquals(1, emitters.get(0).named("post").size());
+        assertTrue(emitters.get(0).named("post").get(0).contains("\"author\":\"merlin\""));
+        assertTrue(emitters.get(1).named("post").isEmpty());
+        // followed wizards are loaded once per connection, not per event
+        verify(subscriptionService, times(1)).getSubscribedWizardIds(1);
+    }
+
+    @Test
+    @DisplayName("Should deliver posts of wizards followed after connecting and stop after unfollowing")
+    void testFollowChanged() {
+        when(subscriptionService.getSubscribedWizardIds(1)).thenReturn(List.of());
+        liveUpdateService.connect(1, List.of());
+
+        liveUpdateService.followChanged(1, 3, true);
+        liveUpdateService.publishNewPost(post(20L, 3, "merlin"));
+        liveUpdateService.flush();
+        assertEquals(1, emitters.get(0).named("post").size());
+
+        liveUpdateService.followChanged(1, 3, false);
+        liveUpdateService.publishNewPost(post(21L, 3, "merlin"));
+        liveUpdateService.flush();
+        assertEquals(1, emitters.get(0).named("post").size());
+    }
+
+    @Test
+    @DisplayName("Should hand sends to the executor and drop a stream that falls too far behind")
+    void testSlowStreamDropped() {
+        List<Runnable> tasks = new ArrayList<>();
+        ReflectionTestUtils.setField(liveUpdateService, "sendExecutor", (Executor) tasks::add);
+        when(subscriptionService.getSubscribedWizardIds(1)).thenReturn(List.of());
+        liveUpdateService.connect(1, List.of(10L));
+
+        liveUpdateService.publishLikeCount(10L, 1);
+        liveUpdateService.flush();
+        // Queued for the send pool, nothing written by the flush itself
+        assertTrue(emitters.get(0).named("likes").isEmpty());
+        assertEquals(1, tasks.size());
+
+        // The drain task never runs, as if its send were stuck
+        for (int i = 0; i < LiveUpdateService.MAX_PENDING_EVENTS; i++) {
+            liveUpdateService.publishLikeCount(10L, i + 2);
+            liveUpdateService.flush();
+        }
+        assertEquals(0, liveUpdateService.getConnectionCount());
+    }
+
+    @Test
+    @DisplayName("Should drop a stream whose send is stuck past the send timeout")
+    void testStuckSendDropped() {
+        when(subscriptionService.getSubscribedWizardIds(1)).thenReturn(List.of());
+        liveUpdateService.connect(1, List.of());
+
+        @SuppressWarnings("unchecked")
+        Map<String, LiveUpdateService.LiveConnection> connections = (Map<String, LiveUpdateService.LiveConnection>)
+                ReflectionTestUtils.getField(liveUpdateService, "connections");
+        connections.values().iterator().next().sendStartedAt = System.currentTimeMillis() - 60_000;
+
+        liveUpdateService.flush();
+        assertEquals(0, liveUpdateService.getConnectionCount());
+    }
+
+    @Test
+    @DisplayName("Should not buffer events when nobody is connected")
+    void testNoConnections() {
+        liveUpdateService.publishLikeCount(10L, 3);
+
+        @SuppressWarnings("unchecked")
+        Map<Long, Integer> pending = (Map<Long, Integer>) ReflectionTestUtils.getField(liveUpdateService, "pendingLikes");
+        assertTrue(pending.isEmpty());
+        assertEquals(0, liveUpdateService.getConnectionCount());
+    }
+}
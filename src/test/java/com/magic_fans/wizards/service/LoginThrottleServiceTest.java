@@ -0,0 +1,65 @@
+package com.magic_fans.wizards.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LoginThrottleService Unit Tests")
+class LoginThrottleServiceTest {
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private LoginThrottleService loginThrottleService;
+
+    @BeforeEach
+    void setUp() {
+        loginThrottleService = new LoginThrottleService();
+        loginThrottleService.clock = now::get;
+        ReflectionTestUtils.setField(loginThrottleService, "maxFailuresPerAccount", 3);
+        ReflectionTestUtils.setField(loginThrottleService, "maxFailuresPerIp", 5);
+    }
+
+    @Test
+    @DisplayName("Should block an account after too many failures, from any address")
+    void testAccountLimit() {
+        for (int i = 0; i < 3; i++) {
+            assertFalse(loginThrottleService.isBlocked("merlin", "10.0.0." + i));
+            loginThrottleService.recordFailure("merlin", "10.0.0." + i);
+        }
+
+        assertTrue(loginThrottleService.isBlocked("Merlin ", "10.0.0.99"));
+        assertFalse(loginThrottleService.isBlocked("morgana", "10.0.0.99"));
+    }
+
+    @Test
+    @DisplayName("Should block an address trying many accounts")
+    void testAddressLimit() {
+        for (int i = 0; i < 5; i++) {
+            loginThrottleService.recordFailure("user" + i, "10.0.0.1");
+        }
+
+        assertTrue(loginThrottleService.isBlocked("someone", "10.0.0.1"));
+        assertFalse(loginThrottleService.isBlocked("someone", "10.0.0.2"));
+    }
+
+    @Test
+    @DisplayName("Should clear the account counter on success and forget failures after the window")
+    void testResetAndWindow() {
+        loginThrottleService.recordFailure("merlin", "10.0.0.1");
+        loginThrottleService.recordFailure("merlin", "10.0.0.1");
+        loginThrottleService.recordSuccess("merlin");
+        loginThrottleService.recordFailure("merlin", "10.0.0.1");
+        assertFalse(loginThrottleService.isBlocked("merlin", null));
+
+        loginThrottleService.recordFailure("merlin", null);
+        loginThrottleService.recordFailure("merlin", null);
+        assertTrue(loginThrottleService.isBlocked("merlin", null));
+
+        now.addAndGet(15 * 60 * 1000);
+        assertFalse(loginThrottleService.isBlocked("merlin", null));
+    }
+}
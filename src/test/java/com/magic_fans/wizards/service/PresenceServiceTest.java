@@ -0,0 +1,103 @@
+package com.magic_fans.wizards.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PresenceService Unit Tests")
+class PresenceServiceTest {
+
+    private static final long SECOND = 1000;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private PresenceService presenceService;
+
+    @BeforeEach
+    void setUp() {
+        presenceService = new PresenceService();
+        presenceService.clock = now::get;
+    }
+
+    @Test
+    @DisplayName("Should report recently active users as online")
+    void testRecordActivity() {
+        presenceService.recordActivity(1);
+        presenceService.recordActivity(2);
+
+        assertTrue(presenceService.isOnline(1));
+        assertFalse(presenceService.isOnline(3));
+        assertEquals(Set.of(1, 2), presenceService.getOnlineUserIds(List.of(1, 2, 3)));
+    }
+
+    @Test
+    @DisplayName("Should expire idle users via the timing wheel")
+    void testExpireIdleUsers() {
+        presenceService.recordActivity(1);
+        presenceService.recordActivity(2);
+        presenceService.tick();
+
+        now.addAndGet(200 * SECOND);
+        presenceService.recordActivity(2);
+        presenceService.tick();
+
+        now.addAndGet(150 * SECOND);
+        presenceService.tick();
+
+        assertFalse(presenceService.isOnline(1));
+        assertTrue(presenceService.isOnline(2));
+        assertEquals(1, presenceService.getTrackedCount());
+
+        now.addAndGet(300 * SECOND);
+        presenceService.tick();
+
+        assertEquals(0, presenceService.getTrackedCount());
+    }
+
+    @Test
+    @DisplayName("Should keep active users after a tick that lagged behind")
+    void testLaggingTick() {
+        presenceService.tick();
+        now.addAndGet(40 * 60 * SECOND);
+        presenceService.recordActivity(7);
+
+        presenceService.tick();
+
+        assertTrue(presenceService.isOnline(7));
+        now.addAndGet(400 * SECOND);
+        presenceService.tick();
+        assertEquals(0, presenceService.getTrackedCount());
+    }
+
+    @Test
+    @DisplayName("Should drop a user immediately on logout")
+    void testMarkOffline() {
+        presenceService.recordActivity(5);
+
+        presenceService.markOffline(5);
+
+        assertFalse(presenceService.isOnline(5));
+    }
+
+    @Test
+    @DisplayName("Should change the version only when the online set changes")
+    void testVersion() {
+        long initial = presenceService.getVersion();
+
+        presenceService.recordActivity(1);
+        long afterLogin = presenceService.getVersion();
+        assertNotEquals(initial, afterLogin);
+
+        now.addAndGet(40 * SECOND);
+        presenceService.recordActivity(1);
+        assertEquals(afterLogin, presenceService.getVersion());
+
+        presenceService.markOffline(1);
+        assertNotEquals(afterLogin, presenceService.getVersion());
+    }
+}
@@ -0,0 +1,114 @@
+package com.magic_fans.wizards.service;
+
+import com.magic_fans.wizards.repository.PostRepository;
+import com.magic_fans.wizards.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@DisplayName("UploadSweeperService Unit Tests")
+class UploadSweeperServiceTest {
+
+    @TempDir
+    Path uploadRoot;
+
+    private UserRepository userRepository;
+    private PostRepository postRepository;
+    private UploadSweeperService sweeper;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        UploadStorageService storage = new UploadStorageService();
+        ReflectionTestUtils.setField(storage, "uploadRoot", uploadRoot.toString());
+
+        userRepository = mock(UserRepository.class);
+        postRepository = mock(PostRepository.class);
+
+        sweeper = new UploadSweeperService();
+        ReflectionTestUtils.setField(sweeper, "uploadStorageService", storage);
+        ReflectionTestUtils.setField(sweeper, "userRepository", userRepository);
+        ReflectionTestUtils.setField(sweeper, "postRepository", postRepository);
+        ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+
+        Files.createDirectories(uploadRoot.resolve("avatars"));
+        Files.createDirectories(uploadRoot.resolve("posts"));
+    }
+
+    private Path file(String relativePath, int size, Duration age) throws Exception {
+        Path file = uploadRoot.resolve(relativePath);
+        Files.write(file, new byte[size]);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(age)));
+        return file;
+    }
+
+    @Test
+    @DisplayName("Should delete unreferenced files past the grace period and report reclaimed bytes")
+    @SuppressWarnings("unchecked")
+    void testSweepDeletesOrphans() throws Exception {
+        Path kept = file("avatars/1_a.png", 10, Duration.ofDays(2));
+        Path orphanAvatar = file("avatars/2_b.png", 20, Duration.ofDays(2));
+        Path fresh = file("avatars/3_c.png", 30, Duration.ofMinutes(5));
+        Path keptPost = file("posts/1_x.jpg", 40, Duration.ofDays(3));
+        Path orphanPost = file("posts/1_y.jpg", 50, Duration.ofDays(3));
+        Path orphanPost2 = file("posts/1_z.jpg", 60, Duration.ofDays(3));
+
+        when(userRepository.findReferencedAvatarUrls(anyCollection()))
+            .thenAnswer(inv -> ((Collection<String>) inv.getArgument(0)).stream()
+                .filter("/uploads/avatars/1_a.png"::equals).toList());
+        when(postRepository.findReferencedImageUrls(anyCollection()))
+            .thenAnswer(inv -> ((Collection<String>) inv.getArgument(0)).stream()
+                .filter("/uploads/posts/1_x.jpg"::equals).toList());
+
+        UploadSweeperService.SweepResult result = sweeper.sweep();
+
+        assertTrue(Files.exists(kept));
+        assertTrue(Files.exists(fresh));
+        assertTrue(Files.exists(keptPost));
+        assertFalse(Files.exists(orphanAvatar));
+        assertFalse(Files.exists(orphanPost));
+        assertFalse(Files.exists(orphanPost2));
+        assertEquals(6, result.getScanned());
+        assertEquals(3, result.getDeleted());
+        assertEquals(20 + 50 + 60, result.getReclaimedBytes());
+        // three old post files with batch size 2 -> two lookups
+        verify(postRepository, times(2)).findReferencedImageUrls(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should not query the database when nothing is past the grace period")
+    void testSweepSkipsFreshFiles() throws Exception {
+        file("avatars/4_d.png", 10, Duration.ofMinutes(1));
+
+        UploadSweeperService.SweepResult result = sweeper.sweep();
+
+        assertEquals(1, result.getScanned());
+        assertEquals(0, result.getDeleted());
+        verify(userRepository, never()).findReferencedAvatarUrls(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should leave other folders such as videos untouched")
+    void testSweepIgnoresUnmanagedFolders() throws Exception {
+        Files.createDirectories(uploadRoot.resolve("videos"));
+        Path video = file("videos/profile-3.mp4", 10, Duration.ofDays(30));
+        when(userRepository.findReferencedAvatarUrls(anyCollection())).thenReturn(List.of());
+
+        sweeper.sweep();
+
+        assertTrue(Files.exists(video));
+    }
+}